@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.basis.solver.bitvector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.Variable;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.microtesk.basis.solver.Solver;
+import ru.ispras.microtesk.basis.solver.SolverResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BitVectorFormulaSolverSat4jBenchmark} measures solving of bit-vector constraints
+ * with {@link BitVectorFormulaSolverSat4j}: a range constraint on a 64-bit variable (as used
+ * for address ranges) and a conjunction of such constraints on several variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitVectorFormulaSolverSat4jBenchmark {
+  private static final int BIT_SIZE = 64;
+  private static final int VARIABLES = 4;
+
+  private Node range;
+  private List<Node> ranges;
+
+  @Setup
+  public void setup() {
+    final Variable x = new Variable("x", DataType.bitVector(BIT_SIZE));
+    range = BitVectorConstraint.range(
+        x, BitVector.valueOf(0x10000L, BIT_SIZE), BitVector.valueOf(0x1ffffL, BIT_SIZE));
+
+    ranges = new ArrayList<>();
+    for (int i = 0; i < VARIABLES; ++i) {
+      final Variable y = new Variable("y" + i, DataType.bitVector(BIT_SIZE));
+      ranges.add(BitVectorConstraint.range(y,
+          BitVector.valueOf(0x1000L * i, BIT_SIZE), BitVector.valueOf(0xffff0000L + i, BIT_SIZE)));
+    }
+  }
+
+  @Benchmark
+  public SolverResult<Map<Variable, BitVector>> solveRange() {
+    final BitVectorFormulaSolverSat4j solver =
+        new BitVectorFormulaSolverSat4j(range, BitVectorVariableInitializer.ZEROS);
+    return solver.solve(Solver.Mode.MAP);
+  }
+
+  @Benchmark
+  public SolverResult<Map<Variable, BitVector>> checkRange() {
+    final BitVectorFormulaSolverSat4j solver =
+        new BitVectorFormulaSolverSat4j(range, BitVectorVariableInitializer.ZEROS);
+    return solver.solve(Solver.Mode.SAT);
+  }
+
+  @Benchmark
+  public SolverResult<Map<Variable, BitVector>> solveRanges() {
+    final BitVectorFormulaSolverSat4j solver =
+        new BitVectorFormulaSolverSat4j(ranges, BitVectorVariableInitializer.ZEROS);
+    return solver.solve(Solver.Mode.MAP);
+  }
+}
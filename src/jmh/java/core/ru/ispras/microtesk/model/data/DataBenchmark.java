@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DataBenchmark} measures {@link Data} operations used by simulator code: arithmetic,
+ * shifts, comparisons and bit field extraction on 32-bit values. Addition is also measured
+ * for {@link LongArithmetic}, which is used by generated code for values of up to 64 bits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataBenchmark {
+  private static final int COUNT = 1024;
+
+  private static final Type WORD = Type.CARD(32);
+  private static final Type SHIFT = Type.CARD(5);
+
+  private Data[] words;
+  private Data[] shifts;
+  private long[] longWords;
+  private int index;
+
+  @Setup
+  public void setup() {
+    words = new Data[COUNT];
+    shifts = new Data[COUNT];
+    longWords = new long[COUNT];
+
+    // The fixed seed makes results comparable between runs.
+    final Random random = new Random(0);
+    for (int i = 0; i < COUNT; ++i) {
+      words[i] = Data.valueOf(WORD, random.nextInt());
+      shifts[i] = Data.valueOf(SHIFT, random.nextInt(32));
+      longWords[i] = LongArithmetic.valueOf(words[i]);
+    }
+
+    index = 0;
+  }
+
+  @Benchmark
+  public Data add() {
+    final int i = index++ & (COUNT - 1);
+    return words[i].add(words[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public long addLong() {
+    final int i = index++ & (COUNT - 1);
+    return LongArithmetic.normalize(longWords[i] + longWords[(i + 1) & (COUNT - 1)], 32, false);
+  }
+
+  @Benchmark
+  public Data multiply() {
+    final int i = index++ & (COUNT - 1);
+    return words[i].multiply(words[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data divide() {
+    final int i = index++ & (COUNT - 1);
+    return words[i].divide(words[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data shiftLeft() {
+    final int i = index++ & (COUNT - 1);
+    return words[i].shiftLeft(shifts[i]);
+  }
+
+  @Benchmark
+  public int compare() {
+    final int i = index++ & (COUNT - 1);
+    return words[i].compareTo(words[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data bitField() {
+    return words[index++ & (COUNT - 1)].bitField(0, 15);
+  }
+}
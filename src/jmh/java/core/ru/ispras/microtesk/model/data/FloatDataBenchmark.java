@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FloatDataBenchmark} measures single- and double-precision floating-point
+ * {@link Data} operations with the software implementation and with native arithmetic
+ * (the {@code hardware} parameter).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FloatDataBenchmark {
+  private static final int COUNT = 1024;
+
+  private static final Type FLOAT32 = Type.FLOAT(23, 8);
+  private static final Type FLOAT64 = Type.FLOAT(52, 11);
+
+  @Param({"false", "true"})
+  public boolean hardware;
+
+  private Data[] singles;
+  private Data[] doubles;
+  private int index;
+
+  @Setup
+  public void setup() {
+    singles = new Data[COUNT];
+    doubles = new Data[COUNT];
+
+    // The fixed seed makes results comparable between runs.
+    final Random random = new Random(0);
+    for (int i = 0; i < COUNT; ++i) {
+      final double value = random.nextDouble() * 1000.0;
+      singles[i] = Data.valueOf(FLOAT32, Float.floatToIntBits((float) value));
+      doubles[i] = Data.valueOf(FLOAT64, Double.doubleToLongBits(value));
+    }
+
+    Data.setHardwareFloatEnabled(hardware);
+    index = 0;
+  }
+
+  @TearDown
+  public void tearDown() {
+    Data.setHardwareFloatEnabled(false);
+  }
+
+  @Benchmark
+  public Data add32() {
+    final int i = index++ & (COUNT - 1);
+    return singles[i].add(singles[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data multiply32() {
+    final int i = index++ & (COUNT - 1);
+    return singles[i].multiply(singles[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data divide32() {
+    final int i = index++ & (COUNT - 1);
+    return singles[i].divide(singles[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data add64() {
+    final int i = index++ & (COUNT - 1);
+    return doubles[i].add(doubles[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data multiply64() {
+    final int i = index++ & (COUNT - 1);
+    return doubles[i].multiply(doubles[(i + 1) & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public Data sqrt64() {
+    return doubles[index++ & (COUNT - 1)].sqrt();
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.decoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DecoderBenchmark} measures {@link Decoder#decode(BitVector)} for a group of 32-bit
+ * instructions with a MIPS-like encoding: instructions identified by the major opcode and
+ * instructions identified by the function code. It compares the decision tree used by
+ * {@link DecoderGroup} with trying the decoders one by one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecoderBenchmark {
+  private static final int IMAGE_SIZE = 32;
+  private static final int COUNT = 1024;
+
+  private static final class BenchmarkDecoder extends DecoderItem {
+    private final DecoderResult result;
+
+    private BenchmarkDecoder(final int id, final long opc, final long opcMask) {
+      super(IMAGE_SIZE, true, toBinString(opc), toBinString(opcMask));
+      this.result = new DecoderResult(null, id);
+    }
+
+    @Override
+    public DecoderResult decode(final BitVector image) {
+      return isOpcMatch(image) ? result : null;
+    }
+  }
+
+  private static final class BenchmarkDecoderGroup extends DecoderGroup {
+    private BenchmarkDecoderGroup(final List<Decoder> decoders) {
+      super(IMAGE_SIZE, true, null);
+      for (final Decoder decoder : decoders) {
+        add(decoder);
+      }
+    }
+  }
+
+  private List<Decoder> decoders;
+  private Decoder group;
+  private BitVector[] images;
+  private int index;
+
+  @Setup
+  public void setup() {
+    decoders = new ArrayList<>();
+
+    // Instructions identified by the major opcode (bits 31..26).
+    for (int opcode = 1; opcode < 64; ++opcode) {
+      decoders.add(new BenchmarkDecoder(decoders.size() + 1, opcode << 26, 0xFC000000L));
+    }
+
+    // Instructions with the zero major opcode identified by the function code (bits 5..0).
+    for (int function = 0; function < 64; ++function) {
+      decoders.add(new BenchmarkDecoder(decoders.size() + 1, function, 0xFC00003FL));
+    }
+
+    group = new BenchmarkDecoderGroup(decoders);
+    images = new BitVector[COUNT];
+
+    // The fixed seed makes results comparable between runs.
+    final Random random = new Random(0);
+    for (int i = 0; i < COUNT; ++i) {
+      // Every other instruction has the zero major opcode.
+      final long major = (i & 1) == 0 ? 0 : random.nextInt(64);
+      images[i] = BitVector.valueOf((major << 26) | (random.nextInt() & 0x03FFFFFFL), IMAGE_SIZE);
+    }
+
+    index = 0;
+  }
+
+  @Benchmark
+  public DecoderResult decodeTree() {
+    return group.decode(images[index++ & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public DecoderResult decodeLinear() {
+    final BitVector image = images[index++ & (COUNT - 1)];
+    for (final Decoder decoder : decoders) {
+      final DecoderResult result = decoder.decode(image);
+      if (null != result) {
+        return result;
+      }
+    }
+    return null;
+  }
+
+  private static String toBinString(final long value) {
+    return BitVector.valueOf(value, IMAGE_SIZE).toBinString();
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.memory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.microtesk.model.data.Data;
+import ru.ispras.microtesk.model.data.Type;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LocationBenchmark} measures the cost of register accesses performed by generated
+ * simulator code: {@code rd = rs + rt} and reading an immediate field. It compares
+ * the {@link Data}-based path ({@link Location#load()}, {@link Location#store(Data)}) with
+ * the {@code long}-based path ({@link Location#loadLong()}, {@link Location#storeLong(long)}).
+ * A location concatenated from two halves represents the generic atom list path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocationBenchmark {
+  private static final Type WORD = Type.CARD(32);
+
+  private Memory gpr;
+  private Location concat;
+  private int index;
+
+  @Setup
+  public void setup() {
+    gpr = Memory.def(Memory.Kind.REG, "GPR", WORD, 32);
+    for (int i = 0; i < 32; ++i) {
+      gpr.access(i).storeLong(i * 0x01010101L);
+    }
+
+    final Memory halves = Memory.def(Memory.Kind.REG, "HALVES", Type.CARD(16), 2);
+    concat = Location.concat(halves.access(1), halves.access(0));
+
+    index = 0;
+  }
+
+  @Benchmark
+  public Data addData() {
+    final int rd = index++ & 31;
+    final Location rs = gpr.access((rd + 1) & 31);
+    final Location rt = gpr.access((rd + 2) & 31);
+
+    final Data result = rs.load().add(rt.load());
+    gpr.access(rd).store(result);
+
+    return result;
+  }
+
+  @Benchmark
+  public long addLong() {
+    final int rd = index++ & 31;
+    final Location rs = gpr.access((rd + 1) & 31);
+    final Location rt = gpr.access((rd + 2) & 31);
+
+    final long result = (rs.loadLong() + rt.loadLong()) & 0xFFFFFFFFL;
+    gpr.access(rd).storeLong(result);
+
+    return result;
+  }
+
+  @Benchmark
+  public Data bitFieldData() {
+    return gpr.access(index++ & 31).bitField(0, 15).load();
+  }
+
+  @Benchmark
+  public long bitFieldLong() {
+    return gpr.access(index++ & 31).bitField(0, 15).loadLong();
+  }
+
+  @Benchmark
+  public Data concatData() {
+    final Data data = concat.load();
+    concat.store(data);
+    return data;
+  }
+
+  @Benchmark
+  public long concatLong() {
+    final long value = concat.loadLong();
+    concat.storeLong(value + 1);
+    return value;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.memory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MemoryStorageBenchmark} measures reads and writes of a 32-bit word memory storage
+ * with a 2^32 address space. Sequential accesses stay within one page; random accesses are
+ * spread over a 16 MB range and go through the page table. Reads of addresses that
+ * have never been written return the default region.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MemoryStorageBenchmark {
+  private static final int WORD_SIZE = 32;
+  private static final int ADDRESS_COUNT = 1 << 16;
+  private static final int RANDOM_RANGE = 1 << 22;
+
+  private MemoryStorage storage;
+  private long[] randomAddresses;
+  private BitVector data;
+  private int index;
+
+  @Setup
+  public void setup() {
+    storage = new MemoryStorage(1L << 32, WORD_SIZE);
+    randomAddresses = new long[ADDRESS_COUNT];
+
+    // The fixed seed makes results comparable between runs.
+    final Random random = new Random(0);
+    for (int i = 0; i < ADDRESS_COUNT; ++i) {
+      randomAddresses[i] = random.nextInt(RANDOM_RANGE);
+      storage.write(randomAddresses[i], BitVector.valueOf(i, WORD_SIZE));
+    }
+
+    for (int i = 0; i < 1024; ++i) {
+      storage.write(i, BitVector.valueOf(i, WORD_SIZE));
+    }
+
+    data = BitVector.valueOf(0xDEADBEEFL, WORD_SIZE);
+    index = 0;
+  }
+
+  @Benchmark
+  public BitVector readSequential() {
+    return storage.read(index++ & 1023);
+  }
+
+  @Benchmark
+  public void writeSequential() {
+    storage.write(index++ & 1023, data);
+  }
+
+  @Benchmark
+  public BitVector readRandom() {
+    return storage.read(randomAddresses[index++ & (ADDRESS_COUNT - 1)]);
+  }
+
+  @Benchmark
+  public void writeRandom() {
+    storage.write(randomAddresses[index++ & (ADDRESS_COUNT - 1)], data);
+  }
+
+  @Benchmark
+  public BitVector readUninitialized() {
+    return storage.read(RANDOM_RANGE + (index++ & (ADDRESS_COUNT - 1)));
+  }
+
+  @Benchmark
+  public BitVector readBitVectorAddress() {
+    return storage.read(BitVector.valueOf(index++ & 1023, storage.getAddressBitSize()));
+  }
+}
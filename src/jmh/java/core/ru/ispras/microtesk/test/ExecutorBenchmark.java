@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.microtesk.model.Model;
+import ru.ispras.microtesk.model.memory.Section;
+import ru.ispras.microtesk.options.Option;
+import ru.ispras.microtesk.options.Options;
+import ru.ispras.microtesk.test.engine.EngineContext;
+import ru.ispras.microtesk.test.template.ConcreteCall;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExecutorBenchmark} measures the per-instruction cost of {@link Executor#execute}
+ * for straight-line code of the {@code minimips} model: fetching calls from {@link Code},
+ * updating the program counter and executing the model actions.
+ *
+ * <p>The benchmark needs the compiled models: {@code gradle jmh} builds and installs them
+ * into {@code build/target}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutorBenchmark {
+  private static final int COUNT = 1024;
+  private static final long START_ADDRESS = 0x2000;
+
+  private Executor executor;
+  private Code code;
+
+  @Setup
+  public void setup() {
+    final Model model = MiniMipsCode.loadModel();
+
+    final Options options = new Options();
+    // The same calls are executed in each invocation.
+    options.setValue(Option.BRANCH_EXEC_LIMIT, 0);
+
+    final EngineContext context = new EngineContext(options, model, new Statistics());
+
+    final Section section = MiniMipsCode.newTextSection(START_ADDRESS);
+    final List<ConcreteCall> calls = MiniMipsCode.newCalls(model, COUNT, 0);
+    final long endAddress = MiniMipsCode.allocate(section, calls, START_ADDRESS);
+
+    code = new Code();
+    code.registerBlock(new CodeBlock(calls, START_ADDRESS, endAddress));
+    code.addBreakAddress(endAddress);
+
+    executor = new Executor(context);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public Executor.Status execute() {
+    return executor.execute(code, START_ADDRESS);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.microtesk.SysUtils;
+import ru.ispras.microtesk.model.InstructionCall;
+import ru.ispras.microtesk.model.Model;
+import ru.ispras.microtesk.model.decoder.Decoder;
+import ru.ispras.microtesk.model.decoder.DecoderResult;
+import ru.ispras.microtesk.model.memory.Section;
+import ru.ispras.microtesk.settings.GeneratorSettings;
+import ru.ispras.microtesk.settings.SettingsParser;
+import ru.ispras.microtesk.test.template.ConcreteCall;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link MiniMipsCode} builds straight-line code for the {@code minimips} model used by
+ * the benchmarks of simulation and printing. Instructions are created by decoding images of
+ * arithmetic and logical instructions, so the model must be translated with the decoder
+ * ({@code gradle copyModelsJar}).
+ */
+final class MiniMipsCode {
+  private static final String MODEL_NAME = "minimips";
+  private static final String SETTINGS_FILE = "src/main/arch/demo/minimips/settings.xml";
+
+  /** Function codes of {@code addu}, {@code subu}, {@code and}, {@code or} and {@code xor}. */
+  private static final int[] FUNCTIONS = {0x21, 0x23, 0x24, 0x25, 0x26};
+
+  /** Opcode of {@code addiu}. */
+  private static final int ADDIU = 0x09;
+
+  private MiniMipsCode() {}
+
+  public static Model loadModel() {
+    if (null == GeneratorSettings.get()) {
+      GeneratorSettings.set(SettingsParser.parse(new File(SETTINGS_FILE).getAbsolutePath()));
+    }
+
+    final Model model = SysUtils.loadModel(MODEL_NAME);
+    InvariantChecks.checkNotNull(model, "Failed to load the minimips model.");
+
+    model.setPENumber(1);
+    model.setActivePE(0);
+
+    return model;
+  }
+
+  public static Section newTextSection(final long address) {
+    final BigInteger base = BigInteger.valueOf(address);
+    return new Section(".text", "", true, base, base);
+  }
+
+  public static List<ConcreteCall> newCalls(final Model model, final int count, final long seed) {
+    InvariantChecks.checkNotNull(model);
+    InvariantChecks.checkGreaterThanZero(count);
+
+    final Decoder decoder = model.getDecoder();
+    InvariantChecks.checkNotNull(decoder, "The minimips model has no decoder.");
+
+    final Random random = new Random(seed);
+    final List<ConcreteCall> calls = new ArrayList<>(count);
+
+    for (int index = 0; index < count; ++index) {
+      final int image = newImage(random);
+      final DecoderResult result = decoder.decode(BitVector.valueOf(image, 32));
+      InvariantChecks.checkNotNull(result, String.format("Failed to decode 0x%08x.", image));
+
+      final InstructionCall executable = model.newCall(result.getPrimitive());
+      calls.add(new ConcreteCall(executable));
+    }
+
+    return calls;
+  }
+
+  /**
+   * Assigns consecutive addresses to the calls.
+   *
+   * @return The address that follows the last call.
+   */
+  public static long allocate(
+      final Section section,
+      final List<ConcreteCall> calls,
+      final long address) {
+    long nextAddress = address;
+    for (final ConcreteCall call : calls) {
+      nextAddress = call.setAddress(section, nextAddress);
+    }
+    return nextAddress;
+  }
+
+  private static int newImage(final Random random) {
+    // Registers 1..30: $zero is not written and $ra is left intact.
+    final int rs = 1 + random.nextInt(30);
+    final int rt = 1 + random.nextInt(30);
+    final int rd = 1 + random.nextInt(30);
+
+    if (random.nextInt(FUNCTIONS.length + 1) == 0) {
+      return (ADDIU << 26) | (rs << 21) | (rt << 16) | (random.nextInt() & 0xffff);
+    }
+
+    final int function = FUNCTIONS[random.nextInt(FUNCTIONS.length)];
+    return (rs << 21) | (rt << 16) | (rd << 11) | function;
+  }
+}
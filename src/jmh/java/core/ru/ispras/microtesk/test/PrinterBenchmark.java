@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.microtesk.model.ConfigurationException;
+import ru.ispras.microtesk.model.Model;
+import ru.ispras.microtesk.model.memory.Section;
+import ru.ispras.microtesk.options.Option;
+import ru.ispras.microtesk.options.Options;
+import ru.ispras.microtesk.test.template.ConcreteCall;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PrinterBenchmark} measures the per-instruction cost of printing a test program file
+ * for the {@code minimips} model with {@link Printer#printSequence}: writing the file directly
+ * vs. collecting the text in memory and writing it by {@link FileWriterQueue}.
+ *
+ * <p>The benchmark needs the compiled models: {@code gradle jmh} builds and installs them
+ * into {@code build/target}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrinterBenchmark {
+  private static final int COUNT = 1024;
+  private static final long START_ADDRESS = 0x2000;
+  private static final int QUEUE_CAPACITY = 4;
+
+  private Model model;
+  private Options options;
+  private ConcreteSequence sequence;
+  private FileWriterQueue fileWriterQueue;
+  private File outputDir;
+
+  @Setup
+  public void setup() throws IOException {
+    model = MiniMipsCode.loadModel();
+    outputDir = Files.createTempDirectory("microtesk-printer").toFile();
+
+    options = new Options();
+    options.setValue(Option.OUTPUT_DIR, outputDir.getAbsolutePath());
+    options.setValue(Option.COMMENTS_ENABLED, true);
+
+    final Section section = MiniMipsCode.newTextSection(START_ADDRESS);
+    final List<ConcreteCall> calls = MiniMipsCode.newCalls(model, COUNT, 0);
+    MiniMipsCode.allocate(section, calls, START_ADDRESS);
+
+    final ConcreteSequence.Builder builder = new ConcreteSequence.Builder(section);
+    builder.add(calls);
+
+    sequence = builder.build();
+    sequence.setTitle("Benchmark");
+
+    fileWriterQueue = new FileWriterQueue(QUEUE_CAPACITY);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    fileWriterQueue.close();
+
+    final File[] files = outputDir.listFiles();
+    if (null != files) {
+      for (final File file : files) {
+        file.delete();
+      }
+    }
+    outputDir.delete();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void printToFile() throws IOException, ConfigurationException {
+    print(Printer.newCodeFile(options, 0));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void printToFileWriterQueue() throws IOException, ConfigurationException {
+    print(Printer.newCodeFile(options, 1, fileWriterQueue));
+  }
+
+  private void print(final Printer printer) throws IOException, ConfigurationException {
+    try {
+      printer.printSequence(model, sequence);
+    } finally {
+      printer.close();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.microtesk.model.ConfigurationException;
+import ru.ispras.microtesk.model.ProcessingElement;
+import ru.ispras.microtesk.model.data.Type;
+import ru.ispras.microtesk.model.memory.Label;
+import ru.ispras.microtesk.model.memory.LocationAccessor;
+import ru.ispras.microtesk.model.memory.Memory;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProgramCounterBenchmark} measures the per-instruction cost of updating and reading
+ * the program counter the way {@link Executor} does it: by looking up the location by name
+ * and passing values as {@link BigInteger} objects vs. using a cached accessor and
+ * {@code long} values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProgramCounterBenchmark {
+  private static final class BenchmarkPE extends ProcessingElement {
+    private BenchmarkPE() {
+      final Memory pc = Memory.def(Memory.Kind.REG, "PC", Type.CARD(64), 1);
+      final Memory gpr = Memory.def(Memory.Kind.REG, "GPR", Type.CARD(64), 32);
+
+      addStorage(pc);
+      addStorage(gpr);
+      addLabel(new Label("PC", pc));
+    }
+
+    @Override
+    public ProcessingElement copy(final boolean shared) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private ProcessingElement processingElement;
+  private LocationAccessor pcLocation;
+  private long address;
+
+  @Setup
+  public void setup() throws ConfigurationException {
+    processingElement = new BenchmarkPE();
+    pcLocation = processingElement.accessLocation("PC");
+    address = 0x1000;
+  }
+
+  @Benchmark
+  public long lookupByNameAndBigInteger() throws ConfigurationException {
+    final LocationAccessor location = processingElement.accessLocation("PC");
+    location.setValue(BigInteger.valueOf(address));
+    address += 4;
+    return processingElement.accessLocation("PC").getValue().longValue();
+  }
+
+  @Benchmark
+  public long cachedAccessorAndLong() {
+    pcLocation.setLongValue(address);
+    address += 4;
+    return pcLocation.getLongValue();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BinaryWriterBenchmark} measures writing instruction images to a binary test program
+ * file the way {@code Printer} does it: images passed as bit vectors vs. images passed as
+ * binary strings (which were used before).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryWriterBenchmark {
+  private static final int COUNT = 1024;
+
+  private File file;
+  private BinaryWriter writer;
+  private BitVector[] images;
+  private String[] texts;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    images = new BitVector[COUNT];
+    texts = new String[COUNT];
+
+    // The fixed seed makes results comparable between runs.
+    final Random random = new Random(0);
+    for (int i = 0; i < COUNT; ++i) {
+      images[i] = BitVector.valueOf(random.nextInt(), 32);
+      texts[i] = images[i].toBinString();
+    }
+
+    index = 0;
+  }
+
+  @Setup(Level.Iteration)
+  public void openFile() throws IOException {
+    file = File.createTempFile("microtesk", ".bin");
+    writer = new BinaryWriter(file, false);
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeFile() {
+    writer.close();
+    file.delete();
+  }
+
+  @Benchmark
+  public void writeBitVector() {
+    writer.write(images[index++ & (COUNT - 1)]);
+  }
+
+  @Benchmark
+  public void writeBinaryString() {
+    writer.write(texts[index++ & (COUNT - 1)]);
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.mmu.model.sim;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheBenchmark} measures lookups and fills of a 64-set 4-way LRU cache the way
+ * simulator code of MMU specifications accesses it: a lookup followed by a read on a hit
+ * or by a write on a miss. Lines are matched with a generic {@link Matcher} (comparing
+ * bit vectors) and with a {@link TagMatcher} (comparing {@code long} tags).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheBenchmark {
+  private static final int SETS = 64;
+  private static final int WAYS = 4;
+  private static final int COUNT = 1024;
+
+  private static final class BenchmarkAddress implements Address {
+    private final BitVector value = BitVector.newEmpty(32);
+
+    @Override
+    public BitVector getValue() {
+      return value;
+    }
+  }
+
+  private static final class BenchmarkEntry implements Data {
+    private final BitVector tag = BitVector.newEmpty(26);
+
+    @Override
+    public BitVector asBitVector() {
+      return tag;
+    }
+  }
+
+  private static final Indexer<BenchmarkAddress> INDEXER = new Indexer<BenchmarkAddress>() {
+    @Override
+    public BitVector getIndex(final BenchmarkAddress address) {
+      return address.value.field(0, 5);
+    }
+  };
+
+  private static final Matcher<BenchmarkEntry, BenchmarkAddress> MATCHER =
+      new Matcher<BenchmarkEntry, BenchmarkAddress>() {
+        @Override
+        public boolean areMatching(final BenchmarkEntry data, final BenchmarkAddress address) {
+          return address.value.field(6, 31).equals(data.tag);
+        }
+      };
+
+  private static final TagMatcher<BenchmarkEntry, BenchmarkAddress> TAG_MATCHER =
+      new TagMatcher<BenchmarkEntry, BenchmarkAddress>() {
+        @Override
+        public boolean areMatching(final BenchmarkEntry data, final BenchmarkAddress address) {
+          return MATCHER.areMatching(data, address);
+        }
+
+        @Override
+        public long getAddressTag(final BenchmarkAddress address) {
+          return address.value.field(6, 31).longValue();
+        }
+
+        @Override
+        public long getDataTag(final BenchmarkEntry data) {
+          return data.tag.longValue();
+        }
+      };
+
+  private static final class BenchmarkCache extends Cache<BenchmarkEntry, BenchmarkAddress> {
+    private BenchmarkCache(final Matcher<BenchmarkEntry, BenchmarkAddress> matcher) {
+      super(BigInteger.valueOf(SETS), WAYS, PolicyId.LRU, INDEXER, matcher);
+    }
+
+    @Override
+    protected BenchmarkAddress newAddress() {
+      return new BenchmarkAddress();
+    }
+
+    @Override
+    protected BenchmarkEntry newData(final BitVector value) {
+      final BenchmarkEntry entry = new BenchmarkEntry();
+      entry.tag.assign(value);
+      return entry;
+    }
+  }
+
+  private BenchmarkCache cache;
+  private BenchmarkCache tagCache;
+  private BenchmarkAddress[] addresses;
+  private BenchmarkEntry[] entries;
+  private int index;
+
+  @Setup
+  public void setup() {
+    cache = new BenchmarkCache(MATCHER);
+    tagCache = new BenchmarkCache(TAG_MATCHER);
+
+    addresses = new BenchmarkAddress[COUNT];
+    entries = new BenchmarkEntry[COUNT];
+
+    // Addresses are selected from a range twice as large as the cache to get both hits
+    // and misses. The fixed seed makes results comparable between runs.
+    final Random random = new Random(0);
+    for (int i = 0; i < COUNT; ++i) {
+      addresses[i] = new BenchmarkAddress();
+      addresses[i].value.assign(BitVector.valueOf(random.nextInt(2 * SETS * WAYS) * 17L, 32));
+
+      entries[i] = new BenchmarkEntry();
+      entries[i].tag.assign(addresses[i].value.field(6, 31));
+    }
+
+    index = 0;
+  }
+
+  @Benchmark
+  public BenchmarkEntry accessMatcher() {
+    return access(cache);
+  }
+
+  @Benchmark
+  public BenchmarkEntry accessTagMatcher() {
+    return access(tagCache);
+  }
+
+  private BenchmarkEntry access(final BenchmarkCache buffer) {
+    final int i = index++ & (COUNT - 1);
+    final BenchmarkAddress address = addresses[i];
+
+    if (buffer.isHit(address)) {
+      return buffer.getData(address);
+    }
+
+    return buffer.setData(address, entries[i]);
+  }
+}
@@ -16,6 +16,7 @@ package ru.ispras.microtesk;
 
 import ru.ispras.castle.util.FileUtils;
 import ru.ispras.castle.util.Logger;
+import ru.ispras.microtesk.model.tracer.BinaryTraceConverter;
 import ru.ispras.microtesk.options.Option;
 import ru.ispras.microtesk.options.OptionReader;
 import ru.ispras.microtesk.options.Options;
@@ -137,6 +138,8 @@ public final class MicroTESK {
       return symbolicExecute(options, arguments);
     } else if (options.getValueAsBoolean(Option.TRANSFORM_TRACE)) {
       return transformTrace(options, arguments);
+    } else if (options.getValueAsBoolean(Option.CONVERT_TRACE)) {
+      return convertTrace(arguments);
     } else {
       return translate(options, arguments);
     }
@@ -270,6 +273,26 @@ public final class MicroTESK {
     return true;
   }
 
+  private static boolean convertTrace(final String[] arguments) {
+    if (arguments.length != 1) {
+      Logger.error("Wrong number of command-line arguments. One is required.");
+      Logger.message("Argument format: <binary trace file>");
+      return false;
+    }
+
+    final String inputFile = arguments[0];
+    final int extensionIndex = inputFile.lastIndexOf('.');
+    final String outputFile =
+        (extensionIndex > 0 ? inputFile.substring(0, extensionIndex) : inputFile) + ".log";
+
+    if (!BinaryTraceConverter.convert(inputFile, outputFile)) {
+      Logger.message("Trace conversion was aborted.");
+      return false;
+    }
+
+    return true;
+  }
+
   private static boolean generate(
       final Options options,
       final String[] arguments,
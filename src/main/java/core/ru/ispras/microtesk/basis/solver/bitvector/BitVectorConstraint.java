@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link BitVectorConstraint} is generic interface of a bit-vector constraint.
@@ -38,7 +39,7 @@ public class BitVectorConstraint {
   private BitVectorConstraint() {}
 
   private static final String NEW_VARIABLE_PREFIX = "new$";
-  private static int newVariableId = 0;
+  private static final AtomicInteger newVariableId = new AtomicInteger();
 
   public static enum Kind {
     RETAIN,
@@ -161,7 +162,7 @@ public class BitVectorConstraint {
 
     // Introduce a new variable to encode OR.
     final Variable e = new Variable(
-        String.format("%s%d", NEW_VARIABLE_PREFIX, newVariableId++),
+        String.format("%s%d", NEW_VARIABLE_PREFIX, newVariableId.getAndIncrement()),
         DataType.bitVector(numberOfBits + 1));
 
     // (e[0] | ... | e[n-1]) == (e != 0).
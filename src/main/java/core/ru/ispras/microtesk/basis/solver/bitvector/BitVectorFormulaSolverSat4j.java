@@ -43,6 +43,9 @@ public final class BitVectorFormulaSolverSat4j implements Solver<Map<Variable, B
   /** Initializer used to fill the unused fields of the variables. */
   private final BitVectorVariableInitializer initializer;
 
+  /** Retained solver to be reused or {@code null} if a new solver is created for each call. */
+  private final Sat4jIncrementalSolver incrementalSolver;
+
   /**
    * Constructs a solver.
    *
@@ -52,12 +55,28 @@ public final class BitVectorFormulaSolverSat4j implements Solver<Map<Variable, B
   public BitVectorFormulaSolverSat4j(
       final BitVectorFormulaBuilder builder,
       final BitVectorVariableInitializer initializer) {
+    this(builder, initializer, null);
+  }
+
+  /**
+   * Constructs a solver that checks the problem with the given retained solver. The solver keeps
+   * the clauses the problem shares with the previously solved ones.
+   *
+   * @param builder the builder of the problem to be solved.
+   * @param initializer the initializer to be used to fill the unused fields.
+   * @param incrementalSolver the retained solver or {@code null}.
+   */
+  public BitVectorFormulaSolverSat4j(
+      final BitVectorFormulaBuilder builder,
+      final BitVectorVariableInitializer initializer,
+      final Sat4jIncrementalSolver incrementalSolver) {
     InvariantChecks.checkNotNull(builder);
     InvariantChecks.checkTrue(builder instanceof BitVectorFormulaProblemSat4j);
     InvariantChecks.checkNotNull(initializer);
 
     this.problem = (BitVectorFormulaProblemSat4j) builder;
     this.initializer = initializer;
+    this.incrementalSolver = incrementalSolver;
   }
 
   /**
@@ -78,6 +97,7 @@ public final class BitVectorFormulaSolverSat4j implements Solver<Map<Variable, B
     }
 
     this.initializer = initializer;
+    this.incrementalSolver = null;
   }
 
   /**
@@ -96,31 +116,43 @@ public final class BitVectorFormulaSolverSat4j implements Solver<Map<Variable, B
     problem.addFormula(formula);
 
     this.initializer = initializer;
+    this.incrementalSolver = null;
   }
 
   @Override
   public SolverResult<Map<Variable, BitVector>> solve(final Mode mode) {
     InvariantChecks.checkNotNull(mode);
 
-    final ISolver solver = Sat4jUtils.getSolver();
+    final ISolver solver;
     final Sat4jFormula formula = problem.getFormula();
 
     // Construct the problem.
-    try {
-      for (final IVec<IVecInt> clauses : formula.getClauses()) {
-        solver.addAllClauses(clauses);
+    if (null != incrementalSolver) {
+      incrementalSolver.load(formula);
+      solver = incrementalSolver.getSolver();
+    } else {
+      solver = Sat4jUtils.getSolver();
+
+      try {
+        for (final IVec<IVecInt> clauses : formula.getClauses()) {
+          solver.addAllClauses(clauses);
+        }
+      } catch (final ContradictionException e) {
+        return new SolverResult<>(
+            SolverResult.Status.UNSAT,
+            Collections.<Variable, BitVector>emptyMap(),
+            Collections.<String>singletonList(
+                String.format("Contradiction: %s", e.getMessage())));
       }
-    } catch (final ContradictionException e) {
-      return new SolverResult<>(
-          SolverResult.Status.UNSAT,
-          Collections.<Variable, BitVector>emptyMap(),
-          Collections.<String>singletonList(
-              String.format("Contradiction: %s", e.getMessage())));
     }
 
     // Solve the problem.
     try {
-      if (!solver.isSatisfiable()) {
+      final boolean isSatisfiable = null != incrementalSolver
+          ? incrementalSolver.isSatisfiable()
+          : solver.isSatisfiable();
+
+      if (!isSatisfiable) {
         return new SolverResult<>("UNSAT");
       }
     } catch (final TimeoutException e) {
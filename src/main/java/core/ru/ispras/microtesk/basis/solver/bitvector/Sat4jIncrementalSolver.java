@@ -0,0 +1,304 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.basis.solver.bitvector;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link Sat4jIncrementalSolver} retains a SAT4J solver instance between satisfiability checks.
+ *
+ * <p>Clauses are organized into groups, which are pushed and popped like a stack. Each group
+ * has a selector variable {@code s}: a clause {@code c} of the group is added to the solver
+ * as {@code c | ~s}, and {@code s} is passed as an assumption when the problem is solved.
+ * Popping a group adds the unit clause {@code ~s}, which disables the group for good. Clauses
+ * learned by the solver remain valid, which makes checking problems that share a large part
+ * of clauses faster than encoding each problem in a new solver.</p>
+ *
+ * <p>Selector variables are allocated above the variables used in clauses. If a clause uses
+ * a variable that clashes with the selectors, or too many clauses have been disabled,
+ * the solver is rebuilt from the clauses of the active groups.</p>
+ *
+ * <p>The {@link #load(Sat4jFormula)} method makes the solver contain the clauses of the given
+ * formula: it keeps the groups that hold a common prefix of the formula (clause vectors are
+ * compared by identity) and pushes the rest as a new group. This suits formulae extended step
+ * by step (e.g. during a depth-first search), where copies share the clause vectors of the
+ * original. A solver is used either via {@link #load(Sat4jFormula)} or via
+ * {@link #push()}/{@link #pop()}, not both. The class is not thread-safe.</p>
+ */
+public final class Sat4jIncrementalSolver {
+  private static final int INITIAL_SELECTOR_BASE = 1 << 12;
+  private static final int REBUILD_THRESHOLD = 1 << 16;
+
+  /**
+   * {@link Group} holds the clauses of a group and its selector variable.
+   */
+  private static final class Group {
+    private final int selector;
+    private final List<IVecInt> clauses = new ArrayList<>();
+
+    /** Number of loaded clause vectors before the group has been pushed. */
+    private final int loadedStart;
+
+    private Group(final int selector, final int loadedStart) {
+      this.selector = selector;
+      this.loadedStart = loadedStart;
+    }
+  }
+
+  private ISolver solver;
+  private boolean contradiction;
+
+  private final List<IVecInt> baseClauses = new ArrayList<>();
+  private final List<Group> groups = new ArrayList<>();
+
+  /** Clause vectors added by {@link #load(Sat4jFormula)}. */
+  private final List<IVec<IVecInt>> loaded = new ArrayList<>();
+
+  private int selectorBase;
+  private int nextSelector;
+  private int maxVariable;
+  private int disabledClauses;
+
+  public Sat4jIncrementalSolver() {
+    this.selectorBase = INITIAL_SELECTOR_BASE;
+    this.maxVariable = 0;
+    rebuild();
+  }
+
+  /**
+   * Returns the underlying SAT4J solver. After a successful satisfiability check,
+   * it provides the model.
+   *
+   * @return the SAT4J solver.
+   */
+  public ISolver getSolver() {
+    return solver;
+  }
+
+  /**
+   * Returns the number of active groups.
+   *
+   * @return the number of groups.
+   */
+  public int getLevel() {
+    return groups.size();
+  }
+
+  /**
+   * Starts a new group of clauses.
+   */
+  public void push() {
+    push(loaded.size());
+  }
+
+  private void push(final int loadedStart) {
+    groups.add(new Group(nextSelector++, loadedStart));
+  }
+
+  /**
+   * Disables the clauses of the last group.
+   */
+  public void pop() {
+    InvariantChecks.checkTrue(!groups.isEmpty());
+
+    final Group group = groups.remove(groups.size() - 1);
+    disabledClauses += group.clauses.size();
+
+    if (disabledClauses > REBUILD_THRESHOLD) {
+      rebuild();
+    } else {
+      addToSolver(new VecInt(new int[] {-group.selector}));
+    }
+  }
+
+  /**
+   * Adds a clause to the last group (or to the base problem if there are no groups).
+   *
+   * @param clause the clause to be added.
+   */
+  public void addClause(final IVecInt clause) {
+    InvariantChecks.checkNotNull(clause);
+
+    for (int i = 0; i < clause.size(); i++) {
+      maxVariable = Math.max(maxVariable, Math.abs(clause.get(i)));
+    }
+
+    if (maxVariable >= selectorBase) {
+      addToGroup(clause);
+      rebuild();
+      return;
+    }
+
+    addToSolver(addToGroup(clause));
+  }
+
+  /**
+   * Adds clauses to the last group (or to the base problem if there are no groups).
+   *
+   * @param clauses the clauses to be added.
+   */
+  public void addAllClauses(final IVec<IVecInt> clauses) {
+    InvariantChecks.checkNotNull(clauses);
+
+    for (int i = 0; i < clauses.size(); i++) {
+      addClause(clauses.get(i));
+    }
+  }
+
+  /**
+   * Makes the solver contain exactly the clauses of the given formula.
+   *
+   * @param formula the formula to be loaded.
+   */
+  public void load(final Sat4jFormula formula) {
+    InvariantChecks.checkNotNull(formula);
+
+    final Collection<IVec<IVecInt>> clauses = formula.getClauses();
+
+    int common = 0;
+    final Iterator<IVec<IVecInt>> iterator = clauses.iterator();
+    while (common < loaded.size() && iterator.hasNext() && iterator.next() == loaded.get(common)) {
+      common++;
+    }
+
+    // Groups that contain clauses beyond the common prefix are disabled.
+    while (loaded.size() > common) {
+      final Group group = groups.get(groups.size() - 1);
+      pop();
+      loaded.subList(group.loadedStart, loaded.size()).clear();
+    }
+
+    if (loaded.size() == clauses.size()) {
+      return;
+    }
+
+    final int start = loaded.size();
+    push(start);
+
+    int index = 0;
+    for (final IVec<IVecInt> vector : clauses) {
+      if (index++ >= start) {
+        addAllClauses(vector);
+        loaded.add(vector);
+      }
+    }
+  }
+
+  /**
+   * Checks whether the clauses of the active groups are satisfiable.
+   *
+   * @return {@code true} if the problem is satisfiable; {@code false} otherwise.
+   * @throws TimeoutException if the solver has reached the time limit.
+   */
+  public boolean isSatisfiable() throws TimeoutException {
+    return isSatisfiable(new VecInt());
+  }
+
+  /**
+   * Checks whether the clauses of the active groups are satisfiable under the given assumptions.
+   *
+   * @param assumptions the assumption literals.
+   * @return {@code true} if the problem is satisfiable; {@code false} otherwise.
+   * @throws TimeoutException if the solver has reached the time limit.
+   */
+  public boolean isSatisfiable(final IVecInt assumptions) throws TimeoutException {
+    InvariantChecks.checkNotNull(assumptions);
+
+    if (contradiction) {
+      return false;
+    }
+
+    final VecInt allAssumptions = new VecInt(groups.size() + assumptions.size());
+    for (final Group group : groups) {
+      allAssumptions.push(group.selector);
+    }
+    for (int i = 0; i < assumptions.size(); i++) {
+      allAssumptions.push(assumptions.get(i));
+    }
+
+    return solver.isSatisfiable(allAssumptions);
+  }
+
+  private IVecInt addToGroup(final IVecInt clause) {
+    if (groups.isEmpty()) {
+      baseClauses.add(clause);
+      return clause;
+    }
+
+    final Group group = groups.get(groups.size() - 1);
+    group.clauses.add(clause);
+
+    return withSelector(clause, group.selector);
+  }
+
+  private static IVecInt withSelector(final IVecInt clause, final int selector) {
+    final VecInt result = new VecInt(clause.size() + 1);
+    clause.copyTo(result);
+    result.push(-selector);
+    return result;
+  }
+
+  private void addToSolver(final IVecInt clause) {
+    if (contradiction) {
+      return;
+    }
+
+    try {
+      solver.addClause(clause);
+    } catch (final ContradictionException e) {
+      contradiction = true;
+    }
+  }
+
+  private void rebuild() {
+    while (maxVariable >= selectorBase) {
+      selectorBase <<= 1;
+    }
+
+    solver = Sat4jUtils.getSolver();
+    contradiction = false;
+    disabledClauses = 0;
+    nextSelector = selectorBase;
+
+    for (final IVecInt clause : baseClauses) {
+      addToSolver(clause);
+    }
+
+    final List<Group> oldGroups = new ArrayList<>(groups);
+    groups.clear();
+
+    for (final Group oldGroup : oldGroups) {
+      final Group group = new Group(nextSelector++, oldGroup.loadedStart);
+      groups.add(group);
+
+      for (final IVecInt clause : oldGroup.clauses) {
+        group.clauses.add(clause);
+        addToSolver(withSelector(clause, group.selector));
+      }
+    }
+  }
+}
@@ -14,6 +14,7 @@
 
 package ru.ispras.microtesk.model;
 
+import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 
 /**
@@ -87,6 +88,40 @@ public final class InstructionCall {
     return instruction.image(temporaryVariables);
   }
 
+  /**
+   * Returns image (binary representation) of the instruction call as a bit vector.
+   *
+   * @return Image of the instruction call or {@code null} if the image is empty.
+   *
+   * @throws NumberFormatException if the image contains characters other than {@code 0}
+   *         and {@code 1}.
+   */
+  public BitVector getImageData() {
+    final String image = getImage();
+    final int bitSize = image.length();
+
+    if (0 == bitSize) {
+      return null;
+    }
+
+    if (bitSize > Long.SIZE) {
+      return BitVector.valueOf(image, 2, bitSize);
+    }
+
+    // Most images fit into 64 bits and are parsed without creating intermediate objects.
+    long value = 0;
+    for (int index = 0; index < bitSize; ++index) {
+      final char bit = image.charAt(index);
+      if (bit != '0' && bit != '1') {
+        throw new NumberFormatException(
+            String.format("Illegal character '%c' in image %s", bit, image));
+      }
+      value = (value << 1) | (bit - '0');
+    }
+
+    return BitVector.valueOf(value, bitSize);
+  }
+
   /**
    * Returns the size of the instruction in bytes.
    *
@@ -17,7 +17,6 @@ package ru.ispras.microtesk.model;
 import ru.ispras.castle.util.Logger;
 import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
-import ru.ispras.fortress.util.Pair;
 
 import ru.ispras.microtesk.model.decoder.Decoder;
 import ru.ispras.microtesk.model.memory.MemoryAllocator;
@@ -53,10 +52,9 @@ public final class Model implements ModelStateManager {
   private List<ProcessingElement> procElems;
   private int activeProcElemIndex;
   private ProcessingElement activeProcElem;
-  private ProcessingElement activeProcElemTemp;
+  private ProcessingElement tempStateProcElem;
 
   private final MemoryDevice memoryCallback;
-  private Pair<String, MemoryDevice> memoryHandler;
   private final List<ModelStateManager> stateManagers;
 
   protected Model(
@@ -88,10 +86,9 @@ public final class Model implements ModelStateManager {
     this.procElems = Collections.emptyList();
     this.activeProcElemIndex = -1;
     this.activeProcElem = null;
-    this.activeProcElemTemp = null;
+    this.tempStateProcElem = null;
 
     this.memoryCallback = new MemoryCallback();
-    this.memoryHandler = null;
 
     this.stateManagers = new ArrayList<>();
   }
@@ -138,7 +135,7 @@ public final class Model implements ModelStateManager {
 
   public ProcessingElement getPE() {
     InvariantChecks.checkNotNull(activeProcElem, "No active processing element is set.");
-    return null != activeProcElemTemp ? activeProcElemTemp : activeProcElem;
+    return activeProcElem;
   }
 
   public void setPENumber(final int number) {
@@ -153,9 +150,9 @@ public final class Model implements ModelStateManager {
 
   public void setActivePE(final int index) {
     InvariantChecks.checkBounds(0, getPENumber());
+    restoreTempStateProcElem();
     activeProcElemIndex = index;
     activeProcElem = procElems.get(index);
-    activeProcElemTemp = null;
   }
 
   public int getActivePE() {
@@ -172,18 +169,24 @@ public final class Model implements ModelStateManager {
 
     if (value) {
       InvariantChecks.checkNotNull(activeProcElem);
-      InvariantChecks.checkTrue(null == activeProcElemTemp);
-      activeProcElemTemp = activeProcElem.copy(false);
-      if (null != memoryHandler) {
-        activeProcElemTemp.setMemoryHandler(memoryHandler.first, memoryHandler.second);
-      }
+      InvariantChecks.checkTrue(null == tempStateProcElem);
+      activeProcElem.setUseTempState(true);
+      tempStateProcElem = activeProcElem;
     } else {
-      activeProcElemTemp = null;
+      restoreTempStateProcElem();
+    }
+  }
+
+  private void restoreTempStateProcElem() {
+    if (null != tempStateProcElem) {
+      tempStateProcElem.setUseTempState(false);
+      tempStateProcElem = null;
     }
   }
 
   @Override
   public void resetState() {
+    restoreTempStateProcElem();
     Sections.get().resetState();
 
     for (final ModelStateManager stateManager : stateManagers) {
@@ -193,8 +196,6 @@ public final class Model implements ModelStateManager {
     for (final ProcessingElement procElem : procElems) {
       procElem.resetState();
     }
-
-    activeProcElemTemp = null;
   }
 
   public final MemoryDevice setMemoryHandler(final String id, final MemoryDevice handler) {
@@ -205,7 +206,6 @@ public final class Model implements ModelStateManager {
       procElem.setMemoryHandler(id, handler);
     }
 
-    memoryHandler = new Pair<>(id, handler);
     return memoryCallback;
   }
 
@@ -126,6 +126,19 @@ public abstract class ProcessingElement {
     }
   }
 
+  /**
+   * Switches all storages of the PE to the temporary state or back to the main state.
+   * Storages save their state instead of being copied, which makes the switch cheap.
+   *
+   * @param value {@code true} to switch to the temporary state or {@code false} to restore
+   *        the main state.
+   */
+  protected final void setUseTempState(final boolean value) {
+    for (final Memory memory : storageMap.values()) {
+      memory.setUseTempState(value);
+    }
+  }
+
   protected final void initMemoryAllocator(
       final String storageId,
       final int addressableUnitBitSize,
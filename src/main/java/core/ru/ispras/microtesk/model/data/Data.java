@@ -467,4 +467,8 @@ public final class Data implements Comparable<Data> {
   public static void setFloatExceptionFlags(final int value) {
     FloatX.setExceptionFlags(value);
   }
+
+  public static void setHardwareFloatEnabled(final boolean value) {
+    FloatX.setHardwareFloatEnabled(value);
+  }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.data.types.bitvector.BitVectorMath;
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.math.BigInteger;
+
+/**
+ * The {@link LongArithmetic} class implements operations on {@code card} and {@code int} values
+ * of up to 64 bits represented as {@code long} values. It is used by simulator code generated
+ * for expressions of such types to avoid creating intermediate {@link Data} objects.
+ *
+ * <p>Values are kept normalized: {@code int} values are sign-extended to 64 bits and
+ * {@code card} values are zero-extended to 64 bits (a 64-bit {@code card} value is stored as
+ * its raw bits). Results match the results of the corresponding {@link Data} operations.
+ * Corner cases (division by zero, shift amounts beyond the value size) are delegated to
+ * {@link BitVectorMath} to guarantee this.</p>
+ */
+public final class LongArithmetic {
+  private static final BigInteger TWO_POWER_64 = BigInteger.ONE.shiftLeft(Long.SIZE);
+
+  private LongArithmetic() {}
+
+  public static long valueOf(final Data data) {
+    InvariantChecks.checkNotNull(data);
+    InvariantChecks.checkTrue(data.getType().isInteger() && data.getBitSize() <= Long.SIZE);
+
+    return normalize(data.getRawData().longValue(), data.getBitSize(), data.isType(TypeId.INT));
+  }
+
+  public static long normalize(final long value, final int bitSize, final boolean signed) {
+    if (bitSize == Long.SIZE) {
+      return value;
+    }
+
+    final int shift = Long.SIZE - bitSize;
+    return signed ? (value << shift) >> shift : value & (-1L >>> shift);
+  }
+
+  public static int compareUnsigned(final long lhs, final long rhs) {
+    return Long.compare(lhs + Long.MIN_VALUE, rhs + Long.MIN_VALUE);
+  }
+
+  public static long divide(
+      final long lhs,
+      final long rhs,
+      final int bitSize,
+      final boolean signed) {
+    if (rhs == 0 || isUnsigned64(bitSize, signed) && (lhs < 0 || rhs < 0)) {
+      final BitVector result = signed
+          ? BitVectorMath.sdiv(toBitVector(lhs, bitSize), toBitVector(rhs, bitSize))
+          : BitVectorMath.udiv(toBitVector(lhs, bitSize), toBitVector(rhs, bitSize));
+
+      return normalize(result.longValue(), bitSize, signed);
+    }
+
+    return normalize(lhs / rhs, bitSize, signed);
+  }
+
+  public static long mod(
+      final long lhs,
+      final long rhs,
+      final int bitSize,
+      final boolean signed) {
+    if (rhs == 0 || isUnsigned64(bitSize, signed) && (lhs < 0 || rhs < 0)) {
+      final BitVector result = signed
+          ? BitVectorMath.srem(toBitVector(lhs, bitSize), toBitVector(rhs, bitSize))
+          : BitVectorMath.urem(toBitVector(lhs, bitSize), toBitVector(rhs, bitSize));
+
+      return normalize(result.longValue(), bitSize, signed);
+    }
+
+    return normalize(lhs % rhs, bitSize, signed);
+  }
+
+  /**
+   * Computes the remainder of signed division rounded toward negative infinity
+   * (the SMT-LIB {@code bvsmod} operation): a non-zero result has the sign of the divisor.
+   * Operands are treated as signed values of the given size regardless of the type.
+   */
+  public static long smod(
+      final long lhs,
+      final long rhs,
+      final int bitSize,
+      final boolean signed) {
+    if (rhs == 0) {
+      final BitVector result =
+          BitVectorMath.smod(toBitVector(lhs, bitSize), toBitVector(rhs, bitSize));
+
+      return normalize(result.longValue(), bitSize, signed);
+    }
+
+    final long x = normalize(lhs, bitSize, true);
+    final long y = normalize(rhs, bitSize, true);
+
+    final long remainder = x % y;
+    final long result = remainder != 0 && (remainder < 0) != (y < 0) ? remainder + y : remainder;
+
+    return normalize(result, bitSize, signed);
+  }
+
+  public static long shiftLeft(
+      final long value,
+      final int bitSize,
+      final boolean signed,
+      final long amount,
+      final boolean amountSigned) {
+    if (amount >= 0 && amount < bitSize) {
+      return normalize(value << amount, bitSize, signed);
+    }
+
+    final BitVector result = BitVectorMath.shl(
+        toBitVector(value, bitSize), toBigInteger(amount, amountSigned));
+
+    return normalize(result.longValue(), bitSize, signed);
+  }
+
+  public static long shiftRight(
+      final long value,
+      final int bitSize,
+      final boolean signed,
+      final long amount,
+      final boolean amountSigned) {
+    if (amount >= 0 && amount < bitSize) {
+      // Normalized values are already extended, which makes Java shifts exact.
+      return signed ? value >> amount : value >>> amount;
+    }
+
+    final BitVector result = signed
+        ? BitVectorMath.ashr(toBitVector(value, bitSize), toBigInteger(amount, amountSigned))
+        : BitVectorMath.lshr(toBitVector(value, bitSize), toBigInteger(amount, amountSigned));
+
+    return normalize(result.longValue(), bitSize, signed);
+  }
+
+  public static long rotateLeft(
+      final long value,
+      final int bitSize,
+      final boolean signed,
+      final long amount,
+      final boolean amountSigned) {
+    if (amount >= 0 && amount < bitSize) {
+      final long bits = normalize(value, bitSize, false);
+      final int distance = (int) amount;
+      return normalize((bits << distance) | (bits >>> (bitSize - distance)), bitSize, signed);
+    }
+
+    final BitVector result = BitVectorMath.rotl(
+        toBitVector(value, bitSize), toBigInteger(amount, amountSigned));
+
+    return normalize(result.longValue(), bitSize, signed);
+  }
+
+  public static long rotateRight(
+      final long value,
+      final int bitSize,
+      final boolean signed,
+      final long amount,
+      final boolean amountSigned) {
+    if (amount >= 0 && amount < bitSize) {
+      final long bits = normalize(value, bitSize, false);
+      final int distance = (int) amount;
+      return normalize((bits >>> distance) | (bits << (bitSize - distance)), bitSize, signed);
+    }
+
+    final BitVector result = BitVectorMath.rotr(
+        toBitVector(value, bitSize), toBigInteger(amount, amountSigned));
+
+    return normalize(result.longValue(), bitSize, signed);
+  }
+
+  private static boolean isUnsigned64(final int bitSize, final boolean signed) {
+    return !signed && bitSize == Long.SIZE;
+  }
+
+  private static BitVector toBitVector(final long value, final int bitSize) {
+    return BitVector.valueOf(value, bitSize);
+  }
+
+  private static BigInteger toBigInteger(final long value, final boolean signed) {
+    final BigInteger result = BigInteger.valueOf(value);
+    return signed || value >= 0 ? result : result.add(TWO_POWER_64);
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data.floatx;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+/**
+ * {@link Float32HardwareOperations} implements floating-point operations for 32-bit types
+ * using native Java {@code float} arithmetic. It is applicable only when the rounding mode is
+ * round-to-nearest-even (see {@link Precision}). Inexact results raise the inexact flag.
+ * Otherwise, for results that depend on the NaN encoding and for results that raise other
+ * flags, operations are delegated to {@link Float32Operations}.
+ */
+final strictfp class Float32HardwareOperations implements Operations {
+  private static Operations instance = null;
+
+  public static Operations get() {
+    if (null == instance) {
+      instance = new Float32HardwareOperations();
+    }
+    return instance;
+  }
+
+  private final Operations soft;
+
+  private Float32HardwareOperations() {
+    this.soft = Float32Operations.get();
+  }
+
+  @Override
+  public FloatX add(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = lhs.floatValue();
+      final float y = rhs.floatValue();
+      final float result = x + y;
+
+      if (isValid(result, x, y) && complete(result, !isExactSum(x, y, result))) {
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.add(lhs, rhs);
+  }
+
+  @Override
+  public FloatX sub(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = lhs.floatValue();
+      final float y = rhs.floatValue();
+      final float result = x - y;
+
+      if (isValid(result, x, y) && complete(result, !isExactSum(x, -y, result))) {
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.sub(lhs, rhs);
+  }
+
+  @Override
+  public FloatX mul(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = lhs.floatValue();
+      final float y = rhs.floatValue();
+      final float result = x * y;
+
+      // The product of two floats is exact in double.
+      if (isValid(result, x, y)
+          && complete(result, !Float.isInfinite(result) && (double) x * y != result)) {
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.mul(lhs, rhs);
+  }
+
+  @Override
+  public FloatX div(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = lhs.floatValue();
+      final float y = rhs.floatValue();
+      final float result = x / y;
+
+      // The quotient is exact if multiplying it back (exactly, in double) gives the dividend.
+      final boolean isExact =
+          Float.isInfinite(result) || Float.isInfinite(y) || (double) result * y == x;
+
+      if (isValid(result, x, y) && complete(result, !isExact)) {
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.div(lhs, rhs);
+  }
+
+  @Override
+  public FloatX rem(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      // The IEEE remainder is exact, so computing it for doubles does not change the result.
+      final float result = (float) Math.IEEEremainder(lhs.floatValue(), rhs.floatValue());
+      if (!Float.isNaN(result)) {
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.rem(lhs, rhs);
+  }
+
+  @Override
+  public FloatX sqrt(final FloatX arg) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = arg.floatValue();
+
+      // A correctly rounded double square root rounds correctly to float.
+      final float result = (float) Math.sqrt(x);
+
+      if (isValid(result, x, x)
+          && complete(result, !Float.isInfinite(result) && (double) result * result != x)) {
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.sqrt(arg);
+  }
+
+  @Override
+  public boolean equals(final FloatX first, final FloatX second) {
+    return soft.equals(first, second);
+  }
+
+  @Override
+  public int compare(final FloatX first, final FloatX second) {
+    return soft.compare(first, second);
+  }
+
+  @Override
+  public boolean isNan(final FloatX arg) {
+    return soft.isNan(arg);
+  }
+
+  @Override
+  public boolean isSignalingNan(final FloatX arg) {
+    return soft.isSignalingNan(arg);
+  }
+
+  @Override
+  public FloatX round(final FloatX value) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = value.floatValue();
+      final float result = (float) Math.rint(x);
+
+      if (!Float.isNaN(result)) {
+        if (result != x) {
+          Precision.raiseInexact();
+        }
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.round(value);
+  }
+
+  @Override
+  public FloatX toFloat(final FloatX value, final Precision precision) {
+    if (precision == Precision.FLOAT64 && Precision.isHardwareApplicable()) {
+      final double result = value.floatValue();
+      if (!Double.isNaN(result)) {
+        return Float64Operations.newFloatX(result);
+      }
+    }
+    return soft.toFloat(value, precision);
+  }
+
+  @Override
+  public BitVector toInteger(final FloatX value, final int size) {
+    if (Precision.isHardwareApplicable()) {
+      final float x = value.floatValue();
+      final double result = Math.rint(x);
+
+      // Out-of-range values and NaNs are converted by SoftFloat rules.
+      if (size == 32 && result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+        if (result != x) {
+          Precision.raiseInexact();
+        }
+        return BitVector.valueOf((int) result, size);
+      }
+
+      if (size == 64 && result >= -0x1p63 && result < 0x1p63) {
+        if (result != x) {
+          Precision.raiseInexact();
+        }
+        return BitVector.valueOf((long) result, size);
+      }
+    }
+    return soft.toInteger(value, size);
+  }
+
+  @Override
+  public FloatX fromInteger(final BitVector value) {
+    if (Precision.isHardwareApplicable()) {
+      final int size = value.getBitSize();
+
+      if (size == 32) {
+        final int x = value.intValue();
+        final float result = (float) x;
+
+        if ((double) result != x) {
+          Precision.raiseInexact();
+        }
+        return Float32Operations.newFloatX(result);
+      }
+
+      if (size == 64) {
+        final long x = value.longValue();
+        final float result = (float) x;
+
+        // 2^63 is out of the long range: the conversion back would saturate.
+        if (result >= 0x1p63f || (long) result != x) {
+          Precision.raiseInexact();
+        }
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.fromInteger(value);
+  }
+
+  @Override
+  public String toString(final FloatX arg) {
+    return soft.toString(arg);
+  }
+
+  @Override
+  public String toHexString(final FloatX arg) {
+    return soft.toHexString(arg);
+  }
+
+  /**
+   * Checks that a native result is not a NaN and is not an infinity produced from finite
+   * operands (overflow or division by zero). Such results raise flags and are computed
+   * by SoftFloat.
+   */
+  private static boolean isValid(final float result, final float lhs, final float rhs) {
+    return !Float.isNaN(result)
+        && !(Float.isInfinite(result) && !Float.isInfinite(lhs) && !Float.isInfinite(rhs));
+  }
+
+  /**
+   * Raises the inexact flag for a valid native result if required. Inexact results that are
+   * tiny raise the underflow flag: they are rejected and computed by SoftFloat.
+   *
+   * @return {@code true} if the result is accepted or {@code false} otherwise.
+   */
+  private static boolean complete(final float result, final boolean isInexact) {
+    if (Math.abs(result) <= Float.MIN_NORMAL && (result != 0 || isInexact)) {
+      return false;
+    }
+
+    if (isInexact) {
+      Precision.raiseInexact();
+    }
+
+    return true;
+  }
+
+  /**
+   * Checks whether the sum is exact: the rounding error (Knuth's TwoSum) is zero.
+   */
+  private static boolean isExactSum(final float lhs, final float rhs, final float sum) {
+    if (Float.isInfinite(sum)) {
+      return true;
+    }
+
+    final float rhsVirtual = sum - lhs;
+    final float lhsVirtual = sum - rhsVirtual;
+
+    return (lhs - lhsVirtual) + (rhs - rhsVirtual) == 0;
+  }
+}
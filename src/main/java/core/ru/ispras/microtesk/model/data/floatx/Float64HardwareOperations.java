@@ -0,0 +1,328 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data.floatx;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+/**
+ * {@link Float64HardwareOperations} implements floating-point operations for 64-bit types
+ * using native Java {@code double} arithmetic. It is applicable only when the rounding mode is
+ * round-to-nearest-even (see {@link Precision}). Inexact results raise the inexact flag.
+ * Otherwise, for results that depend on the NaN encoding and for results that raise other
+ * flags, operations are delegated to {@link Float64Operations}.
+ */
+final strictfp class Float64HardwareOperations implements Operations {
+  /** Veltkamp's constant for splitting a double into two 26-bit halves. */
+  private static final double SPLITTER = 0x1p27 + 1;
+
+  private static Operations instance = null;
+
+  public static Operations get() {
+    if (null == instance) {
+      instance = new Float64HardwareOperations();
+    }
+    return instance;
+  }
+
+  private final Operations soft;
+
+  private Float64HardwareOperations() {
+    this.soft = Float64Operations.get();
+  }
+
+  @Override
+  public FloatX add(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = lhs.doubleValue();
+      final double y = rhs.doubleValue();
+      final double result = x + y;
+
+      if (isValid(result, x, y) && complete(result, !isExactSum(x, y, result))) {
+        return Float64Operations.newFloatX(result);
+      }
+    }
+    return soft.add(lhs, rhs);
+  }
+
+  @Override
+  public FloatX sub(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = lhs.doubleValue();
+      final double y = rhs.doubleValue();
+      final double result = x - y;
+
+      if (isValid(result, x, y) && complete(result, !isExactSum(x, -y, result))) {
+        return Float64Operations.newFloatX(result);
+      }
+    }
+    return soft.sub(lhs, rhs);
+  }
+
+  @Override
+  public FloatX mul(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = lhs.doubleValue();
+      final double y = rhs.doubleValue();
+      final double result = x * y;
+
+      if (isValid(result, x, y)) {
+        final boolean isExact = Double.isInfinite(result) || isExactProduct(x, y, result);
+        if (complete(result, !isExact)) {
+          return Float64Operations.newFloatX(result);
+        }
+      }
+    }
+    return soft.mul(lhs, rhs);
+  }
+
+  @Override
+  public FloatX div(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = lhs.doubleValue();
+      final double y = rhs.doubleValue();
+      final double result = x / y;
+
+      if (isValid(result, x, y)) {
+        // The quotient is exact if multiplying it back gives the dividend.
+        final boolean isExact = Double.isInfinite(result)
+            || Double.isInfinite(y)
+            || isExactProduct(result, y, x);
+
+        if (complete(result, !isExact)) {
+          return Float64Operations.newFloatX(result);
+        }
+      }
+    }
+    return soft.div(lhs, rhs);
+  }
+
+  @Override
+  public FloatX rem(final FloatX lhs, final FloatX rhs) {
+    if (Precision.isHardwareApplicable()) {
+      // The IEEE remainder is exact.
+      final double result = Math.IEEEremainder(lhs.doubleValue(), rhs.doubleValue());
+      if (!Double.isNaN(result)) {
+        return Float64Operations.newFloatX(result);
+      }
+    }
+    return soft.rem(lhs, rhs);
+  }
+
+  @Override
+  public FloatX sqrt(final FloatX arg) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = arg.doubleValue();
+      final double result = Math.sqrt(x);
+
+      if (isValid(result, x, x)) {
+        final boolean isExact = Double.isInfinite(result) || isExactProduct(result, result, x);
+        if (complete(result, !isExact)) {
+          return Float64Operations.newFloatX(result);
+        }
+      }
+    }
+    return soft.sqrt(arg);
+  }
+
+  @Override
+  public boolean equals(final FloatX first, final FloatX second) {
+    return soft.equals(first, second);
+  }
+
+  @Override
+  public int compare(final FloatX first, final FloatX second) {
+    return soft.compare(first, second);
+  }
+
+  @Override
+  public boolean isNan(final FloatX arg) {
+    return soft.isNan(arg);
+  }
+
+  @Override
+  public boolean isSignalingNan(final FloatX arg) {
+    return soft.isSignalingNan(arg);
+  }
+
+  @Override
+  public FloatX round(final FloatX value) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = value.doubleValue();
+      final double result = Math.rint(x);
+
+      if (!Double.isNaN(result)) {
+        if (result != x) {
+          Precision.raiseInexact();
+        }
+        return Float64Operations.newFloatX(result);
+      }
+    }
+    return soft.round(value);
+  }
+
+  @Override
+  public FloatX toFloat(final FloatX value, final Precision precision) {
+    if (precision == Precision.FLOAT32 && Precision.isHardwareApplicable()) {
+      final double x = value.doubleValue();
+      final float result = (float) x;
+
+      // Overflows and inexact tiny results raise flags other than inexact.
+      final boolean isInexact = result != x;
+      final boolean isValid = !Float.isNaN(result)
+          && !(Float.isInfinite(result) && !Double.isInfinite(x))
+          && !(Math.abs(result) <= Float.MIN_NORMAL && (result != 0 || isInexact));
+
+      if (isValid) {
+        if (isInexact) {
+          Precision.raiseInexact();
+        }
+        return Float32Operations.newFloatX(result);
+      }
+    }
+    return soft.toFloat(value, precision);
+  }
+
+  @Override
+  public BitVector toInteger(final FloatX value, final int size) {
+    if (Precision.isHardwareApplicable()) {
+      final double x = value.doubleValue();
+      final double result = Math.rint(x);
+
+      // Out-of-range values and NaNs are converted by SoftFloat rules.
+      if (size == 32 && result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+        if (result != x) {
+          Precision.raiseInexact();
+        }
+        return BitVector.valueOf((int) result, size);
+      }
+
+      if (size == 64 && result >= -0x1p63 && result < 0x1p63) {
+        if (result != x) {
+          Precision.raiseInexact();
+        }
+        return BitVector.valueOf((long) result, size);
+      }
+    }
+    return soft.toInteger(value, size);
+  }
+
+  @Override
+  public FloatX fromInteger(final BitVector value) {
+    if (Precision.isHardwareApplicable()) {
+      final int size = value.getBitSize();
+
+      if (size == 32) {
+        return Float64Operations.newFloatX((double) value.intValue());
+      }
+
+      if (size == 64) {
+        final long x = value.longValue();
+        final double result = (double) x;
+
+        // 2^63 is out of the long range: the conversion back would saturate.
+        if (result >= 0x1p63 || (long) result != x) {
+          Precision.raiseInexact();
+        }
+        return Float64Operations.newFloatX(result);
+      }
+    }
+    return soft.fromInteger(value);
+  }
+
+  @Override
+  public String toString(final FloatX arg) {
+    return soft.toString(arg);
+  }
+
+  @Override
+  public String toHexString(final FloatX arg) {
+    return soft.toHexString(arg);
+  }
+
+  /**
+   * Checks that a native result is not a NaN and is not an infinity produced from finite
+   * operands (overflow or division by zero). Such results raise flags and are computed
+   * by SoftFloat.
+   */
+  private static boolean isValid(final double result, final double lhs, final double rhs) {
+    return !Double.isNaN(result)
+        && !(Double.isInfinite(result) && !Double.isInfinite(lhs) && !Double.isInfinite(rhs));
+  }
+
+  /**
+   * Raises the inexact flag for a valid native result if required. Inexact results that are
+   * tiny raise the underflow flag: they are rejected and computed by SoftFloat.
+   *
+   * @return {@code true} if the result is accepted or {@code false} otherwise.
+   */
+  private static boolean complete(final double result, final boolean isInexact) {
+    if (Math.abs(result) <= Double.MIN_NORMAL && (result != 0 || isInexact)) {
+      return false;
+    }
+
+    if (isInexact) {
+      Precision.raiseInexact();
+    }
+
+    return true;
+  }
+
+  /**
+   * Checks whether the sum is exact: the rounding error (Knuth's TwoSum) is zero.
+   */
+  private static boolean isExactSum(final double lhs, final double rhs, final double sum) {
+    if (Double.isInfinite(sum)) {
+      return true;
+    }
+
+    final double rhsVirtual = sum - lhs;
+    final double lhsVirtual = sum - rhsVirtual;
+
+    return (lhs - lhsVirtual) + (rhs - rhsVirtual) == 0;
+  }
+
+  /**
+   * Checks whether the product of finite operands is exactly equal to the value.
+   * The operands are scaled to avoid overflow and underflow, and the rounding error of
+   * the product is computed by Dekker's algorithm.
+   */
+  private static boolean isExactProduct(final double lhs, final double rhs, final double value) {
+    if (lhs == 0 || rhs == 0) {
+      return value == 0;
+    }
+
+    final int lhsExponent = Math.getExponent(lhs);
+    final int rhsExponent = Math.getExponent(rhs);
+
+    final double x = Math.scalb(lhs, -lhsExponent);
+    final double y = Math.scalb(rhs, -rhsExponent);
+    final double expected = Math.scalb(value, -lhsExponent - rhsExponent);
+
+    final double product = x * y;
+    if (product != expected) {
+      return false;
+    }
+
+    final double xSplit = SPLITTER * x;
+    final double xHigh = xSplit - (xSplit - x);
+    final double xLow = x - xHigh;
+
+    final double ySplit = SPLITTER * y;
+    final double yHigh = ySplit - (ySplit - y);
+    final double yLow = y - yHigh;
+
+    return xLow * yLow - (((product - xHigh * yHigh) - xLow * yHigh) - xHigh * yLow) == 0;
+  }
+}
@@ -277,4 +277,8 @@ public final class FloatX extends Number implements Comparable<FloatX> {
   public static void setExceptionFlags(final int value) {
     Precision.setExceptionFlags(value);
   }
+
+  public static void setHardwareFloatEnabled(final boolean value) {
+    Precision.setHardwareEnabled(value);
+  }
 }
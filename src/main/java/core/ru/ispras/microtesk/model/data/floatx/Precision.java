@@ -31,13 +31,13 @@ public enum Precision {
 
   FLOAT32 (23, 8) {
     @Override public Operations getOperations() {
-      return Float32Operations.get();
+      return hardwareEnabled ? Float32HardwareOperations.get() : Float32Operations.get();
     }
   },
 
   FLOAT64 (52, 11) {
     @Override public Operations getOperations() {
-      return Float64Operations.get();
+      return hardwareEnabled ? Float64HardwareOperations.get() : Float64Operations.get();
     }
   },
 
@@ -53,6 +53,14 @@ public enum Precision {
     }
   };
 
+  /** SoftFloat's {@code float_round_nearest_even} rounding mode. */
+  private static final int ROUND_NEAREST_EVEN = 0;
+
+  private static boolean hardwareEnabled = false;
+
+  /** SoftFloat's inexact flag. It is determined on the first use (see {@link #raiseInexact()}). */
+  private static int inexactFlag = 0;
+
   private final int fractionSize;
   private final int exponentSize;
 
@@ -108,4 +116,39 @@ public enum Precision {
   static void setExceptionFlags(final int value) {
     JSoftFloat.setFloatExceptionFlags(value);
   }
+
+  static void setHardwareEnabled(final boolean value) {
+    hardwareEnabled = value;
+  }
+
+  /**
+   * Checks whether native Java floating-point arithmetic produces the same results as SoftFloat.
+   * This is true in the round-to-nearest-even mode.
+   *
+   * <p>Native arithmetic does not raise exception flags. Therefore, native results are used only
+   * if the only flag SoftFloat raises for them is the inexact flag, which is raised by
+   * {@link #raiseInexact()}. Other results (invalid operations, division by zero, overflow and
+   * underflow) are computed by SoftFloat.</p>
+   *
+   * @return {@code true} if native arithmetic can be used or {@code false} otherwise.
+   */
+  static boolean isHardwareApplicable() {
+    return JSoftFloat.getFloatRoundingMode() == ROUND_NEAREST_EVEN;
+  }
+
+  /**
+   * Raises SoftFloat's inexact flag for an inexact result of native arithmetic.
+   */
+  static void raiseInexact() {
+    if (0 == inexactFlag) {
+      // 1/3 is inexact and raises no other flags.
+      final int flags = JSoftFloat.getFloatExceptionFlags();
+      JSoftFloat.setFloatExceptionFlags(0);
+      JSoftFloat.float32_div(1.0f, 3.0f);
+      inexactFlag = JSoftFloat.getFloatExceptionFlags();
+      JSoftFloat.setFloatExceptionFlags(flags);
+    }
+
+    JSoftFloat.setFloatExceptionFlags(JSoftFloat.getFloatExceptionFlags() | inexactFlag);
+  }
 }
@@ -24,6 +24,11 @@ public abstract class Decoder {
   private final BitVector opc;
   private final BitVector opcMask;
 
+  // Opcode and opcode mask as primitive values (used when the image fits in 64 bits).
+  private final long opcValue;
+  private final long opcMaskValue;
+  private final boolean isOpcLong;
+
   protected Decoder(
       final int maxImageSize,
       final boolean imageSizeFixed,
@@ -34,6 +39,13 @@ public abstract class Decoder {
 
     this.opc = null != opc ? BitVector.valueOf(opc, 2, opc.length()) : null;
     this.opcMask = null != opcMask ? BitVector.valueOf(opcMask, 2, opcMask.length()) : null;
+
+    this.isOpcLong = null != this.opc
+        && null != this.opcMask
+        && this.opcMask.getBitSize() <= Long.SIZE;
+
+    this.opcValue = isOpcLong ? this.opc.longValue() : 0;
+    this.opcMaskValue = isOpcLong ? this.opcMask.longValue() : 0;
   }
 
   public final int getMaxImageSize() {
@@ -57,10 +69,22 @@ public abstract class Decoder {
       return true;
     }
 
+    if (isOpcLong && image.getBitSize() == opcMask.getBitSize()) {
+      return (image.longValue() & opcMaskValue) == opcValue;
+    }
+
     final BitVector imageOpc = applyOpcMask(image);
     return imageOpc.equals(opc);
   }
 
+  final long getOpcValue() {
+    return opcValue;
+  }
+
+  final long getOpcMaskValue() {
+    return opcMaskValue;
+  }
+
   protected final BitVector applyOpcMask(final BitVector image) {
     InvariantChecks.checkTrue(opcMask.getBitSize() == image.getBitSize());
     return BitVectorMath.and(image, opcMask);
@@ -22,6 +22,8 @@ import java.util.List;
 
 public abstract class DecoderGroup extends Decoder {
   private final List<Decoder> decoderList;
+  private volatile DecoderTree decoderTree;
+  private volatile boolean isDecoderTreeBuilt;
 
   protected DecoderGroup(
       final int maxImageSize,
@@ -29,6 +31,8 @@ public abstract class DecoderGroup extends Decoder {
       final String opcMask) {
     super(maxImageSize, imageSizeFixed, null, opcMask);
     this.decoderList = new ArrayList<>();
+    this.decoderTree = null;
+    this.isDecoderTreeBuilt = false;
   }
 
   protected final void add(final Decoder decoder) {
@@ -37,14 +41,30 @@ public abstract class DecoderGroup extends Decoder {
     InvariantChecks.checkTrue(isImageSizeFixed() ? decoder.isImageSizeFixed() : true);
 
     decoderList.add(decoder);
+    isDecoderTreeBuilt = false;
   }
 
   @Override
   public final DecoderResult decode(final BitVector image) {
-    // TODO: It seems to be very slow.
+    final DecoderTree tree = getDecoderTree();
+    if (null != tree && image.getBitSize() == tree.getImageBitSize()) {
+      return tree.decode(image);
+    }
+
     return decodeUsingDecoderList(image);
   }
 
+  private DecoderTree getDecoderTree() {
+    // The tree is built on first use since decoders are added by constructors of subclasses.
+    // Building it concurrently in several threads produces equivalent trees.
+    if (!isDecoderTreeBuilt) {
+      decoderTree = isImageSizeFixed() ? DecoderTree.build(getMaxImageSize(), decoderList) : null;
+      isDecoderTreeBuilt = true;
+    }
+
+    return decoderTree;
+  }
+
   private DecoderResult decodeUsingDecoderList(final BitVector image) {
     for (final Decoder decoder : decoderList) {
       final DecoderResult result = decoder.decode(image);
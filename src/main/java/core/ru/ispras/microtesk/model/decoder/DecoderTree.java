@@ -0,0 +1,234 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.decoder;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@link DecoderTree} class implements a decision tree that selects decoders
+ * of a {@link DecoderGroup} by opcode bits of an image.
+ *
+ * <p>Each branch node dispatches on a contiguous field of opcode bits that are fixed for all
+ * decoders reaching this node. Leaves hold decoders to be tried in the order they were
+ * added to the group. Decoders without an opcode are included into all leaves. A node is split
+ * only if it holds several decoders with opcodes; children that hold decoders without opcodes
+ * only share a single leaf. The tree is applicable only to fixed-size images that fit
+ * in 64 bits.</p>
+ */
+final class DecoderTree {
+  private static final int MAX_KEY_BIT_SIZE = 12;
+
+  private final int imageBitSize;
+  private final Node root;
+
+  private abstract static class Node {}
+
+  private static final class Branch extends Node {
+    private final int shift;
+    private final long mask;
+    private final Node[] children;
+
+    private Branch(final int shift, final int bitSize) {
+      this.shift = shift;
+      this.mask = (1L << bitSize) - 1;
+      this.children = new Node[1 << bitSize];
+    }
+  }
+
+  private static final class Leaf extends Node {
+    private final Decoder[] decoders;
+
+    private Leaf(final List<Decoder> decoders) {
+      this.decoders = decoders.toArray(new Decoder[decoders.size()]);
+    }
+  }
+
+  /**
+   * Builds a decision tree for the specified decoders.
+   *
+   * @param imageBitSize Image size.
+   * @param decoders Decoders in the order they must be tried.
+   * @return Decision tree or {@code null} if it is not applicable to the decoders.
+   */
+  public static DecoderTree build(final int imageBitSize, final List<Decoder> decoders) {
+    InvariantChecks.checkNotNull(decoders);
+
+    if (imageBitSize <= 0 || imageBitSize > Long.SIZE) {
+      return null;
+    }
+
+    final Node root = buildNode(imageBitSize, decoders, 0L);
+    return root instanceof Branch ? new DecoderTree(imageBitSize, root) : null;
+  }
+
+  private DecoderTree(final int imageBitSize, final Node root) {
+    this.imageBitSize = imageBitSize;
+    this.root = root;
+  }
+
+  public int getImageBitSize() {
+    return imageBitSize;
+  }
+
+  /**
+   * Returns the number of distinct nodes (shared nodes are counted once).
+   *
+   * @return Number of nodes.
+   */
+  int getNodeCount() {
+    final Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+    final List<Node> queue = new ArrayList<>();
+
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      final Node node = queue.remove(queue.size() - 1);
+
+      if (nodes.add(node) && node instanceof Branch) {
+        Collections.addAll(queue, ((Branch) node).children);
+      }
+    }
+
+    return nodes.size();
+  }
+
+  public DecoderResult decode(final BitVector image) {
+    InvariantChecks.checkTrue(image.getBitSize() == imageBitSize);
+    final long value = image.longValue();
+
+    Node node = root;
+    while (node instanceof Branch) {
+      final Branch branch = (Branch) node;
+      node = branch.children[(int) ((value >>> branch.shift) & branch.mask)];
+    }
+
+    for (final Decoder decoder : ((Leaf) node).decoders) {
+      final DecoderResult result = decoder.decode(image);
+      if (null != result) {
+        return result;
+      }
+    }
+
+    return null;
+  }
+
+  private static Node buildNode(
+      final int imageBitSize,
+      final List<Decoder> decoders,
+      final long usedMask) {
+    long commonMask = ~usedMask & getMask(imageBitSize);
+    int opcCount = 0;
+
+    for (final Decoder decoder : decoders) {
+      if (hasOpc(decoder, imageBitSize)) {
+        commonMask &= decoder.getOpcMaskValue();
+        opcCount++;
+      }
+    }
+
+    // Splitting does not reduce the number of decoders to be tried.
+    if (opcCount <= 1 || 0 == commonMask) {
+      return new Leaf(decoders);
+    }
+
+    // Selects the longest contiguous field of common opcode bits.
+    int shift = 0;
+    int bitSize = 0;
+
+    for (int position = 0; position < imageBitSize;) {
+      if (0 == (commonMask & (1L << position))) {
+        position++;
+        continue;
+      }
+
+      final int start = position;
+      while (position < imageBitSize && 0 != (commonMask & (1L << position))) {
+        position++;
+      }
+
+      if (position - start > bitSize) {
+        shift = start;
+        bitSize = position - start;
+      }
+    }
+
+    // The most significant bits of the field are used if it is too long.
+    if (bitSize > MAX_KEY_BIT_SIZE) {
+      shift += bitSize - MAX_KEY_BIT_SIZE;
+      bitSize = MAX_KEY_BIT_SIZE;
+    }
+
+    final Branch branch = new Branch(shift, bitSize);
+    final long fieldMask = branch.mask << shift;
+
+    // Buckets are created only for the keys of decoders with opcodes.
+    final List<List<Decoder>> buckets = new ArrayList<>(branch.children.length);
+    for (int index = 0; index < branch.children.length; ++index) {
+      buckets.add(null);
+    }
+
+    final List<List<Decoder>> usedBuckets = new ArrayList<>();
+    final List<Decoder> wildcards = new ArrayList<>();
+
+    for (final Decoder decoder : decoders) {
+      if (hasOpc(decoder, imageBitSize)) {
+        final int key = (int) ((decoder.getOpcValue() >>> shift) & branch.mask);
+
+        if (null == buckets.get(key)) {
+          // Decoders without opcodes that precede the decoder keep their order.
+          final List<Decoder> bucket = new ArrayList<>(wildcards);
+          buckets.set(key, bucket);
+          usedBuckets.add(bucket);
+        }
+
+        buckets.get(key).add(decoder);
+      } else {
+        wildcards.add(decoder);
+
+        for (final List<Decoder> bucket : usedBuckets) {
+          bucket.add(decoder);
+        }
+      }
+    }
+
+    // Keys that match no opcode share the leaf of decoders without opcodes.
+    final Leaf wildcardLeaf = new Leaf(wildcards);
+
+    for (int index = 0; index < branch.children.length; ++index) {
+      final List<Decoder> bucket = buckets.get(index);
+      branch.children[index] = null != bucket
+          ? buildNode(imageBitSize, bucket, usedMask | fieldMask)
+          : wildcardLeaf;
+    }
+
+    return branch;
+  }
+
+  private static boolean hasOpc(final Decoder decoder, final int imageBitSize) {
+    return null != decoder.getOpc()
+        && null != decoder.getOpcMask()
+        && decoder.getOpcMask().getBitSize() == imageBitSize;
+  }
+
+  private static long getMask(final int bitSize) {
+    return bitSize == Long.SIZE ? -1L : (1L << bitSize) - 1;
+  }
+}
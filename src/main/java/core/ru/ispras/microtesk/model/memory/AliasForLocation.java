@@ -82,4 +82,9 @@ final class AliasForLocation extends Memory {
   public void reset() {
     // Does not work for aliases (and should not be called)
   }
+
+  @Override
+  public void setUseTempState(final boolean value) {
+    // Aliases have no state of their own
+  }
 }
@@ -113,4 +113,9 @@ final class AliasForMemory extends Memory {
   public void reset() {
     // Does not work for aliases (and must not be called)
   }
+
+  @Override
+  public void setUseTempState(final boolean value) {
+    // Aliases have no state of their own
+  }
 }
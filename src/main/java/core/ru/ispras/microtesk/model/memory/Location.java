@@ -31,15 +31,37 @@ import java.util.List;
  * @author <a href="mailto:andrewt@ispras.ru">Andrei Tatarnikov</a>
  */
 public final class Location implements LocationAccessor {
+  private static final int BIT_FIELD_CACHE_SIZE = 8;
+
   private final Type type;
   private final List<LocationAtom> atoms;
 
+  /** Single atom or {@code null} if the location consists of several atoms. */
+  private final LocationAtom singleAtom;
+
+  /** Direct-mapped cache of bit fields with constant bounds, allocated on demand. */
+  private BitFieldView[] bitFields;
+
+  private static final class BitFieldView {
+    private final int start;
+    private final int end;
+    private final Location location;
+
+    private BitFieldView(final int start, final int end, final Location location) {
+      this.start = start;
+      this.end = end;
+      this.location = location;
+    }
+  }
+
   private Location(final Type type, final List<LocationAtom> atoms) {
     InvariantChecks.checkNotNull(type);
     InvariantChecks.checkNotEmpty(atoms);
 
     this.type = type;
     this.atoms = atoms;
+    this.singleAtom = atoms.size() == 1 ? atoms.get(0) : null;
+    this.bitFields = null;
   }
 
   private Location(final Type type, final LocationAtom atom) {
@@ -124,6 +146,34 @@ public final class Location implements LocationAccessor {
     return new Data(rawData, getType());
   }
 
+  /**
+   * Loads data of a location of up to 64 bits as a {@code long} value. Unlike {@link #load()},
+   * it does not create any objects for register locations.
+   *
+   * @return Zero-extended data.
+   */
+  public long loadLong() {
+    if (null != singleAtom) {
+      return singleAtom.loadLong(true);
+    }
+
+    return toLong(readData(true).longValue());
+  }
+
+  /**
+   * Stores data of a location of up to 64 bits passed as a {@code long} value.
+   * Unlike {@link #store(Data)}, it does not create any objects for register locations.
+   *
+   * @param value Data to be stored (higher bits are ignored).
+   */
+  public void storeLong(final long value) {
+    if (null != singleAtom) {
+      singleAtom.storeLong(value, true);
+    } else {
+      writeData(BitVector.valueOf(value, getBitSize()), true);
+    }
+  }
+
   public void store(final Data data) {
     InvariantChecks.checkNotNull(data);
 
@@ -163,6 +213,24 @@ public final class Location implements LocationAccessor {
       return this;
     }
 
+    // Bit fields of long-living locations (registers) are accessed again and again.
+    final int cacheIndex = (start * 31 + end) & (BIT_FIELD_CACHE_SIZE - 1);
+    if (null != bitFields) {
+      final BitFieldView view = bitFields[cacheIndex];
+      if (null != view && view.start == start && view.end == end) {
+        return view.location;
+      }
+    } else {
+      bitFields = new BitFieldView[BIT_FIELD_CACHE_SIZE];
+    }
+
+    final Location location = newBitField(start, end);
+    bitFields[cacheIndex] = new BitFieldView(start, end, location);
+
+    return location;
+  }
+
+  private Location newBitField(final int start, final int end) {
     final int newBitSize = end - start + 1;
     final Type newType = getType().resize(newBitSize);
 
@@ -283,7 +351,34 @@ public final class Location implements LocationAccessor {
     writeData(rawData, false);
   }
 
+  @Override
+  public long getLongValue() {
+    if (null != singleAtom) {
+      return singleAtom.loadLong(false);
+    }
+
+    return toLong(readData(false).longValue());
+  }
+
+  @Override
+  public void setLongValue(final long value) {
+    if (null != singleAtom) {
+      singleAtom.storeLong(value, false);
+    } else {
+      writeData(BitVector.valueOf(value, getBitSize()), false);
+    }
+  }
+
+  private long toLong(final long value) {
+    final int bitSize = getBitSize();
+    return bitSize >= Long.SIZE ? value : value & ((1L << bitSize) - 1);
+  }
+
   private BitVector readData(final boolean callHandlers) {
+    if (null != singleAtom) {
+      return singleAtom.load(callHandlers).copy();
+    }
+
     final BitVector[] dataItems = new BitVector[atoms.size()];
     for (int index = 0; index < atoms.size(); ++index) {
       final LocationAtom atom = atoms.get(index);
@@ -294,6 +389,11 @@ public final class Location implements LocationAccessor {
   }
 
   private void writeData(final BitVector data, final boolean callHandlers) {
+    if (null != singleAtom) {
+      singleAtom.store(data, callHandlers);
+      return;
+    }
+
     int position = data.getBitSize();
     for (final LocationAtom atom : atoms) {
       final int bitSize = atom.getBitFieldSize();
@@ -59,4 +59,20 @@ public interface LocationAccessor {
    * @param value Binary data packed in a BigInteger object.
    */
   void setValue(BigInteger value);
+
+  /**
+   * Returns the value stored in the location as a {@code long} value. For locations
+   * larger than 64 bits, the lower 64 bits are returned.
+   *
+   * @return Binary data packed in a {@code long} value.
+   */
+  long getLongValue();
+
+  /**
+   * Sets the value of the specified location. For locations larger than 64 bits,
+   * the value is zero-extended.
+   *
+   * @param value Binary data packed in a {@code long} value.
+   */
+  void setLongValue(long value);
 }
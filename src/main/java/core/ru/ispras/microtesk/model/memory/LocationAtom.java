@@ -90,6 +90,28 @@ abstract class LocationAtom {
 
   public abstract void store(BitVector data, boolean callHandler);
 
+  /**
+   * Loads data of up to 64 bits as a {@code long} value. Atoms that store data in
+   * primitive form override this method to avoid creating bit vectors.
+   *
+   * @param callHandler Specifies whether handlers must be called.
+   * @return Zero-extended data.
+   */
+  public long loadLong(final boolean callHandler) {
+    final long value = load(callHandler).longValue();
+    return bitFieldSize >= Long.SIZE ? value : value & ((1L << bitFieldSize) - 1);
+  }
+
+  /**
+   * Stores data of up to 64 bits passed as a {@code long} value. Higher bits are ignored.
+   *
+   * @param value Data to be stored.
+   * @param callHandler Specifies whether handlers must be called.
+   */
+  public void storeLong(final long value, final boolean callHandler) {
+    store(BitVector.valueOf(value, bitFieldSize), callHandler);
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
@@ -16,7 +16,6 @@ package ru.ispras.microtesk.model.memory;
 
 import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
-import ru.ispras.microtesk.model.tracer.Record;
 import ru.ispras.microtesk.model.tracer.Tracer;
 
 /**
@@ -104,7 +103,21 @@ final class LocationAtomLogger extends LocationAtom {
     atom.store(data, callHandler);
 
     if (Tracer.isEnabled()) {
-      Tracer.addRecord(Record.newRegisterWrite(getName(), data));
+      Tracer.addRegisterWrite(getName(), data);
+    }
+  }
+
+  @Override
+  public long loadLong(final boolean callHandler) {
+    return atom.loadLong(callHandler);
+  }
+
+  @Override
+  public void storeLong(final long value, final boolean callHandler) {
+    atom.storeLong(value, callHandler);
+
+    if (Tracer.isEnabled()) {
+      Tracer.addRegisterWrite(getName(), BitVector.valueOf(value, getBitFieldSize()));
     }
   }
 }
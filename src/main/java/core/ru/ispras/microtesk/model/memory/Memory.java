@@ -199,6 +199,15 @@ public abstract class Memory {
 
   public abstract void reset();
 
+  /**
+   * Switches the memory to the temporary state or back to the main state. Changes made
+   * in the temporary state are discarded when the memory is switched back.
+   *
+   * @param value {@code true} to switch to the temporary state or {@code false} to restore
+   *        the main state.
+   */
+  public abstract void setUseTempState(boolean value);
+
   @Override
   public String toString() {
     return String.format(
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.memory;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.util.InvariantChecks;
+
+/**
+ * The {@link MemoryPageTable} class implements a radix table of memory pages indexed
+ * by primitive {@code long} values. It is used by {@link MemoryStorage} for address spaces
+ * that fit in 64 bits. Each page holds {@link #REGIONS_IN_PAGE} regions stored in a
+ * {@code long} array.
+ *
+ * <p>Table nodes and pages are shared between copies of the table and are copied on the first
+ * write. Ownership is tracked with the help of owner tokens: a node or a page can be modified
+ * in place only if it belongs to the current owner of the table.</p>
+ *
+ * <p>Snapshots are taken and restored in constant time. Taking a snapshot makes all nodes
+ * and pages reachable from it read-only. When the snapshot is restored and no copies of the
+ * table were made in the meantime, these nodes and pages are owned by the table again and
+ * are not copied on subsequent writes.</p>
+ */
+final class MemoryPageTable {
+  public static final int PAGE_INDEX_SHIFT = 12;
+  public static final int REGIONS_IN_PAGE = 1 << PAGE_INDEX_SHIFT;
+  public static final long REGION_INDEX_MASK = REGIONS_IN_PAGE - 1;
+
+  private static final int NODE_BITS = 10;
+  private static final int NODE_SIZE = 1 << NODE_BITS;
+  private static final int NODE_MASK = NODE_SIZE - 1;
+
+  private static final long NO_PAGE = -1L;
+
+  private final int regionBitSize;
+  private final int levels;
+
+  private Object owner;
+  private Node root;
+
+  // The number of copies made from this table (they share its nodes and pages).
+  private int copyCount;
+
+  // The most recently accessed page (speeds up sequential accesses).
+  private long cachedPageIndex;
+  private Page cachedPage;
+
+  private static final class Node {
+    private final Object owner;
+    private final Object[] children;
+
+    private Node(final Object owner) {
+      this.owner = owner;
+      this.children = new Object[NODE_SIZE];
+    }
+
+    private Node(final Object owner, final Node other) {
+      this.owner = owner;
+      this.children = other.children.clone();
+    }
+  }
+
+  static final class Snapshot {
+    private final MemoryPageTable table;
+    private final Object owner;
+    private final Node root;
+    private final int copyCount;
+
+    private Snapshot(final MemoryPageTable table) {
+      this.table = table;
+      this.owner = table.owner;
+      this.root = table.root;
+      this.copyCount = table.copyCount;
+    }
+  }
+
+  static final class Page {
+    private final Object owner;
+    private final int regionBitSize;
+    private final int wordsInRegion;
+    private final long[] words;
+    private final long[] initFlags;
+
+    private Page(final Object owner, final int regionBitSize) {
+      this.owner = owner;
+      this.regionBitSize = regionBitSize;
+      this.wordsInRegion = (regionBitSize + Long.SIZE - 1) / Long.SIZE;
+      this.words = new long[wordsInRegion * REGIONS_IN_PAGE];
+      this.initFlags = new long[REGIONS_IN_PAGE / Long.SIZE];
+    }
+
+    private Page(final Object owner, final Page other) {
+      this.owner = owner;
+      this.regionBitSize = other.regionBitSize;
+      this.wordsInRegion = other.wordsInRegion;
+      this.words = other.words.clone();
+      this.initFlags = other.initFlags.clone();
+    }
+
+    public boolean isInitialized(final int region) {
+      return (initFlags[region >>> 6] & (1L << region)) != 0;
+    }
+
+    public BitVector read(final int region) {
+      final int base = region * wordsInRegion;
+      if (1 == wordsInRegion) {
+        return BitVector.valueOf(words[base], regionBitSize);
+      }
+
+      final BitVector result = BitVector.newEmpty(regionBitSize);
+      for (int index = 0; index < wordsInRegion; ++index) {
+        final int bitPos = index * Long.SIZE;
+        final int bitSize = Math.min(Long.SIZE, regionBitSize - bitPos);
+        BitVector.newMapping(result, bitPos, bitSize).assign(
+            BitVector.valueOf(words[base + index], bitSize));
+      }
+
+      return result;
+    }
+
+    public void write(final int region, final int offset, final BitVector data) {
+      final int dataBitSize = data.getBitSize();
+      InvariantChecks.checkBoundsInclusive(offset + dataBitSize, regionBitSize);
+
+      final int base = region * wordsInRegion * Long.SIZE + offset;
+      int position = 0;
+      while (position < dataBitSize) {
+        final int bitPos = base + position;
+        final int word = bitPos >>> 6;
+        final int shift = bitPos & (Long.SIZE - 1);
+        final int bitSize = Math.min(Long.SIZE - shift, dataBitSize - position);
+
+        final long mask = mask(bitSize) << shift;
+        final long value = getBits(data, position, bitSize) << shift;
+
+        words[word] = (words[word] & ~mask) | (value & mask);
+        position += bitSize;
+      }
+
+      initFlags[region >>> 6] |= 1L << region;
+    }
+
+    private static long getBits(final BitVector data, final int position, final int bitSize) {
+      final long value;
+      if (data.getBitSize() <= Long.SIZE) {
+        value = data.longValue() >>> position;
+      } else {
+        value = BitVector.newMapping(data, position, bitSize).longValue();
+      }
+      return value & mask(bitSize);
+    }
+
+    private static long mask(final int bitSize) {
+      return bitSize == Long.SIZE ? -1L : (1L << bitSize) - 1;
+    }
+  }
+
+  public MemoryPageTable(final int regionBitSize, final int addressBitSize) {
+    InvariantChecks.checkGreaterThanZero(regionBitSize);
+    InvariantChecks.checkBoundsInclusive(addressBitSize, Long.SIZE);
+
+    final int pageIndexBitSize = Math.max(addressBitSize - PAGE_INDEX_SHIFT, 1);
+
+    this.regionBitSize = regionBitSize;
+    this.levels = (pageIndexBitSize + NODE_BITS - 1) / NODE_BITS;
+
+    this.owner = new Object();
+    this.root = null;
+    this.copyCount = 0;
+
+    this.cachedPageIndex = NO_PAGE;
+    this.cachedPage = null;
+  }
+
+  public MemoryPageTable(final MemoryPageTable other) {
+    InvariantChecks.checkNotNull(other);
+
+    this.regionBitSize = other.regionBitSize;
+    this.levels = other.levels;
+
+    this.owner = new Object();
+    this.root = other.root;
+    this.copyCount = 0;
+
+    this.cachedPageIndex = NO_PAGE;
+    this.cachedPage = null;
+
+    // Nodes and pages are now shared and must not be modified in place by the original table.
+    other.owner = new Object();
+    other.copyCount++;
+    other.cachedPageIndex = NO_PAGE;
+    other.cachedPage = null;
+  }
+
+  public Page getPage(final long pageIndex) {
+    if (pageIndex == cachedPageIndex) {
+      return cachedPage;
+    }
+
+    Node node = root;
+    for (int level = levels - 1; level > 0 && null != node; --level) {
+      node = (Node) node.children[getChildIndex(pageIndex, level)];
+    }
+
+    final Page page = null != node ? (Page) node.children[getChildIndex(pageIndex, 0)] : null;
+    if (null != page) {
+      cachedPageIndex = pageIndex;
+      cachedPage = page;
+    }
+
+    return page;
+  }
+
+  public Page getPageForWrite(final long pageIndex) {
+    if (pageIndex == cachedPageIndex && cachedPage.owner == owner) {
+      return cachedPage;
+    }
+
+    root = getOwnedNode(root);
+
+    Node node = root;
+    for (int level = levels - 1; level > 0; --level) {
+      final int childIndex = getChildIndex(pageIndex, level);
+      final Node child = getOwnedNode((Node) node.children[childIndex]);
+
+      node.children[childIndex] = child;
+      node = child;
+    }
+
+    final int pageChildIndex = getChildIndex(pageIndex, 0);
+    final Page page = getOwnedPage((Page) node.children[pageChildIndex]);
+    node.children[pageChildIndex] = page;
+
+    cachedPageIndex = pageIndex;
+    cachedPage = page;
+
+    return page;
+  }
+
+  public void reset() {
+    root = null;
+    cachedPageIndex = NO_PAGE;
+    cachedPage = null;
+  }
+
+  /**
+   * Saves the current state of the table. Subsequent writes do not affect the saved state.
+   *
+   * @return Snapshot of the table state.
+   */
+  public Snapshot snapshot() {
+    final Snapshot snapshot = new Snapshot(this);
+    owner = new Object();
+    return snapshot;
+  }
+
+  /**
+   * Restores the table state saved in the specified snapshot. A snapshot can be restored
+   * only once, since the restored nodes and pages can be modified in place afterwards.
+   *
+   * @param snapshot Snapshot of the table state.
+   */
+  public void restore(final Snapshot snapshot) {
+    InvariantChecks.checkNotNull(snapshot);
+    InvariantChecks.checkTrue(levels == snapshot.table.levels);
+    InvariantChecks.checkTrue(regionBitSize == snapshot.table.regionBitSize);
+
+    final boolean isShared = snapshot.table != this || snapshot.copyCount != copyCount;
+
+    root = snapshot.root;
+    owner = isShared ? new Object() : snapshot.owner;
+
+    cachedPageIndex = NO_PAGE;
+    cachedPage = null;
+  }
+
+  private Node getOwnedNode(final Node node) {
+    if (null == node) {
+      return new Node(owner);
+    }
+
+    return node.owner == owner ? node : new Node(owner, node);
+  }
+
+  private Page getOwnedPage(final Page page) {
+    if (null == page) {
+      return new Page(owner, regionBitSize);
+    }
+
+    return page.owner == owner ? page : new Page(owner, page);
+  }
+
+  private static int getChildIndex(final long pageIndex, final int level) {
+    return (int) (pageIndex >>> (level * NODE_BITS)) & NODE_MASK;
+  }
+}
@@ -23,11 +23,18 @@ import ru.ispras.microtesk.test.GenerationAbortedException;
 import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * The {@link MemoryStorage} implements a memory storage.
  *
+ * <p>Data is kept in {@link MemoryPageTable}s indexed by primitive {@code long} values.
+ * Address spaces that fit in 64 bits use a single page table. Larger address spaces are
+ * divided into areas indexed by the upper address bits, each area having its own page table.</p>
+ *
+ * <p>Copies of a storage and saved states share pages, which are copied on first write.
+ * This makes copying a storage and entering or leaving a temporary state take constant time
+ * regardless of the amount of stored data.</p>
+ *
  * @author <a href="mailto:andrewt@ispras.ru">Andrei Tatarnikov</a>
  */
 final class MemoryStorage implements MemoryDevice {
@@ -38,142 +45,36 @@ final class MemoryStorage implements MemoryDevice {
   private final BigInteger regionCount;
   private final int regionBitSize;
   private final int addressBitSize;
+  private final long addressMask;
 
-  private static final int REGIONS_IN_BLOCK = 1024 * 4;
-  private final int blockBitSize;
+  // Number of lower address bits used to index regions within an area.
+  private static final int AREA_ADDRESS_BIT_SIZE = 44;
+  private static final long AREA_ADDRESS_MASK = (1L << AREA_ADDRESS_BIT_SIZE) - 1;
 
   // Default value to be returned when reading an unallocated address.
   private final BitVector defaultRegion;
-  private final Map<BitVector, Area> addressMap;
-
-  private static final class Index {
-    private static final BitVector ZERO_FIELD = BitVector.valueOf(0, 1);
-
-    public final BitVector address;
-    public final int region;
-    public final int block;
-    public final BitVector area;
-
-    public Index(final BitVector address, final int addressBitSize) {
-      this.address = adjustSize(address, addressBitSize);
-      this.region  = getField(this.address, 0, 11).intValue();
-      this.block = getField(this.address, 12, 43).intValue();
-      this.area  = getField(this.address, 44, addressBitSize - 1);
-    }
-
-    private static BitVector getField(final BitVector bv, final int min, final int max) {
-      if (min >= bv.getBitSize()) {
-        return ZERO_FIELD;
-      }
-
-      final int bitSize = Math.min(max + 1, bv.getBitSize()) - min;
-      return BitVector.newMapping(bv, min, bitSize);
-    }
-
-    private static BitVector adjustSize(final BitVector bv, final int bitSize) {
-      if (bv.getBitSize() == bitSize) {
-        return bv;
-      }
-
-      if (bv.getBitSize() > bitSize) {
-        return BitVector.newMapping(bv, 0, bitSize);
-      }
-
-      final BitVector adjusted = BitVector.newEmpty(bitSize);
-      adjusted.assign(bv);
-
-      return adjusted;
-    }
-
-    @Override
-    public String toString() {
-      return String.format(
-          "0x%s(%d bits)[area=0x%s(%d bits), block=0x%X, region=0x%X]",
-          address.toHexString(),
-          address.getBitSize(),
-          area.toHexString(),
-          area.getBitSize(),
-          block,
-          region
-          );
-    }
-  }
-
-  private final class Area {
-    private final Map<Integer, Block> blocks;
-
-    public Area() {
-      this.blocks = new TreeMap<>();
-    }
-
-    public Area(final Area other) {
-      this.blocks = new TreeMap<>(other.blocks);
-    }
-
-    public MemoryStorage getOwner() {
-      return MemoryStorage.this;
-    }
-
-    public Block get(final int index) {
-      return blocks.get(index);
-    }
-
-    public Block put(final int index, final Block block) {
-      return blocks.put(index, block);
-    }
-
-    public void reset() {
-      for (final Block block : blocks.values()) {
-        block.reset();
-      }
-    }
-  }
-
-  private final class Block {
-    private final BitVector storage;
-    private final BitVector initFlags;
-
-    public Block() {
-      storage = BitVector.newEmpty(blockBitSize);
-      initFlags = BitVector.newEmpty(REGIONS_IN_BLOCK);
-    }
 
-    public Block(final Block other) {
-      this.storage = other.storage.copy();
-      this.initFlags = other.initFlags.copy();
-    }
-
-    public MemoryStorage getOwner() {
-      return MemoryStorage.this;
-    }
-
-    public void reset() {
-      storage.reset();
-      initFlags.reset();
-    }
+  // Used when addresses fit in a long value.
+  private final MemoryPageTable pageTable;
 
-    public BitVector read(final int index) {
-      final BitVector mapping = getRegionMapping(index);
-      return BitVector.unmodifiable(mapping);
-    }
-
-    public void write(final int index, final int offset, final BitVector data) {
-      final BitVector mapping = getRegionMapping(index);
+  // Used when addresses do not fit in a long value.
+  private final Map<BitVector, MemoryPageTable> areas;
 
-      final BitVector field = mapping.field(offset, offset + data.getBitSize() - 1);
-      field.assign(data);
+  // State saved when the temporary state is used.
+  private Snapshot savedState;
 
-      initFlags.setBit(index, true);
-    }
-
-    public boolean isInitialized(final int index) {
-      return initFlags.getBit(index);
-    }
+  /**
+   * The {@link Snapshot} class holds a saved state of a memory storage.
+   */
+  static final class Snapshot {
+    private final MemoryPageTable.Snapshot pageTable;
+    private final Map<BitVector, MemoryPageTable.Snapshot> areas;
 
-    private BitVector getRegionMapping(final int index) {
-      InvariantChecks.checkBounds(index, REGIONS_IN_BLOCK);
-      final int regionBitPos = index * regionBitSize;
-      return BitVector.newMapping(storage, regionBitPos, regionBitSize);
+    private Snapshot(
+        final MemoryPageTable.Snapshot pageTable,
+        final Map<BitVector, MemoryPageTable.Snapshot> areas) {
+      this.pageTable = pageTable;
+      this.areas = areas;
     }
   }
 
@@ -193,10 +94,19 @@ final class MemoryStorage implements MemoryDevice {
     this.regionCount = regionCount;
     this.regionBitSize = regionBitSize;
     this.addressBitSize = calculateAddressSize(regionCount);
-    this.blockBitSize = regionBitSize * REGIONS_IN_BLOCK;
+    this.addressMask = addressBitSize >= Long.SIZE ? -1L : (1L << addressBitSize) - 1;
 
     this.defaultRegion = BitVector.unmodifiable(BitVector.newEmpty(regionBitSize));
-    this.addressMap = new HashMap<>();
+
+    if (addressBitSize <= Long.SIZE) {
+      this.pageTable = new MemoryPageTable(regionBitSize, addressBitSize);
+      this.areas = null;
+    } else {
+      this.pageTable = null;
+      this.areas = new HashMap<>();
+    }
+
+    this.savedState = null;
   }
 
   public MemoryStorage(final MemoryStorage other) {
@@ -209,10 +119,21 @@ final class MemoryStorage implements MemoryDevice {
     this.regionCount = other.regionCount;
     this.regionBitSize = other.regionBitSize;
     this.addressBitSize = other.addressBitSize;
-    this.blockBitSize = other.blockBitSize;
+    this.addressMask = other.addressMask;
     this.defaultRegion = other.defaultRegion;
 
-    this.addressMap = new HashMap<>(other.addressMap);
+    if (null != other.pageTable) {
+      this.pageTable = new MemoryPageTable(other.pageTable);
+      this.areas = null;
+    } else {
+      this.pageTable = null;
+      this.areas = new HashMap<>();
+      for (final Map.Entry<BitVector, MemoryPageTable> entry : other.areas.entrySet()) {
+        this.areas.put(entry.getKey(), new MemoryPageTable(entry.getValue()));
+      }
+    }
+
+    this.savedState = null;
   }
 
   @Override
@@ -297,29 +218,34 @@ final class MemoryStorage implements MemoryDevice {
   }
 
   public boolean isInitialized(final long address) {
-    return isInitialized(BitVector.valueOf(address, addressBitSize));
+    if (null == pageTable) {
+      return isInitialized(BitVector.valueOf(address, addressBitSize));
+    }
+
+    return isInitialized(pageTable, address & addressMask);
   }
 
   @Override
   public boolean isInitialized(final BitVector address) {
     InvariantChecks.checkNotNull(address);
-    final Index index = new Index(address, addressBitSize);
-
-    final Area area = addressMap.get(index.area);
-    if (null == area) {
-      return false;
-    }
 
-    final Block block = area.get(index.block);
-    if (null == block) {
-      return false;
+    if (null != pageTable) {
+      return isInitialized(toLong(address) & addressMask);
     }
 
-    return block.isInitialized(index.region);
+    final MemoryPageTable area = areas.get(getAreaKey(address));
+    return null != area && isInitialized(area, toLong(address) & AREA_ADDRESS_MASK);
   }
 
   public BitVector read(final long address) {
-    return read(BitVector.valueOf(address, addressBitSize));
+    if (null == pageTable) {
+      return read(BitVector.valueOf(address, addressBitSize));
+    }
+
+    final long index = address & addressMask;
+    checkAddress(index, false);
+
+    return read(pageTable, index);
   }
 
   public BitVector read(final BigInteger address) {
@@ -328,24 +254,23 @@ final class MemoryStorage implements MemoryDevice {
 
   public BitVector read(final BitVector address) {
     InvariantChecks.checkNotNull(address);
-    checkAddress(address, false);
 
-    final Index index = new Index(address, addressBitSize);
-    final Area area = addressMap.get(index.area);
-    if (null == area) {
-      return defaultRegion;
+    if (null != pageTable) {
+      return read(toLong(address));
     }
 
-    final Block block = area.get(index.block);
-    if (null == block) {
+    checkAddress(address, false);
+
+    final MemoryPageTable area = areas.get(getAreaKey(address));
+    if (null == area) {
       return defaultRegion;
     }
 
-    return block.read(index.region);
+    return read(area, toLong(address) & AREA_ADDRESS_MASK);
   }
 
   public void write(final long address, final BitVector data) {
-    write(BitVector.valueOf(address, addressBitSize), data);
+    write(address, 0, data);
   }
 
   public void write(final BigInteger address, final BitVector data) {
@@ -353,7 +278,21 @@ final class MemoryStorage implements MemoryDevice {
   }
 
   public void write(final long address, final int offset, final BitVector data) {
-    write(BitVector.valueOf(address, addressBitSize), offset, data);
+    if (null == pageTable) {
+      write(BitVector.valueOf(address, addressBitSize), offset, data);
+      return;
+    }
+
+    InvariantChecks.checkNotNull(data);
+
+    final long index = address & addressMask;
+    checkAddress(index, true);
+
+    if (isReadOnly()) {
+      return;
+    }
+
+    write(pageTable, index, offset, data);
   }
 
   public void write(final BigInteger address, final int offset, final BitVector data) {
@@ -368,35 +307,96 @@ final class MemoryStorage implements MemoryDevice {
     InvariantChecks.checkNotNull(address);
     InvariantChecks.checkNotNull(data);
 
+    if (null != pageTable) {
+      write(toLong(address), offset, data);
+      return;
+    }
+
     checkAddress(address, true);
 
     if (isReadOnly()) {
       return;
     }
 
-    final Index index = new Index(address, addressBitSize);
+    final BitVector areaKey = getAreaKey(address);
 
-    Area area = addressMap.get(index.area);
-    Block block = null;
+    MemoryPageTable area = areas.get(areaKey);
+    if (null == area) {
+      area = new MemoryPageTable(regionBitSize, AREA_ADDRESS_BIT_SIZE);
+      areas.put(areaKey, area);
+    }
 
-    if (null == area || !isOwned(area)) {
-      area = null == area ? new Area() : new Area(area);
-      addressMap.put(index.area, area);
+    write(area, toLong(address) & AREA_ADDRESS_MASK, offset, data);
+  }
+
+  public void reset() {
+    if (null != pageTable) {
+      pageTable.reset();
     } else {
-      block = area.get(index.block);
+      areas.clear();
+    }
+  }
+
+  /**
+   * Saves the current state of the storage. This takes constant time for address spaces
+   * that fit in 64 bits and time proportional to the number of used areas otherwise.
+   *
+   * @return Saved state of the storage.
+   */
+  public Snapshot snapshot() {
+    if (null != pageTable) {
+      return new Snapshot(pageTable.snapshot(), null);
     }
 
-    if (null == block || !isOwned(block)) {
-      block = null == block ? new Block() : new Block(block);
-      area.put(index.block, block);
+    final Map<BitVector, MemoryPageTable.Snapshot> areaSnapshots = new HashMap<>();
+    for (final Map.Entry<BitVector, MemoryPageTable> entry : areas.entrySet()) {
+      areaSnapshots.put(entry.getKey(), entry.getValue().snapshot());
     }
 
-    block.write(index.region, offset, data);
+    return new Snapshot(null, areaSnapshots);
   }
 
-  public void reset() {
-    for (final Area area : addressMap.values()) {
-      area.reset();
+  /**
+   * Restores the state of the storage saved in the specified snapshot.
+   * A snapshot can be restored only once.
+   *
+   * @param snapshot Saved state of the storage.
+   */
+  public void restore(final Snapshot snapshot) {
+    InvariantChecks.checkNotNull(snapshot);
+
+    if (null != pageTable) {
+      InvariantChecks.checkNotNull(snapshot.pageTable);
+      pageTable.restore(snapshot.pageTable);
+      return;
+    }
+
+    InvariantChecks.checkNotNull(snapshot.areas);
+
+    final Map<BitVector, MemoryPageTable> restoredAreas = new HashMap<>();
+    for (final Map.Entry<BitVector, MemoryPageTable.Snapshot> entry : snapshot.areas.entrySet()) {
+      MemoryPageTable area = areas.get(entry.getKey());
+      if (null == area) {
+        area = new MemoryPageTable(regionBitSize, AREA_ADDRESS_BIT_SIZE);
+      }
+
+      area.restore(entry.getValue());
+      restoredAreas.put(entry.getKey(), area);
+    }
+
+    areas.clear();
+    areas.putAll(restoredAreas);
+  }
+
+  void setUseTempState(final boolean value) {
+    final boolean isTempStateUsed = savedState != null;
+    if (value) {
+      InvariantChecks.checkFalse(isTempStateUsed, "Already in a temp state!");
+      savedState = snapshot();
+    } else {
+      InvariantChecks.checkTrue(isTempStateUsed, "Not in a temp state!");
+      restore(savedState);
+      savedState = null;
     }
   }
 
@@ -407,37 +407,97 @@ final class MemoryStorage implements MemoryDevice {
         id, regionBitSize, regionCount, addressBitSize);
   }
 
-  private void checkAddress(final BitVector address, final boolean isWrite) {
-    if (!isAddressCheckNeeded) {
-      return;
+  private static long toLong(final BitVector address) {
+    final BitVector value = address.getBitSize() <= Long.SIZE
+        ? address
+        : BitVector.newMapping(address, 0, Long.SIZE);
+
+    return value.longValue();
+  }
+
+  private BitVector getAreaKey(final BitVector address) {
+    final BitVector areaKey = BitVector.newEmpty(addressBitSize - AREA_ADDRESS_BIT_SIZE);
+
+    final int bitSize = Math.min(address.getBitSize(), addressBitSize) - AREA_ADDRESS_BIT_SIZE;
+    if (bitSize > 0) {
+      BitVector.newMapping(areaKey, 0, bitSize).assign(
+          BitVector.newMapping(address, AREA_ADDRESS_BIT_SIZE, bitSize));
     }
 
-    final GeneratorSettings settings = GeneratorSettings.get();
-    if (null == settings) {
+    return areaKey;
+  }
+
+  private static int getRegionIndex(final long index) {
+    return (int) (index & MemoryPageTable.REGION_INDEX_MASK);
+  }
+
+  private static long getPageIndex(final long index) {
+    return index >>> MemoryPageTable.PAGE_INDEX_SHIFT;
+  }
+
+  private static boolean isInitialized(final MemoryPageTable table, final long index) {
+    final MemoryPageTable.Page page = table.getPage(getPageIndex(index));
+    return null != page && page.isInitialized(getRegionIndex(index));
+  }
+
+  private BitVector read(final MemoryPageTable table, final long index) {
+    final MemoryPageTable.Page page = table.getPage(getPageIndex(index));
+    return null != page ? page.read(getRegionIndex(index)) : defaultRegion;
+  }
+
+  private static void write(
+      final MemoryPageTable table,
+      final long index,
+      final int offset,
+      final BitVector data) {
+    final MemoryPageTable.Page page = table.getPageForWrite(getPageIndex(index));
+    page.write(getRegionIndex(index), offset, data);
+  }
+
+  private void checkAddress(final long address, final boolean isWrite) {
+    final MemorySettings memorySettings = getMemorySettingsForCheck();
+    if (null == memorySettings) {
       return;
     }
 
-    final MemorySettings memorySettings = settings.getMemory();
+    BigInteger addressValue = BigInteger.valueOf(address & Long.MAX_VALUE);
+    if (address < 0) {
+      addressValue = addressValue.setBit(Long.SIZE - 1);
+    }
+
+    checkAddress(memorySettings, addressValue);
+  }
+
+  private void checkAddress(final BitVector address, final boolean isWrite) {
+    final MemorySettings memorySettings = getMemorySettingsForCheck();
     if (null == memorySettings) {
       return;
     }
 
+    checkAddress(memorySettings, address.bigIntegerValue(false));
+  }
+
+  private MemorySettings getMemorySettingsForCheck() {
+    if (!isAddressCheckNeeded) {
+      return null;
+    }
+
+    final GeneratorSettings settings = GeneratorSettings.get();
+    if (null == settings) {
+      return null;
+    }
+
+    return settings.getMemory();
+  }
+
+  private void checkAddress(final MemorySettings memorySettings, final BigInteger index) {
     InvariantChecks.checkTrue(regionBitSize % 8 == 0);
 
-    final BigInteger addressValue =
-        address.bigIntegerValue(false).multiply(BigInteger.valueOf(regionBitSize / 8));
+    final BigInteger addressValue = index.multiply(BigInteger.valueOf(regionBitSize / 8));
 
     if (!memorySettings.checkAddress(addressValue)) {
       throw new GenerationAbortedException(String.format(
           "Address 0x%x does not match any data or text region.", addressValue));
     }
   }
-
-  private boolean isOwned(final Block block) {
-    return block.getOwner() == this;
-  }
-
-  private boolean isOwned(final Area area) {
-    return area.getOwner() == this;
-  }
 }
@@ -18,7 +18,6 @@ import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.microtesk.model.data.Data;
 import ru.ispras.microtesk.model.data.Type;
-import ru.ispras.microtesk.model.tracer.Record;
 import ru.ispras.microtesk.model.tracer.Tracer;
 
 import java.math.BigInteger;
@@ -27,6 +26,7 @@ final class PhysicalMemory extends Memory {
   private final MemoryStorage storage;
   private MemoryDevice handler;
   private MemoryAllocator allocator;
+  private MemoryAllocator savedAllocator;
 
   private final boolean isLogical;
   private final BigInteger addressableUnitsInData;
@@ -40,6 +40,7 @@ final class PhysicalMemory extends Memory {
     this.storage = new MemoryStorage(length, type.getBitSize()).setId(name);
     this.handler = null;
     this.allocator = null;
+    this.savedAllocator = null;
 
     // A memory array that corresponds to a real physical memory must satisfy the following
     // precondition: (1) element size is a multiple of 8 bits (byte), (2) element count is
@@ -65,11 +66,8 @@ final class PhysicalMemory extends Memory {
 
     this.storage = new MemoryStorage(other.storage);
     this.handler = other.handler;
-
-    if (null != other.allocator) {
-      initAllocator(other.allocator.getAddressableUnitBitSize(), other.allocator.getBaseAddress());
-      this.allocator.setCurrentAddress(other.allocator.getCurrentAddress());
-    }
+    this.allocator = newAllocatorCopy(other.allocator);
+    this.savedAllocator = null;
 
     this.addressableUnitsInData = other.addressableUnitsInData;
     this.isLogical = other.isLogical;
@@ -88,6 +86,18 @@ final class PhysicalMemory extends Memory {
     }
   }
 
+  private MemoryAllocator newAllocatorCopy(final MemoryAllocator other) {
+    if (null == other) {
+      return null;
+    }
+
+    final MemoryAllocator result = new MemoryAllocator(
+        storage, other.getAddressableUnitBitSize(), other.getBaseAddress());
+
+    result.setCurrentAddress(other.getCurrentAddress());
+    return result;
+  }
+
   @Override
   public MemoryAllocator getAllocator() {
     InvariantChecks.checkNotNull(allocator, "Allocator is not initialized.");
@@ -139,6 +149,20 @@ final class PhysicalMemory extends Memory {
     }
   }
 
+  @Override
+  public void setUseTempState(final boolean value) {
+    storage.setUseTempState(value);
+
+    // The temporary state uses an allocator that starts from the current address.
+    if (value) {
+      savedAllocator = allocator;
+      allocator = newAllocatorCopy(savedAllocator);
+    } else {
+      allocator = savedAllocator;
+      savedAllocator = null;
+    }
+  }
+
   private Location newLocationForRegion(final BitVector index) {
     InvariantChecks.checkNotNull(index);
 
@@ -196,12 +220,7 @@ final class PhysicalMemory extends Memory {
 
       if (Tracer.isEnabled()) {
         final BigInteger virtualAddress = indexToAddress(index.bigIntegerValue(false));
-        final Record record = Record.newMemoryAccess(
-            virtualAddress.longValue(),
-            data,
-            false
-            );
-        Tracer.addRecord(record);
+        Tracer.addMemoryAccess(virtualAddress.longValue(), data, false);
       }
 
       return data;
@@ -229,12 +248,7 @@ final class PhysicalMemory extends Memory {
 
       if (Tracer.isEnabled()) {
         final BigInteger virtualAddress = indexToAddress(index.bigIntegerValue(false));
-        final Record record = Record.newMemoryAccess(
-            virtualAddress.longValue(),
-            data,
-            true
-            );
-        Tracer.addRecord(record);
+        Tracer.addMemoryAccess(virtualAddress.longValue(), data, true);
       }
     }
 
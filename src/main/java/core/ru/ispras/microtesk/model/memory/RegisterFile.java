@@ -28,6 +28,7 @@ import java.util.List;
 final class RegisterFile extends Memory {
   private final List<Location> locations;
   private final List<RegisterAtom> atoms;
+  private boolean isTempStateUsed;
 
   protected RegisterFile(
       final String name,
@@ -43,6 +44,7 @@ final class RegisterFile extends Memory {
 
     this.locations = registers.first;
     this.atoms = registers.second;
+    this.isTempStateUsed = false;
   }
 
   private static Pair<List<Location>, List<RegisterAtom>>
@@ -54,8 +56,11 @@ final class RegisterFile extends Memory {
     final int indexBitSize = getIndexBitSize(count);
 
     for (int index = 0; index < count; ++index) {
-      final RegisterAtom atom =
-          new RegisterAtom(memory, BitVector.valueOf(index, indexBitSize), bitSize);
+      final BitVector atomIndex = BitVector.valueOf(index, indexBitSize);
+      final RegisterAtom atom = bitSize <= Long.SIZE
+          ? new LongRegisterAtom(memory, atomIndex, bitSize)
+          : new BitVectorRegisterAtom(memory, atomIndex, bitSize);
+
       atoms.add(atom);
 
       final Location location = Location.newLocationForAtom(type, atom);
@@ -73,10 +78,11 @@ final class RegisterFile extends Memory {
 
     this.locations = new ArrayList<>(count);
     this.atoms = new ArrayList<>(count);
+    this.isTempStateUsed = false;
 
     for (int index = 0; index < count; ++index) {
       final Type type = other.locations.get(index).getType();
-      final RegisterAtom atom = new RegisterAtom(other.atoms.get(index));
+      final RegisterAtom atom = other.atoms.get(index).copy();
       final Location location = Location.newLocationForAtom(type, atom);
 
       this.atoms.add(atom);
@@ -116,28 +122,35 @@ final class RegisterFile extends Memory {
     }
   }
 
-  private static final class RegisterAtom extends LocationAtom {
-    private final BitVector value;
-    private final BitVector flags;
+  @Override
+  public void setUseTempState(final boolean value) {
+    if (value) {
+      InvariantChecks.checkFalse(isTempStateUsed, "Already in a temp state!");
+    } else {
+      InvariantChecks.checkTrue(isTempStateUsed, "Not in a temp state!");
+    }
+
+    for (final RegisterAtom atom : atoms) {
+      atom.setUseTempState(value);
+    }
 
-    private RegisterAtom(final String memory, final BitVector index, final int bitSize) {
+    isTempStateUsed = value;
+  }
+
+  private abstract static class RegisterAtom extends LocationAtom {
+    protected RegisterAtom(final String memory, final BitVector index, final int bitSize) {
       super(memory, index, bitSize, 0);
 
       InvariantChecks.checkNotNull(memory);
       InvariantChecks.checkNotNull(index);
       InvariantChecks.checkGreaterThanZero(bitSize);
-
-      this.value = BitVector.newEmpty(bitSize);
-      this.flags = BitVector.newEmpty(bitSize);
     }
 
-    private RegisterAtom(final RegisterAtom other) {
+    protected RegisterAtom(final RegisterAtom other) {
       super(other);
-      this.value = other.value.copy();
-      this.flags = BitVector.newEmpty(getBitFieldSize()); // Flags are reset for the new copy.
     }
 
-    private RegisterAtom(
+    protected RegisterAtom(
         final RegisterAtom other,
         final int bitSize,
         final int startBitPos) {
@@ -146,18 +159,52 @@ final class RegisterFile extends Memory {
       InvariantChecks.checkGreaterThanZero(bitSize);
       InvariantChecks.checkGreaterOrEqZero(startBitPos);
 
-      InvariantChecks.checkBounds(startBitPos, other.value.getBitSize());
-      InvariantChecks.checkBoundsInclusive(startBitPos + bitSize, other.value.getBitSize());
-
-      this.value = other.value;
-      this.flags = other.flags;
+      InvariantChecks.checkBounds(startBitPos, other.getStorageBitSize());
+      InvariantChecks.checkBoundsInclusive(startBitPos + bitSize, other.getStorageBitSize());
     }
 
     @Override
-    public boolean isLoggable() {
+    public final boolean isLoggable() {
       return true;
     }
 
+    public abstract RegisterAtom copy();
+
+    public abstract void reset();
+
+    public abstract void setUseTempState(boolean useTempState);
+  }
+
+  private static final class BitVectorRegisterAtom extends RegisterAtom {
+    private final BitVector value;
+    private final BitVector flags;
+
+    private BitVector savedValue;
+    private BitVector savedFlags;
+
+    private BitVectorRegisterAtom(final String memory, final BitVector index, final int bitSize) {
+      super(memory, index, bitSize);
+
+      this.value = BitVector.newEmpty(bitSize);
+      this.flags = BitVector.newEmpty(bitSize);
+    }
+
+    private BitVectorRegisterAtom(final BitVectorRegisterAtom other) {
+      super(other);
+      this.value = other.value.copy();
+      this.flags = BitVector.newEmpty(getBitFieldSize()); // Flags are reset for the new copy.
+    }
+
+    private BitVectorRegisterAtom(
+        final BitVectorRegisterAtom other,
+        final int bitSize,
+        final int startBitPos) {
+      super(other, bitSize, startBitPos);
+
+      this.value = other.value;
+      this.flags = other.flags;
+    }
+
     @Override
     public int getStorageBitSize() {
       return value.getBitSize();
@@ -176,7 +223,7 @@ final class RegisterFile extends Memory {
 
     @Override
     public LocationAtom resize(final int newBitSize, final int newStartBitPos) {
-      return new RegisterAtom(this, newBitSize, newStartBitPos);
+      return new BitVectorRegisterAtom(this, newBitSize, newStartBitPos);
     }
 
     @Override
@@ -193,9 +240,150 @@ final class RegisterFile extends Memory {
       BitVector.newMapping(flags, getBitFieldStart(), getBitFieldSize()).setAll();
     }
 
+    @Override
+    public RegisterAtom copy() {
+      return new BitVectorRegisterAtom(this);
+    }
+
+    @Override
     public void reset() {
       BitVector.newMapping(value, getBitFieldStart(), getBitFieldSize()).reset();
       BitVector.newMapping(flags, getBitFieldStart(), getBitFieldSize()).reset();
     }
+
+    @Override
+    public void setUseTempState(final boolean useTempState) {
+      if (useTempState) {
+        savedValue = value.copy();
+        savedFlags = flags.copy();
+        flags.reset(); // Flags are reset for the temporary state.
+      } else {
+        value.assign(savedValue);
+        flags.assign(savedFlags);
+        savedValue = null;
+        savedFlags = null;
+      }
+    }
+  }
+
+  /**
+   * The {@link LongRegisterAtom} class stores registers of up to 64 bits as {@code long} values.
+   * Its {@code long}-based load and store methods do not create any objects.
+   */
+  private static final class LongRegisterAtom extends RegisterAtom {
+    /** Register state shared by all bit fields of the register. */
+    private static final class Cell {
+      private final int bitSize;
+
+      private long value;
+      private long flags;
+
+      private long savedValue;
+      private long savedFlags;
+
+      private Cell(final int bitSize) {
+        this.bitSize = bitSize;
+      }
+    }
+
+    private final Cell cell;
+    private final long mask;
+    private final long fieldMask;
+
+    private LongRegisterAtom(final String memory, final BitVector index, final int bitSize) {
+      super(memory, index, bitSize);
+      InvariantChecks.checkTrue(bitSize <= Long.SIZE);
+
+      this.cell = new Cell(bitSize);
+      this.mask = getMask(bitSize);
+      this.fieldMask = mask;
+    }
+
+    private LongRegisterAtom(final LongRegisterAtom other) {
+      super(other);
+
+      this.cell = new Cell(other.cell.bitSize);
+      this.cell.value = other.cell.value; // Flags are reset for the new copy.
+
+      this.mask = other.mask;
+      this.fieldMask = other.fieldMask;
+    }
+
+    private LongRegisterAtom(
+        final LongRegisterAtom other,
+        final int bitSize,
+        final int startBitPos) {
+      super(other, bitSize, startBitPos);
+
+      this.cell = other.cell;
+      this.mask = getMask(bitSize);
+      this.fieldMask = mask << startBitPos;
+    }
+
+    private static long getMask(final int bitSize) {
+      return bitSize == Long.SIZE ? -1L : (1L << bitSize) - 1;
+    }
+
+    @Override
+    public int getStorageBitSize() {
+      return cell.bitSize;
+    }
+
+    @Override
+    public boolean isInitialized() {
+      return (cell.flags & fieldMask) == fieldMask;
+    }
+
+    @Override
+    public LocationAtom resize(final int newBitSize, final int newStartBitPos) {
+      return new LongRegisterAtom(this, newBitSize, newStartBitPos);
+    }
+
+    @Override
+    public BitVector load(final boolean callHandler) {
+      return BitVector.valueOf(loadLong(callHandler), getBitFieldSize());
+    }
+
+    @Override
+    public void store(final BitVector data, final boolean callHandler) {
+      InvariantChecks.checkNotNull(data);
+      InvariantChecks.checkTrue(data.getBitSize() == getBitFieldSize());
+
+      storeLong(data.longValue(), callHandler);
+    }
+
+    @Override
+    public long loadLong(final boolean callHandler) {
+      return (cell.value >>> getBitFieldStart()) & mask;
+    }
+
+    @Override
+    public void storeLong(final long value, final boolean callHandler) {
+      cell.value = (cell.value & ~fieldMask) | ((value & mask) << getBitFieldStart());
+      cell.flags |= fieldMask;
+    }
+
+    @Override
+    public RegisterAtom copy() {
+      return new LongRegisterAtom(this);
+    }
+
+    @Override
+    public void reset() {
+      cell.value &= ~fieldMask;
+      cell.flags &= ~fieldMask;
+    }
+
+    @Override
+    public void setUseTempState(final boolean useTempState) {
+      if (useTempState) {
+        cell.savedValue = cell.value;
+        cell.savedFlags = cell.flags;
+        cell.flags = 0; // Flags are reset for the temporary state.
+      } else {
+        cell.value = cell.savedValue;
+        cell.flags = cell.savedFlags;
+      }
+    }
   }
 }
@@ -26,6 +26,7 @@ import java.util.List;
 final class VariableArray extends Memory {
   private final List<Location> locations;
   private final List<BitVector> values;
+  private List<BitVector> savedValues;
 
   protected VariableArray(
       final String name,
@@ -41,6 +42,7 @@ final class VariableArray extends Memory {
 
     this.locations = new ArrayList<>(count);
     this.values = new ArrayList<>(count);
+    this.savedValues = null;
 
     for (int index = 0; index < count; ++index) {
       final BitVector value = BitVector.newEmpty(type.getBitSize());
@@ -55,6 +57,7 @@ final class VariableArray extends Memory {
 
   private VariableArray(final VariableArray other) {
     super(other);
+    this.savedValues = null;
 
     final int count = other.locations.size();
     InvariantChecks.checkTrue(other.locations.size() == other.values.size());
@@ -107,4 +110,22 @@ final class VariableArray extends Memory {
       value.reset();
     }
   }
+
+  @Override
+  public void setUseTempState(final boolean value) {
+    final boolean isTempStateUsed = savedValues != null;
+    if (value) {
+      InvariantChecks.checkFalse(isTempStateUsed, "Already in a temp state!");
+      savedValues = new ArrayList<>(values.size());
+      for (final BitVector item : values) {
+        savedValues.add(item.copy());
+      }
+    } else {
+      InvariantChecks.checkTrue(isTempStateUsed, "Not in a temp state!");
+      for (int index = 0; index < values.size(); ++index) {
+        values.get(index).assign(savedValues.get(index));
+      }
+      savedValues = null;
+    }
+  }
 }
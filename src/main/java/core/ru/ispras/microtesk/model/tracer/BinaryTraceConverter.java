@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.tracer;
+
+import ru.ispras.castle.util.Logger;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link BinaryTraceConverter} class converts binary Tracer logs produced by
+ * {@link BinaryTraceWriter} into the text format.
+ */
+public final class BinaryTraceConverter {
+  private BinaryTraceConverter() {}
+
+  public static boolean convert(final String inputFile, final String outputFile) {
+    InvariantChecks.checkNotNull(inputFile);
+    InvariantChecks.checkNotNull(outputFile);
+
+    try (final DataInputStream input =
+             new DataInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
+         final PrintWriter output = new PrintWriter(new FileWriter(outputFile))) {
+
+      if (input.readLong() != BinaryTraceWriter.MAGIC) {
+        Logger.error("%s is not a binary Tracer log.", inputFile);
+        return false;
+      }
+
+      final List<String> strings = new ArrayList<>();
+      while (true) {
+        final long header;
+        try {
+          header = input.readLong();
+        } catch (final EOFException e) {
+          break;
+        }
+
+        final Record record = readRecord(input, header, strings);
+        if (null != record) {
+          output.println(record.toString());
+        }
+      }
+    } catch (final IOException e) {
+      Logger.error("Failed to convert %s: %s", inputFile, e.getMessage());
+      return false;
+    }
+
+    return true;
+  }
+
+  private static Record readRecord(
+      final DataInputStream input,
+      final long header,
+      final List<String> strings) throws IOException {
+    final int kind = (int) (header & 0xff);
+    final int flags = (int) ((header >>> 8) & 0xff);
+    final int cpu = (int) ((header >>> 16) & 0xffff);
+    final int size = (int) (header >>> 32);
+
+    switch (kind) {
+      case BinaryTraceWriter.KIND_INSTRUCTION: {
+        final long time = input.readLong();
+        final long address = input.readLong();
+        final String disasm = strings.get((int) input.readLong());
+        final BitVector image = size != 0 ? readData(input, size) : null;
+        return Record.newInstruction(time, cpu, address, image, disasm);
+      }
+
+      case BinaryTraceWriter.KIND_MEMORY: {
+        final long time = input.readLong();
+        final long address = input.readLong();
+        final BitVector data = readData(input, size);
+        final boolean isWrite = (flags & BinaryTraceWriter.FLAG_WRITE) != 0;
+        return Record.newMemoryAccess(time, address, data, isWrite);
+      }
+
+      case BinaryTraceWriter.KIND_REGISTER: {
+        final long time = input.readLong();
+        final String register = strings.get((int) input.readLong());
+        final BitVector value = readData(input, size);
+        return Record.newRegisterWrite(time, register, value);
+      }
+
+      case BinaryTraceWriter.KIND_BUFFER: {
+        final long time = input.readLong();
+        final String buffer = strings.get((int) input.readLong());
+        final BitVector address = readData(input, size);
+        final boolean isHit = (flags & BinaryTraceWriter.FLAG_HIT) != 0;
+        return Record.newBufferAccess(time, buffer, address, isHit);
+      }
+
+      case BinaryTraceWriter.KIND_STRING: {
+        final int id = (int) input.readLong();
+        InvariantChecks.checkTrue(id == strings.size());
+        strings.add(readString(input, size));
+        return null;
+      }
+
+      default:
+        throw new IOException(String.format("Unknown record kind: %d", kind));
+    }
+  }
+
+  private static BitVector readData(
+      final DataInputStream input,
+      final int bitSize) throws IOException {
+    if (bitSize <= Long.SIZE) {
+      return BitVector.valueOf(input.readLong(), bitSize);
+    }
+
+    final BitVector result = BitVector.newEmpty(bitSize);
+    for (int bitPos = 0; bitPos < bitSize; bitPos += Long.SIZE) {
+      final int fieldSize = Math.min(Long.SIZE, bitSize - bitPos);
+      BitVector.newMapping(result, bitPos, fieldSize).assign(
+          BitVector.valueOf(input.readLong(), fieldSize));
+    }
+
+    return result;
+  }
+
+  private static String readString(
+      final DataInputStream input,
+      final int length) throws IOException {
+    final StringBuilder sb = new StringBuilder(length);
+
+    long word = 0;
+    for (int index = 0; index < length; ++index) {
+      final int charIndex = index % BinaryTraceWriter.CHARS_IN_WORD;
+      if (0 == charIndex) {
+        word = input.readLong();
+      }
+      sb.append((char) (word >>> (charIndex * Character.SIZE)));
+    }
+
+    return sb.toString();
+  }
+}
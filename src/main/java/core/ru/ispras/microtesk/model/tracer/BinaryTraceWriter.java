@@ -0,0 +1,375 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.tracer;
+
+import ru.ispras.castle.util.Logger;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.microtesk.test.template.ConcreteCall;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@link BinaryTraceWriter} class writes Tracer logs in a compact binary format.
+ * Records are encoded as {@code long} words into a {@link TraceRingBuffer}, which is drained
+ * into the file by a background thread. Binary logs are converted into the text format by
+ * {@link BinaryTraceConverter}.
+ *
+ * <p>The file starts with the {@link #MAGIC} word followed by records. Each record starts with
+ * a header word that holds the record kind (bits 0-7), flags (bits 8-15), the processing element
+ * index (bits 16-31) and the bit size of the data or the length of the string (bits 32-63).
+ * Strings (disassembled instructions, register and buffer names) are written once as separate
+ * records and are referred to by their indices.</p>
+ *
+ * <p>To bound the memory used by the writer, the tables of written strings and encoded
+ * instructions are cleared when they reach {@link #MAX_CACHED_ENTRIES}; strings written after
+ * that get new indices. If the background thread fails, the simulator gets the error when it
+ * waits for space in the buffer or closes the writer.</p>
+ *
+ * <pre>
+ * INSTRUCTION: header, time, address, disasm string index, image words
+ * MEMORY:      header, time, address, data words
+ * REGISTER:    header, time, register name string index, data words
+ * BUFFER:      header, time, buffer name string index, address words
+ * STRING:      header, string index, characters (4 per word)
+ * </pre>
+ */
+final class BinaryTraceWriter {
+  static final long MAGIC = 0x4d544b5452414345L; // "MTKTRACE"
+
+  static final int KIND_INSTRUCTION = 1;
+  static final int KIND_MEMORY = 2;
+  static final int KIND_REGISTER = 3;
+  static final int KIND_STRING = 4;
+  static final int KIND_BUFFER = 5;
+
+  static final int FLAG_WRITE = 1;
+  static final int FLAG_HIT = 1;
+
+  static final int CHARS_IN_WORD = Long.SIZE / Character.SIZE;
+
+  private static final int BUFFER_CAPACITY = 1 << 20;
+  private static final int FILE_BUFFER_SIZE = 1 << 16;
+  private static final long PARK_NANOS = 50000;
+
+  static final int MAX_CACHED_ENTRIES = 1 << 16;
+
+  private final TraceRingBuffer ringBuffer;
+  private final int maxCachedEntries;
+  private final Map<String, Integer> strings;
+  private final Map<ConcreteCall, InstructionInfo> instructions;
+  private int nextStringId;
+
+  private final Thread thread;
+  private volatile boolean closed;
+  private volatile Throwable failure;
+
+  private static final class InstructionInfo {
+    private final int disasmId;
+    private final int imageBitSize;
+    private final long[] image;
+
+    private InstructionInfo(final int disasmId, final int imageBitSize, final long[] image) {
+      this.disasmId = disasmId;
+      this.imageBitSize = imageBitSize;
+      this.image = image;
+    }
+  }
+
+  public BinaryTraceWriter(final String fileName) throws IOException {
+    this(fileName, BUFFER_CAPACITY, MAX_CACHED_ENTRIES);
+  }
+
+  BinaryTraceWriter(
+      final String fileName,
+      final int bufferCapacity,
+      final int maxCachedEntries) throws IOException {
+    InvariantChecks.checkNotNull(fileName);
+    InvariantChecks.checkGreaterThanZero(maxCachedEntries);
+
+    final FileChannel channel = new FileOutputStream(fileName).getChannel();
+
+    this.ringBuffer = new TraceRingBuffer(bufferCapacity);
+    this.maxCachedEntries = maxCachedEntries;
+    this.strings = new HashMap<>();
+    this.instructions = new IdentityHashMap<>();
+    this.nextStringId = 0;
+    this.closed = false;
+    this.failure = null;
+
+    this.thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          drain(channel);
+        } catch (final RuntimeException | Error e) {
+          // The error is rethrown to the simulator thread.
+          failure = e;
+          ringBuffer.fail(e);
+          closeChannel(channel);
+        }
+      }
+    }, "tracer-writer");
+
+    this.thread.setDaemon(true);
+    this.thread.start();
+
+    ringBuffer.put(MAGIC);
+    ringBuffer.publish();
+  }
+
+  public void addInstruction(final long time, final ConcreteCall call, final int cpu) {
+    InvariantChecks.checkNotNull(call);
+
+    InstructionInfo info = instructions.get(call);
+    if (null == info) {
+      if (instructions.size() >= maxCachedEntries) {
+        instructions.clear();
+      }
+
+      info = newInstructionInfo(call);
+      instructions.put(call, info);
+    }
+
+    final long address = null != info.image ? call.getAddress() : 0;
+    final int imageBitSize = null != info.image ? info.imageBitSize : 0;
+
+    ringBuffer.put(header(KIND_INSTRUCTION, 0, cpu, imageBitSize));
+    ringBuffer.put(time);
+    ringBuffer.put(address);
+    ringBuffer.put(info.disasmId);
+
+    if (null != info.image) {
+      for (final long word : info.image) {
+        ringBuffer.put(word);
+      }
+    }
+
+    ringBuffer.publish();
+  }
+
+  public void addMemoryAccess(
+      final long time,
+      final long address,
+      final BitVector data,
+      final boolean isWrite) {
+    InvariantChecks.checkNotNull(data);
+
+    ringBuffer.put(header(KIND_MEMORY, isWrite ? FLAG_WRITE : 0, 0, data.getBitSize()));
+    ringBuffer.put(time);
+    ringBuffer.put(address);
+    putData(data);
+    ringBuffer.publish();
+  }
+
+  public void addRegisterWrite(final long time, final String register, final BitVector value) {
+    InvariantChecks.checkNotNull(register);
+    InvariantChecks.checkNotNull(value);
+
+    final int registerId = getStringId(register);
+
+    ringBuffer.put(header(KIND_REGISTER, 0, 0, value.getBitSize()));
+    ringBuffer.put(time);
+    ringBuffer.put(registerId);
+    putData(value);
+    ringBuffer.publish();
+  }
+
+  public void addBufferAccess(
+      final long time,
+      final String buffer,
+      final BitVector address,
+      final boolean isHit) {
+    InvariantChecks.checkNotNull(buffer);
+    InvariantChecks.checkNotNull(address);
+
+    final int bufferId = getStringId(buffer);
+
+    ringBuffer.put(header(KIND_BUFFER, isHit ? FLAG_HIT : 0, 0, address.getBitSize()));
+    ringBuffer.put(time);
+    ringBuffer.put(bufferId);
+    putData(address);
+    ringBuffer.publish();
+  }
+
+  /**
+   * Writes all pending records to the file and stops the background thread.
+   *
+   * @throws IllegalStateException if the background thread has failed with an unexpected error.
+   */
+  public void close() {
+    ringBuffer.publish();
+    closed = true;
+
+    LockSupport.unpark(thread);
+    try {
+      thread.join();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (failure instanceof IOException) {
+      Logger.error("Failed to write Tracer log: %s", failure.getMessage());
+    } else if (null != failure) {
+      throw new IllegalStateException("Tracer log writer has failed.", failure);
+    }
+  }
+
+  static long header(final int kind, final int flags, final int cpu, final int size) {
+    return (kind & 0xffL) | ((flags & 0xffL) << 8) | ((cpu & 0xffffL) << 16) | ((long) size << 32);
+  }
+
+  static int getWordCount(final int bitSize) {
+    return (bitSize + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  private InstructionInfo newInstructionInfo(final ConcreteCall call) {
+    final String disasm = call.getExecutable().getText();
+    final int disasmId = getStringId(disasm);
+
+    final String image = call.getImage();
+    final int imageBitSize = image.length();
+    final long[] words = new long[getWordCount(imageBitSize)];
+
+    if (0 == imageBitSize) {
+      Logger.error("Failed to parse image for instruction call %s: image is empty.", disasm);
+      return new InstructionInfo(disasmId, 0, null);
+    }
+
+    for (int index = 0; index < imageBitSize; ++index) {
+      final char bit = image.charAt(imageBitSize - 1 - index);
+      if (bit == '1') {
+        words[index / Long.SIZE] |= 1L << index;
+      } else if (bit != '0') {
+        Logger.error(
+            "Failed to parse image for instruction call %s: '%s'. Reason: illegal character '%c'.",
+            disasm,
+            image,
+            bit
+            );
+
+        return new InstructionInfo(disasmId, 0, null);
+      }
+    }
+
+    return new InstructionInfo(disasmId, imageBitSize, words);
+  }
+
+  private int getStringId(final String text) {
+    final Integer id = strings.get(text);
+    if (null != id) {
+      return id;
+    }
+
+    if (strings.size() >= maxCachedEntries) {
+      // Indices of the forgotten strings remain valid in the file.
+      strings.clear();
+    }
+
+    final int newId = nextStringId++;
+    strings.put(text, newId);
+
+    ringBuffer.put(header(KIND_STRING, 0, 0, text.length()));
+    ringBuffer.put(newId);
+
+    long word = 0;
+    for (int index = 0; index < text.length(); ++index) {
+      final int shift = (index % CHARS_IN_WORD) * Character.SIZE;
+      word |= ((long) text.charAt(index)) << shift;
+
+      if (index % CHARS_IN_WORD == CHARS_IN_WORD - 1) {
+        ringBuffer.put(word);
+        word = 0;
+      }
+    }
+
+    if (text.length() % CHARS_IN_WORD != 0) {
+      ringBuffer.put(word);
+    }
+
+    return newId;
+  }
+
+  private void putData(final BitVector data) {
+    final int bitSize = data.getBitSize();
+    if (bitSize <= Long.SIZE) {
+      ringBuffer.put(data.longValue());
+      return;
+    }
+
+    for (int bitPos = 0; bitPos < bitSize; bitPos += Long.SIZE) {
+      final int fieldSize = Math.min(Long.SIZE, bitSize - bitPos);
+      ringBuffer.put(BitVector.newMapping(data, bitPos, fieldSize).longValue());
+    }
+  }
+
+  private void drain(final FileChannel channel) {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_SIZE);
+
+    while (true) {
+      // The flag is read before draining to make sure that all records published before
+      // closing are written to the file.
+      final boolean isClosed = closed;
+      final int count = ringBuffer.drainTo(buffer);
+
+      if (count == 0 || !buffer.hasRemaining()) {
+        flush(channel, buffer);
+      }
+
+      if (count == 0) {
+        if (isClosed) {
+          break;
+        }
+        LockSupport.parkNanos(PARK_NANOS);
+      }
+    }
+
+    closeChannel(channel);
+  }
+
+  private void closeChannel(final FileChannel channel) {
+    try {
+      channel.close();
+    } catch (final IOException e) {
+      if (null == failure) {
+        failure = e;
+      }
+    }
+  }
+
+  private void flush(final FileChannel channel, final ByteBuffer buffer) {
+    buffer.flip();
+
+    // After a failure, records are discarded to avoid blocking the simulator.
+    if (null == failure) {
+      try {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      } catch (final IOException e) {
+        failure = e;
+      }
+    }
+
+    buffer.clear();
+  }
+}
@@ -31,6 +31,14 @@ public abstract class Record {
     instructionId = -1;
   }
 
+  static long nextInstructionId() {
+    return ++instructionId;
+  }
+
+  static long getInstructionId() {
+    return instructionId;
+  }
+
   private final RecordKind kind;
   private final long time;
 
@@ -69,6 +77,45 @@ public abstract class Record {
     return new RegisterWrite(register, value);
   }
 
+  public static Record newBufferAccess(
+      final String buffer,
+      final BitVector address,
+      final boolean isHit) {
+    return new BufferAccess(instructionId, buffer, address, isHit);
+  }
+
+  static Record newInstruction(
+      final long time,
+      final int cpu,
+      final long addr,
+      final BitVector instrId,
+      final String disasm) {
+    return new Instruction(time, cpu, addr, instrId, disasm);
+  }
+
+  static Record newMemoryAccess(
+      final long time,
+      final long address,
+      final BitVector data,
+      final boolean isWrite) {
+    return new MemoryAccess(time, address, data, isWrite);
+  }
+
+  static Record newRegisterWrite(
+      final long time,
+      final String register,
+      final BitVector value) {
+    return new RegisterWrite(time, register, value);
+  }
+
+  static Record newBufferAccess(
+      final long time,
+      final String buffer,
+      final BitVector address,
+      final boolean isHit) {
+    return new BufferAccess(time, buffer, address, isHit);
+  }
+
   private static final class Instruction extends Record {
     private BitVector instrId;
     private final int cpu;
@@ -84,8 +131,7 @@ public abstract class Record {
       this.disasm = call.getExecutable().getText();
 
       try {
-        final String image = call.getImage();
-        this.instrId = BitVector.valueOf(image, 2, image.length());
+        this.instrId = call.getImageData();
       } catch (final NumberFormatException e) {
         Logger.error(
             "Failed to parse image for instruction call %s: '%s'. Reason: %s.",
@@ -98,6 +144,21 @@ public abstract class Record {
       }
     }
 
+    private Instruction(
+        final long time,
+        final int cpu,
+        final long addr,
+        final BitVector instrId,
+        final String disasm) {
+      super(RecordKind.INSTRUCT, time);
+      InvariantChecks.checkNotNull(disasm);
+
+      this.instrId = instrId;
+      this.cpu = cpu;
+      this.addr = addr;
+      this.disasm = disasm;
+    }
+
     @Override
     public String toString() {
       return String.format(
@@ -106,7 +167,7 @@ public abstract class Record {
           cpu,
           getTime(),
           addr,
-          instrId.toHexString(true).toLowerCase(),
+          null != instrId ? instrId.toHexString(true).toLowerCase() : "",
           disasm
           );
     }
@@ -121,7 +182,15 @@ public abstract class Record {
         final long address,
         final BitVector data,
         final boolean isWrite) {
-      super(RecordKind.MEMORY, instructionId);
+      this(instructionId, address, data, isWrite);
+    }
+
+    private MemoryAccess(
+        final long time,
+        final long address,
+        final BitVector data,
+        final boolean isWrite) {
+      super(RecordKind.MEMORY, time);
 
       InvariantChecks.checkNotNull(address);
       InvariantChecks.checkNotNull(data);
@@ -151,7 +220,14 @@ public abstract class Record {
     private RegisterWrite(
         final String register,
         final BitVector value) {
-      super(RecordKind.REGISTER, instructionId);
+      this(instructionId, register, value);
+    }
+
+    private RegisterWrite(
+        final long time,
+        final String register,
+        final BitVector value) {
+      super(RecordKind.REGISTER, time);
 
       InvariantChecks.checkNotNull(register);
       InvariantChecks.checkNotNull(value);
@@ -170,4 +246,36 @@ public abstract class Record {
           );
     }
   }
+
+  private static final class BufferAccess extends Record {
+    private final String buffer;
+    private final BitVector address;
+    private final boolean isHit;
+
+    private BufferAccess(
+        final long time,
+        final String buffer,
+        final BitVector address,
+        final boolean isHit) {
+      super(RecordKind.BUFFER, time);
+
+      InvariantChecks.checkNotNull(buffer);
+      InvariantChecks.checkNotNull(address);
+
+      this.buffer = buffer;
+      this.address = address;
+      this.isHit = isHit;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s C%s %s %s",
+          super.toString(),
+          isHit ? "H" : "M",
+          buffer,
+          address.toHexString().toLowerCase()
+          );
+    }
+  }
 }
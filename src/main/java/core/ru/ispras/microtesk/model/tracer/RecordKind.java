@@ -52,6 +52,12 @@ public enum RecordKind {
    */
   MEMORY,
 
+  /**
+   * MMU buffer lookup trace:<p>
+   * {@code <time> <scale> C[H|M] <buffer> <addr>}
+   */
+  BUFFER,
+
   /**
   * Memory bus trace:<p>
   * {@code <time> <scale> B<rw><sz><fd><lk><p><s> l<wrcbs> O<wrcbs> <master_id> <addr> <data>}
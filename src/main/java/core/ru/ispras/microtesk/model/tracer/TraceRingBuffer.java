@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.tracer;
+
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@link TraceRingBuffer} class implements a bounded single-producer single-consumer
+ * queue of {@code long} words stored in a preallocated array.
+ *
+ * <p>The producer appends words with {@link #put(long)} and makes them visible to the consumer
+ * with {@link #publish()}. When the buffer is full, the producer waits until the consumer
+ * frees some space. The wait is aborted if the consumer has reported a failure with
+ * {@link #fail(Throwable)} or has not freed any space for {@link #WAIT_TIMEOUT_NANOS}.</p>
+ */
+final class TraceRingBuffer {
+  private static final long PARK_NANOS = 10000;
+  static final long WAIT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+  private final long[] buffer;
+  private final int mask;
+
+  private final AtomicLong readPosition;
+  private final AtomicLong writePosition;
+  private volatile Throwable failure;
+
+  // Producer-side state.
+  private long nextWritePosition;
+  private long cachedReadPosition;
+
+  public TraceRingBuffer(final int capacity) {
+    InvariantChecks.checkGreaterThanZero(capacity);
+    InvariantChecks.checkTrue(Integer.bitCount(capacity) == 1, "Capacity must be a power of 2.");
+
+    this.buffer = new long[capacity];
+    this.mask = capacity - 1;
+
+    this.readPosition = new AtomicLong();
+    this.writePosition = new AtomicLong();
+    this.failure = null;
+
+    this.nextWritePosition = 0;
+    this.cachedReadPosition = 0;
+  }
+
+  public void put(final long value) {
+    if (nextWritePosition - cachedReadPosition == buffer.length) {
+      waitForSpace();
+    }
+
+    buffer[(int) nextWritePosition & mask] = value;
+    nextWritePosition++;
+  }
+
+  public void publish() {
+    writePosition.lazySet(nextWritePosition);
+  }
+
+  private void waitForSpace() {
+    // Words that were put so far must be visible to the consumer, or it will never free space.
+    publish();
+
+    final long startTime = System.nanoTime();
+
+    cachedReadPosition = readPosition.get();
+    while (nextWritePosition - cachedReadPosition == buffer.length) {
+      if (null != failure) {
+        throw new IllegalStateException("Trace consumer has failed.", failure);
+      }
+
+      if (System.nanoTime() - startTime > WAIT_TIMEOUT_NANOS) {
+        throw new IllegalStateException("Trace consumer does not respond.");
+      }
+
+      LockSupport.parkNanos(PARK_NANOS);
+      cachedReadPosition = readPosition.get();
+    }
+  }
+
+  /**
+   * Reports that the consumer has stopped because of the specified error. Called by the consumer.
+   * The producer waiting for space rethrows the error wrapped into {@link IllegalStateException}.
+   *
+   * @param error Error that has stopped the consumer.
+   */
+  public void fail(final Throwable error) {
+    InvariantChecks.checkNotNull(error);
+    failure = error;
+  }
+
+  /**
+   * Moves published words to the specified byte buffer. Called by the consumer.
+   *
+   * @param target Byte buffer to receive the words.
+   * @return Number of moved words.
+   */
+  public int drainTo(final ByteBuffer target) {
+    final long position = readPosition.get();
+    final long available = writePosition.get() - position;
+    final int count = (int) Math.min(available, target.remaining() / (Long.SIZE / Byte.SIZE));
+
+    for (int index = 0; index < count; ++index) {
+      target.putLong(buffer[(int) (position + index) & mask]);
+    }
+
+    readPosition.lazySet(position + count);
+    return count;
+  }
+}
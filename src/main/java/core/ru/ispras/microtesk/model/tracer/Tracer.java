@@ -14,7 +14,9 @@
 
 package ru.ispras.microtesk.model.tracer;
 
+import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.microtesk.test.template.ConcreteCall;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -24,29 +26,46 @@ import java.io.PrintWriter;
 /**
  * The {@link Tracer} class is responsible for printing Tracer logs.
  *
+ * <p>Logs are printed either in the text format or in the binary format. In the latter case,
+ * records are written by a background thread (see {@link BinaryTraceWriter}) and can be
+ * converted into the text format with {@link BinaryTraceConverter}.</p>
+ *
  * @author <a href="mailto:andrewt@ispras.ru">Andrei Tatarnikov</a>
  */
 public final class Tracer {
   private static final String FILE_PREFIX = "tracer";
   private static final String FILE_EXTENSION = "log";
+  private static final String BINARY_FILE_EXTENSION = "trace";
 
   private final String filePath;
   private final String filePrefix;
   private final String fileExtension;
 
+  private final boolean isBinary;
+
   private int fileCount;
   private PrintWriter fileWritter;
+  private BinaryTraceWriter binaryWriter;
 
   private static Tracer instance = null;
   private static boolean enabled = false;
+  private static boolean bufferAccessEnabled = false;
 
   public static void initialize(final String filePath, final String filePrefix) {
+    initialize(filePath, filePrefix, false);
+  }
+
+  public static void initialize(
+      final String filePath,
+      final String filePrefix,
+      final boolean isBinary) {
     InvariantChecks.checkTrue(null == instance);
-    instance = new Tracer(filePath, null != filePrefix ? filePrefix : FILE_PREFIX);
+    instance = new Tracer(filePath, null != filePrefix ? filePrefix : FILE_PREFIX, isBinary);
   }
 
   public static void shutdown() {
     instance = null;
+    bufferAccessEnabled = false;
   }
 
   public static boolean isEnabled() {
@@ -57,6 +76,14 @@ public final class Tracer {
     enabled = value;
   }
 
+  public static boolean isBufferAccessEnabled() {
+    return bufferAccessEnabled && isEnabled();
+  }
+
+  public static void setBufferAccessEnabled(final boolean value) {
+    bufferAccessEnabled = value;
+  }
+
   public static String createFile() throws IOException {
     if (null != instance) {
       return instance.create();
@@ -76,15 +103,71 @@ public final class Tracer {
     }
   }
 
-  private Tracer(final String filePath, final String filePrefix) {
+  public static void addInstruction(final ConcreteCall call, final int cpu) {
+    if (null == instance) {
+      return;
+    }
+
+    if (null != instance.binaryWriter) {
+      instance.binaryWriter.addInstruction(Record.nextInstructionId(), call, cpu);
+    } else {
+      instance.print(Record.newInstruction(call, cpu));
+    }
+  }
+
+  public static void addMemoryAccess(
+      final long address,
+      final BitVector data,
+      final boolean isWrite) {
+    if (null == instance) {
+      return;
+    }
+
+    if (null != instance.binaryWriter) {
+      instance.binaryWriter.addMemoryAccess(Record.getInstructionId(), address, data, isWrite);
+    } else {
+      instance.print(Record.newMemoryAccess(address, data, isWrite));
+    }
+  }
+
+  public static void addRegisterWrite(final String register, final BitVector value) {
+    if (null == instance) {
+      return;
+    }
+
+    if (null != instance.binaryWriter) {
+      instance.binaryWriter.addRegisterWrite(Record.getInstructionId(), register, value);
+    } else {
+      instance.print(Record.newRegisterWrite(register, value));
+    }
+  }
+
+  public static void addBufferAccess(
+      final String buffer,
+      final BitVector address,
+      final boolean isHit) {
+    if (null == instance) {
+      return;
+    }
+
+    if (null != instance.binaryWriter) {
+      instance.binaryWriter.addBufferAccess(Record.getInstructionId(), buffer, address, isHit);
+    } else {
+      instance.print(Record.newBufferAccess(buffer, address, isHit));
+    }
+  }
+
+  private Tracer(final String filePath, final String filePrefix, final boolean isBinary) {
     InvariantChecks.checkNotNull(filePath);
     InvariantChecks.checkNotNull(filePrefix);
 
     this.filePath = filePath;
     this.filePrefix = filePrefix;
-    this.fileExtension = FILE_EXTENSION;
+    this.fileExtension = isBinary ? BINARY_FILE_EXTENSION : FILE_EXTENSION;
+    this.isBinary = isBinary;
     this.fileCount = 0;
     this.fileWritter = null;
+    this.binaryWriter = null;
   }
 
   private String create() throws IOException {
@@ -106,13 +189,24 @@ public final class Tracer {
       fileParent.mkdirs();
     }
 
-    fileWritter = new PrintWriter(new FileWriter(fileFullName));
+    if (isBinary) {
+      binaryWriter = new BinaryTraceWriter(fileFullName);
+    } else {
+      fileWritter = new PrintWriter(new FileWriter(fileFullName));
+    }
+
     return fileName;
   }
 
   private void close() {
     if (null != fileWritter) {
       fileWritter.close();
+      fileWritter = null;
+    }
+
+    if (null != binaryWriter) {
+      binaryWriter.close();
+      binaryWriter = null;
     }
   }
 
@@ -43,6 +43,7 @@ public enum Option implements Property {
   DISASSEMBLE("Disassembles binary files", false, null, "task"),
   SYMBOLIC_EXECUTE("Performs symbolic execution", false, null, "task"),
   TRANSFORM_TRACE("Transforms traces into templates", false, null, "task"),
+  CONVERT_TRACE("Converts binary Tracer logs into the text format", false, null, "task"),
 
   ////////////////////////////////////////////////////////////////////////////////////////////////
   // Translator Options
@@ -50,6 +51,8 @@ public enum Option implements Property {
   INCLUDE("Directory that stores include files", "", TRANSLATE),
   EXTENSION_DIR("Directory that stores user-defined Java code", "", TRANSLATE),
   MODEL_NAME("Name of the constructed microprocessor model", "", TRANSLATE),
+  LONG_ARITHMETIC("Enables using long arithmetic in simulator code for card/int types of up to"
+      + " 64 bits", false, TRANSLATE),
 
   ////////////////////////////////////////////////////////////////////////////////////////////////
   // Test Program Generation Options
@@ -57,8 +60,16 @@ public enum Option implements Property {
   ARCH_DIRS("Home directories for tested architectures", "", GENERATE),
 
   RANDOM_SEED("Seed for randomizer", 0, GENERATE),
+  PROGRAM_SEEDS("Enables reseeding the randomizer at the start of each test program with a seed "
+      + "derived from --" + RANDOM_SEED.getName() + " and the program index", false, GENERATE),
   SOLVER("Constraint solver engine to be used", "cvc4"),
   SOLVER_DEBUG("Enables debug mode for SMT solvers", false, GENERATE),
+  SOLVER_SESSIONS(
+      "Enables solving constraints in persistent solver processes", false, GENERATE),
+  TESTBASE_CACHE("Policy of caching TestBase query results (none, unsat or all)", "unsat",
+      GENERATE),
+  TESTBASE_CACHE_SIZE("Maximum number of cached TestBase query results", 4096, GENERATE),
+  TESTBASE_CACHE_FILE("File to load and save cached TestBase query results", "", GENERATE),
 
   PROGRAM_LENGTH_LIMIT("Maximum program length", 1000, GENERATE),
   TRACE_LENGTH_LIMIT("Maximum execution trace length", 1000, GENERATE),
@@ -67,7 +78,13 @@ public enum Option implements Property {
 
   FETCH_DECODE_ENABLED("Enables allocation, fetching and decoding of instructions", false, GENERATE),
   ASSERTS_ENABLED("Enables assertion checks during simulation", false, GENERATE),
+  FLOAT_HARDWARE("Enables native floating-point arithmetic for float32/float64 operations "
+      + "in the round-to-nearest-even mode", false, GENERATE),
   TRACER_LOG("Enables generation of Tracer logs for simulation", false, GENERATE),
+  TRACER_BINARY("Enables writing Tracer logs in the binary format, depends on --"
+      + TRACER_LOG.getName(), false, GENERATE),
+  TRACER_BUFFERS("Enables logging hits and misses of MMU buffers in Tracer logs, depends on --"
+      + TRACER_LOG.getName(), false, GENERATE),
   SELF_CHECKS("Enables inserting self-checks into test programs", false, GENERATE),
   DEFAULT_TEST_DATA("Enables generation of default test data", false, GENERATE),
   NO_SIMULATION("Disables simulation of generated code", false, GENERATE),
@@ -76,8 +93,13 @@ public enum Option implements Property {
   COMMENTS_DEBUG("Enables generation of detailed comments, depends on --"
       + COMMENTS_ENABLED.getName(), false, GENERATE),
   TIME_STATISTICS("Enables printing time statistics", false, GENERATE),
+  STATISTICS_FILE("File to append generation statistics to (JSON Lines format)", "", GENERATE),
+  STATISTICS_PROGRAMS("Enables writing statistics for each test program, depends on --"
+      + STATISTICS_FILE.getName(), false, GENERATE),
   GENERATE_BINARY(
       "Enables generating binary files (limited functionality for debugging)", false, GENERATE),
+  PRINTING_QUEUE_SIZE("Maximum number of test program files waiting to be written in background "
+      + "(0 means writing files directly)", 0, GENERATE),
 
   RESERVE_EXPLICIT(
       "Enables marking all explicitly specified registers as used", false, GENERATE),
@@ -104,6 +126,8 @@ public enum Option implements Property {
   DATA_SECTION_KEYWORD("Data section directive", ".data", GENERATE),
 
   INSTANCE_NUMBER("Number of processing element instances", 1, GENERATE),
+  EXECUTION_QUANTUM("Maximum number of instructions a processing element executes before "
+      + "switching to the next one (0 means running to the end of allocated code)", 0, GENERATE),
 
   JRUBY_THREAD_POOL_MAX(
       "JRuby: maximum number of threads to allow in pool", Integer.MAX_VALUE, GENERATE),
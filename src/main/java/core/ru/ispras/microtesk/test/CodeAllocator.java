@@ -223,8 +223,8 @@ public final class CodeAllocator {
       final BigInteger physicalAddress =
               section.virtualToPhysical(virtualAddress.bigIntegerValue(false));
 
-      if (call.isExecutable()) {
-        final BitVector image = BitVector.valueOf(call.getImage());
+      final BitVector image = call.getImageData();
+      if (null != image) {
         final int imageSize = memoryAllocator.bitsToAddressableUnits(image.getBitSize());
 
         if (Logger.isDebug()) {
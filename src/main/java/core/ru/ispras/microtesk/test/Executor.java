@@ -19,7 +19,6 @@ import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.microtesk.model.ConfigurationException;
 import ru.ispras.microtesk.model.ProcessingElement;
 import ru.ispras.microtesk.model.memory.LocationAccessor;
-import ru.ispras.microtesk.model.tracer.Record;
 import ru.ispras.microtesk.model.tracer.Tracer;
 import ru.ispras.microtesk.options.Option;
 import ru.ispras.microtesk.test.engine.EngineContext;
@@ -49,21 +48,30 @@ public final class Executor {
   public static final class Status {
     private final long address;
     private final LabelReference labelReference;
+    private final boolean preempted;
 
-    private Status(final long address, final LabelReference labelReference) {
+    private Status(
+        final long address,
+        final LabelReference labelReference,
+        final boolean preempted) {
       this.address = address;
       this.labelReference = labelReference;
+      this.preempted = preempted;
     }
 
     public static Status newAddress(final long address) {
-      return new Status(address, null);
+      return new Status(address, null, false);
     }
 
     public static Status newUndefinedLabel(
         final long address,
         final LabelReference labelReference) {
       InvariantChecks.checkNotNull(labelReference);
-      return new Status(address, labelReference);
+      return new Status(address, labelReference, false);
+    }
+
+    public static Status newPreempted(final long address) {
+      return new Status(address, null, true);
     }
 
     public final long getAddress() {
@@ -78,12 +86,24 @@ public final class Executor {
       return labelReference;
     }
 
+    /**
+     * Checks whether execution was stopped because the execution quantum was exhausted.
+     * In this case, execution can be resumed from the status address.
+     *
+     * @return {@code true} if execution was preempted or {@code false} otherwise.
+     */
+    public boolean isPreempted() {
+      return preempted;
+    }
+
     @Override
     public String toString() {
       final StringBuilder sb = new StringBuilder(String.format("0x%016x", getAddress()));
       if (isLabelReference()) {
         sb.append(String.format(
             " (waiting for label %s)", labelReference.getReference().getName()));
+      } else if (preempted) {
+        sb.append(" (preempted)");
       }
       return sb.toString();
     }
@@ -196,10 +216,15 @@ public final class Executor {
   private final ConcreteCall exceptionCall;
   private final ConcreteCall invalidCall;
   private final int branchExecutionLimit;
+  private final int executionQuantum;
   private final boolean isLoggingEnabled;
   private final String originFormat;
   private final String alignFormat;
 
+  private ProcessingElement pcProcessingElement;
+  private LocationAccessor pcLocation;
+  private int executedCalls;
+
   /**
    * Constructs an Executor object.
    *
@@ -226,9 +251,15 @@ public final class Executor {
     this.exceptionCall = EngineUtils.makeSpecialConcreteCall(context, "exception");
     this.invalidCall = EngineUtils.makeSpecialConcreteCall(context, "invalid_instruction");
     this.branchExecutionLimit = context.getOptions().getValueAsInteger(Option.BRANCH_EXEC_LIMIT);
+    this.executionQuantum =
+        isPresimulation ? 0 : context.getOptions().getValueAsInteger(Option.EXECUTION_QUANTUM);
     this.isLoggingEnabled = context.getOptions().getValueAsBoolean(Option.VERBOSE);
     this.originFormat = context.getOptions().getValueAsString(Option.ORIGIN_FORMAT);
     this.alignFormat = context.getOptions().getValueAsString(Option.ALIGN_FORMAT);
+
+    this.pcProcessingElement = null;
+    this.pcLocation = null;
+    this.executedCalls = 0;
   }
 
   public Executor(final EngineContext context) {
@@ -249,8 +280,8 @@ public final class Executor {
 
   /**
    * Executes code starting from the specified address until (1) a break point is reached
-   * and no executable code follows after this point or (2) an attempt to jump to an undefined
-   * label is made.
+   * and no executable code follows after this point, (2) an attempt to jump to an undefined
+   * label is made or (3) the execution quantum is exhausted.
    *
    * @param code Code to be executed.
    * @param startAddress Start address.
@@ -269,12 +300,13 @@ public final class Executor {
       long address = startAddress;
       long previousAddress = startAddress;
       Status status = Status.newAddress(startAddress);
+      executedCalls = 0;
 
       do {
         previousAddress = address;
 
         status = executeToBreak(code, address);
-        if (status.isLabelReference()) {
+        if (status.isLabelReference() || status.isPreempted()) {
           return status;
         }
 
@@ -290,8 +322,9 @@ public final class Executor {
   }
 
   /**
-   * Executes code starting from the specified address until: (1) a break point is reached or
-   * (2) an attempt to jump to an undefined label is made.
+   * Executes code starting from the specified address until: (1) a break point is reached,
+   * (2) an attempt to jump to an undefined label is made or (3) the execution quantum is
+   * exhausted.
    *
    * @param code Code to be executed.
    * @param startAddress Start address.
@@ -308,6 +341,14 @@ public final class Executor {
     final Fetcher fetcher = new Fetcher(code, startAddress);
 
     while (fetcher.canFetch() && !fetcher.isBreakReached()) {
+      if (executionQuantum > 0
+          && executedCalls >= executionQuantum
+          && fetcher.code.hasAddress(fetcher.getAddress())) {
+        // The processing element state is consistent between instructions. Execution will be
+        // resumed from the current address when the element is scheduled again.
+        return Status.newPreempted(fetcher.getAddress());
+      }
+
       final ConcreteCall call = fetcher.fetch();
       setPC(fetcher.getAddress());
 
@@ -346,6 +387,7 @@ public final class Executor {
       }
 
       final String exception = executeCall(call);
+      executedCalls++;
 
       // EXCEPTION
       if (null != exception) {
@@ -405,15 +447,23 @@ public final class Executor {
   }
 
   private LocationAccessor getPCLocation() throws ConfigurationException {
-    return getStateObserver().accessLocation("PC");
+    final ProcessingElement processingElement = getStateObserver();
+
+    // The PC location is resolved once per PE and reused for all executed instructions.
+    if (processingElement != pcProcessingElement) {
+      pcLocation = processingElement.accessLocation("PC");
+      pcProcessingElement = processingElement;
+    }
+
+    return pcLocation;
   }
 
   private long getPC() throws ConfigurationException {
-    return getPCLocation().getValue().longValue();
+    return getPCLocation().getLongValue();
   }
 
   private void setPC(final long address) throws ConfigurationException {
-    getPCLocation().setValue(BigInteger.valueOf(address));
+    getPCLocation().setLongValue(address);
   }
 
   private Long getExceptionHandlerAddress(
@@ -447,7 +497,7 @@ public final class Executor {
       if (invalidCall != call) {
         context.getStatistics().incTraceLength();
         if (Tracer.isEnabled()) {
-          Tracer.addRecord(Record.newInstruction(call, context.getModel().getActivePE()));
+          Tracer.addInstruction(call, context.getModel().getActivePE());
         }
       }
     }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileWriterQueue} writes text files in a background thread.
+ *
+ * <p>Files are written in the order they are submitted. The number of files waiting to be written
+ * is bounded: if the queue is full, {@link #write(File, String)} blocks until a file is written.
+ * An error that occurs in the background thread is reported by the next call of
+ * {@link #write(File, String)}, {@link #flush()} or {@link #close()}.</p>
+ */
+final class FileWriterQueue {
+  private static final String THREAD_NAME = "microtesk-file-writer";
+
+  private final ThreadPoolExecutor executor;
+  private final Semaphore slots;
+  private volatile IOException error;
+
+  public FileWriterQueue(final int capacity) {
+    InvariantChecks.checkGreaterThanZero(capacity);
+
+    // The thread is not a daemon: pending files are written even if generation is aborted.
+    // It terminates when it has been idle for a while.
+    this.executor = new ThreadPoolExecutor(
+        1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          @Override
+          public Thread newThread(final Runnable runnable) {
+            return new Thread(runnable, THREAD_NAME);
+          }
+        });
+
+    this.executor.allowCoreThreadTimeOut(true);
+    this.slots = new Semaphore(capacity);
+    this.error = null;
+  }
+
+  /**
+   * Schedules writing the text to the file (the file is overwritten).
+   *
+   * @param file the file to be written.
+   * @param text the file contents.
+   * @throws IOException if writing of a previously scheduled file has failed.
+   */
+  public void write(final File file, final String text) throws IOException {
+    InvariantChecks.checkNotNull(file);
+    InvariantChecks.checkNotNull(text);
+
+    checkError();
+    slots.acquireUninterruptibly();
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            writeFile(file, text);
+          } catch (final IOException e) {
+            if (null == error) {
+              error = e;
+            }
+          } finally {
+            slots.release();
+          }
+        }
+      });
+    } catch (final RuntimeException e) {
+      slots.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Waits until all scheduled files are written.
+   *
+   * @throws IOException if writing of a file has failed.
+   */
+  public void flush() throws IOException {
+    final Future<?> marker = executor.submit(new Runnable() {
+      @Override
+      public void run() {
+        // Files are written in order: all previous files are written when this task runs.
+      }
+    });
+
+    try {
+      marker.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing files", e);
+    } catch (final ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+
+    checkError();
+  }
+
+  /**
+   * Waits until all scheduled files are written and releases the background thread.
+   *
+   * @throws IOException if writing of a file has failed.
+   */
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void checkError() throws IOException {
+    final IOException e = error;
+    if (null != e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  private static void writeFile(final File file, final String text) throws IOException {
+    final PrintWriter writer = new PrintWriter(file);
+    try {
+      writer.print(text);
+    } finally {
+      writer.close();
+    }
+
+    if (writer.checkError()) {
+      throw new IOException(String.format("Failed to write %s", file.getPath()));
+    }
+  }
+}
@@ -16,6 +16,7 @@ package ru.ispras.microtesk.test;
 
 import ru.ispras.castle.util.FileUtils;
 import ru.ispras.castle.util.Logger;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 
 import ru.ispras.microtesk.SysUtils;
@@ -34,6 +35,7 @@ import ru.ispras.microtesk.utils.BinaryWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -68,6 +70,10 @@ public final class Printer {
   private final File file;
   private final PrintWriter fileWritter;
 
+  /** Queue that writes the file in background ({@code null} if the file is written directly). */
+  private final FileWriterQueue fileWriterQueue;
+  private final StringWriter fileBuffer;
+
   private final File binaryFile;
   private final BinaryWriter binaryWriter;
 
@@ -88,7 +94,7 @@ public final class Printer {
     InvariantChecks.checkNotNull(statistics);
 
     try {
-      console = new Printer(options, true, null, null);
+      console = new Printer(options, true, null, null, null);
     } catch (final IOException e) {
       throw new IllegalArgumentException(e);
     }
@@ -99,6 +105,13 @@ public final class Printer {
   public static Printer newCodeFile(
       final Options options,
       final int fileIndex) throws IOException {
+    return newCodeFile(options, fileIndex, null);
+  }
+
+  static Printer newCodeFile(
+      final Options options,
+      final int fileIndex,
+      final FileWriterQueue fileWriterQueue) throws IOException {
     InvariantChecks.checkNotNull(options);
     InvariantChecks.checkGreaterOrEqZero(fileIndex);
 
@@ -110,7 +123,7 @@ public final class Printer {
         outDir, fileName, options.getValueAsString(Option.CODE_FILE_EXTENSION));
 
     final File binaryFile = newBinaryFile(outDir, fileName, options);
-    return new Printer(options, false, file, binaryFile);
+    return new Printer(options, false, file, binaryFile, fileWriterQueue);
   }
 
   public static Printer newDataFile(
@@ -126,13 +139,21 @@ public final class Printer {
     final File file = FileUtils.newFile(
         outDir, fileName, options.getValueAsString(Option.DATA_FILE_EXTENSION));
 
-    return new Printer(options, false, file, null);
+    return new Printer(options, false, file, null, null);
   }
 
   public static Printer newSectionFile(
       final String name,
       final Options options,
       final int fileIndex) throws IOException {
+    return newSectionFile(name, options, fileIndex, null);
+  }
+
+  static Printer newSectionFile(
+      final String name,
+      final Options options,
+      final int fileIndex,
+      final FileWriterQueue fileWriterQueue) throws IOException {
     InvariantChecks.checkNotNull(options);
     InvariantChecks.checkGreaterOrEqZero(fileIndex);
 
@@ -142,7 +163,7 @@ public final class Printer {
     final File file = FileUtils.newFile(
         outDir, fileName, options.getValueAsString(Option.CODE_FILE_EXTENSION));
 
-    return new Printer(options, false, file, null);
+    return new Printer(options, false, file, null, fileWriterQueue);
   }
 
   public static Printer newExceptionHandlerFile(
@@ -159,7 +180,7 @@ public final class Printer {
         outDir, fileName, options.getValueAsString(Option.CODE_FILE_EXTENSION));
 
     final File binaryFile = newBinaryFile(outDir, fileName, options);
-    return new Printer(options, false, file, binaryFile);
+    return new Printer(options, false, file, binaryFile, null);
   }
 
   private static File newBinaryFile(
@@ -184,7 +205,8 @@ public final class Printer {
       final Options options,
       final boolean printToScreen,
       final File file,
-      final File binaryFile) throws IOException {
+      final File binaryFile,
+      final FileWriterQueue fileWriterQueue) throws IOException {
     InvariantChecks.checkNotNull(options);
 
     this.options = options;
@@ -192,7 +214,16 @@ public final class Printer {
     this.file = file;
     this.binaryFile = binaryFile;
 
-    this.fileWritter = null != file ? new PrintWriter(file) : null;
+    // If the file is written in background, the text is collected in memory.
+    this.fileWriterQueue = null != file ? fileWriterQueue : null;
+    this.fileBuffer = null != this.fileWriterQueue ? new StringWriter() : null;
+
+    if (null != fileBuffer) {
+      this.fileWritter = new PrintWriter(fileBuffer);
+    } else {
+      this.fileWritter = null != file ? new PrintWriter(file) : null;
+    }
+
     final boolean bigEndian = options.getValueAsBoolean(Option.BINARY_FILE_BIG_ENDIAN);
     this.binaryWriter = null != binaryFile ? new BinaryWriter(binaryFile, bigEndian) : null;
 
@@ -209,7 +240,7 @@ public final class Printer {
     return null != file ? file.getName() : null;
   }
 
-  public void close() {
+  public void close() throws IOException {
     printFileFooter();
 
     if (null != fileWritter) {
@@ -219,6 +250,10 @@ public final class Printer {
     if (null != binaryWriter) {
       binaryWriter.close();
     }
+
+    if (null != fileBuffer) {
+      fileWriterQueue.write(file, fileBuffer.toString());
+    }
   }
 
   public void delete() {
@@ -357,8 +392,8 @@ public final class Printer {
       }
 
       if (writeToFile && null != binaryWriter) {
-        final String image = call.getImage();
-        if (null != image && !image.isEmpty()) {
+        final BitVector image = call.getImageData();
+        if (null != image) {
           binaryWriter.write(image);
         }
       }
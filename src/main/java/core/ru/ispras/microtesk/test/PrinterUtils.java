@@ -106,7 +106,8 @@ final class PrinterUtils {
 
   public static void printTestProgram(
       final EngineContext engineContext,
-      final TestProgram testProgram) throws ConfigurationException, IOException {
+      final TestProgram testProgram,
+      final FileWriterQueue fileWriterQueue) throws ConfigurationException, IOException {
     InvariantChecks.checkNotNull(engineContext);
     InvariantChecks.checkNotNull(testProgram);
 
@@ -116,12 +117,16 @@ final class PrinterUtils {
     // Printers of the test program and the separate-file sections.
     final Map<String, Printer> printers = new LinkedHashMap<>();
 
+    // Error of closing the printers (it is thrown if printing has succeeded).
+    IOException error = null;
+
     try {
       final Model model = engineContext.getModel();
       final Options options = engineContext.getOptions();
       final int count = statistics.getPrograms();
 
-      Printer printer = Printer.newCodeFile(options, count);
+      // If the queue is specified, the text is prepared here and written to files in background.
+      Printer printer = Printer.newCodeFile(options, count, fileWriterQueue);
       printers.put("", printer);
 
       Logger.debugHeader("Printing test program to %s", printer.getFileName());
@@ -148,7 +153,7 @@ final class PrinterUtils {
       printer.printData(testProgram.getAllData());
 
       for (final Map.Entry<String, Collection<ConcreteSequence>> entry : sections.entrySet()) {
-        printer = Printer.newSectionFile(entry.getKey(), options, count);
+        printer = Printer.newSectionFile(entry.getKey(), options, count, fileWriterQueue);
         printers.put(entry.getKey(), printer);
 
         Logger.debugHeader("Printing section %s to %s", entry.getKey(), printer.getFileName());
@@ -160,14 +165,42 @@ final class PrinterUtils {
 
       statistics.incPrograms();
     } finally {
-      for (final Printer printer : printers.values()) {
-        printer.close();
+      try {
+        error = closePrinters(printers.values());
+      } finally {
+        statistics.popActivity();
       }
+    }
 
-      statistics.popActivity();
+    if (null != error) {
+      throw error;
     }
   }
 
+  /**
+   * Closes all the given printers even if closing of some of them fails.
+   *
+   * @param printers the printers to be closed.
+   * @return the first error (other errors are suppressed by it) or {@code null}.
+   */
+  private static IOException closePrinters(final Collection<Printer> printers) {
+    IOException error = null;
+
+    for (final Printer printer : printers) {
+      try {
+        printer.close();
+      } catch (final IOException e) {
+        if (null == error) {
+          error = e;
+        } else {
+          error.addSuppressed(e);
+        }
+      }
+    }
+
+    return error;
+  }
+
   public static void printLinkerScript(final EngineContext engineContext) throws IOException {
     InvariantChecks.checkNotNull(engineContext);
 
@@ -18,8 +18,12 @@ import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.fortress.util.Pair;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,11 +52,130 @@ public final class Statistics {
     }
   }
 
+  /**
+   * The {@link CounterSource} interface is implemented by components (e.g. plugins) that
+   * collect their own counters to be included into the statistics report.
+   */
+  public interface CounterSource {
+    /**
+     * Returns the name of the counter group.
+     *
+     * @return Name of the counter group.
+     */
+    String getName();
+
+    /**
+     * Returns current counter values grouped by objects they describe.
+     *
+     * @return Map from object names to maps from counter names to counter values.
+     */
+    Map<String, Map<String, Long>> getCounters();
+  }
+
+  /**
+   * The {@link TaskMetric} class holds the total time and the number of runs of a task
+   * (e.g. an engine) performed within an activity. The time includes nested tasks.
+   */
+  public static final class TaskMetric {
+    private long time;
+    private long count;
+
+    private TaskMetric() {
+      this.time = 0;
+      this.count = 0;
+    }
+
+    public long getTimeNanos() {
+      return time;
+    }
+
+    public long getCount() {
+      return count;
+    }
+  }
+
+  /**
+   * The {@link LatencyHistogram} class collects latencies of calls (e.g. solver calls).
+   * Bucket {@code 0} counts calls shorter than 1 microsecond, bucket {@code i > 0} counts
+   * calls that took from {@code 2^(i-1)} to {@code 2^i} microseconds.
+   */
+  public static final class LatencyHistogram {
+    private static final int BUCKET_COUNT = 32;
+
+    private final long[] buckets;
+    private long count;
+    private long totalTime;
+    private long maxTime;
+
+    private LatencyHistogram() {
+      this.buckets = new long[BUCKET_COUNT];
+      this.count = 0;
+      this.totalTime = 0;
+      this.maxTime = 0;
+    }
+
+    private void add(final long nanos) {
+      final long micros = nanos / 1000;
+      final int bucket = Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+
+      buckets[bucket]++;
+      count++;
+      totalTime += nanos;
+      maxTime = Math.max(maxTime, nanos);
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalTimeNanos() {
+      return totalTime;
+    }
+
+    public long getMaxTimeNanos() {
+      return maxTime;
+    }
+
+    public long getBucket(final int index) {
+      InvariantChecks.checkBounds(index, BUCKET_COUNT);
+      return buckets[index];
+    }
+
+    public int getBucketCount() {
+      return BUCKET_COUNT;
+    }
+
+    /**
+     * Returns the histogram as a map from counter names to values. Empty buckets are skipped.
+     *
+     * @return Map of counters.
+     */
+    public Map<String, Long> toCounters() {
+      final Map<String, Long> counters = new LinkedHashMap<>();
+
+      counters.put("count", count);
+      counters.put("total_us", totalTime / 1000);
+      counters.put("max_us", maxTime / 1000);
+
+      for (int index = 0; index < BUCKET_COUNT; ++index) {
+        if (0 != buckets[index]) {
+          counters.put(String.format("<%dus", 1L << index), buckets[index]);
+        }
+      }
+
+      return counters;
+    }
+  }
+
   private final Deque<Pair<Activity, Long>> activities;
   private final Map<Activity, Long> timeMetrics;
   private final long startTime;
   private long totalTime;
 
+  private final Deque<Pair<String, Long>> tasks;
+  private final Map<String, TaskMetric> taskMetrics;
+  private final Map<String, LatencyHistogram> latencies;
+
   private int programs;
   private long programLength;
   private int dataFiles;
@@ -65,6 +188,8 @@ public final class Statistics {
   private long programLengthLimit;
   private long traceLengthLimit;
 
+  private final List<CounterSource> counterSources;
+
   public Statistics() {
     this(0L, 0L);
   }
@@ -80,6 +205,10 @@ public final class Statistics {
       this.timeMetrics.put(activity, 0L);
     }
 
+    this.tasks = new ArrayDeque<>();
+    this.taskMetrics = new LinkedHashMap<>();
+    this.latencies = new LinkedHashMap<>();
+
     this.programs = 0;
     this.programLength = 0;
     this.dataFiles = 0;
@@ -91,10 +220,16 @@ public final class Statistics {
 
     this.programLengthLimit = programLengthLimit;
     this.traceLengthLimit = traceLengthLimit;
+
+    this.counterSources = new ArrayList<>();
   }
 
   private static long getCurrentTime() {
-    return System.currentTimeMillis();
+    return System.nanoTime();
+  }
+
+  private static long toMillis(final long nanos) {
+    return nanos / 1000000;
   }
 
   public void saveTotalTime() {
@@ -128,6 +263,72 @@ public final class Statistics {
     timeMetrics.put(activity, metric + value);
   }
 
+  /**
+   * Starts measuring a task performed within the current activity or the current task.
+   * Task metrics are identified by paths that include the names of the enclosing activity
+   * and tasks (e.g. {@code PROCESSING/branch}).
+   *
+   * @param name Task name.
+   */
+  public void pushTask(final String name) {
+    InvariantChecks.checkNotNull(name);
+
+    final String parent;
+    if (!tasks.isEmpty()) {
+      parent = tasks.peek().first;
+    } else if (!activities.isEmpty()) {
+      parent = activities.peek().first.name();
+    } else {
+      parent = null;
+    }
+
+    final String path = null != parent ? parent + "/" + name : name;
+    tasks.push(new Pair<>(path, getCurrentTime()));
+  }
+
+  public void popTask() {
+    final Pair<String, Long> task = tasks.pop();
+
+    TaskMetric metric = taskMetrics.get(task.first);
+    if (null == metric) {
+      metric = new TaskMetric();
+      taskMetrics.put(task.first, metric);
+    }
+
+    metric.time += getCurrentTime() - task.second;
+    metric.count++;
+  }
+
+  public Map<String, TaskMetric> getTaskMetrics() {
+    return Collections.unmodifiableMap(taskMetrics);
+  }
+
+  /**
+   * Returns the current time to be used as a start time of a call passed to
+   * {@link #stopLatency(String, long)}.
+   *
+   * @return Current time in nanoseconds.
+   */
+  public long startLatency() {
+    return getCurrentTime();
+  }
+
+  public void stopLatency(final String name, final long startTime) {
+    InvariantChecks.checkNotNull(name);
+
+    LatencyHistogram histogram = latencies.get(name);
+    if (null == histogram) {
+      histogram = new LatencyHistogram();
+      latencies.put(name, histogram);
+    }
+
+    histogram.add(getCurrentTime() - startTime);
+  }
+
+  public Map<String, LatencyHistogram> getLatencies() {
+    return Collections.unmodifiableMap(latencies);
+  }
+
   public void incPrograms() {
     programs++;
     programLength = 0;
@@ -154,6 +355,19 @@ public final class Statistics {
   }
 
   public long getTotalTime() {
+    return toMillis(getTotalTimeNanos());
+  }
+
+  /**
+   * Returns the time elapsed since the statistics object was created.
+   *
+   * @return Elapsed time in nanoseconds.
+   */
+  public long getElapsedTimeNanos() {
+    return getCurrentTime() - startTime;
+  }
+
+  public long getTotalTimeNanos() {
     if (0 == totalTime) {
       saveTotalTime();
     }
@@ -162,15 +376,19 @@ public final class Statistics {
   }
 
   public long getTimeMetric(final Activity activity) {
+    return toMillis(getTimeMetricNanos(activity));
+  }
+
+  public long getTimeMetricNanos(final Activity activity) {
     InvariantChecks.checkNotNull(activity);
     return timeMetrics.get(activity);
   }
 
   public String getTimeMetricText(final Activity activity) {
-    final long metric = getTimeMetric(activity);
-    final long percentage = (metric * 10000) / getTotalTime();
+    final long metric = getTimeMetricNanos(activity);
+    final long percentage = (metric * 10000) / getTotalTimeNanos();
     return String.format("%s: %s (%d.%d%%)",
-        activity.getText(), timeToString(metric), percentage / 100, percentage % 100);
+        activity.getText(), timeToString(toMillis(metric)), percentage / 100, percentage % 100);
   }
 
   public int getPrograms() {
@@ -209,6 +427,19 @@ public final class Statistics {
     return sequenceTraceLength >= traceLengthLimit;
   }
 
+  public void addCounterSource(final CounterSource source) {
+    InvariantChecks.checkNotNull(source);
+
+    // A source can be registered again (e.g. by a plugin for each template): it is listed once.
+    if (!counterSources.contains(source)) {
+      counterSources.add(source);
+    }
+  }
+
+  public List<CounterSource> getCounterSources() {
+    return Collections.unmodifiableList(counterSources);
+  }
+
   public void setProgramLengthLimit(final long value) {
     this.programLengthLimit = value;
   }
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * The {@link StatisticsWriter} class writes generation statistics to a file in the JSON Lines
+ * format (one JSON object per line). A record is written for each generated test program
+ * (if enabled) and for the whole run. Each record is flushed immediately, which allows
+ * monitoring long runs.
+ */
+final class StatisticsWriter {
+  private final Writer writer;
+  private final boolean programRecords;
+  private final String modelName;
+  private final String templateFile;
+
+  public StatisticsWriter(
+      final String fileName,
+      final boolean programRecords,
+      final String modelName,
+      final String templateFile) throws IOException {
+    InvariantChecks.checkNotNull(fileName);
+    InvariantChecks.checkNotNull(modelName);
+    InvariantChecks.checkNotNull(templateFile);
+
+    this.writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(fileName, true), StandardCharsets.UTF_8));
+    this.programRecords = programRecords;
+    this.modelName = modelName;
+    this.templateFile = templateFile;
+  }
+
+  /**
+   * Writes a record for a test program that has just been generated.
+   *
+   * @param statistics Statistics collected so far.
+   * @param programLength Number of instructions in the program.
+   * @throws IOException if an I/O error occurs.
+   */
+  public void writeProgram(
+      final Statistics statistics,
+      final long programLength) throws IOException {
+    InvariantChecks.checkNotNull(statistics);
+
+    if (!programRecords) {
+      return;
+    }
+
+    final StringBuilder sb = new StringBuilder();
+
+    sb.append('{');
+    appendField(sb, "record", "program").append(',');
+    appendField(sb, "template", templateFile).append(',');
+    appendField(sb, "index", statistics.getPrograms() - 1).append(',');
+    appendField(sb, "instructions", programLength).append(',');
+    appendField(sb, "total_sequences", statistics.getSequences()).append(',');
+    appendField(sb, "total_instructions", statistics.getInstructions()).append(',');
+    appendField(sb, "total_trace_length", statistics.getTotalTraceLength()).append(',');
+    appendField(sb, "elapsed_ns", statistics.getElapsedTimeNanos()).append(',');
+    appendMemory(sb);
+    sb.append('}');
+
+    writeRecord(sb);
+  }
+
+  /**
+   * Writes a record for the whole generation run.
+   *
+   * @param statistics Statistics collected during the run.
+   * @param successful Flag that specifies whether generation was successful.
+   * @throws IOException if an I/O error occurs.
+   */
+  public void writeRun(
+      final Statistics statistics,
+      final boolean successful) throws IOException {
+    InvariantChecks.checkNotNull(statistics);
+
+    final StringBuilder sb = new StringBuilder();
+
+    sb.append('{');
+    appendField(sb, "record", "run").append(',');
+    appendField(sb, "model", modelName).append(',');
+    appendField(sb, "template", templateFile).append(',');
+    appendField(sb, "successful", successful).append(',');
+    appendField(sb, "programs", statistics.getPrograms()).append(',');
+    appendField(sb, "data_files", statistics.getDataFiles()).append(',');
+    appendField(sb, "sequences", statistics.getSequences()).append(',');
+    appendField(sb, "instructions", statistics.getInstructions()).append(',');
+    appendField(sb, "trace_length", statistics.getTotalTraceLength()).append(',');
+    appendField(sb, "total_time_ns", statistics.getTotalTimeNanos()).append(',');
+
+    appendKey(sb, "activities_ns").append('{');
+    boolean first = true;
+    for (final Statistics.Activity activity : Statistics.Activity.values()) {
+      first = appendSeparator(sb, first);
+      appendField(sb, activity.name().toLowerCase(), statistics.getTimeMetricNanos(activity));
+    }
+    sb.append("},");
+
+    appendKey(sb, "tasks").append('{');
+    first = true;
+    for (final Map.Entry<String, Statistics.TaskMetric> entry
+        : statistics.getTaskMetrics().entrySet()) {
+      first = appendSeparator(sb, first);
+      appendKey(sb, entry.getKey()).append('{');
+      appendField(sb, "time_ns", entry.getValue().getTimeNanos()).append(',');
+      appendField(sb, "count", entry.getValue().getCount());
+      sb.append('}');
+    }
+    sb.append("},");
+
+    appendKey(sb, "latencies").append('{');
+    first = true;
+    for (final Map.Entry<String, Statistics.LatencyHistogram> entry
+        : statistics.getLatencies().entrySet()) {
+      first = appendSeparator(sb, first);
+      appendKey(sb, entry.getKey());
+      appendCounters(sb, entry.getValue().toCounters());
+    }
+    sb.append("},");
+
+    appendKey(sb, "counters").append('{');
+    first = true;
+    for (final Statistics.CounterSource source : statistics.getCounterSources()) {
+      first = appendSeparator(sb, first);
+      appendKey(sb, source.getName()).append('{');
+
+      boolean firstObject = true;
+      for (final Map.Entry<String, Map<String, Long>> entry : source.getCounters().entrySet()) {
+        firstObject = appendSeparator(sb, firstObject);
+        appendKey(sb, entry.getKey());
+        appendCounters(sb, entry.getValue());
+      }
+
+      sb.append('}');
+    }
+    sb.append("},");
+
+    appendMemory(sb);
+    sb.append('}');
+
+    writeRecord(sb);
+  }
+
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  private void writeRecord(final StringBuilder sb) throws IOException {
+    writer.write(sb.toString());
+    writer.write(System.lineSeparator());
+    writer.flush();
+  }
+
+  private static void appendMemory(final StringBuilder sb) {
+    final Runtime runtime = Runtime.getRuntime();
+
+    appendKey(sb, "memory").append('{');
+    appendField(sb, "used", runtime.totalMemory() - runtime.freeMemory()).append(',');
+    appendField(sb, "total", runtime.totalMemory()).append(',');
+    appendField(sb, "max", runtime.maxMemory());
+    sb.append('}');
+  }
+
+  private static void appendCounters(final StringBuilder sb, final Map<String, Long> counters) {
+    sb.append('{');
+
+    boolean first = true;
+    for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+      first = appendSeparator(sb, first);
+      appendField(sb, entry.getKey(), entry.getValue());
+    }
+
+    sb.append('}');
+  }
+
+  private static boolean appendSeparator(final StringBuilder sb, final boolean first) {
+    if (!first) {
+      sb.append(',');
+    }
+    return false;
+  }
+
+  private static StringBuilder appendField(
+      final StringBuilder sb,
+      final String key,
+      final Object value) {
+    appendKey(sb, key);
+
+    if (value instanceof String) {
+      appendString(sb, (String) value);
+    } else {
+      sb.append(value);
+    }
+
+    return sb;
+  }
+
+  private static StringBuilder appendKey(final StringBuilder sb, final String key) {
+    return appendString(sb, key).append(':');
+  }
+
+  static StringBuilder appendString(final StringBuilder sb, final String text) {
+    sb.append('"');
+
+    for (int index = 0; index < text.length(); ++index) {
+      final char ch = text.charAt(index);
+      switch (ch) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            sb.append(String.format("\\u%04x", (int) ch));
+          } else {
+            sb.append(ch);
+          }
+      }
+    }
+
+    return sb.append('"');
+  }
+}
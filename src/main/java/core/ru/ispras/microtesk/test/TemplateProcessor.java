@@ -15,6 +15,7 @@
 package ru.ispras.microtesk.test;
 
 import ru.ispras.castle.util.Logger;
+import ru.ispras.fortress.randomizer.Randomizer;
 import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.fortress.util.Pair;
 
@@ -76,6 +77,8 @@ final class TemplateProcessor implements Template.Processor {
   }
 
   private final EngineContext engineContext;
+  private final StatisticsWriter statisticsWriter;
+  private final FileWriterQueue fileWriterQueue;
   private final int instanceNumber;
   private final TestProgram testProgram;
   private final Set<BlockEntry> postponedBlocks;
@@ -84,10 +87,13 @@ final class TemplateProcessor implements Template.Processor {
   private final List<Executor.Status> executorStatuses;
   private final Deque<ConcreteSequence> interruptedSequences;
   private final boolean isNoSimulation;
+  private final boolean isProgramSeeds;
   private boolean isProgramStarted;
   private boolean hasDispatchingCode;
 
-  public TemplateProcessor(final EngineContext engineContext) {
+  public TemplateProcessor(
+      final EngineContext engineContext,
+      final StatisticsWriter statisticsWriter) {
     InvariantChecks.checkNotNull(engineContext);
     InvariantChecks.checkGreaterThanZero(engineContext.getModel().getPENumber());
 
@@ -99,6 +105,10 @@ final class TemplateProcessor implements Template.Processor {
     final boolean isFetchDecodeEnabled = options.getValueAsBoolean(Option.FETCH_DECODE_ENABLED);
 
     this.engineContext = engineContext;
+    this.statisticsWriter = statisticsWriter;
+
+    final int printingQueueSize = options.getValueAsInteger(Option.PRINTING_QUEUE_SIZE);
+    this.fileWriterQueue = printingQueueSize > 0 ? new FileWriterQueue(printingQueueSize) : null;
     this.instanceNumber = model.getPENumber();
     this.testProgram = new TestProgram();
     this.postponedBlocks = new LinkedHashSet<>();
@@ -107,12 +117,18 @@ final class TemplateProcessor implements Template.Processor {
     this.executorStatuses = new ArrayList<>(instanceNumber);
     this.interruptedSequences = new ArrayDeque<>();
     this.isNoSimulation = options.getValueAsBoolean(Option.NO_SIMULATION);
+    this.isProgramSeeds = options.getValueAsBoolean(Option.PROGRAM_SEEDS);
     this.isProgramStarted = false;
     this.hasDispatchingCode = false;
 
     if (options.getValueAsBoolean(Option.TRACER_LOG)) {
       final String outDir = Printer.getOutDir(options);
-      Tracer.initialize(outDir, options.getValueAsString(Option.CODE_FILE_PREFIX));
+      Tracer.initialize(
+          outDir,
+          options.getValueAsString(Option.CODE_FILE_PREFIX),
+          options.getValueAsBoolean(Option.TRACER_BINARY)
+          );
+      Tracer.setBufferAccessEnabled(options.getValueAsBoolean(Option.TRACER_BUFFERS));
     }
 
     engineContext.setCodeAllocator(allocator);
@@ -186,6 +202,8 @@ final class TemplateProcessor implements Template.Processor {
 
   @Override
   public void finish() {
+    Exception error = null;
+
     try {
       startProgram();
 
@@ -201,10 +219,25 @@ final class TemplateProcessor implements Template.Processor {
 
       PrinterUtils.printLinkerScript(engineContext);
     } catch (final Exception e) {
-      TestEngineUtils.rethrowException(e);
+      error = e;
     } finally {
-      engineContext.getStatistics().popActivity(); // PARSING
-      engineContext.getStatistics().saveTotalTime();
+      // Files being written in background are flushed even if generation has failed.
+      try {
+        closeFileWriterQueue();
+      } catch (final IOException e) {
+        if (null == error) {
+          error = e;
+        } else {
+          error.addSuppressed(e);
+        }
+      } finally {
+        engineContext.getStatistics().popActivity(); // PARSING
+        engineContext.getStatistics().saveTotalTime();
+      }
+    }
+
+    if (null != error) {
+      TestEngineUtils.rethrowException(error);
     }
   }
 
@@ -527,6 +560,16 @@ final class TemplateProcessor implements Template.Processor {
     }
 
     isProgramStarted = true;
+
+    if (isProgramSeeds) {
+      final int programIndex = engineContext.getStatistics().getPrograms();
+      final int seed = TestEngineUtils.getProgramSeed(
+          engineContext.getOptions().getValueAsInteger(Option.RANDOM_SEED), programIndex);
+
+      Logger.debug("Random seed for test program %d: %d", programIndex, seed);
+      Randomizer.get().setSeed(seed);
+    }
+
     TestEngineUtils.notifyProgramStart();
 
     Tracer.createFile();
@@ -550,6 +593,7 @@ final class TemplateProcessor implements Template.Processor {
       return;
     }
 
+    boolean isCompleted = false;
     try {
       // Removes all postponed entries which will never be processed.
       for (final BlockEntry blockEntry : postponedBlocks) {
@@ -565,21 +609,46 @@ final class TemplateProcessor implements Template.Processor {
         runExecution(epilogue.iterator().next());
         TestEngineUtils.checkAllAtEndOf(executorStatuses, testProgram.getLastNonEmptyEntry());
       }
+
+      isCompleted = true;
     } finally {
       TestEngineUtils.notifyProgramEnd();
 
-      PrinterUtils.printTestProgram(engineContext, testProgram);
-      Tracer.closeFile();
+      try {
+        final long programLength = engineContext.getStatistics().getProgramLength();
+        PrinterUtils.printTestProgram(engineContext, testProgram, fileWriterQueue);
+        Tracer.closeFile();
+
+        // The record is written only for completed programs: if the program failed, an error
+        // of the statistics writer must not replace the original exception.
+        if (isCompleted && null != statisticsWriter) {
+          statisticsWriter.writeProgram(engineContext.getStatistics(), programLength);
+        }
+      } finally {
+        // Clean up all the state
+        engineContext.getModel().resetState();
+        engineContext.getLabelManager().reset();
+        engineContext.getNumericLabelTracker().reset();
+        allocator.reset();
+        testProgram.reset();
+        executorStatuses.clear();
+
+        isProgramStarted = false;
+      }
+    }
+  }
 
-      // Clean up all the state
-      engineContext.getModel().resetState();
-      engineContext.getLabelManager().reset();
-      engineContext.getNumericLabelTracker().reset();
-      allocator.reset();
-      testProgram.reset();
-      executorStatuses.clear();
+  private void closeFileWriterQueue() throws IOException {
+    if (null == fileWriterQueue) {
+      return;
+    }
 
-      isProgramStarted = false;
+    // Waits for the test program files being written in background.
+    engineContext.getStatistics().pushActivity(Statistics.Activity.PRINTING);
+    try {
+      fileWriterQueue.close();
+    } finally {
+      engineContext.getStatistics().popActivity(); // PRINTING
     }
   }
 
@@ -682,32 +751,48 @@ final class TemplateProcessor implements Template.Processor {
     final Code code = allocator.getCode();
 
     boolean isExecuted = false;
-    for (int index = 0; index < instanceNumber; index++) {
-      // Sets initial statuses (address of first sequence in a program).
-      if (isNoStatuses) {
-        executorStatuses.add(Executor.Status.newAddress(sequence.getStartAddress()));
-      }
+    boolean isFirstRound = true;
+    boolean isPreempted;
 
-      final Executor.Status status = executorStatuses.get(index);
-      final long address = status.getAddress();
+    // Instances are scheduled in the round-robin order. If the execution quantum is set,
+    // preempted instances are resumed in the next round until all of them stop.
+    do {
+      isPreempted = false;
 
-      Logger.debugHeader("Instance %d", index);
-      Logger.debug("Execution status: %s%n", status);
+      for (int index = 0; index < instanceNumber; index++) {
+        // Sets initial statuses (address of first sequence in a program).
+        if (isNoStatuses && isFirstRound) {
+          executorStatuses.add(Executor.Status.newAddress(sequence.getStartAddress()));
+        }
 
-      final boolean isUndefinedLabel = status.isLabelReference()
-          && engineContext.getLabelManager().resolve(
-              status.getLabelReference().getReference()) == null;
+        final Executor.Status status = executorStatuses.get(index);
+        final long address = status.getAddress();
 
-      if (!code.hasAddress(address) || isUndefinedLabel) {
-        Logger.debug("Execution cannot continue at the current stage.");
-        continue;
+        if (!isFirstRound && !status.isPreempted()) {
+          continue;
+        }
+
+        Logger.debugHeader("Instance %d", index);
+        Logger.debug("Execution status: %s%n", status);
+
+        final boolean isUndefinedLabel = status.isLabelReference()
+            && engineContext.getLabelManager().resolve(
+                status.getLabelReference().getReference()) == null;
+
+        if (!code.hasAddress(address) || isUndefinedLabel) {
+          Logger.debug("Execution cannot continue at the current stage.");
+          continue;
+        }
+
+        engineContext.getModel().setActivePE(index);
+        final Executor.Status newStatus = executor.execute(code, address);
+        executorStatuses.set(index, newStatus);
+        isExecuted = true;
+        isPreempted |= newStatus.isPreempted();
       }
 
-      engineContext.getModel().setActivePE(index);
-      final Executor.Status newStatus = executor.execute(code, address);
-      executorStatuses.set(index, newStatus);
-      isExecuted = true;
-    }
+      isFirstRound = false;
+    } while (isPreempted);
 
     return isExecuted;
   }
@@ -29,6 +29,7 @@ import ru.ispras.microtesk.SysUtils;
 import ru.ispras.microtesk.model.Execution;
 import ru.ispras.microtesk.model.Model;
 import ru.ispras.microtesk.model.Reader;
+import ru.ispras.microtesk.model.data.Data;
 import ru.ispras.microtesk.options.Option;
 import ru.ispras.microtesk.options.Options;
 import ru.ispras.microtesk.settings.AllocationSettings;
@@ -44,8 +45,10 @@ import ru.ispras.testbase.TestBaseRegistry;
 import ru.ispras.testbase.generator.DataGenerator;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -65,13 +68,15 @@ public final class TestEngine {
   private final Set<String> revisionIds;
   private final List<Plugin> plugins;
   private final Statistics statistics;
+  private final StatisticsWriter statisticsWriter;
 
   private TestEngine(
       final Model model,
       final Set<String> revisionIds,
       final Options options,
       final List<Plugin> plugins,
-      final Statistics statistics) {
+      final Statistics statistics,
+      final StatisticsWriter statisticsWriter) {
     InvariantChecks.checkNotNull(model);
     InvariantChecks.checkNotNull(revisionIds);
     InvariantChecks.checkNotNull(options);
@@ -83,6 +88,7 @@ public final class TestEngine {
     this.options = options;
     this.plugins = plugins;
     this.statistics = statistics;
+    this.statisticsWriter = statisticsWriter;
 
     Reader.setModel(model);
     initSolverPaths(SysUtils.getHomeDir());
@@ -166,12 +172,42 @@ public final class TestEngine {
     setSolver(options.getValueAsString(Option.SOLVER));
     Environment.setDebugMode(options.getValueAsBoolean(Option.SOLVER_DEBUG));
 
-    instance = new TestEngine(model, revisionIds, options, plugins, statistics);
+    TestBase.setSessionsEnabled(options.getValueAsBoolean(Option.SOLVER_SESSIONS));
+    TestBase.setQueryCache(
+        options.getValueAsString(Option.TESTBASE_CACHE),
+        options.getValueAsInteger(Option.TESTBASE_CACHE_SIZE)
+        );
 
+    final String cacheFile = options.getValueAsString(Option.TESTBASE_CACHE_FILE);
+    if (!cacheFile.isEmpty() && new File(cacheFile).exists()) {
+      TestBase.loadQueryCache(cacheFile);
+    }
+
+    final StatisticsWriter statisticsWriter =
+        newStatisticsWriter(options, modelName, templateFile);
+
+    if (null == statisticsWriter && !options.getValueAsString(Option.STATISTICS_FILE).isEmpty()) {
+      reportAborted("Failed to create the statistics file.");
+      return false;
+    }
+
+    instance = new TestEngine(model, revisionIds, options, plugins, statistics, statisticsWriter);
+
+    boolean isAborted = false;
     try {
       ScriptRunner.run(options, templateFile);
     } catch (final GenerationAbortedException e) {
       reportAborted(e.getMessage());
+      isAborted = true;
+    } catch (final Throwable e) {
+      if (null != statisticsWriter) {
+        statisticsWriter.close();
+      }
+      throw e;
+    }
+
+    if (!cacheFile.isEmpty()) {
+      TestBase.saveQueryCache(cacheFile);
     }
 
     final long totalTime = statistics.getTotalTime();
@@ -185,6 +221,18 @@ public final class TestEngine {
     Logger.message("Programs/stimuli/instructions: %d/%d/%d",
         statistics.getPrograms(), statistics.getSequences(), statistics.getInstructions());
 
+    for (final Statistics.CounterSource source : statistics.getCounterSources()) {
+      final Map<String, Map<String, Long>> counters = source.getCounters();
+      if (counters.isEmpty()) {
+        continue;
+      }
+
+      Logger.message(System.lineSeparator() + source.getName());
+      for (final Map.Entry<String, Map<String, Long>> entry : counters.entrySet()) {
+        Logger.message("%s: %s", entry.getKey(), countersToString(entry.getValue()));
+      }
+    }
+
     if (options.getValueAsBoolean(Option.TIME_STATISTICS)) {
       Logger.message(System.lineSeparator() + "Time Statistics");
 
@@ -200,20 +248,43 @@ public final class TestEngine {
           Logger.message("  " + statistics.getTimeMetricText(activity));
         }
       }
+
+      for (final Map.Entry<String, Statistics.TaskMetric> entry
+          : statistics.getTaskMetrics().entrySet()) {
+        final Statistics.TaskMetric metric = entry.getValue();
+        Logger.message("  %s: %s (%d runs)", entry.getKey(),
+            Statistics.timeToString(metric.getTimeNanos() / 1000000), metric.getCount());
+      }
+
+      for (final Map.Entry<String, Statistics.LatencyHistogram> entry
+          : statistics.getLatencies().entrySet()) {
+        Logger.message("%s latency: %s",
+            entry.getKey(), countersToString(entry.getValue().toCounters()));
+      }
     }
 
     final long rateLimit = options.getValueAsInteger(Option.RATE_LIMIT);
-    if (genRate < rateLimit && statistics.getInstructions() >= 1500) {
+    final boolean isRateTooSlow = genRate < rateLimit && statistics.getInstructions() >= 1500;
+
+    if (isRateTooSlow) {
       // Makes sense only for sequences of significant length (>= 1000)
       Logger.error("Generation rate is too slow. At least %d is expected.", rateLimit);
-      return false;
     }
 
-    return true;
+    if (null != statisticsWriter) {
+      try {
+        statisticsWriter.writeRun(statistics, !isAborted && !isRateTooSlow);
+      } finally {
+        statisticsWriter.close();
+      }
+    }
+
+    return !isRateTooSlow;
   }
 
   public Template newTemplate() {
     Execution.setAssertionsEnabled(options.getValueAsBoolean(Option.ASSERTS_ENABLED));
+    Data.setHardwareFloatEnabled(options.getValueAsBoolean(Option.FLOAT_HARDWARE));
 
     final int instanceNumber = options.getValueAsInteger(Option.INSTANCE_NUMBER);
     Logger.message("Instance number: %d", instanceNumber);
@@ -231,11 +302,33 @@ public final class TestEngine {
     statistics.pushActivity(Statistics.Activity.PARSING);
 
     final EngineContext context = new EngineContext(options, model, statistics);
-    final Template.Processor processor = new TemplateProcessor(context);
+    final Template.Processor processor = new TemplateProcessor(context, statisticsWriter);
 
     return new Template(context, processor);
   }
 
+  private static StatisticsWriter newStatisticsWriter(
+      final Options options,
+      final String modelName,
+      final String templateFile) {
+    final String fileName = options.getValueAsString(Option.STATISTICS_FILE);
+    if (fileName.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return new StatisticsWriter(
+          fileName,
+          options.getValueAsBoolean(Option.STATISTICS_PROGRAMS),
+          modelName,
+          templateFile
+          );
+    } catch (final IOException e) {
+      Logger.error("Failed to open %s. Reason: %s.", fileName, e.getMessage());
+      return null;
+    }
+  }
+
   private static GeneratorSettings readSettings(final Options options, final String modelName) {
     if (!options.hasValue(Option.ARCH_DIRS)) {
       Logger.error("The --%s option is undefined.", Option.ARCH_DIRS.getName());
@@ -321,6 +414,19 @@ public final class TestEngine {
     Logger.message("Generation was aborted.");
   }
 
+  private static String countersToString(final Map<String, Long> counters) {
+    final StringBuilder sb = new StringBuilder();
+
+    for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+      if (sb.length() != 0) {
+        sb.append(", ");
+      }
+      sb.append(String.format("%s=%d", entry.getKey(), entry.getValue()));
+    }
+
+    return sb.toString();
+  }
+
   private static void setRandomSeed(final int seed) {
     Randomizer.get().setSeed(seed);
   }
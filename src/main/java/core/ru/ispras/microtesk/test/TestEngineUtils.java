@@ -282,6 +282,27 @@ final class TestEngineUtils {
     }
   }
 
+  /**
+   * Returns a seed for the randomizer to be used in the specified test program. The seed is
+   * derived from the global seed and the program index, which makes random choices made in
+   * a program independent of the choices made in the previous programs.
+   *
+   * @param seed Global random seed.
+   * @param programIndex Index of the test program.
+   * @return Seed for the test program.
+   */
+  public static int getProgramSeed(final int seed, final int programIndex) {
+    InvariantChecks.checkGreaterOrEqZero(programIndex);
+
+    // SplitMix64 finalizer applied to the combined value.
+    long value = ((long) seed << 32) + programIndex + 0x9E3779B97F4A7C15L;
+    value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+    value = value ^ (value >>> 31);
+
+    return (int) (value ^ (value >>> 32));
+  }
+
   /**
    * Sends notifications to all registered engines and adapters about
    * the start of generating a test program file.
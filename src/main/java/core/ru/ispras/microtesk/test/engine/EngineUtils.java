@@ -206,7 +206,9 @@ public final class EngineUtils {
     }
 
     final TestBase testBase = TestBase.get();
+    final long startTime = engineContext.getStatistics().startLatency();
     final TestBaseQueryResult queryResult = testBase.executeQuery(query);
+    engineContext.getStatistics().stopLatency("TestBase query", startTime);
 
     if (TestBaseQueryResult.Status.OK != queryResult.getStatus()) {
       Logger.warning("Query processing has failed: %s", queryResult);
@@ -213,6 +213,70 @@ public final class SequenceProcessor {
     }
   }
 
+  /**
+   * The {@link TaskIterator} class measures time spent by an engine iterator to construct
+   * sequences. Engines construct sequences lazily, so solving is timed on iteration.
+   */
+  private static final class TaskIterator<T> implements Iterator<T> {
+    private final Statistics statistics;
+    private final String name;
+    private final Iterator<T> iterator;
+
+    private TaskIterator(
+        final Statistics statistics,
+        final String name,
+        final Iterator<T> iterator) {
+      this.statistics = statistics;
+      this.name = name;
+      this.iterator = iterator;
+    }
+
+    @Override
+    public void init() {
+      statistics.pushTask(name);
+      try {
+        iterator.init();
+      } finally {
+        statistics.popTask();
+      }
+    }
+
+    @Override
+    public boolean hasValue() {
+      return iterator.hasValue();
+    }
+
+    @Override
+    public T value() {
+      statistics.pushTask(name);
+      try {
+        return iterator.value();
+      } finally {
+        statistics.popTask();
+      }
+    }
+
+    @Override
+    public void next() {
+      statistics.pushTask(name);
+      try {
+        iterator.next();
+      } finally {
+        statistics.popTask();
+      }
+    }
+
+    @Override
+    public void stop() {
+      iterator.stop();
+    }
+
+    @Override
+    public Iterator<T> clone() {
+      return new TaskIterator<>(statistics, name, iterator.clone());
+    }
+  }
+
   private static Iterator<AbstractSequence> processSequenceWithEngines(
       final EngineContext engineContext,
       final Map<String, Object> engineAttributes,
@@ -280,10 +344,19 @@ public final class SequenceProcessor {
     }
 
     engine.configure(engineAttributeMap);
-    final Iterator<AbstractSequence> iterator = engine.solve(engineContext, engineSequence);
-    InvariantChecks.checkNotNull(iterator);
 
-    return iterator;
+    final Statistics statistics = engineContext.getStatistics();
+    final Iterator<AbstractSequence> iterator;
+
+    statistics.pushTask(engineId);
+    try {
+      iterator = engine.solve(engineContext, engineSequence);
+    } finally {
+      statistics.popTask();
+    }
+
+    InvariantChecks.checkNotNull(iterator);
+    return new TaskIterator<>(statistics, engineId, iterator);
   }
 
   private static AbstractSequence expandAbstractSequence(
@@ -296,7 +369,12 @@ public final class SequenceProcessor {
     final List<AbstractCall> calls = AbstractCall.copyAll(
         AbstractCall.expandAtomic(abstractSequence.getSequence()));
 
-    allocateResources(calls, engineContext.getOptions());
+    engineContext.getStatistics().pushTask("allocator");
+    try {
+      allocateResources(calls, engineContext.getOptions());
+    } finally {
+      engineContext.getStatistics().popTask();
+    }
 
     final List<AbstractCall> expandedCalls = expandPreparators(engineContext, calls);
     return new AbstractSequence(abstractSequence.getSection(), expandedCalls);
@@ -103,7 +103,9 @@ final class TestDataProviderFactory {
     Logger.debug("Query to TestBase: " + query);
 
     final TestBase testBase = TestBase.get();
+    final long startTime = engineContext.getStatistics().startLatency();
     final TestBaseQueryResult queryResult = testBase.executeQuery(query);
+    engineContext.getStatistics().stopLatency("TestBase query", startTime);
 
     if (TestBaseQueryResult.Status.OK != queryResult.getStatus()) {
       throw new IllegalArgumentException(
@@ -37,6 +37,7 @@ import ru.ispras.testbase.knowledge.iterator.SingleValueIterator;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -577,54 +578,103 @@ public final class BranchEngine implements Engine {
     InvariantChecks.checkNotNull(executionTrace);
     InvariantChecks.checkNotNull(abstractSequence);
 
+    final List<Integer> executedBlocks = getExecutedBlocks(branchStructure, executionTrace);
+    final List<Integer> nontakenBlocks = getNontakenBlocks(branchStructure, executionTrace);
+
+    Logger.debug("Executed code: %s, executed blocks: %s", executedCode, executedBlocks);
+    insertCodeIntoBlocks("Executed code", executedCode, executedBlocks, abstractSequence);
+
+    Logger.debug("Nontaken code: %s, nontaken blocks: %s", nontakenCode, nontakenBlocks);
+    insertCodeIntoBlocks("Non-taken code", nontakenCode, nontakenBlocks, abstractSequence);
+
+    return abstractSequence;
+  }
+
+  /**
+   * Returns the executed basic blocks in the order of their first execution; a block that
+   * immediately follows the previous one in this order is merged with it.
+   *
+   * @param branchStructure the branch structure.
+   * @param executionTrace the execution trace (indices in the branch structure).
+   * @return the indices of the executed blocks.
+   */
+  static List<Integer> getExecutedBlocks(
+      final List<BranchEntry> branchStructure,
+      final List<Integer> executionTrace) {
     // Executed blocks with no repetitions.
-    final List<Integer> executedBlocks = new ArrayList<>();
-    for (final int i : executionTrace) {
-      final BranchEntry branchEntry = branchStructure.get(i);
-      if (branchEntry.isBasicBlock() && !executedBlocks.contains(i)) {
-        executedBlocks.add(i);
+    final List<Integer> allExecutedBlocks = new ArrayList<>();
+    getExecuted(branchStructure, executionTrace, allExecutedBlocks);
+
+    // Consequent blocks should be considered as a single one.
+    final List<Integer> executedBlocks = new ArrayList<>(allExecutedBlocks.size());
+    for (int i = 0; i < allExecutedBlocks.size(); i++) {
+      final int thisBlock = allExecutedBlocks.get(i);
+
+      if (i == 0 || thisBlock != allExecutedBlocks.get(i - 1) + 1) {
+        executedBlocks.add(thisBlock);
       }
     }
 
-    // Non-taken blocks with no repetitions.
+    return executedBlocks;
+  }
+
+  /**
+   * Returns the basic blocks that follow the executed branches and are not executed.
+   *
+   * @param branchStructure the branch structure.
+   * @param executionTrace the execution trace (indices in the branch structure).
+   * @return the indices of the non-taken blocks.
+   */
+  static List<Integer> getNontakenBlocks(
+      final List<BranchEntry> branchStructure,
+      final List<Integer> executionTrace) {
+    final int size = branchStructure.size();
+    final BitSet executed =
+        getExecuted(branchStructure, executionTrace, new ArrayList<Integer>());
+
+    // Non-taken blocks with no repetitions (each branch is looked through once).
     final List<Integer> nontakenBlocks = new ArrayList<>();
+    final BitSet nontaken = new BitSet(size);
+    final BitSet branches = new BitSet(size);
     for (final int i : executionTrace) {
       final BranchEntry branchEntry = branchStructure.get(i);
-      if (branchEntry.isBranch()) {
-        for (int j = i + 1; j < branchStructure.size(); j++) {
+      if (branchEntry.isBranch() && !branches.get(i)) {
+        branches.set(i);
+
+        for (int j = i + 1; j < size; j++) {
           final BranchEntry nextBranchEntry = branchStructure.get(j);
 
           if (nextBranchEntry.isDelaySlot()) {
             continue;
           }
-          if (nextBranchEntry.isBasicBlock() && !nontakenBlocks.contains(j)) {
+          if (nextBranchEntry.isBasicBlock() && !nontaken.get(j) && !executed.get(j)) {
+            nontaken.set(j);
             nontakenBlocks.add(j);
           }
           break;
         }
       }
     }
-    nontakenBlocks.removeAll(executedBlocks);
 
-    // Consequent blocks should be considered as a single one.
-    final List<Integer> redundantBlocks = new ArrayList<>();
-    for (int i = 0; i < executedBlocks.size() - 1; i++) {
-      final int thisBlock = executedBlocks.get(i);
-      final int nextBlock = executedBlocks.get(i + 1);
+    return nontakenBlocks;
+  }
 
-      if (nextBlock == thisBlock + 1) {
-        redundantBlocks.add(nextBlock);
+  private static BitSet getExecuted(
+      final List<BranchEntry> branchStructure,
+      final List<Integer> executionTrace,
+      final List<Integer> executedBlocks) {
+    // Sets of structure indices are represented as bit sets to avoid quadratic lookups.
+    final BitSet executed = new BitSet(branchStructure.size());
+
+    for (final int i : executionTrace) {
+      final BranchEntry branchEntry = branchStructure.get(i);
+      if (branchEntry.isBasicBlock() && !executed.get(i)) {
+        executed.set(i);
+        executedBlocks.add(i);
       }
     }
-    executedBlocks.removeAll(redundantBlocks);
-
-    Logger.debug("Executed code: %s, executed blocks: %s", executedCode, executedBlocks);
-    insertCodeIntoBlocks("Executed code", executedCode, executedBlocks, abstractSequence);
 
-    Logger.debug("Nontaken code: %s, nontaken blocks: %s", nontakenCode, nontakenBlocks);
-    insertCodeIntoBlocks("Non-taken code", nontakenCode, nontakenBlocks, abstractSequence);
-
-    return abstractSequence;
+    return executed;
   }
 
   private static void insertCodeIntoBlocks(
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test.engine.branch;
+
+import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.testbase.knowledge.iterator.Iterator;
+
+import java.util.BitSet;
+
+/**
+ * Iterator of branch labels {@code array[0], ..., array[size - 1]} from the range
+ * {@code [0, max]} such that each of the required labels is used by some branch.
+ *
+ * <p>Labels are enumerated in the same order as by a product of the label ranges (the last
+ * label changes first). A prefix {@code array[0], ..., array[k]} is rejected as soon as the
+ * remaining branches cannot cover the required labels that are not used yet; so the assignments
+ * that do not satisfy the requirement are not enumerated.</p>
+ */
+final class BranchLabelIterator implements Iterator<int[]> {
+  /** Number of branches. */
+  private final int size;
+
+  /** Maximal label. */
+  private final int max;
+
+  /** Labels that must be used. */
+  private final BitSet required;
+
+  /** Current labels. */
+  private int[] value;
+
+  /** Flag that reflects availability of the value. */
+  private boolean hasValue;
+
+  /**
+   * Constructs an iterator of branch labels.
+   *
+   * @param size the number of branches.
+   * @param max the maximal label.
+   * @param required the labels that must be used (the set is copied).
+   */
+  public BranchLabelIterator(final int size, final int max, final BitSet required) {
+    InvariantChecks.checkTrue(size >= 0);
+    InvariantChecks.checkTrue(max >= 0);
+    InvariantChecks.checkNotNull(required);
+
+    this.size = size;
+    this.max = max;
+    this.required = (BitSet) required.clone();
+  }
+
+  private BranchLabelIterator(final BranchLabelIterator r) {
+    size = r.size;
+    max = r.max;
+    required = r.required;
+    value = r.value != null ? r.value.clone() : null;
+    hasValue = r.hasValue;
+  }
+
+  @Override
+  public void init() {
+    value = new int[size];
+
+    if (size == 0) {
+      hasValue = required.isEmpty();
+      return;
+    }
+
+    hasValue = search(0);
+  }
+
+  @Override
+  public boolean hasValue() {
+    return hasValue;
+  }
+
+  @Override
+  public int[] value() {
+    return value;
+  }
+
+  /**
+   * Returns the label of the given branch.
+   *
+   * @param index the branch index.
+   * @return the label.
+   */
+  public int value(final int index) {
+    return value[index];
+  }
+
+  @Override
+  public void next() {
+    if (!hasValue) {
+      return;
+    }
+
+    if (size == 0) {
+      hasValue = false;
+      return;
+    }
+
+    value[size - 1]++;
+    hasValue = search(size - 1);
+  }
+
+  @Override
+  public void stop() {
+    hasValue = false;
+  }
+
+  @Override
+  public BranchLabelIterator clone() {
+    return new BranchLabelIterator(this);
+  }
+
+  /**
+   * Finds the next valid labels starting from the current value of the given position
+   * (the prefix before the position is valid).
+   */
+  private boolean search(final int position) {
+    int k = position;
+
+    while (k >= 0) {
+      if (value[k] > max) {
+        // All labels of the position have been tried: go back to the previous one.
+        if (--k >= 0) {
+          value[k]++;
+        }
+      } else if (isValidPrefix(k)) {
+        if (k == size - 1) {
+          return true;
+        }
+
+        value[++k] = 0;
+      } else {
+        value[k]++;
+      }
+    }
+
+    return false;
+  }
+
+  /** Checks whether the branches after the given position can cover the unused labels. */
+  private boolean isValidPrefix(final int position) {
+    final int remaining = size - 1 - position;
+
+    int uncovered = 0;
+    for (int label = required.nextSetBit(0); label >= 0; label = required.nextSetBit(label + 1)) {
+      if (!isUsed(label, position) && ++uncovered > remaining) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isUsed(final int label, final int position) {
+    for (int i = 0; i <= position; i++) {
+      if (value[i] == label) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -20,10 +20,9 @@ import ru.ispras.testbase.knowledge.iterator.Iterator;
 import ru.ispras.testbase.knowledge.iterator.ProductIterator;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * {@link BranchExecutionIterator} implements an iterator of valid branch structures for given
@@ -81,8 +80,8 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
   /** Iterator of branch positions. */
   private IntSampleIterator branchPositionIterator;
 
-  /** Iterator of branch labels. */
-  private ProductIterator<Integer> branchLabelIterator;
+  /** Iterator of branch labels (labels that leave consecutive blocks uncovered are pruned). */
+  private BranchLabelIterator branchLabelIterator;
 
   /** Iterator of branch instruction groups. */
   private ProductIterator<Integer> branchIterator;
@@ -93,6 +92,14 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
   /** Iterator of basic block groups. */
   private ProductIterator<Integer> blockIterator;
 
+  /**
+   * Indices of the basic blocks that immediately follow other basic blocks in the structure.
+   *
+   * <p>The set depends on the branch positions only. It is computed once for the current
+   * positions and is used as the set of labels required for the branches.</p>
+   */
+  private BitSet consecutiveBlocks = new BitSet();
+
   public BranchStructureIterator(
       final int ifThenNumber,
       final int gotoNumber,
@@ -181,6 +188,7 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
     blockIterator = r.blockIterator.clone();
     branchPositionIterator = r.branchPositionIterator.clone();
     branchLabelIterator = r.branchLabelIterator.clone();
+    consecutiveBlocks = (BitSet) r.consecutiveBlocks.clone();
   }
 
   @Override
@@ -258,65 +266,51 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
     return structure;
   }
 
-  private boolean filterBranchPositionIteratorConsecutiveBasicBlocks() {
-    int branchNumber = branchNumberIterator.value();
-    int branchNumberLowerBound = 0;
-
-    final List<BranchEntry> structure = value();
+  /**
+   * Computes the indices of the basic blocks that follow other basic blocks for the current
+   * branch positions (without constructing the branch structure).
+   */
+  private void updateConsecutiveBlocks() {
+    final int length = lengthIterator.value();
+    final int branchNumber = branchNumberIterator.value();
 
-    branchNumberLowerBound = 0;
-    for (int i = 1; i < structure.size(); i++) {
-      final BranchEntry pre = structure.get(i - 1);
-      final BranchEntry now = structure.get(i);
+    // Positions of branch instructions in the test template (ordered).
+    final int[] array = branchPositionIterator.indexArrayValue();
 
-      if (pre.isBasicBlock() && now.isBasicBlock()) {
-        branchNumberLowerBound++;
-      }
-    }
+    consecutiveBlocks.clear();
 
-    if (branchNumber < branchNumberLowerBound) {
-      return false;
-    }
+    boolean isPreBlock = false;
+    for (int i = 0, j = 0, branch = 0; i < length; i++, j++) {
+      if (branch < branchNumber && i == array[branch]) {
+        // Delay slot follows the branch instruction.
+        if (delaySlot) {
+          j++;
+        }
 
-    return true;
-  }
+        isPreBlock = false;
+        branch++;
+      } else {
+        if (isPreBlock) {
+          consecutiveBlocks.set(j);
+        }
 
-  private boolean filterBranchPositionIterator() {
-    if (flags.contains(Flags.DO_NOT_ITERATE_CONSECUTIVE_BASIC_BLOCKS)) {
-      if (!filterBranchPositionIteratorConsecutiveBasicBlocks()) {
-        return false;
+        isPreBlock = true;
       }
     }
-
-    return true;
   }
 
-  private boolean filterBranchLabelIterator_ConsecutiveBasicBlocks() {
-    final List<BranchEntry> structure = value();
-
-    final Set<Integer> jumps = new HashSet<Integer>();
-    final Set<Integer> blocks = new HashSet<Integer>();
-
-    for (int i = 0; i < structure.size(); i++) {
-      final BranchEntry now = structure.get(i);
-
-      if (now.isBranch()) {
-        jumps.add(now.getBranchLabel());
-      } else if (i > 0) {
-        final BranchEntry pre = structure.get(i - 1);
+  private boolean filterBranchPositionIteratorConsecutiveBasicBlocks() {
+    final int branchNumber = branchNumberIterator.value();
 
-        if (pre.isBasicBlock() && now.isBasicBlock()) {
-          blocks.add(i);
-        }
-      }
-    }
+    updateConsecutiveBlocks();
 
-    return jumps.containsAll(blocks);
+    // Each pair of consecutive basic blocks requires a branch to the second block.
+    return branchNumber >= consecutiveBlocks.cardinality();
   }
 
-  private boolean filterBranchLabelIterator() {
+  private boolean filterBranchPositionIterator() {
     if (flags.contains(Flags.DO_NOT_ITERATE_CONSECUTIVE_BASIC_BLOCKS)) {
-      if (!filterBranchLabelIterator_ConsecutiveBasicBlocks()) {
+      if (!filterBranchPositionIteratorConsecutiveBasicBlocks()) {
         return false;
       }
     }
@@ -343,6 +337,10 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
     branchPositionIterator = new IntSampleIterator(0, length - 1, branchNumber);
     branchPositionIterator.init();
 
+    if (flags.contains(Flags.DO_NOT_ITERATE_CONSECUTIVE_BASIC_BLOCKS)) {
+      updateConsecutiveBlocks();
+    }
+
     return true;
   }
 
@@ -362,24 +360,15 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
   }
 
   private boolean initBranchLabelIterator(final int length, final int branchNumber) {
-    branchLabelIterator = new ProductIterator<Integer>();
-
-    for (int i = 0; i < branchNumber; i++) {
-      branchLabelIterator.registerIterator(new IntRangeIterator(0, (length - 1)
-          + (delaySlot ? branchNumber : 0)));
-    }
+    // Each pair of consecutive basic blocks requires a branch to the second block.
+    final BitSet requiredLabels = flags.contains(Flags.DO_NOT_ITERATE_CONSECUTIVE_BASIC_BLOCKS)
+        ? consecutiveBlocks : new BitSet();
 
+    branchLabelIterator = new BranchLabelIterator(
+        branchNumber, (length - 1) + (delaySlot ? branchNumber : 0), requiredLabels);
     branchLabelIterator.init();
 
-    while (branchLabelIterator.hasValue()) {
-      if (filterBranchLabelIterator()) {
-        return true;
-      }
-
-      branchLabelIterator.next();
-    }
-
-    return false;
+    return branchLabelIterator.hasValue();
   }
 
   private boolean initBranchIterator(final int branchNumber) {
@@ -553,23 +542,21 @@ public final class BranchStructureIterator implements Iterator<List<BranchEntry>
     int length = lengthIterator.value();
     int branchNumber = branchNumberIterator.value();
 
-    while (branchLabelIterator.hasValue()) {
+    if (branchLabelIterator.hasValue()) {
       branchLabelIterator.next();
 
       if (branchLabelIterator.hasValue()) {
-        if (filterBranchLabelIterator()) {
-          if (!initBranchIterator(branchNumber)) {
-            return false;
-          }
-          if (!initSlotIterator(branchNumber)) {
-            return false;
-          }
-          if (!initBlockIterator(length, branchNumber)) {
-            return false;
-          }
-
-          return true;
+        if (!initBranchIterator(branchNumber)) {
+          return false;
         }
+        if (!initSlotIterator(branchNumber)) {
+          return false;
+        }
+        if (!initBlockIterator(length, branchNumber)) {
+          return false;
+        }
+
+        return true;
       }
     }
 
@@ -16,12 +16,11 @@ package ru.ispras.microtesk.test.engine.branch;
 
 import ru.ispras.castle.util.Logger;
 import ru.ispras.fortress.util.InvariantChecks;
-import ru.ispras.fortress.util.Pair;
 import ru.ispras.testbase.knowledge.iterator.Iterator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * {@link BranchTraceIterator} implements an iterator of execution traces for a given branch
@@ -44,7 +43,7 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
    * Stack of branches.
    *
    * <p>
-   * Each entry is a pair of indices in the branch structure:
+   * Each entry is a pair of indices in the branch structure stored in two arrays:
    * <ul>
    *   <li>the first index is the destination of the previous branch (0 for the initial one);</li>
    *   <li>the second index points to the current branch.</li>
@@ -53,10 +52,16 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
    * the range {@code [i, i+1, ..., j)} is composed of the basic block indices.
    * </p>
    */
-  private final Stack<Pair<Integer, Integer>> branchStack;
+  private int[] branchStackFirst;
+  private int[] branchStackSecond;
+  private int branchStackSize;
 
-  /** Current block. */
-  private Pair<Integer, Integer> currentBlock;
+  /** Current block: the first index (see {@link #branchStackFirst}). */
+  private int currentBlockFirst;
+  /** Current block: the second index ({@code -1} if there are no branches after the block). */
+  private int currentBlockSecond;
+  /** Flag indicating that the current block can be executed. */
+  private boolean currentBlockExecutable;
 
   /** Count of iterated traces. */
   private int traceCount;
@@ -78,7 +83,9 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
     this.maxBranchExecutions = maxBranchExecutions;
     this.maxBlockExecutions = maxBlockExecutions;
     this.maxExecutionTraces = maxExecutionTraces;
-    this.branchStack = new Stack<>();
+    this.branchStackFirst = new int[branchStructure.size() + 1];
+    this.branchStackSecond = new int[branchStructure.size() + 1];
+    this.branchStackSize = 0;
 
     this.hasValue = false;
     this.trace = null;
@@ -99,7 +106,7 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
     hasValue = !branchStructure.isEmpty();
 
     // Clear the execution traces.
-    branchStack.clear();
+    branchStackSize = 0;
     for (int i = 0; i < branchStructure.size(); i++) {
       final BranchEntry branchEntry = branchStructure.get(i);
       final BranchTrace branchTrace = branchEntry.getBranchTrace();
@@ -107,12 +114,12 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
       branchTrace.clear();
     }
 
-    currentBlock = new Pair<>(-1, 0);
+    setCurrentBlock(-1, 0);
     traceCount = 0;
 
     searchNextBranch();
 
-    if (currentBlock.second != -1) {
+    if (currentBlockSecond != -1) {
       // Find the first branch execution trace.
       next();
     } else {
@@ -174,39 +181,64 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
     this.maxBranchExecutions = r.maxBranchExecutions;
     this.maxBlockExecutions = r.maxBlockExecutions;
     this.maxExecutionTraces = r.maxExecutionTraces;
-    this.currentBlock = new Pair<>(r.currentBlock.first, r.currentBlock.second);
+    this.currentBlockFirst = r.currentBlockFirst;
+    this.currentBlockSecond = r.currentBlockSecond;
+    this.currentBlockExecutable = r.currentBlockExecutable;
     this.hasValue = r.hasValue;
 
-    this.branchStack = new Stack<>();
-    this.branchStack.addAll(r.branchStack);
+    this.branchStackFirst = r.branchStackFirst.clone();
+    this.branchStackSecond = r.branchStackSecond.clone();
+    this.branchStackSize = r.branchStackSize;
+  }
+
+  private void setCurrentBlock(final int first, final int second) {
+    currentBlockFirst = first;
+    currentBlockSecond = second;
+    currentBlockExecutable = true;
+  }
+
+  private void pushCurrentBlock() {
+    if (branchStackSize == branchStackFirst.length) {
+      branchStackFirst = Arrays.copyOf(branchStackFirst, 2 * branchStackSize);
+      branchStackSecond = Arrays.copyOf(branchStackSecond, 2 * branchStackSize);
+    }
+
+    branchStackFirst[branchStackSize] = currentBlockFirst;
+    branchStackSecond[branchStackSize] = currentBlockSecond;
+    branchStackSize++;
+  }
+
+  private void peekCurrentBlock() {
+    setCurrentBlock(
+        branchStackFirst[branchStackSize - 1], branchStackSecond[branchStackSize - 1]);
   }
 
   private void performBranching() {
-    final int currentIndex = currentBlock.second;
+    final int currentIndex = currentBlockSecond;
 
     final BranchEntry entry = branchStructure.get(currentIndex);
     final BranchTrace trace = entry.getBranchTrace();
     final BranchExecution execution = trace.getLastExecution();
 
     // If the condition holds, then go to the target label; otherwise, go on.
-    currentBlock = new Pair<>(-1, execution.value() ? entry.getBranchLabel() : currentIndex + 1);
+    setCurrentBlock(-1, execution.value() ? entry.getBranchLabel() : currentIndex + 1);
   }
 
   private void searchNextBranch() {
-    final int startIndex = currentBlock.second;
+    final int startIndex = currentBlockSecond;
 
     for (int currentIndex = startIndex; currentIndex < branchStructure.size(); currentIndex++) {
       final BranchEntry entry = branchStructure.get(currentIndex);
 
       if (entry.isBranch()) {
         // Here is a branch.
-        currentBlock = new Pair<>(startIndex, currentIndex);
+        setCurrentBlock(startIndex, currentIndex);
         return;
       }
     }
 
     // No branch is found.
-    currentBlock = new Pair<>(startIndex, -1);
+    setCurrentBlock(startIndex, -1);
   }
 
   private void handleBranch() {
@@ -214,16 +246,16 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
     searchNextBranch();
 
     if (!canExecuteBlock()) {
-      currentBlock = null;
+      currentBlockExecutable = false;
     }
   }
 
   private boolean isTraceCompleted() {
-    return currentBlock.second == -1;
+    return currentBlockSecond == -1;
   }
 
   private boolean canExecuteBranch() {
-    final BranchEntry entry = branchStructure.get(currentBlock.second);
+    final BranchEntry entry = branchStructure.get(currentBlockSecond);
     final BranchTrace trace = entry.getBranchTrace();
 
     // Check the branch execution limit.
@@ -231,15 +263,15 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
   }
 
   private boolean canExecuteBlock() {
-    final int a = currentBlock.first;
-    final int b = currentBlock.second != -1 ? currentBlock.second - 1 : branchStructure.size() - 1;
+    final int a = currentBlockFirst;
+    final int b = currentBlockSecond != -1 ? currentBlockSecond - 1 : branchStructure.size() - 1;
 
     // Check the block execution limit.
     int count = 0;
 
-    for (final Pair<Integer, Integer> previousBlock : branchStack) {
-      final int c = previousBlock.first;
-      final int d = previousBlock.second - 1;
+    for (int i = 0; i < branchStackSize; i++) {
+      final int c = branchStackFirst[i];
+      final int d = branchStackSecond[i] - 1;
 
       // Increment the counter if the current block intersects with the previous one.
       if (a <= d && b >= c) {
@@ -252,19 +284,19 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
 
   private List<BranchEntry> nextBranchStructure() {
     while (hasValue()) {
-      if (currentBlock != null && !isTraceCompleted() && canExecuteBranch()) {
+      if (currentBlockExecutable && !isTraceCompleted() && canExecuteBranch()) {
         // Trace is incomplete and can be prolonged.
-        final BranchEntry entry = branchStructure.get(currentBlock.second);
+        final BranchEntry entry = branchStructure.get(currentBlockSecond);
         final BranchTrace trace = entry.getBranchTrace();
 
         // Prolong the trace if it is incomplete.
         trace.addExecution(entry.isIfThen());
-        branchStack.push(currentBlock);
+        pushCurrentBlock();
 
-        // Handle the branch and nullify the current block if it cannot be executed.
+        // Handle the branch and mark the current block if it cannot be executed.
         handleBranch();
 
-        if (currentBlock != null && isTraceCompleted()) {
+        if (currentBlockExecutable && isTraceCompleted()) {
           Logger.debug("Next branch structure (prolonged execution): %s", branchStructure);
           return branchStructure;
         }
@@ -272,10 +304,10 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
         continue;
       } else {
         // Trace is either complete or cannot be prolonged.
-        while (!branchStack.isEmpty()) {
-          currentBlock = branchStack.peek();
+        while (branchStackSize != 0) {
+          peekCurrentBlock();
 
-          BranchEntry entry = branchStructure.get(currentBlock.second);
+          BranchEntry entry = branchStructure.get(currentBlockSecond);
           BranchTrace trace = entry.getBranchTrace();
           BranchExecution execution = trace.getLastExecution();
 
@@ -283,10 +315,10 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
             execution.next();
 
             if (execution.hasValue()) {
-              // Handle the branch and nullify the current block if it cannot be executed.
+              // Handle the branch and mark the current block if it cannot be executed.
               handleBranch();
 
-              if (currentBlock != null && isTraceCompleted()) {
+              if (currentBlockExecutable && isTraceCompleted()) {
                 Logger.debug("Next branch structure (updated condition): %s", branchStructure);
                 return branchStructure;
               }
@@ -296,10 +328,10 @@ public final class BranchTraceIterator implements Iterator<List<BranchEntry>> {
           } // while the stack is not empty.
 
           trace.removeLastExecution();
-          branchStack.pop();
+          branchStackSize--;
         }
 
-        if (branchStack.isEmpty()) {
+        if (branchStackSize == 0) {
           // All execution traces have been enumerated.
           stop();
 
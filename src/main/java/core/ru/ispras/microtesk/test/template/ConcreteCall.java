@@ -14,6 +14,7 @@
 
 package ru.ispras.microtesk.test.template;
 
+import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.microtesk.model.ExecutionException;
 import ru.ispras.microtesk.model.InstructionCall;
@@ -176,6 +177,10 @@ public final class ConcreteCall {
     return null != executable ? executable.getImage() : "";
   }
 
+  public BitVector getImageData() {
+    return null != executable ? executable.getImageData() : null;
+  }
+
   public List<Label> getLabels() {
     return labels;
   }
@@ -26,6 +26,7 @@ import org.antlr.runtime.tree.CommonTreeNodeStream;
 
 import ru.ispras.castle.util.Logger;
 import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.microtesk.options.Option;
 import ru.ispras.microtesk.options.Options;
 import ru.ispras.microtesk.translator.Translator;
 import ru.ispras.microtesk.translator.antlrex.ReservedKeywords;
@@ -33,6 +34,7 @@ import ru.ispras.microtesk.translator.antlrex.symbols.Symbol;
 import ru.ispras.microtesk.translator.antlrex.symbols.Where;
 import ru.ispras.microtesk.translator.nml.codegen.decoder.DecoderGenerator;
 import ru.ispras.microtesk.translator.nml.codegen.metadata.MetaDataGenerator;
+import ru.ispras.microtesk.translator.nml.codegen.sim.ExprPrinter;
 import ru.ispras.microtesk.translator.nml.codegen.sim.Generator;
 import ru.ispras.microtesk.translator.nml.codegen.whyml.WhymlGenerator;
 import ru.ispras.microtesk.translator.nml.coverage.Analyzer;
@@ -127,6 +129,9 @@ public final class NmlTranslator extends Translator<Ir> {
       return false;
     }
 
+    ExprPrinter.setLongArithmeticEnabled(
+        null != options && options.getValueAsBoolean(Option.LONG_ARITHMETIC));
+
     processIr(ir);
     return true;
   }
@@ -45,12 +45,31 @@ import java.util.List;
 import java.util.Map;
 
 public final class ExprPrinter extends MapBasedPrinter {
+  private static boolean longArithmeticEnabled = false;
+
+  /**
+   * Enables lowering expressions on card/int types of up to 64 bits to {@code long} arithmetic
+   * (see {@link LongExprPrinter}). Wider and float expressions are always printed as operations
+   * on {@link Data} objects.
+   *
+   * @param value {@code true} to enable lowering or {@code false} to disable it.
+   */
+  public static void setLongArithmeticEnabled(final boolean value) {
+    longArithmeticEnabled = value;
+  }
 
   public static String toString(final Expr expr, final boolean asLocation) {
     if (null == expr) {
       return "";
     }
 
+    if (longArithmeticEnabled && !asLocation) {
+      final String text = LongExprPrinter.toString(expr.getNode());
+      if (null != text) {
+        return text;
+      }
+    }
+
     return new ExprPrinter(asLocation).toString(expr.getNode());
   }
 
@@ -58,6 +77,22 @@ public final class ExprPrinter extends MapBasedPrinter {
     return toString(expr, false);
   }
 
+  /**
+   * Prints the specified expression as a {@code long} value to be stored to a location of
+   * the specified type with {@code Location.storeLong}.
+   *
+   * @param expr Expression to be printed.
+   * @param targetType Type of the target location.
+   * @return Java code or {@code null} if long arithmetic is disabled or not applicable.
+   */
+  public static String toLongString(final Expr expr, final Type targetType) {
+    if (!longArithmeticEnabled || null == expr) {
+      return null;
+    }
+
+    return LongExprPrinter.toLongString(expr.getNode(), targetType);
+  }
+
   private final boolean asLocation;
   private final Map<Operator, OperationDescription> operatorMap;
   private final Map<Enum<?>, String> castOperatorMap;
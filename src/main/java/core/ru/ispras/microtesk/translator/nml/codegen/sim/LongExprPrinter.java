@@ -0,0 +1,488 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.codegen.sim;
+
+import ru.ispras.fortress.data.DataTypeId;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeOperation;
+import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.expression.StandardOperation;
+
+import ru.ispras.microtesk.model.data.Data;
+import ru.ispras.microtesk.model.data.LongArithmetic;
+import ru.ispras.microtesk.model.data.TypeId;
+import ru.ispras.microtesk.translator.nml.ir.expr.Location;
+import ru.ispras.microtesk.translator.nml.ir.expr.NodeInfo;
+import ru.ispras.microtesk.translator.nml.ir.expr.Operator;
+import ru.ispras.microtesk.translator.nml.ir.shared.Type;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link LongExprPrinter} class prints expressions on {@code card} and {@code int} types
+ * of up to 64 bits as Java {@code long} arithmetic based on {@link LongArithmetic}.
+ *
+ * <p>Only the result of the whole expression is wrapped into a {@link Data} object, intermediate
+ * results are normalized {@code long} values. If some subexpression cannot be lowered (it uses
+ * wider or float types, concatenations, attribute calls, etc.), the whole expression is left to
+ * {@link ExprPrinter}.</p>
+ */
+final class LongExprPrinter {
+  private static final String LONG_ARITHMETIC = LongArithmetic.class.getSimpleName();
+
+  private LongExprPrinter() {}
+
+  /**
+   * Prints the specified expression using {@code long} arithmetic.
+   *
+   * @param node Expression to be printed.
+   * @return Java code that evaluates the expression to a {@link Data} object or to a
+   *         {@code boolean} value (for conditions) or {@code null} if the expression
+   *         cannot be lowered.
+   */
+  public static String toString(final Node node) {
+    if (!(node instanceof NodeOperation)) {
+      // Constants and locations are printed by ExprPrinter without extra overhead.
+      return null;
+    }
+
+    final NodeInfo nodeInfo = getNodeInfo(node);
+    if (null == nodeInfo || null == nodeInfo.getType()) {
+      return null;
+    }
+
+    if (nodeInfo.getType().getTypeId() == TypeId.BOOL) {
+      return nodeInfo.isCoersionApplied() ? null : toBoolean(node);
+    }
+
+    if (!isPrimitive(nodeInfo.getType())) {
+      return null;
+    }
+
+    final String text = toLong(node);
+    if (null == text) {
+      return null;
+    }
+
+    return String.format("%s.valueOf(%s, %s)",
+        Data.class.getSimpleName(), nodeInfo.getType().getJavaText(), text);
+  }
+
+  /**
+   * Prints the specified expression as a {@code long} value to be stored to a location
+   * of the specified type.
+   *
+   * @param node Expression to be printed.
+   * @param targetType Type of the target location.
+   * @return Java code that evaluates the expression to a {@code long} value or {@code null}
+   *         if the expression cannot be lowered.
+   */
+  public static String toLongString(final Node node, final Type targetType) {
+    final Type type = getType(node);
+    if (!isPrimitive(targetType)
+        || !isPrimitive(type)
+        || type.getBitSize() != targetType.getBitSize()) {
+      return null;
+    }
+
+    return toLong(node);
+  }
+
+  private static String toBoolean(final Node node) {
+    if (node instanceof NodeValue && ((NodeValue) node).isType(DataTypeId.LOGIC_BOOLEAN)) {
+      return node.toString();
+    }
+
+    if (!(node instanceof NodeOperation)) {
+      return null;
+    }
+
+    final NodeInfo nodeInfo = getNodeInfo(node);
+    if (null == nodeInfo || nodeInfo.isCoersionApplied()) {
+      return null;
+    }
+
+    final NodeOperation operation = (NodeOperation) node;
+    final Enum<?> opId = operation.getOperationId();
+
+    if (opId == StandardOperation.AND || opId == StandardOperation.OR) {
+      final List<String> operands = toBooleans(operation.getOperands());
+      return null != operands
+          ? "(" + join(operands, opId == StandardOperation.AND ? " && " : " || ") + ")"
+          : null;
+    }
+
+    if (opId == StandardOperation.NOT) {
+      final String operand = toBoolean(operation.getOperand(0));
+      return null != operand ? "!" + operand : null;
+    }
+
+    if (!(opId instanceof StandardOperation) || operation.getOperandCount() != 2) {
+      return null;
+    }
+
+    final Type type = getType(operation.getOperand(0));
+    if (!isPrimitive(type)) {
+      return null;
+    }
+
+    final String lhs = toLong(operation.getOperand(0));
+    final String rhs = toLong(operation.getOperand(1));
+    if (null == lhs || null == rhs) {
+      return null;
+    }
+
+    final String comparison;
+    switch ((StandardOperation) opId) {
+      case EQ:
+        return String.format("(%s == %s)", lhs, rhs);
+
+      case NOTEQ:
+        return String.format("(%s != %s)", lhs, rhs);
+
+      case BVULT:
+      case BVSLT:
+        comparison = "<";
+        break;
+
+      case BVULE:
+      case BVSLE:
+        comparison = "<=";
+        break;
+
+      case BVUGT:
+      case BVSGT:
+        comparison = ">";
+        break;
+
+      case BVUGE:
+      case BVSGE:
+        comparison = ">=";
+        break;
+
+      default:
+        return null;
+    }
+
+    // Comparison is signed only if both operands are signed (see IntegerOperations.compare).
+    final boolean signed =
+        isSigned(type) && isSigned(getType(operation.getOperand(1)));
+
+    if (!signed && type.getBitSize() == Long.SIZE) {
+      return String.format(
+          "(%s.compareUnsigned(%s, %s) %s 0)", LONG_ARITHMETIC, lhs, rhs, comparison);
+    }
+
+    return String.format("(%s %s %s)", lhs, comparison, rhs);
+  }
+
+  private static String toLong(final Node node) {
+    final NodeInfo nodeInfo = getNodeInfo(node);
+    if (null == nodeInfo) {
+      return null;
+    }
+
+    final Type type = getSourceType(nodeInfo);
+    if (!isPrimitive(type)) {
+      return null;
+    }
+
+    final String text;
+    if (node instanceof NodeValue) {
+      text = valueToLong((NodeValue) node, type);
+    } else if (node instanceof NodeVariable) {
+      text = variableToLong(nodeInfo, type);
+    } else if (node instanceof NodeOperation) {
+      text = operationToLong((NodeOperation) node, nodeInfo, type);
+    } else {
+      text = null;
+    }
+
+    return null != text ? applyCoercions(nodeInfo, text) : null;
+  }
+
+  private static String valueToLong(final NodeValue value, final Type type) {
+    final BigInteger integer;
+    switch (value.getDataTypeId()) {
+      case BIT_VECTOR:
+        integer = value.getBitVector().bigIntegerValue(false);
+        break;
+
+      case LOGIC_INTEGER:
+        integer = value.getInteger();
+        break;
+
+      default:
+        return null;
+    }
+
+    final long result = BitVector.valueOf(integer, type.getBitSize())
+        .bigIntegerValue(isSigned(type)).longValue();
+
+    return String.format("0x%xL", result);
+  }
+
+  private static String variableToLong(final NodeInfo nodeInfo, final Type type) {
+    if (!(nodeInfo.getSource() instanceof Location)) {
+      return null;
+    }
+
+    // Location.loadLong returns zero-extended data, which is normalized only for card values.
+    final Location location = (Location) nodeInfo.getSource();
+    final String text = PrinterLocation.toString(location) + ".loadLong()";
+
+    return isSigned(type) ? normalize(text, type) : text;
+  }
+
+  private static String operationToLong(
+      final NodeOperation operation,
+      final NodeInfo nodeInfo,
+      final Type type) {
+    final Enum<?> opId = operation.getOperationId();
+
+    if (opId == StandardOperation.ITE) {
+      final String condition = toBoolean(operation.getOperand(0));
+      final String thenValue = toLong(operation.getOperand(1));
+      final String elseValue = toLong(operation.getOperand(2));
+
+      return null != condition && null != thenValue && null != elseValue
+          ? String.format("(%s ? %s : %s)", condition, thenValue, elseValue)
+          : null;
+    }
+
+    if (opId == StandardOperation.BVSIGNEXT
+        || opId == StandardOperation.BVZEROEXT
+        || opId == StandardOperation.BVEXTRACT && nodeInfo.getSource() == Operator.COERCE) {
+      return castToLong(operation, type);
+    }
+
+    if (!(opId instanceof StandardOperation)) {
+      return null;
+    }
+
+    final List<String> operands = toLongs(operation.getOperands());
+    if (null == operands) {
+      return null;
+    }
+
+    final int bitSize = type.getBitSize();
+    final boolean signed = isSigned(type);
+
+    switch ((StandardOperation) opId) {
+      case BVADD:
+        return normalize("(" + join(operands, " + ") + ")", type);
+
+      case BVSUB:
+        return normalize("(" + join(operands, " - ") + ")", type);
+
+      case BVMUL:
+        return normalize("(" + join(operands, " * ") + ")", type);
+
+      // Bitwise operations on normalized values produce normalized values.
+      case BVAND:
+        return "(" + join(operands, " & ") + ")";
+
+      case BVOR:
+        return "(" + join(operands, " | ") + ")";
+
+      case BVXOR:
+        return "(" + join(operands, " ^ ") + ")";
+
+      case BVNOT:
+        return normalize("~" + operands.get(0), type);
+
+      case BVNEG:
+        return normalize("-" + operands.get(0), type);
+
+      case BVUDIV:
+      case BVSDIV:
+        return callToLong("divide", operands, bitSize, signed);
+
+      case BVUREM:
+      case BVSREM:
+        return callToLong("mod", operands, bitSize, signed);
+
+      case BVSMOD:
+        return callToLong("smod", operands, bitSize, signed);
+
+      case BVLSHL:
+      case BVASHL:
+        return shiftToLong("shiftLeft", operation, operands, bitSize, signed);
+
+      case BVLSHR:
+      case BVASHR:
+        return shiftToLong("shiftRight", operation, operands, bitSize, signed);
+
+      case BVROL:
+        return shiftToLong("rotateLeft", operation, operands, bitSize, signed);
+
+      case BVROR:
+        return shiftToLong("rotateRight", operation, operands, bitSize, signed);
+
+      default:
+        return null;
+    }
+  }
+
+  private static String castToLong(final NodeOperation operation, final Type type) {
+    // Only the last operand holds the value being cast (see ExprPrinter).
+    final Node operand = operation.getOperand(operation.getOperandCount() - 1);
+    final Type sourceType = getType(operand);
+
+    final String value = toLong(operand);
+    if (null == value) {
+      return null;
+    }
+
+    final boolean signed = isSigned(type);
+    final Enum<?> opId = operation.getOperationId();
+
+    if (opId == StandardOperation.BVEXTRACT) {
+      // Coercion: the value is truncated or extended depending on its own type.
+      return normalize(value, type.getBitSize(), signed);
+    }
+
+    final boolean signExtend = opId == StandardOperation.BVSIGNEXT;
+    final String extended = isSigned(sourceType) == signExtend
+        ? value : normalize(value, sourceType.getBitSize(), signExtend);
+
+    return signed == signExtend ? extended : normalize(extended, type.getBitSize(), signed);
+  }
+
+  private static String callToLong(
+      final String methodName,
+      final List<String> operands,
+      final int bitSize,
+      final boolean signed) {
+    if (operands.size() != 2) {
+      return null;
+    }
+
+    return String.format("%s.%s(%s, %s, %d, %b)",
+        LONG_ARITHMETIC, methodName, operands.get(0), operands.get(1), bitSize, signed);
+  }
+
+  private static String shiftToLong(
+      final String methodName,
+      final NodeOperation operation,
+      final List<String> operands,
+      final int bitSize,
+      final boolean signed) {
+    if (operands.size() != 2) {
+      return null;
+    }
+
+    final boolean amountSigned = isSigned(getType(operation.getOperand(1)));
+    return String.format("%s.%s(%s, %d, %b, %s, %b)", LONG_ARITHMETIC, methodName,
+        operands.get(0), bitSize, signed, operands.get(1), amountSigned);
+  }
+
+  private static String applyCoercions(final NodeInfo nodeInfo, final String text) {
+    final List<Type> coercionChain = nodeInfo.getCoercionChain();
+
+    String result = text;
+    for (int index = coercionChain.size() - 2; index >= 0; --index) {
+      final Type target = coercionChain.get(index);
+      final Type source = coercionChain.get(index + 1);
+
+      // Implicit coercions apply to booleans and untyped values, which are not lowered.
+      if (nodeInfo.getCoercions().get(index) != NodeInfo.Coercion.CAST || !isPrimitive(target)) {
+        return null;
+      }
+
+      if (isSigned(target) != isSigned(source)) {
+        result = normalize(result, target);
+      }
+    }
+
+    return result;
+  }
+
+  private static List<String> toLongs(final List<Node> nodes) {
+    final List<String> result = new ArrayList<>(nodes.size());
+    for (final Node node : nodes) {
+      final String text = toLong(node);
+      if (null == text) {
+        return null;
+      }
+      result.add(text);
+    }
+    return result;
+  }
+
+  private static List<String> toBooleans(final List<Node> nodes) {
+    final List<String> result = new ArrayList<>(nodes.size());
+    for (final Node node : nodes) {
+      final String text = toBoolean(node);
+      if (null == text) {
+        return null;
+      }
+      result.add(text);
+    }
+    return result;
+  }
+
+  private static String normalize(final String text, final Type type) {
+    return normalize(text, type.getBitSize(), isSigned(type));
+  }
+
+  private static String normalize(final String text, final int bitSize, final boolean signed) {
+    if (bitSize == Long.SIZE) {
+      return text;
+    }
+
+    return String.format("%s.normalize(%s, %d, %b)", LONG_ARITHMETIC, text, bitSize, signed);
+  }
+
+  private static String join(final List<String> texts, final String separator) {
+    final StringBuilder sb = new StringBuilder();
+    for (final String text : texts) {
+      if (sb.length() > 0) {
+        sb.append(separator);
+      }
+      sb.append(text);
+    }
+    return sb.toString();
+  }
+
+  private static NodeInfo getNodeInfo(final Node node) {
+    return node.getUserData() instanceof NodeInfo ? (NodeInfo) node.getUserData() : null;
+  }
+
+  private static Type getType(final Node node) {
+    final NodeInfo nodeInfo = getNodeInfo(node);
+    return null != nodeInfo ? nodeInfo.getType() : null;
+  }
+
+  private static Type getSourceType(final NodeInfo nodeInfo) {
+    final List<Type> coercionChain = nodeInfo.getCoercionChain();
+    return coercionChain.isEmpty()
+        ? nodeInfo.getType() : coercionChain.get(coercionChain.size() - 1);
+  }
+
+  private static boolean isPrimitive(final Type type) {
+    return null != type
+        && (type.getTypeId() == TypeId.CARD || type.getTypeId() == TypeId.INT)
+        && type.getBitSize() <= Long.SIZE;
+  }
+
+  private static boolean isSigned(final Type type) {
+    return type.getTypeId() == TypeId.INT;
+  }
+}
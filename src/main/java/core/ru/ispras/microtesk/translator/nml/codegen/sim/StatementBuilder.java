@@ -114,6 +114,16 @@ public final class StatementBuilder {
   }
 
   private void addStatement(final StatementAssignment stmt) {
+    final Expr left = stmt.getLeft();
+    final String longText = left.isInternalVariable()
+        ? null : ExprPrinter.toLongString(stmt.getRight(), left.getNodeInfo().getType());
+
+    if (null != longText) {
+      addStatement(
+          String.format("%s.storeLong(%s);", ExprPrinter.toString(left, true), longText));
+      return;
+    }
+
     addStatement(
         String.format("%s.store(%s);",
             ExprPrinter.toString(stmt.getLeft(), true),
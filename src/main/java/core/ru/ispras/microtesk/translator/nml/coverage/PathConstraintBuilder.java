@@ -42,6 +42,7 @@ public final class PathConstraintBuilder {
   private final List<Node> ssa;
   private final List<NodeVariable> specialMarks = new ArrayList<>();
   private final Node conditionExpr;
+  private String formulaDigest;
 
   public PathConstraintBuilder(final Node node) {
     this(
@@ -73,6 +74,23 @@ public final class PathConstraintBuilder {
     return Collections.unmodifiableList(specialMarks);
   }
 
+  public List<Node> getFormulas() {
+    return Collections.unmodifiableList(ssa);
+  }
+
+  /**
+   * Returns a digest of the path formulas (see {@link QueryCache#getFormulaDigest}).
+   * The digest is computed on the first call.
+   *
+   * @return Digest of the path formulas.
+   */
+  public synchronized String getFormulaDigest() {
+    if (null == formulaDigest) {
+      formulaDigest = QueryCache.getFormulaDigest(ssa);
+    }
+    return formulaDigest;
+  }
+
   public Constraint build() {
     return build(Collections.<Node>emptyList());
   }
@@ -81,7 +99,7 @@ public final class PathConstraintBuilder {
     return build(Collections.singleton(condition));
   }
 
-  public Constraint build(final Collection<? extends Node> conditions) {
+  public synchronized Constraint build(final Collection<? extends Node> conditions) {
     final Formulas formulas = new Formulas();
     formulas.addAll(this.ssa);
     formulas.addAll(conditions);
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.coverage;
+
+import ru.ispras.fortress.data.Data;
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.DataTypeId;
+import ru.ispras.fortress.data.Variable;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.solver.SolverResult;
+import ru.ispras.fortress.solver.SolverResultBuilder;
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link QueryCache} class is a bounded LRU cache of solver results for TestBase queries.
+ *
+ * <p>Results are keyed by a canonical text of the constraint: the query context, a digest of
+ * the path formula (so that results are not reused after the model has been retranslated) and
+ * the sorted query-specific conditions. Results that contain errors are not cached. The cache
+ * can be saved to a file and loaded in the next run.</p>
+ */
+final class QueryCache {
+  /**
+   * The {@link Policy} enumeration specifies which results are cached.
+   */
+  public enum Policy {
+    /** Nothing is cached. */
+    NONE,
+
+    /** Only unsatisfiable results are cached. Satisfiable queries are solved each time. */
+    UNSAT,
+
+    /** All results (including models of satisfiable queries) are cached. */
+    ALL;
+
+    public static Policy fromString(final String text) {
+      InvariantChecks.checkNotNull(text);
+      return valueOf(text.trim().toUpperCase());
+    }
+  }
+
+  private static final int FILE_VERSION = 2;
+
+  private static final byte TYPE_BOOLEAN = 0;
+  private static final byte TYPE_INTEGER = 1;
+  private static final byte TYPE_BIT_VECTOR = 2;
+
+  private final Policy policy;
+  private final Map<String, SolverResult> results;
+
+  private long hits;
+  private long misses;
+
+  public QueryCache(final Policy policy, final int capacity) {
+    InvariantChecks.checkNotNull(policy);
+    InvariantChecks.checkGreaterThanZero(capacity);
+
+    this.policy = policy;
+    this.results = new LinkedHashMap<String, SolverResult>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, SolverResult> eldest) {
+        return size() > capacity;
+      }
+    };
+
+    this.hits = 0;
+    this.misses = 0;
+  }
+
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  public static String getKey(
+      final String contextKey,
+      final String formulaDigest,
+      final Collection<? extends Node> conditions) {
+    final List<String> texts = new ArrayList<>(conditions.size());
+    for (final Node condition : conditions) {
+      texts.add(condition.toString());
+    }
+
+    Collections.sort(texts);
+    return contextKey + formulaDigest + texts.toString();
+  }
+
+  /**
+   * Returns a digest of the path formula to be used in query keys.
+   *
+   * @param formulas Formulas of the path constraint.
+   * @return Hexadecimal SHA-256 digest of the formula texts.
+   */
+  public static String getFormulaDigest(final Collection<? extends Node> formulas) {
+    InvariantChecks.checkNotNull(formulas);
+
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    for (final Node formula : formulas) {
+      digest.update(formula.toString().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+
+    final StringBuilder sb = new StringBuilder();
+    for (final byte value : digest.digest()) {
+      sb.append(String.format("%02x", value));
+    }
+
+    return sb.toString();
+  }
+
+  public synchronized SolverResult get(final String key) {
+    if (policy == Policy.NONE) {
+      return null;
+    }
+
+    final SolverResult result = results.get(key);
+    if (null != result) {
+      hits++;
+    } else {
+      misses++;
+    }
+
+    return result;
+  }
+
+  public synchronized void put(final String key, final SolverResult result) {
+    InvariantChecks.checkNotNull(key);
+    InvariantChecks.checkNotNull(result);
+
+    if (isCacheable(result)) {
+      results.put(key, result);
+    }
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  private boolean isCacheable(final SolverResult result) {
+    switch (result.getStatus()) {
+      case UNSAT:
+        return policy != Policy.NONE;
+
+      case SAT:
+        return policy == Policy.ALL;
+
+      default:
+        return false;
+    }
+  }
+
+  public synchronized void save(final String fileName) throws IOException {
+    InvariantChecks.checkNotNull(fileName);
+
+    try (final DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(fileName)))) {
+      output.writeInt(FILE_VERSION);
+
+      for (final Map.Entry<String, SolverResult> entry : results.entrySet()) {
+        final List<Variable> variables = getSavedVariables(entry.getValue());
+        if (null == variables) {
+          continue;
+        }
+
+        output.writeBoolean(true);
+        writeString(output, entry.getKey());
+        output.writeBoolean(entry.getValue().getStatus() == SolverResult.Status.SAT);
+        output.writeInt(variables.size());
+
+        for (final Variable variable : variables) {
+          writeVariable(output, variable);
+        }
+      }
+
+      output.writeBoolean(false);
+    }
+  }
+
+  public synchronized void load(final String fileName) throws IOException {
+    InvariantChecks.checkNotNull(fileName);
+
+    try (final DataInputStream input = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(fileName)))) {
+      if (input.readInt() != FILE_VERSION) {
+        throw new IOException("Unsupported file version");
+      }
+
+      while (input.readBoolean()) {
+        final String key = readString(input);
+        final boolean isSat = input.readBoolean();
+        final int count = input.readInt();
+
+        final SolverResultBuilder builder = new SolverResultBuilder(
+            isSat ? SolverResult.Status.SAT : SolverResult.Status.UNSAT);
+
+        for (int index = 0; index < count; ++index) {
+          builder.addVariable(readVariable(input));
+        }
+
+        put(key, builder.build());
+      }
+    }
+  }
+
+  /**
+   * Returns variables of the result if they can be saved.
+   *
+   * @param result Solver result.
+   * @return Variables or {@code null} if some of them have unsupported types.
+   */
+  private static List<Variable> getSavedVariables(final SolverResult result) {
+    final List<Variable> variables = new ArrayList<>();
+
+    for (final Variable variable : result.getVariables()) {
+      final DataTypeId typeId = variable.getData().getType().getTypeId();
+      if (typeId != DataTypeId.LOGIC_BOOLEAN
+          && typeId != DataTypeId.LOGIC_INTEGER
+          && typeId != DataTypeId.BIT_VECTOR) {
+        return null;
+      }
+      variables.add(variable);
+    }
+
+    return variables;
+  }
+
+  private static void writeVariable(
+      final DataOutputStream output,
+      final Variable variable) throws IOException {
+    final Data data = variable.getData();
+    final DataType type = data.getType();
+
+    writeString(output, variable.getName());
+
+    switch (type.getTypeId()) {
+      case LOGIC_BOOLEAN:
+        output.writeByte(TYPE_BOOLEAN);
+        output.writeBoolean(data.getBoolean());
+        break;
+
+      case LOGIC_INTEGER:
+        output.writeByte(TYPE_INTEGER);
+        writeString(output, data.getInteger().toString(16));
+        break;
+
+      default:
+        output.writeByte(TYPE_BIT_VECTOR);
+        output.writeInt(type.getSize());
+        writeString(output, data.getBitVector().bigIntegerValue(false).toString(16));
+        break;
+    }
+  }
+
+  private static Variable readVariable(final DataInputStream input) throws IOException {
+    final String name = readString(input);
+    final byte type = input.readByte();
+
+    final Data data;
+    switch (type) {
+      case TYPE_BOOLEAN:
+        data = Data.newBoolean(input.readBoolean());
+        break;
+
+      case TYPE_INTEGER:
+        data = Data.newInteger(new BigInteger(readString(input), 16));
+        break;
+
+      case TYPE_BIT_VECTOR: {
+        final int size = input.readInt();
+        data = Data.newBitVector(BitVector.valueOf(new BigInteger(readString(input), 16), size));
+        break;
+      }
+
+      default:
+        throw new IOException("Unknown data type: " + type);
+    }
+
+    return new Variable(name, data);
+  }
+
+  private static void writeString(final DataOutputStream output, final String text)
+      throws IOException {
+    // DataOutputStream.writeUTF is limited to 64K bytes.
+    output.writeInt(text.length());
+    output.writeChars(text);
+  }
+
+  private static String readString(final DataInputStream input) throws IOException {
+    final int length = input.readInt();
+    final StringBuilder sb = new StringBuilder(length);
+
+    for (int index = 0; index < length; ++index) {
+      sb.append(input.readChar());
+    }
+
+    return sb.toString();
+  }
+}
@@ -0,0 +1,801 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.coverage;
+
+import ru.ispras.castle.util.Logger;
+import ru.ispras.fortress.data.Data;
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.DataTypeId;
+import ru.ispras.fortress.data.Variable;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeOperation;
+import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.expression.StandardOperation;
+import ru.ispras.fortress.solver.SolverId;
+import ru.ispras.fortress.solver.SolverResult;
+import ru.ispras.fortress.solver.SolverResultBuilder;
+import ru.ispras.fortress.solver.engine.smt.SmtTextBuilder;
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.WeakHashMap;
+
+/**
+ * The {@link SolverSession} class keeps a solver process that solves TestBase queries
+ * incrementally. Each thread uses its own session.
+ *
+ * <p>The solver communicates via standard input and output in the SMT-LIB 2 format. The path
+ * formula of an instruction is asserted in its own assertion level and is kept there while
+ * queries refer to the same formula. Query bindings are asserted in a nested level that is
+ * popped after the query is solved.</p>
+ *
+ * <p>Only text solvers that support the incremental mode (Z3 and CVC4) are supported.
+ * If the solver process fails or does not respond in {@link #READ_TIMEOUT} milliseconds,
+ * the session is closed and the query is solved in the usual way.</p>
+ */
+final class SolverSession {
+  private static final List<String> DROPPED_COMMANDS = Arrays.asList(
+      "set-logic", "set-option", "set-info", "check-sat", "get-value", "get-model", "exit");
+
+  private static final List<String> DECLARATION_COMMANDS = Arrays.asList(
+      "declare-const", "declare-fun", "define-fun", "declare-sort", "define-sort");
+
+  /** Maximum time (in milliseconds) of waiting for a solver response. */
+  private static final long READ_TIMEOUT = 60000;
+
+  /** Stops solver processes that do not respond in time. */
+  private static final Timer watchdog = new Timer("microtesk-solver-watchdog", true);
+
+  private static final ThreadLocal<SolverSession> sessions = new ThreadLocal<>();
+  private static final Set<SolverSession> openSessions =
+      Collections.synchronizedSet(new HashSet<SolverSession>());
+
+  /** Set if the solver process cannot be started. Queries are solved in the usual way then. */
+  private static volatile boolean isUnavailable = false;
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        closeAll();
+      }
+    });
+  }
+
+  private final SolverId solverId;
+  private final Process process;
+  private final Writer input;
+  private final BufferedReader output;
+
+  /** SMT-LIB commands of path formulas. Builders are compared by identity. */
+  private final Map<PathConstraintBuilder, Script> scripts;
+
+  private PathConstraintBuilder currentBuilder;
+  private Script currentScript;
+
+  private volatile boolean isTimedOut;
+
+  private static final class Script {
+    private final List<String> commands;
+
+    /** Maps names of declared symbols to their SMT-LIB representation. */
+    private final Map<String, String> declarations;
+
+    private Script(final List<String> commands, final Map<String, String> declarations) {
+      this.commands = commands;
+      this.declarations = declarations;
+    }
+  }
+
+  /**
+   * Solves the constraint made of the path formula and the bindings in the session
+   * of the current thread.
+   *
+   * @param solverId Solver to be used.
+   * @param builder Path formula builder.
+   * @param bindings Query-specific conditions.
+   * @return Solver result or {@code null} if the session is not available.
+   */
+  public static SolverResult solve(
+      final SolverId solverId,
+      final PathConstraintBuilder builder,
+      final Collection<? extends Node> bindings) {
+    InvariantChecks.checkNotNull(solverId);
+    InvariantChecks.checkNotNull(builder);
+    InvariantChecks.checkNotNull(bindings);
+
+    SolverSession session = sessions.get();
+    if (null != session && session.solverId != solverId) {
+      session.close();
+      session = null;
+    }
+
+    if (null == session) {
+      final List<String> command = getCommand(solverId);
+      if (null == command || isUnavailable) {
+        return null;
+      }
+
+      try {
+        session = new SolverSession(solverId, command);
+      } catch (final IOException e) {
+        Logger.warning("Failed to start solver session: %s", e.getMessage());
+        isUnavailable = true;
+        return null;
+      }
+    }
+
+    boolean isChecked = false;
+    try {
+      final SolverResult result = session.check(builder, bindings);
+      isChecked = true;
+      return result;
+    } catch (final IOException e) {
+      Logger.warning("Solver session failed: %s", e.getMessage());
+      return null;
+    } finally {
+      // The assertion levels of a failed check are unknown: the session cannot be reused.
+      if (!isChecked) {
+        session.close();
+      }
+    }
+  }
+
+  /**
+   * Closes all open sessions and stops their solver processes.
+   */
+  public static void closeAll() {
+    final List<SolverSession> sessionList;
+    synchronized (openSessions) {
+      sessionList = new ArrayList<>(openSessions);
+    }
+
+    for (final SolverSession session : sessionList) {
+      session.close();
+    }
+  }
+
+  private static List<String> getCommand(final SolverId solverId) {
+    final String path = solverId.getSolver().getSolverPath();
+    if (null == path) {
+      return null;
+    }
+
+    switch (solverId) {
+      case Z3_TEXT:
+        return Arrays.asList(path, "-smt2", "-in");
+
+      case CVC4_TEXT:
+        return Arrays.asList(path, "--lang=smt2", "--incremental", "--produce-models");
+
+      default:
+        return null;
+    }
+  }
+
+  private SolverSession(final SolverId solverId, final List<String> command) throws IOException {
+    this.solverId = solverId;
+    this.process = new ProcessBuilder(command).start();
+    this.input = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII);
+    this.output = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+    this.scripts = new WeakHashMap<>();
+    this.currentBuilder = null;
+    this.currentScript = null;
+    this.isTimedOut = false;
+
+    startErrorReader();
+
+    sessions.set(this);
+    openSessions.add(this);
+
+    send("(set-option :print-success false)");
+    send("(set-option :produce-models true)");
+  }
+
+  private void close() {
+    if (sessions.get() == this) {
+      sessions.remove();
+    }
+
+    openSessions.remove(this);
+    process.destroy();
+  }
+
+  /**
+   * Starts a thread that reports messages of the solver error stream. The stream is read
+   * separately from the output so that diagnostics cannot be mistaken for responses.
+   */
+  private void startErrorReader() {
+    final BufferedReader errors = new BufferedReader(
+        new InputStreamReader(process.getErrorStream(), StandardCharsets.US_ASCII));
+
+    final Thread thread = new Thread("microtesk-solver-errors") {
+      @Override
+      public void run() {
+        try {
+          String line;
+          while (null != (line = errors.readLine())) {
+            Logger.warning("%s: %s", solverId, line);
+          }
+        } catch (final IOException e) {
+          // The process has been stopped.
+        }
+      }
+    };
+
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private SolverResult check(
+      final PathConstraintBuilder builder,
+      final Collection<? extends Node> bindings) throws IOException {
+    if (builder != currentBuilder) {
+      if (null != currentBuilder) {
+        send("(pop 1)");
+        currentBuilder = null;
+      }
+
+      currentScript = getScript(builder);
+      send("(push 1)");
+      for (final String command : currentScript.commands) {
+        send(command);
+      }
+      currentBuilder = builder;
+    }
+
+    send("(push 1)");
+    for (final String command : toBindingCommands(bindings)) {
+      // Variables of the path formula are already declared.
+      final List<String> head = getHeadTokens(command, 2);
+      if (!isDeclaration(head) || !currentScript.declarations.containsKey(unquote(head.get(1)))) {
+        send(command);
+      }
+    }
+
+    send("(check-sat)");
+    input.flush();
+
+    final SolverResultBuilder resultBuilder = new SolverResultBuilder(SolverResult.Status.UNKNOWN);
+    final String status = readStatus(resultBuilder);
+
+    if ("sat".equals(status)) {
+      resultBuilder.setStatus(SolverResult.Status.SAT);
+      readValues(builder, resultBuilder);
+    } else if ("unsat".equals(status)) {
+      resultBuilder.setStatus(SolverResult.Status.UNSAT);
+    } else if (!"unknown".equals(status)) {
+      resultBuilder.setStatus(SolverResult.Status.ERROR);
+    }
+
+    send("(pop 1)");
+    input.flush();
+
+    return resultBuilder.build();
+  }
+
+  private Script getScript(final PathConstraintBuilder builder) throws IOException {
+    Script script = scripts.get(builder);
+    if (null == script) {
+      final List<String> commands = toCommands(builder.getFormulas());
+      final Map<String, String> declarations = new HashMap<>();
+
+      for (final String command : commands) {
+        final List<String> head = getHeadTokens(command, 2);
+        if (isDeclaration(head)) {
+          declarations.put(unquote(head.get(1)), head.get(1));
+        }
+      }
+
+      script = new Script(commands, declarations);
+      scripts.put(builder, script);
+    }
+
+    return script;
+  }
+
+  /**
+   * Converts query bindings into SMT-LIB commands. Bindings are usually simple conditions on
+   * variables of the path formula: they are written directly. Other bindings are translated
+   * by {@link SmtTextBuilder}.
+   */
+  private List<String> toBindingCommands(
+      final Collection<? extends Node> bindings) throws IOException {
+    final List<String> commands = new ArrayList<>(bindings.size());
+    final StringBuilder sb = new StringBuilder();
+
+    for (final Node binding : bindings) {
+      sb.setLength(0);
+      sb.append("(assert ");
+
+      if (!appendTerm(sb, binding)) {
+        return toCommands(bindings);
+      }
+
+      sb.append(')');
+      commands.add(sb.toString());
+    }
+
+    return commands;
+  }
+
+  /**
+   * Appends the SMT-LIB term of the expression to the builder.
+   *
+   * @return {@code false} if the expression is not supported.
+   */
+  private boolean appendTerm(final StringBuilder sb, final Node node) {
+    switch (node.getKind()) {
+      case VARIABLE: {
+        final String name = currentScript.declarations.get(((NodeVariable) node).getName());
+        if (null == name) {
+          return false;
+        }
+
+        sb.append(name);
+        return true;
+      }
+
+      case VALUE:
+        return appendValue(sb, (NodeValue) node);
+
+      case OPERATION:
+        return appendOperation(sb, (NodeOperation) node);
+
+      default:
+        return false;
+    }
+  }
+
+  private static boolean appendValue(final StringBuilder sb, final NodeValue value) {
+    switch (value.getDataTypeId()) {
+      case LOGIC_BOOLEAN:
+        sb.append(value.getBoolean() ? "true" : "false");
+        return true;
+
+      case LOGIC_INTEGER: {
+        final BigInteger integer = value.getInteger();
+        if (integer.signum() < 0) {
+          sb.append("(- ").append(integer.negate()).append(')');
+        } else {
+          sb.append(integer);
+        }
+        return true;
+      }
+
+      case BIT_VECTOR:
+        sb.append("#b").append(value.getBitVector().toBinString());
+        return true;
+
+      default:
+        return false;
+    }
+  }
+
+  private boolean appendOperation(final StringBuilder sb, final NodeOperation operation) {
+    final Enum<?> operationId = operation.getOperationId();
+    int firstOperand = 0;
+
+    if (operationId == StandardOperation.EQ) {
+      sb.append("(=");
+    } else if (operationId == StandardOperation.NOT) {
+      sb.append("(not");
+    } else if (operationId == StandardOperation.AND) {
+      sb.append("(and");
+    } else if (operationId == StandardOperation.OR) {
+      sb.append("(or");
+    } else if (operationId == StandardOperation.BVZEROEXT
+        && operation.getOperandCount() == 2
+        && operation.getOperand(0).getKind() == Node.Kind.VALUE) {
+      // The first operand is the extension size.
+      sb.append("((_ zero_extend ")
+          .append(((NodeValue) operation.getOperand(0)).getInteger())
+          .append(')');
+      firstOperand = 1;
+    } else {
+      return false;
+    }
+
+    for (int index = firstOperand; index < operation.getOperandCount(); ++index) {
+      sb.append(' ');
+      if (!appendTerm(sb, operation.getOperand(index))) {
+        return false;
+      }
+    }
+
+    sb.append(')');
+    return true;
+  }
+
+  /**
+   * Translates formulas into SMT-LIB commands with {@link SmtTextBuilder}, which writes text to
+   * a file. This is done once for each path formula and for bindings that cannot be written
+   * directly.
+   */
+  private List<String> toCommands(final Collection<? extends Node> formulas) throws IOException {
+    final File file = File.createTempFile("microtesk", ".smt2");
+
+    try {
+      SmtTextBuilder.saveToFile(
+          file.getPath(),
+          Collections.<String>emptyList(),
+          formulas,
+          solverId.getSolver().getOperations()
+          );
+
+      final String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+      final List<String> commands = new ArrayList<>();
+
+      for (final String command : splitExpressions(text)) {
+        final List<String> head = getHeadTokens(command, 1);
+        if (head.isEmpty() || !DROPPED_COMMANDS.contains(head.get(0))) {
+          commands.add(command);
+        }
+      }
+
+      return commands;
+    } finally {
+      file.delete();
+    }
+  }
+
+  private String readStatus(final SolverResultBuilder resultBuilder) throws IOException {
+    while (true) {
+      final String response = readResponse();
+      if (response.startsWith("(error")) {
+        // Errors are reported for the commands that precede check-sat.
+        resultBuilder.addError(response);
+      } else {
+        return response;
+      }
+    }
+  }
+
+  private void readValues(
+      final PathConstraintBuilder builder,
+      final SolverResultBuilder resultBuilder) throws IOException {
+    final List<NodeVariable> variables = new ArrayList<>();
+    final StringBuilder names = new StringBuilder();
+
+    for (final NodeVariable variable : builder.getVariables().values()) {
+      final String name = currentScript.declarations.get(variable.getName());
+      if (null != name) {
+        variables.add(variable);
+        names.append(' ').append(name);
+      }
+    }
+
+    if (variables.isEmpty()) {
+      return;
+    }
+
+    send(String.format("(get-value (%s))", names.substring(1)));
+    input.flush();
+
+    final String response = readResponse();
+    if (response.startsWith("(error")) {
+      throw new IOException("Failed to get values: " + response);
+    }
+
+    final Object values = parse(response);
+    if (!(values instanceof List)) {
+      throw new IOException("Unexpected response: " + response);
+    }
+
+    final List<?> pairs = (List<?>) values;
+    if (pairs.size() != variables.size()) {
+      throw new IOException("Unexpected response: " + response);
+    }
+
+    for (int index = 0; index < pairs.size(); ++index) {
+      final NodeVariable variable = variables.get(index);
+      final Object pair = pairs.get(index);
+
+      if (!(pair instanceof List) || ((List<?>) pair).size() != 2) {
+        throw new IOException("Unexpected response: " + response);
+      }
+
+      final Data data = toData(variable.getDataType(), ((List<?>) pair).get(1));
+      if (null != data) {
+        resultBuilder.addVariable(new Variable(variable.getName(), data));
+      }
+    }
+  }
+
+  private static Data toData(final DataType type, final Object value) throws IOException {
+    if (type.getTypeId() == DataTypeId.LOGIC_BOOLEAN) {
+      return Data.newBoolean("true".equals(value));
+    }
+
+    final BigInteger number = toBigInteger(value);
+    if (type.getTypeId() == DataTypeId.BIT_VECTOR) {
+      return Data.newBitVector(BitVector.valueOf(number, type.getSize()));
+    }
+
+    if (type.getTypeId() == DataTypeId.LOGIC_INTEGER) {
+      return Data.newInteger(number);
+    }
+
+    return null;
+  }
+
+  private static BigInteger toBigInteger(final Object value) throws IOException {
+    if (value instanceof String) {
+      final String text = (String) value;
+      if (text.startsWith("#b")) {
+        return new BigInteger(text.substring(2), 2);
+      }
+      if (text.startsWith("#x")) {
+        return new BigInteger(text.substring(2), 16);
+      }
+      try {
+        return new BigInteger(text);
+      } catch (final NumberFormatException e) {
+        throw new IOException("Unexpected value: " + text);
+      }
+    }
+
+    final List<?> list = (List<?>) value;
+    if (list.size() == 2 && "-".equals(list.get(0))) {
+      // (- N)
+      return toBigInteger(list.get(1)).negate();
+    }
+
+    if (list.size() == 3 && "_".equals(list.get(0)) && list.get(1) instanceof String
+        && ((String) list.get(1)).startsWith("bv")) {
+      // (_ bvN size)
+      return new BigInteger(((String) list.get(1)).substring(2));
+    }
+
+    throw new IOException("Unexpected value: " + value);
+  }
+
+  private void send(final String command) throws IOException {
+    input.write(command);
+    input.write('\n');
+  }
+
+  /**
+   * Reads a response of the solver. If there is no response in {@link #READ_TIMEOUT}
+   * milliseconds, the solver process is stopped.
+   *
+   * @return Text of the response.
+   * @throws IOException if the solver process has terminated or does not respond.
+   */
+  private String readResponse() throws IOException {
+    final TimerTask timeout = new TimerTask() {
+      @Override
+      public void run() {
+        isTimedOut = true;
+        process.destroy();
+      }
+    };
+
+    watchdog.schedule(timeout, READ_TIMEOUT);
+
+    final String response;
+    try {
+      response = readExpression();
+    } catch (final IOException e) {
+      throw isTimedOut ? new IOException("Solver timed out", e) : e;
+    } finally {
+      timeout.cancel();
+    }
+
+    if (null == response) {
+      throw new IOException(isTimedOut ? "Solver timed out" : "Solver process terminated");
+    }
+
+    return response;
+  }
+
+  /**
+   * Reads a symbol or a balanced expression from the solver output.
+   *
+   * @return Text of the expression or {@code null} if the output is closed.
+   * @throws IOException if an I/O error occurs.
+   */
+  private String readExpression() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    int depth = 0;
+    boolean isString = false;
+
+    while (true) {
+      final int ch = output.read();
+      if (ch == -1) {
+        return null;
+      }
+
+      final char c = (char) ch;
+      if (!isString && depth == 0 && Character.isWhitespace(c)) {
+        if (sb.length() != 0) {
+          return sb.toString();
+        }
+        continue;
+      }
+
+      sb.append(c);
+      if (c == '"') {
+        isString = !isString;
+      } else if (!isString && c == '(') {
+        depth++;
+      } else if (!isString && c == ')') {
+        depth--;
+        if (depth == 0) {
+          return sb.toString();
+        }
+      }
+    }
+  }
+
+  /**
+   * Splits SMT-LIB text into top-level expressions. Comments are skipped.
+   *
+   * @param text SMT-LIB text.
+   * @return List of expressions.
+   */
+  static List<String> splitExpressions(final String text) {
+    final List<String> result = new ArrayList<>();
+
+    int depth = 0;
+    int start = -1;
+    boolean isString = false;
+    boolean isQuoted = false;
+
+    for (int index = 0; index < text.length(); ++index) {
+      final char c = text.charAt(index);
+
+      if (isString) {
+        isString = c != '"';
+      } else if (isQuoted) {
+        isQuoted = c != '|';
+      } else if (c == ';') {
+        while (index < text.length() && text.charAt(index) != '\n') {
+          index++;
+        }
+      } else if (c == '"') {
+        isString = true;
+      } else if (c == '|') {
+        isQuoted = true;
+      } else if (c == '(') {
+        if (depth == 0) {
+          start = index;
+        }
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth == 0) {
+          result.add(text.substring(start, index + 1));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Parses an expression into a tree of lists and atoms.
+   *
+   * @param text Expression text.
+   * @return {@link String} for an atom or {@link List} for a list.
+   */
+  static Object parse(final String text) {
+    final List<List<Object>> stack = new ArrayList<>();
+    final List<Object> root = new ArrayList<>();
+    stack.add(root);
+
+    final StringBuilder atom = new StringBuilder();
+    for (int index = 0; index < text.length(); ++index) {
+      final char c = text.charAt(index);
+      final List<Object> top = stack.get(stack.size() - 1);
+
+      if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+        if (atom.length() != 0) {
+          top.add(atom.toString());
+          atom.setLength(0);
+        }
+
+        if (c == '(') {
+          final List<Object> list = new ArrayList<>();
+          top.add(list);
+          stack.add(list);
+        } else if (c == ')' && stack.size() > 1) {
+          stack.remove(stack.size() - 1);
+        }
+      } else {
+        atom.append(c);
+      }
+    }
+
+    if (atom.length() != 0) {
+      root.add(atom.toString());
+    }
+
+    return root.isEmpty() ? null : root.get(0);
+  }
+
+  private static boolean isDeclaration(final List<String> head) {
+    return head.size() == 2 && DECLARATION_COMMANDS.contains(head.get(0));
+  }
+
+  private static String unquote(final String symbol) {
+    return symbol.length() >= 2 && symbol.startsWith("|") && symbol.endsWith("|")
+        ? symbol.substring(1, symbol.length() - 1)
+        : symbol;
+  }
+
+  /**
+   * Returns the leading symbols of a command (e.g. the command name and the declared name)
+   * without parsing the whole command.
+   *
+   * @param command Command text.
+   * @param count Maximum number of symbols.
+   * @return List of leading symbols.
+   */
+  private static List<String> getHeadTokens(final String command, final int count) {
+    final List<String> tokens = new ArrayList<>(count);
+
+    int index = command.indexOf('(') + 1;
+    while (index > 0 && index < command.length() && tokens.size() < count) {
+      final char c = command.charAt(index);
+
+      if (Character.isWhitespace(c)) {
+        index++;
+      } else if (c == '(' || c == ')') {
+        break;
+      } else if (c == '|') {
+        final int end = command.indexOf('|', index + 1);
+        if (end == -1) {
+          break;
+        }
+        tokens.add(command.substring(index, end + 1));
+        index = end + 1;
+      } else {
+        final int start = index;
+        while (index < command.length()
+            && !Character.isWhitespace(command.charAt(index))
+            && command.charAt(index) != '('
+            && command.charAt(index) != ')') {
+          index++;
+        }
+        tokens.add(command.substring(start, index));
+      }
+    }
+
+    return tokens;
+  }
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.coverage;
+
+import ru.ispras.castle.util.Logger;
+import ru.ispras.fortress.data.Data;
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.DataTypeId;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeOperation;
+import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.solver.constraint.Constraint;
+import ru.ispras.fortress.solver.constraint.ConstraintBuilder;
+import ru.ispras.fortress.solver.constraint.ConstraintKind;
+import ru.ispras.fortress.solver.constraint.Formulas;
+import ru.ispras.fortress.util.InvariantChecks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link SsaBinaryStorage} class stores SSA forms of a model in a compact binary file
+ * and loads them lazily.
+ *
+ * <p>The file holds the same constraints as the XML representation (see {@link BlockConverter}).
+ * It starts with an index that maps SSA form names to sections. Each section holds constraints
+ * of one SSA form and has its own string table. The file is memory-mapped, and sections are
+ * decoded on first access. If a section cannot be decoded, the form is taken from the fallback
+ * storage (the XML representation), which is loaded once on the first failure.</p>
+ *
+ * <pre>
+ * file:    magic, version, section count, (name, offset, length)*, section*
+ * section: constraint count, (name, formula count, node*)*
+ * node:    VALUE type data | VARIABLE name type | OPERATION enum-class enum-name count node*
+ * string:  index in the string table or -1 followed by UTF-8 bytes
+ * </pre>
+ */
+final class SsaBinaryStorage extends AbstractMap<String, SsaForm> {
+  private static final int MAGIC = 0x4d535341; // "MSSA"
+  private static final int VERSION = 1;
+
+  private static final byte NODE_VALUE = 0;
+  private static final byte NODE_VARIABLE = 1;
+  private static final byte NODE_OPERATION = 2;
+
+  /**
+   * The {@link Fallback} interface provides SSA forms when the binary file cannot be decoded.
+   */
+  interface Fallback {
+    Map<String, SsaForm> load();
+  }
+
+  private final ByteBuffer buffer;
+  private final Map<String, int[]> sections;
+  private final Map<String, SsaForm> forms;
+  private final Fallback fallback;
+  private Map<String, SsaForm> fallbackForms;
+
+  private SsaBinaryStorage(
+      final ByteBuffer buffer,
+      final Map<String, int[]> sections,
+      final Fallback fallback) {
+    this.buffer = buffer;
+    this.sections = sections;
+    this.forms = new HashMap<>();
+    this.fallback = fallback;
+    this.fallbackForms = null;
+  }
+
+  public static void store(final Path path, final Map<String, SsaForm> ssa) throws IOException {
+    InvariantChecks.checkNotNull(path);
+    InvariantChecks.checkNotNull(ssa);
+
+    final List<String> names = new ArrayList<>(ssa.keySet());
+    final List<byte[]> data = new ArrayList<>(names.size());
+
+    for (final String name : names) {
+      final Collection<Constraint> constraints =
+          BlockConverter.convert(name, ssa.get(name).getEntryPoint());
+      data.add(encodeSection(constraints));
+    }
+
+    final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+    final DataOutputStream index = new DataOutputStream(indexBytes);
+
+    int offset = 0;
+    for (int i = 0; i < names.size(); ++i) {
+      final byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+      index.writeInt(name.length);
+      index.write(name);
+      index.writeInt(offset);
+      index.writeInt(data.get(i).length);
+      offset += data.get(i).length;
+    }
+
+    try (final OutputStream stream = Files.newOutputStream(path)) {
+      final DataOutputStream output = new DataOutputStream(stream);
+
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(names.size());
+      indexBytes.writeTo(output);
+
+      for (final byte[] section : data) {
+        output.write(section);
+      }
+      output.flush();
+    }
+  }
+
+  public static Map<String, SsaForm> load(
+      final Path path,
+      final Fallback fallback) throws IOException {
+    InvariantChecks.checkNotNull(path);
+    InvariantChecks.checkNotNull(fallback);
+
+    final MappedByteBuffer buffer;
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IOException("Unsupported SSA file format: " + path);
+    }
+
+    final int count = buffer.getInt();
+    final Map<String, int[]> sections = new LinkedHashMap<>();
+
+    for (int i = 0; i < count; ++i) {
+      final byte[] name = new byte[buffer.getInt()];
+      buffer.get(name);
+
+      final int offset = buffer.getInt();
+      final int length = buffer.getInt();
+      sections.put(new String(name, StandardCharsets.UTF_8), new int[] {offset, length});
+    }
+
+    final ByteBuffer data = buffer.slice();
+    for (final int[] section : sections.values()) {
+      if (section[0] < 0 || section[1] < 0 || section[0] + section[1] > data.capacity()) {
+        throw new IOException("Corrupted SSA file: " + path);
+      }
+    }
+
+    return new SsaBinaryStorage(data, sections, fallback);
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return sections.containsKey(key);
+  }
+
+  @Override
+  public synchronized SsaForm get(final Object key) {
+    SsaForm form = forms.get(key);
+    if (null == form && sections.containsKey(key)) {
+      final String name = (String) key;
+      final int[] section = sections.get(name);
+
+      final ByteBuffer data = buffer.duplicate();
+      data.position(section[0]);
+      data.limit(section[0] + section[1]);
+
+      try {
+        final SsaConverter converter = new SsaConverter(new Decoder(data.slice()).readSection());
+        form = converter.convert(name);
+      } catch (final RuntimeException e) {
+        Logger.warning("failed to decode binary coverage model of %s: %s", name, e.toString());
+        form = getFallbackForms().get(name);
+      }
+
+      forms.put(name, form);
+    }
+    return form;
+  }
+
+  private Map<String, SsaForm> getFallbackForms() {
+    if (null == fallbackForms) {
+      fallbackForms = fallback.load();
+    }
+    return fallbackForms;
+  }
+
+  @Override
+  public int size() {
+    return sections.size();
+  }
+
+  @Override
+  public Set<Map.Entry<String, SsaForm>> entrySet() {
+    // Decodes all sections.
+    final Map<String, SsaForm> result = new LinkedHashMap<>();
+    for (final String name : sections.keySet()) {
+      result.put(name, get(name));
+    }
+    return result.entrySet();
+  }
+
+  private static byte[] encodeSection(final Collection<Constraint> constraints)
+      throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final Encoder encoder = new Encoder(new DataOutputStream(bytes));
+
+    encoder.output.writeInt(constraints.size());
+    for (final Constraint constraint : constraints) {
+      final Formulas formulas = (Formulas) constraint.getInnerRep();
+      final List<Node> nodes = new ArrayList<>();
+      for (final Node node : formulas.exprs()) {
+        nodes.add(node);
+      }
+
+      encoder.writeString(constraint.getName());
+      encoder.output.writeInt(nodes.size());
+      for (final Node node : nodes) {
+        encoder.writeNode(node);
+      }
+    }
+
+    encoder.output.flush();
+    return bytes.toByteArray();
+  }
+
+  private static final class Encoder {
+    private final DataOutputStream output;
+    private final Map<String, Integer> strings;
+
+    private Encoder(final DataOutputStream output) {
+      this.output = output;
+      this.strings = new HashMap<>();
+    }
+
+    private void writeNode(final Node node) throws IOException {
+      switch (node.getKind()) {
+        case VALUE: {
+          final NodeValue value = (NodeValue) node;
+          output.writeByte(NODE_VALUE);
+          writeType(value.getDataType());
+          writeData(value.getData());
+          break;
+        }
+
+        case VARIABLE: {
+          final NodeVariable variable = (NodeVariable) node;
+          output.writeByte(NODE_VARIABLE);
+          writeString(variable.getName());
+          writeType(variable.getDataType());
+          break;
+        }
+
+        case OPERATION: {
+          final NodeOperation operation = (NodeOperation) node;
+          final Enum<?> operationId = operation.getOperationId();
+
+          output.writeByte(NODE_OPERATION);
+          writeString(operationId.getDeclaringClass().getName());
+          writeString(operationId.name());
+          output.writeInt(operation.getOperandCount());
+
+          for (final Node operand : operation.getOperands()) {
+            writeNode(operand);
+          }
+          break;
+        }
+
+        default:
+          throw new IOException("Unsupported node kind: " + node.getKind());
+      }
+    }
+
+    private void writeType(final DataType type) throws IOException {
+      final DataTypeId typeId = type.getTypeId();
+      writeString(typeId.name());
+
+      switch (typeId) {
+        case BIT_VECTOR:
+          output.writeInt(type.getSize());
+          break;
+
+        case MAP:
+          writeType((DataType) type.getParameters()[0]);
+          writeType((DataType) type.getParameters()[1]);
+          break;
+
+        case LOGIC_BOOLEAN:
+        case LOGIC_INTEGER:
+        case LOGIC_STRING:
+          break;
+
+        default:
+          throw new IOException("Unsupported data type: " + type);
+      }
+    }
+
+    private void writeData(final Data data) throws IOException {
+      switch (data.getType().getTypeId()) {
+        case BIT_VECTOR:
+          writeBigInteger(data.getBitVector().bigIntegerValue(false));
+          break;
+
+        case LOGIC_INTEGER:
+          writeBigInteger(data.getInteger());
+          break;
+
+        case LOGIC_BOOLEAN:
+          output.writeBoolean(data.getBoolean());
+          break;
+
+        case LOGIC_STRING:
+          writeString((String) data.getValue());
+          break;
+
+        default:
+          throw new IOException("Unsupported value: " + data);
+      }
+    }
+
+    private void writeBigInteger(final BigInteger value) throws IOException {
+      final byte[] bytes = value.toByteArray();
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+
+    private void writeString(final String text) throws IOException {
+      final Integer id = strings.get(text);
+      if (null != id) {
+        output.writeInt(id);
+        return;
+      }
+
+      strings.put(text, strings.size());
+
+      final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(-1);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  private static final class Decoder {
+    private final ByteBuffer input;
+    private final List<String> strings;
+
+    private Decoder(final ByteBuffer input) {
+      this.input = input;
+      this.strings = new ArrayList<>();
+    }
+
+    private List<Constraint> readSection() {
+      final int count = input.getInt();
+      final List<Constraint> constraints = new ArrayList<>(count);
+
+      for (int i = 0; i < count; ++i) {
+        final String name = readString();
+        final int formulaCount = input.getInt();
+
+        final Formulas formulas = new Formulas();
+        for (int j = 0; j < formulaCount; ++j) {
+          formulas.add(readNode());
+        }
+
+        final ConstraintBuilder builder = new ConstraintBuilder(ConstraintKind.FORMULA_BASED);
+        builder.setName(name);
+        builder.setInnerRep(formulas);
+        builder.addVariables(formulas.getVariables());
+
+        constraints.add(builder.build());
+      }
+
+      return constraints;
+    }
+
+    private Node readNode() {
+      final byte kind = input.get();
+      switch (kind) {
+        case NODE_VALUE: {
+          final DataType type = readType();
+          return new NodeValue(readData(type));
+        }
+
+        case NODE_VARIABLE: {
+          final String name = readString();
+          return new NodeVariable(name, readType());
+        }
+
+        case NODE_OPERATION: {
+          final Enum<?> operationId = readOperationId();
+          final int count = input.getInt();
+
+          final List<Node> operands = new ArrayList<>(count);
+          for (int i = 0; i < count; ++i) {
+            operands.add(readNode());
+          }
+
+          return new NodeOperation(operationId, operands);
+        }
+
+        default:
+          throw new IllegalStateException("Unknown node kind: " + kind);
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Enum<?> readOperationId() {
+      final String className = readString();
+      final String name = readString();
+
+      try {
+        final Class<?> type = Class.forName(className);
+        return Enum.valueOf((Class<? extends Enum>) type, name);
+      } catch (final ClassNotFoundException e) {
+        throw new IllegalStateException("Unknown operation: " + className + "." + name, e);
+      }
+    }
+
+    private DataType readType() {
+      final DataTypeId typeId = DataTypeId.valueOf(readString());
+      switch (typeId) {
+        case BIT_VECTOR:
+          return DataType.bitVector(input.getInt());
+
+        case MAP: {
+          final DataType keyType = readType();
+          return DataType.map(keyType, readType());
+        }
+
+        case LOGIC_BOOLEAN:
+          return DataType.BOOLEAN;
+
+        case LOGIC_INTEGER:
+          return DataType.INTEGER;
+
+        case LOGIC_STRING:
+          return DataType.STRING;
+
+        default:
+          throw new IllegalStateException("Unsupported data type: " + typeId);
+      }
+    }
+
+    private Data readData(final DataType type) {
+      switch (type.getTypeId()) {
+        case BIT_VECTOR:
+          return Data.newBitVector(BitVector.valueOf(readBigInteger(), type.getSize()));
+
+        case LOGIC_INTEGER:
+          return Data.newInteger(readBigInteger());
+
+        case LOGIC_BOOLEAN:
+          return Data.newBoolean(input.get() != 0);
+
+        case LOGIC_STRING:
+          return NodeValue.newString(readString()).getData();
+
+        default:
+          throw new IllegalStateException("Unsupported value type: " + type);
+      }
+    }
+
+    private BigInteger readBigInteger() {
+      final byte[] bytes = new byte[input.getInt()];
+      input.get(bytes);
+      return new BigInteger(bytes);
+    }
+
+    private String readString() {
+      final int id = input.getInt();
+      if (id >= 0) {
+        return strings.get(id);
+      }
+
+      final byte[] bytes = new byte[input.getInt()];
+      input.get(bytes);
+
+      final String text = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(text);
+      return text;
+    }
+  }
+}
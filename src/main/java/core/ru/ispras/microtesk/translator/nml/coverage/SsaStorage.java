@@ -45,6 +45,8 @@ import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 final class SsaStorage {
+  private static final String BINARY_EXTENSION = ".ssa";
+
   private SsaStorage() {}
 
   public static Map<String, SsaForm> load(final Path outPath, final String modelName) {
@@ -52,6 +54,27 @@ final class SsaStorage {
     InvariantChecks.checkNotNull(modelName);
 
     final Path genPath = outPath.resolve("gen");
+
+    // The binary form is loaded lazily. XML files are used if it is not available
+    // or some of its sections cannot be decoded.
+    final Path binaryPath = genPath.resolve(modelName + BINARY_EXTENSION);
+    if (Files.exists(binaryPath)) {
+      try {
+        return SsaBinaryStorage.load(binaryPath, new SsaBinaryStorage.Fallback() {
+          @Override
+          public Map<String, SsaForm> load() {
+            return loadXml(genPath, modelName);
+          }
+        });
+      } catch (final IOException | RuntimeException e) {
+        Logger.warning("failed to load binary coverage model: " + e.toString());
+      }
+    }
+
+    return loadXml(genPath, modelName);
+  }
+
+  private static Map<String, SsaForm> loadXml(final Path genPath, final String modelName) {
     final Path dirPath = genPath.resolve(modelName);
 
     final Map<String, SsaForm> ssa = new HashMap<>();
@@ -119,6 +142,19 @@ final class SsaStorage {
     } catch (final XmlNotSavedException | IOException e) {
       Logger.error("failed to save coverage model: " + e.getMessage());
     }
+
+    final Path binaryPath = outPath.resolve(modelName + BINARY_EXTENSION);
+    try {
+      SsaBinaryStorage.store(binaryPath, ssa);
+    } catch (final IOException e) {
+      // The XML form is still available.
+      Logger.warning("failed to save binary coverage model: " + e.getMessage());
+      try {
+        Files.deleteIfExists(binaryPath);
+      } catch (final IOException e2) {
+        Logger.warning("failed to delete " + binaryPath + ": " + e2.getMessage());
+      }
+    }
   }
 
   public static Map<String, SsaForm> loadZip(final Path outPath, final String modelName) {
@@ -14,6 +14,7 @@
 
 package ru.ispras.microtesk.translator.nml.coverage;
 
+import ru.ispras.castle.util.Logger;
 import ru.ispras.fortress.data.Data;
 import ru.ispras.fortress.data.DataType;
 import ru.ispras.fortress.data.DataTypeId;
@@ -40,6 +41,7 @@ import ru.ispras.testbase.knowledge.iterator.EmptyIterator;
 import ru.ispras.testbase.knowledge.iterator.Iterator;
 import ru.ispras.testbase.knowledge.iterator.SingleValueIterator;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Path;
@@ -49,17 +51,23 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 public final class TestBase {
+  private static final int PATH_CACHE_SIZE = 1024;
+
   private final Path outputDir;
   private final Map<String, Map<String, SsaForm>> storage;
+  private final Map<String, PathConstraintBuilder> pathCache;
   private final ru.ispras.testbase.TestBase testBase;
 
   private static TestBase instance = null;
   private static SolverId solverId = SolverId.CVC4_TEXT;
+  private static boolean sessionsEnabled = false;
+  private static QueryCache queryCache = new QueryCache(QueryCache.Policy.NONE, 1);
 
   public static TestBase get() {
     if (null == instance) {
@@ -74,9 +82,62 @@ public final class TestBase {
     ru.ispras.testbase.TestBase.setSolverId(value);
   }
 
+  /**
+   * Enables solving queries in persistent solver processes (see {@link SolverSession}).
+   *
+   * @param value {@code true} to enable solver sessions.
+   */
+  public static void setSessionsEnabled(final boolean value) {
+    sessionsEnabled = value;
+  }
+
+  /**
+   * Sets up caching of solver results for TestBase queries.
+   *
+   * @param policy Caching policy: {@code none}, {@code unsat} or {@code all}.
+   * @param size Maximum number of cached results.
+   */
+  public static void setQueryCache(final String policy, final int size) {
+    InvariantChecks.checkNotNull(policy);
+
+    QueryCache.Policy cachePolicy;
+    try {
+      cachePolicy = QueryCache.Policy.fromString(policy);
+    } catch (final IllegalArgumentException e) {
+      Logger.warning("Unknown TestBase cache policy: %s. Caching is disabled.", policy);
+      cachePolicy = QueryCache.Policy.NONE;
+    }
+
+    queryCache = new QueryCache(cachePolicy, Math.max(size, 1));
+  }
+
+  public static void loadQueryCache(final String fileName) {
+    try {
+      queryCache.load(fileName);
+    } catch (final IOException e) {
+      Logger.warning("Failed to load TestBase cache from %s: %s", fileName, e.getMessage());
+    }
+  }
+
+  public static void saveQueryCache(final String fileName) {
+    try {
+      queryCache.save(fileName);
+    } catch (final IOException e) {
+      Logger.warning("Failed to save TestBase cache to %s: %s", fileName, e.getMessage());
+    }
+  }
+
   private TestBase(final String path) {
     this.outputDir = Paths.get(path);
     this.storage = new HashMap<>();
+    this.pathCache = new LinkedHashMap<String, PathConstraintBuilder>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, PathConstraintBuilder> eldest) {
+        return size() > PATH_CACHE_SIZE;
+      }
+    };
     this.testBase = ru.ispras.testbase.TestBase.get();
   }
 
@@ -93,7 +154,8 @@ public final class TestBase {
 
     SolverResult result;
     try {
-      final PathConstraintBuilder builder = newPathConstraintBuilder(query);
+      final String contextKey = getContextKey(query.getContext());
+      final PathConstraintBuilder builder = getPathConstraintBuilder(contextKey, query);
 
       final Collection<Node> bindings = gatherBindings(query, builder.getVariables());
       bindings.add(findPathSpec(query, builder.getVariables()));
@@ -121,8 +183,14 @@ public final class TestBase {
         bindings.add(Nodes.eq(findGuard(testCase, builder.getVariables()), Nodes.TRUE));
       }
 
-      final Constraint constraint = builder.build(bindings);
-      result = solverId.getSolver().solve(constraint);
+      final String queryKey =
+          QueryCache.getKey(contextKey, builder.getFormulaDigest(), bindings);
+      result = queryCache.get(queryKey);
+
+      if (null == result) {
+        result = solve(builder, bindings);
+        queryCache.put(queryKey, result);
+      }
     } catch (final Throwable e) {
       final List<String> errors = new ArrayList<>(rc.getErrors().size() + 1);
 
@@ -138,6 +206,20 @@ public final class TestBase {
     return fromSolverResult(query, result);
   }
 
+  private static SolverResult solve(
+      final PathConstraintBuilder builder,
+      final Collection<Node> bindings) {
+    if (sessionsEnabled) {
+      final SolverResult result = SolverSession.solve(solverId, builder, bindings);
+      if (null != result) {
+        return result;
+      }
+    }
+
+    final Constraint constraint = builder.build(bindings);
+    return solverId.getSolver().solve(constraint);
+  }
+
   private static Node findGuard(
       final String testCase,
       final Map<String, NodeVariable> variables) {
@@ -279,8 +361,48 @@ public final class TestBase {
     return bindings;
   }
 
-  private PathConstraintBuilder newPathConstraintBuilder(final TestBaseQuery query) {
-    final Map<String, Object> context = query.getContext();
+  /**
+   * Returns a key that identifies the path formula of the query context. The key includes
+   * only string attributes: the model, the instruction, the test case and the argument types.
+   * Attributes that vary from query to query (the processing count and the abstract sequence)
+   * do not affect the formula and are excluded.
+   *
+   * @param context Query context.
+   * @return Context key.
+   */
+  static String getContextKey(final Map<String, Object> context) {
+    final Map<String, String> key = new TreeMap<>();
+    for (final Map.Entry<String, Object> entry : context.entrySet()) {
+      if (entry.getValue() instanceof String && !entry.getKey().equals(TestBaseContext.COUNT)) {
+        key.put(entry.getKey(), (String) entry.getValue());
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Returns the path formula builder for the instruction described by the query context.
+   * Builders are cached as the formula depends only on the context.
+   */
+  private PathConstraintBuilder getPathConstraintBuilder(
+      final String contextKey,
+      final TestBaseQuery query) {
+    synchronized (pathCache) {
+      final PathConstraintBuilder builder = pathCache.get(contextKey);
+      if (null != builder) {
+        return builder;
+      }
+    }
+
+    final PathConstraintBuilder builder = newPathConstraintBuilder(query.getContext());
+    synchronized (pathCache) {
+      pathCache.put(contextKey, builder);
+    }
+
+    return builder;
+  }
+
+  private PathConstraintBuilder newPathConstraintBuilder(final Map<String, Object> context) {
 
     final String model = (String) context.get(TestBaseContext.PROCESSOR);
     final String instruction = (String) context.get(TestBaseContext.INSTRUCTION);
@@ -14,57 +14,81 @@
 
 package ru.ispras.microtesk.utils;
 
-import org.apache.commons.lang.ArrayUtils;
 import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Arrays;
-
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The {@link BinaryReader} class reads binary data (instruction images) from a file.
+ * The file is mapped into memory, which allows moving the read position back and forth
+ * without rereading the file.
+ */
 public final class BinaryReader {
-  private final InputStream inputStream;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int size;
   private final boolean bigEndian;
   private boolean open;
-
-  private final byte[] buffer = new byte[1024];
-  private int lastBytesRead = 0;
   private int position = 0;
 
   public BinaryReader(final File file, final boolean bigEndian) throws IOException {
     InvariantChecks.checkNotNull(file);
 
-    this.inputStream = new FileInputStream(file);
+    final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    this.channel = randomAccessFile.getChannel();
+
+    final long fileSize = channel.size();
+    if (fileSize > Integer.MAX_VALUE) {
+      randomAccessFile.close();
+      throw new IOException(String.format("The %s file is too large.", file.getName()));
+    }
+
+    this.size = (int) fileSize;
+    this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
     this.bigEndian = bigEndian;
     this.open = true;
   }
 
+  /**
+   * Reads the specified number of bytes starting from the current position. If the end of
+   * the file is reached before all bytes are read, the missing bytes are set to zero.
+   *
+   * @param byteSize Number of bytes to be read.
+   * @return Data or {@code null} if there are no more data in the file.
+   */
   public BitVector read(final int byteSize) {
-    InvariantChecks.checkBounds(byteSize, buffer.length);
-
-    if (position + byteSize > lastBytesRead) {
-      try {
-        lastBytesRead = inputStream.read(buffer, 0, buffer.length);
-        if (lastBytesRead <= 0) {
-          return null;
-        }
-        position = 0;
-      } catch (final IOException e) {
-        throw new IllegalStateException(e);
-      }
+    InvariantChecks.checkGreaterThanZero(byteSize);
+    InvariantChecks.checkTrue(open);
+
+    if (position >= size) {
+      return null;
     }
 
-    final byte[] bytes = Arrays.copyOfRange(buffer, position, position + byteSize);
+    final int count = Math.min(byteSize, size - position);
+    final BitVector data;
 
-    if (bigEndian) {
-      ArrayUtils.reverse(bytes);
+    if (byteSize <= Long.SIZE / Byte.SIZE) {
+      long value = 0;
+      for (int index = 0; index < count; ++index) {
+        final int byteIndex = bigEndian ? byteSize - 1 - index : index;
+        value |= (buffer.get(position + index) & 0xffL) << (byteIndex * Byte.SIZE);
+      }
+      data = BitVector.valueOf(value, byteSize * Byte.SIZE);
+    } else {
+      final byte[] bytes = new byte[byteSize];
+      for (int index = 0; index < count; ++index) {
+        final int byteIndex = bigEndian ? byteSize - 1 - index : index;
+        bytes[byteIndex] = buffer.get(position + index);
+      }
+      data = BitVector.valueOf(bytes, byteSize * Byte.SIZE);
     }
 
-    final BitVector data = BitVector.valueOf(bytes, byteSize * 8);
     position += byteSize;
-
     return data;
   }
 
@@ -73,13 +97,11 @@ public final class BinaryReader {
       return;
     }
 
-    if (null != inputStream) {
-      try {
-        inputStream.close();
-        open = false;
-      } catch (final IOException e) {
-        throw new IllegalStateException(e);
-      }
+    try {
+      channel.close();
+      open = false;
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
     }
   }
 
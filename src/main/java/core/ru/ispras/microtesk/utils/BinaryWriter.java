@@ -20,22 +20,29 @@ import ru.ispras.fortress.util.InvariantChecks;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
+/**
+ * The {@link BinaryWriter} class writes binary data (instruction images) to a file.
+ * Data are accumulated in a direct buffer and written to the file channel when
+ * the buffer is full.
+ */
 public final class BinaryWriter {
+  private static final int BUFFER_SIZE = 1 << 20;
+
   private final File file;
-  private final OutputStream outputStream;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
   private final boolean bigEndian;
   private boolean open;
 
-  private final byte[] buffer = new byte[1024];
-  private int position = 0;
-
   public BinaryWriter(final File file, final boolean bigEndian) throws IOException {
     InvariantChecks.checkNotNull(file);
 
     this.file = file;
-    this.outputStream = new FileOutputStream(file);
+    this.channel = new FileOutputStream(file).getChannel();
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
     this.bigEndian = bigEndian;
     this.open = true;
   }
@@ -56,14 +63,14 @@ public final class BinaryWriter {
 
     final int dataSize = data.getByteSize();
     try {
-      if (position + dataSize > buffer.length) {
-        flush();
-      }
-
-      // Hack to support Big Endian
       for (int index = 0; index < dataSize; ++index) {
+        if (!buffer.hasRemaining()) {
+          flush();
+        }
+
+        // Hack to support Big Endian
         final int sourcePosition = bigEndian ? dataSize - 1 - index : index;
-        buffer[position++] = data.getByte(sourcePosition);
+        buffer.put(data.getByte(sourcePosition));
       }
     } catch (final IOException e) {
       throw new IllegalStateException(e);
@@ -77,7 +84,7 @@ public final class BinaryWriter {
 
     try {
       flush();
-      outputStream.close();
+      channel.close();
       open = false;
     } catch (final IOException e) {
       throw new IllegalStateException(e);
@@ -92,7 +99,11 @@ public final class BinaryWriter {
 
   private void flush() throws IOException {
     InvariantChecks.checkTrue(open);
-    outputStream.write(buffer, 0, position);
-    position = 0;
+
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
   }
 }
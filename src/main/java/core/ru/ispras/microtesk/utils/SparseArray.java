@@ -21,49 +21,129 @@ import java.math.BigInteger;
 import java.util.Map;
 import java.util.TreeMap;
 
+/**
+ * The {@link SparseArray} class implements an array indexed by bit vectors. Arrays of small
+ * length are stored in fixed-size chunks of a Java array, which are allocated when elements
+ * are assigned. Larger arrays store only the assigned elements in a map.
+ *
+ * @param <T> Element type.
+ */
 public class SparseArray<T> {
+  /** Maximum length of an array that is stored in chunks. */
+  public static final int DENSE_LENGTH_LIMIT = 1 << 16;
+
+  private static final int CHUNK_BITS = 8;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
   private final Map<BigInteger, T> indexMap;
   private final BigInteger arrayLength;
 
+  /** Length of the array stored in chunks ({@code 0} if the map is used). */
+  private final int denseLength;
+
+  /** Chunks of elements (the table and the chunks are allocated on demand). */
+  private Object[][] chunks;
+
   public SparseArray(final BigInteger length) {
     InvariantChecks.checkNotNull(length);
     InvariantChecks.checkGreaterThan(length, BigInteger.ZERO);
 
-    this.indexMap = new TreeMap<>();
+    final boolean isDense = length.compareTo(BigInteger.valueOf(DENSE_LENGTH_LIMIT)) <= 0;
+
+    this.indexMap = isDense ? null : new TreeMap<BigInteger, T>();
     this.arrayLength = length;
+    this.denseLength = isDense ? length.intValue() : 0;
+    this.chunks = null;
   }
 
   public BigInteger length() {
     return arrayLength;
   }
 
+  @SuppressWarnings("unchecked")
   public T get(final BitVector index) {
     InvariantChecks.checkNotNull(index);
 
+    if (0 != denseLength) {
+      final int denseIndex = getDenseIndex(index);
+
+      if (null == chunks) {
+        return null;
+      }
+
+      final Object[] chunk = chunks[denseIndex >>> CHUNK_BITS];
+      return null != chunk ? (T) chunk[denseIndex & CHUNK_MASK] : null;
+    }
+
     final BigInteger indexValue = index.bigIntegerValue(false);
     InvariantChecks.checkGreaterThan(arrayLength, indexValue);
 
     return indexMap.get(indexValue);
   }
 
+  @SuppressWarnings("unchecked")
   public T set(final BitVector index, final T value) {
     InvariantChecks.checkNotNull(index);
     InvariantChecks.checkNotNull(value);
 
+    if (0 != denseLength) {
+      final int denseIndex = getDenseIndex(index);
+
+      if (null == chunks) {
+        chunks = new Object[(denseLength + CHUNK_MASK) >>> CHUNK_BITS][];
+      }
+
+      Object[] chunk = chunks[denseIndex >>> CHUNK_BITS];
+      if (null == chunk) {
+        chunk = chunks[denseIndex >>> CHUNK_BITS] = new Object[CHUNK_SIZE];
+      }
+
+      final T previous = (T) chunk[denseIndex & CHUNK_MASK];
+      chunk[denseIndex & CHUNK_MASK] = value;
+
+      return previous;
+    }
+
     final BigInteger indexValue = index.bigIntegerValue(false);
     InvariantChecks.checkGreaterThan(arrayLength, indexValue);
 
     return indexMap.put(indexValue, value);
   }
 
+  private int getDenseIndex(final BitVector index) {
+    if (index.getBitSize() < Long.SIZE) {
+      final long indexValue = index.longValue();
+      InvariantChecks.checkTrue(0 <= indexValue && indexValue < denseLength);
+      return (int) indexValue;
+    }
+
+    final BigInteger indexValue = index.bigIntegerValue(false);
+    InvariantChecks.checkGreaterThan(arrayLength, indexValue);
+
+    return indexValue.intValue();
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append('[');
 
-    for (final Map.Entry<BigInteger, T> e : indexMap.entrySet()) {
-      sb.append(System.lineSeparator());
-      sb.append(String.format("%d: %s", e.getKey(), e.getValue()));
+    if (0 != denseLength) {
+      for (int index = 0; null != chunks && index < denseLength; ++index) {
+        final Object[] chunk = chunks[index >>> CHUNK_BITS];
+        final Object element = null != chunk ? chunk[index & CHUNK_MASK] : null;
+
+        if (null != element) {
+          sb.append(System.lineSeparator());
+          sb.append(String.format("%d: %s", index, element));
+        }
+      }
+    } else {
+      for (final Map.Entry<BigInteger, T> e : indexMap.entrySet()) {
+        sb.append(System.lineSeparator());
+        sb.append(String.format("%d: %s", e.getKey(), e.getValue()));
+      }
     }
 
     sb.append(System.lineSeparator());
@@ -154,5 +154,6 @@ public final class MmuPlugin implements Plugin {
     mmuModel.setStorageDevice(storageDevice);
 
     model.addStateManager(mmuModel);
+    TestEngine.getInstance().getStatistics().addCounterSource(mmuModel);
   }
 }
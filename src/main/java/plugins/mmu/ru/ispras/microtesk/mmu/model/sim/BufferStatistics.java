@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.mmu.model.sim;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@link BufferStatistics} class holds access counters of an MMU buffer.
+ *
+ * <p>Hits and misses are counted by lookups ({@code isHit}) performed by the MMU specification,
+ * reads and writes are counted by {@code getData} and {@code setData}, an eviction is counted when
+ * {@code setData} replaces valid data associated with another address. Lookups performed by test
+ * engines via {@link BufferObserver} are not counted. Accesses performed while the buffer uses
+ * a temporary state (presimulation, self-checks) are not counted either: counting is suspended
+ * by {@link #setSuspended(boolean)}.</p>
+ *
+ * <p>Counters are plain fields updated by the thread that simulates the buffer. Other threads
+ * should read them via {@link #snapshot()} after simulation.</p>
+ */
+public final class BufferStatistics {
+  private long hits;
+  private long misses;
+  private long reads;
+  private long writes;
+  private long evictions;
+  private boolean suspended;
+
+  public BufferStatistics() {
+    reset();
+    this.suspended = false;
+  }
+
+  private BufferStatistics(final BufferStatistics other) {
+    this.hits = other.hits;
+    this.misses = other.misses;
+    this.reads = other.reads;
+    this.writes = other.writes;
+    this.evictions = other.evictions;
+  }
+
+  /**
+   * Suspends or resumes counting. Accesses made while counting is suspended are ignored.
+   *
+   * @param value {@code true} to suspend counting, {@code false} to resume it.
+   */
+  public void setSuspended(final boolean value) {
+    suspended = value;
+  }
+
+  public boolean isSuspended() {
+    return suspended;
+  }
+
+  public void incHitsOrMisses(final boolean isHit) {
+    if (suspended) {
+      return;
+    }
+
+    if (isHit) {
+      hits++;
+    } else {
+      misses++;
+    }
+  }
+
+  public void incReads() {
+    if (!suspended) {
+      reads++;
+    }
+  }
+
+  public void incWrites() {
+    if (!suspended) {
+      writes++;
+    }
+  }
+
+  public void incEvictions() {
+    if (!suspended) {
+      evictions++;
+    }
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getReads() {
+    return reads;
+  }
+
+  public long getWrites() {
+    return writes;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public void reset() {
+    hits = 0;
+    misses = 0;
+    reads = 0;
+    writes = 0;
+    evictions = 0;
+  }
+
+  /**
+   * Returns a copy of the counters that is not affected by further accesses.
+   *
+   * @return Copy of the counters.
+   */
+  public BufferStatistics snapshot() {
+    return new BufferStatistics(this);
+  }
+
+  /**
+   * Returns the counters as a map from counter names to values.
+   *
+   * @return Ordered map of counters.
+   */
+  public Map<String, Long> toMap() {
+    final Map<String, Long> result = new LinkedHashMap<>();
+
+    result.put("hits", hits);
+    result.put("misses", misses);
+    result.put("reads", reads);
+    result.put("writes", writes);
+    result.put("evictions", evictions);
+
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "hits=%d, misses=%d, reads=%d, writes=%d, evictions=%d",
+        hits,
+        misses,
+        reads,
+        writes,
+        evictions
+        );
+  }
+}
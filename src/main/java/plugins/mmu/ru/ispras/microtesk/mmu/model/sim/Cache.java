@@ -18,6 +18,7 @@ import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.fortress.util.Pair;
 import ru.ispras.microtesk.model.ModelStateManager;
+import ru.ispras.microtesk.model.tracer.Tracer;
 import ru.ispras.microtesk.utils.SparseArray;
 
 import java.math.BigInteger;
@@ -31,6 +32,9 @@ import java.math.BigInteger;
  * <li>{@code indexer} - the set indexer, and
  * <li>{@code matcher} - the line matcher.</ol>
  *
+ * <p>If the matcher is a {@link TagMatcher}, sets are represented by {@link TagSet} objects,
+ * which match lines by comparing {@code long} tags.</p>
+ *
  * @param <D> the data type.
  * @param <A> the address type.
  *
@@ -39,14 +43,20 @@ import java.math.BigInteger;
 public abstract class Cache<D extends Data, A extends Address>
     implements Buffer<D, A>, BufferObserver, ModelStateManager {
   /** The table of associative sets. */
-  private SparseArray<Set<D, A>> sets;
-  private SparseArray<Set<D, A>> savedSets;
+  private SparseArray<Buffer<D, A>> sets;
+  private SparseArray<Buffer<D, A>> savedSets;
 
   private final Indexer<A> indexer;
   private final int associativity;
   private final PolicyId policyId;
   private final Matcher<D, A> matcher;
 
+  /** The tag matcher if lines are matched by tags; {@code null} otherwise. */
+  private final TagMatcher<D, A> tagMatcher;
+
+  /** The access counters. */
+  private final BufferStatistics statistics;
+
   /**
    * Proxy class is used to simply code of assignment expressions.
    */
@@ -76,6 +86,7 @@ public abstract class Cache<D extends Data, A extends Address>
    * @param indexer the set indexer.
    * @param matcher the line matcher.
    */
+  @SuppressWarnings("unchecked")
   public Cache(
       final BigInteger length,
       final int associativity,
@@ -95,13 +106,18 @@ public abstract class Cache<D extends Data, A extends Address>
     this.associativity = associativity;
     this.policyId = policyId;
     this.matcher = matcher;
+    this.tagMatcher = matcher instanceof TagMatcher ? (TagMatcher<D, A>) matcher : null;
+    this.statistics = new BufferStatistics();
   }
 
-  private Set<D, A> getSet(final BitVector index) {
-    Set<D, A> result = sets.get(index);
+  private Buffer<D, A> getSet(final BitVector index) {
+    Buffer<D, A> result = sets.get(index);
 
     if (null == result) {
-      result = new Set<>(associativity, policyId, matcher);
+      result = null != tagMatcher
+          ? new TagSet<>(associativity, policyId, tagMatcher)
+          : new Set<>(associativity, policyId, matcher);
+
       sets.set(index, result);
     }
 
@@ -110,36 +126,64 @@ public abstract class Cache<D extends Data, A extends Address>
 
   @Override
   public final boolean isHit(final A address) {
-    final BitVector index = indexer.getIndex(address);
-    final Set<D, A> set = sets.get(index);
-    return null != set && set.isHit(address);
+    final boolean isHit = lookup(address);
+    statistics.incHitsOrMisses(isHit);
+
+    if (Tracer.isBufferAccessEnabled()) {
+      Tracer.addBufferAccess(getClass().getSimpleName(), address.getValue(), isHit);
+    }
+
+    return isHit;
   }
 
   @Override
   public final boolean isHit(final BitVector value) {
     final A address = newAddress();
     address.getValue().assign(value);
-    return isHit(address);
+    return lookup(address);
+  }
+
+  private boolean lookup(final A address) {
+    final BitVector index = indexer.getIndex(address);
+    final Buffer<D, A> set = sets.get(index);
+    return null != set && set.isHit(address);
   }
 
   @Override
   public final D getData(final A address) {
     final BitVector index = indexer.getIndex(address);
-    final Set<D, A> set = getSet(index);
+    final Buffer<D, A> set = getSet(index);
+    statistics.incReads();
     return set.getData(address);
   }
 
   @Override
   public Pair<BitVector, BitVector> seeData(final BitVector index, final BitVector way) {
-    final Set<D, A> set = sets.get(index);
+    final Buffer<D, A> set = sets.get(index);
     return null != set ? set.seeData(index, way) : null;
   }
 
   @Override
   public final D setData(final A address, final D data) {
     final BitVector index = indexer.getIndex(address);
-    final Set<D, A> set = getSet(index);
-    return set.setData(address, data);
+    final Buffer<D, A> set = getSet(index);
+    final D oldData = set.setData(address, data);
+
+    statistics.incWrites();
+    if (null != oldData && !matcher.areMatching(oldData, address)) {
+      statistics.incEvictions();
+    }
+
+    return oldData;
+  }
+
+  /**
+   * Returns the access counters of the buffer.
+   *
+   * @return the access counters.
+   */
+  public final BufferStatistics getStatistics() {
+    return statistics;
   }
 
   public final Proxy setData(final A address) {
@@ -157,6 +201,9 @@ public abstract class Cache<D extends Data, A extends Address>
 
   @Override
   public void setUseTempState(final boolean value) {
+    // Accesses to the temporary state are not counted.
+    statistics.setSuspended(value);
+
     final boolean isTempStateUsed = savedSets != null;
     if (value == isTempStateUsed) {
       return;
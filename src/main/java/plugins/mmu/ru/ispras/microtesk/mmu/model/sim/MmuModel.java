@@ -17,9 +17,11 @@ package ru.ispras.microtesk.mmu.model.sim;
 import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.microtesk.model.ModelStateManager;
 import ru.ispras.microtesk.model.memory.MemoryDevice;
+import ru.ispras.microtesk.test.Statistics;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,8 +30,9 @@ import java.util.Map;
  *
  * @author <a href="mailto:andrewt@ispras.ru">Andrei Tatarnikov</a>
  */
-public class MmuModel implements ModelStateManager {
+public class MmuModel implements ModelStateManager, Statistics.CounterSource {
   private final Map<String, BufferObserver> buffers;
+  private final Map<String, BufferStatistics> bufferStatistics;
   private final List<ModelStateManager> stateManagers;
   private final MemoryDevice device;
   private final Memory<? extends Data, ? extends Address> target;
@@ -44,6 +47,7 @@ public class MmuModel implements ModelStateManager {
     InvariantChecks.checkNotNull(target);
 
     this.buffers = new HashMap<>();
+    this.bufferStatistics = new LinkedHashMap<>();
     this.stateManagers = new ArrayList<>();
     this.device = device;
     this.target = target;
@@ -55,12 +59,41 @@ public class MmuModel implements ModelStateManager {
     if (buffer instanceof ModelStateManager) {
       stateManagers.add((ModelStateManager) buffer);
     }
+
+    if (buffer instanceof Cache) {
+      bufferStatistics.put(bufferId, ((Cache<?, ?>) buffer).getStatistics());
+    } else if (buffer instanceof RegisterMapping) {
+      bufferStatistics.put(bufferId, ((RegisterMapping<?, ?>) buffer).getStatistics());
+    }
   }
 
   public final BufferObserver getBufferObserver(final String bufferId) {
     return buffers.get(bufferId);
   }
 
+  /**
+   * Returns access counters of the buffers that collect them.
+   *
+   * @return Map from buffer names to their access counters.
+   */
+  public final Map<String, BufferStatistics> getBufferStatistics() {
+    return bufferStatistics;
+  }
+
+  @Override
+  public String getName() {
+    return "MMU Buffer Statistics";
+  }
+
+  @Override
+  public Map<String, Map<String, Long>> getCounters() {
+    final Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+    for (final Map.Entry<String, BufferStatistics> entry : bufferStatistics.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().toMap());
+    }
+    return result;
+  }
+
   public final MemoryDevice getMmuDevice() {
     return device;
   }
@@ -78,6 +111,12 @@ public class MmuModel implements ModelStateManager {
     for (final ModelStateManager stateManager : stateManagers) {
       stateManager.setUseTempState(value);
     }
+
+    // Buffers that do not manage their state (e.g. register-mapped ones) are accessed
+    // in the temporary state too: their accesses are not counted.
+    for (final BufferStatistics statistics : bufferStatistics.values()) {
+      statistics.setSuspended(value);
+    }
   }
 
   @Override
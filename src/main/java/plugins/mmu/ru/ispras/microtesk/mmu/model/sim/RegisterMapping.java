@@ -18,6 +18,7 @@ import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.util.InvariantChecks;
 import ru.ispras.fortress.util.Pair;
 import ru.ispras.microtesk.model.memory.MemoryDevice;
+import ru.ispras.microtesk.model.tracer.Tracer;
 import ru.ispras.microtesk.test.TestEngine;
 import ru.ispras.microtesk.utils.SparseArray;
 
@@ -45,6 +46,8 @@ public abstract class RegisterMapping<D extends Data, A extends Address>
   private final SparseArray<Buffer<D, A>> sets;
   private BigInteger currentRegisterIndex;
 
+  private final BufferStatistics statistics;
+
   /**
    * The {@link RegisterMappedSet} class is an extension of the {@link Set} class
    * for register-mapped buffers.
@@ -174,6 +177,7 @@ public abstract class RegisterMapping<D extends Data, A extends Address>
 
     this.sets = new SparseArray<>(length);
     this.currentRegisterIndex = BigInteger.ZERO;
+    this.statistics = new BufferStatistics();
 
     for (BigInteger index = BigInteger.ZERO;
          index.compareTo(length) < 0;
@@ -190,29 +194,52 @@ public abstract class RegisterMapping<D extends Data, A extends Address>
 
   @Override
   public final boolean isHit(final A address) {
-    final Buffer<D, A> set = getSet(address);
-    return null != set && set.isHit(address);
+    final boolean isHit = lookup(address);
+    statistics.incHitsOrMisses(isHit);
+
+    if (Tracer.isBufferAccessEnabled()) {
+      Tracer.addBufferAccess(getClass().getSimpleName(), address.getValue(), isHit);
+    }
+
+    return isHit;
   }
 
   @Override
   public final boolean isHit(final BitVector value) {
     final A address = newAddress();
     address.getValue().assign(value);
-    return isHit(address);
+    return lookup(address);
+  }
+
+  private boolean lookup(final A address) {
+    final Buffer<D, A> set = getSet(address);
+    return null != set && set.isHit(address);
   }
 
   @Override
   public final D getData(final A address) {
     final Buffer<D, A> set = getSet(address);
+    statistics.incReads();
     return set.getData(address);
   }
 
   @Override
   public final D setData(final A address, final D data) {
     final Buffer<D, A> set = getSet(address);
+    statistics.incWrites();
     return set.setData(address, data);
   }
 
+  /**
+   * Returns the access counters of the buffer. Evictions are not counted for register-mapped
+   * buffers as replaced data are not tracked.
+   *
+   * @return the access counters.
+   */
+  public final BufferStatistics getStatistics() {
+    return statistics;
+  }
+
   public final Proxy setData(final A address) {
     return new Proxy(address);
   }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.mmu.model.sim;
+
+/**
+ * This is an interface of a line matcher that compares {@code long} tags extracted from
+ * the data and from the address. For any data and address, {@link #areMatching} must return
+ * {@code true} if and only if their tags are equal.
+ *
+ * <p>Caches that use such matchers store lines in {@link TagSet} objects, which check hits
+ * by comparing primitive values.</p>
+ *
+ * @param <D> the data type.
+ * @param <A> the address type.
+ */
+public interface TagMatcher<D, A extends Address> extends Matcher<D, A> {
+  /**
+   * Returns the tag of the given address.
+   *
+   * @param address the address.
+   * @return the address tag.
+   */
+  long getAddressTag(final A address);
+
+  /**
+   * Returns the tag of the given data.
+   *
+   * @param data the data.
+   * @return the data tag.
+   */
+  long getDataTag(final D data);
+}
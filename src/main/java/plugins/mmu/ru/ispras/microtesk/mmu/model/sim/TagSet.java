@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.mmu.model.sim;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.fortress.util.Pair;
+
+/**
+ * This class implements a cache set whose lines are matched by {@code long} tags
+ * (see {@link TagMatcher}). A hit check extracts the address tag once and compares it with
+ * the tags of the lines, which are extracted on each lookup: lines returned by
+ * {@link #getData} can be modified in place.
+ *
+ * @param <D> the data type.
+ * @param <A> the address type.
+ */
+final class TagSet<D extends Data, A extends Address> implements Buffer<D, A> {
+  /** The data of the lines ({@code null} for invalid lines). */
+  private final Object[] data;
+
+  /** The addresses of the data. */
+  private final Object[] addresses;
+
+  /** The data replacement policy. */
+  private final Policy policy;
+
+  /** The tag matcher. */
+  private final TagMatcher<D, A> matcher;
+
+  /**
+   * Constructs a cache set of the given associativity.
+   *
+   * @param associativity the number of lines in the set.
+   * @param policyId the identifier of the data replacement policy.
+   * @param matcher the tag matcher.
+   */
+  public TagSet(
+      final int associativity,
+      final PolicyId policyId,
+      final TagMatcher<D, A> matcher) {
+    InvariantChecks.checkGreaterThanZero(associativity);
+    InvariantChecks.checkNotNull(policyId);
+    InvariantChecks.checkNotNull(matcher);
+
+    this.data = new Object[associativity];
+    this.addresses = new Object[associativity];
+    this.policy = policyId.newPolicy(associativity);
+    this.matcher = matcher;
+  }
+
+  @Override
+  public boolean isHit(final A address) {
+    return getLineIndex(address) != -1;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public D getData(final A address) {
+    final int index = getLineIndex(address);
+    return index != -1 ? (D) data[index] : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public D setData(final A address, final D newData) {
+    int index = getLineIndex(address);
+
+    // If there is a miss, choose a victim.
+    if (index == -1) {
+      if (null != policy) {
+        index = policy.chooseVictim();
+      } else {
+        InvariantChecks.checkTrue(1 == data.length);
+        index = 0;
+      }
+    }
+
+    final D oldData = (D) data[index];
+
+    data[index] = newData;
+    addresses[index] = address;
+
+    return oldData;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Pair<BitVector, BitVector> seeData(final BitVector index, final BitVector way) {
+    final int line = way.intValue();
+    final A address = (A) addresses[line];
+    final D lineData = (D) data[line];
+
+    return null != address && null != lineData
+        ? new Pair<>(address.getValue(), lineData.asBitVector())
+        : null
+        ;
+  }
+
+  /**
+   * Returns the index of the line associated with the given address.
+   *
+   * @param address the data address.
+   * @return the line index if the line exists; {@code -1} otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  private int getLineIndex(final A address) {
+    final long tag = matcher.getAddressTag(address);
+    int index = -1;
+
+    for (int i = 0; i < data.length; i++) {
+      if (null != data[i] && matcher.getDataTag((D) data[i]) == tag) {
+        if (index != -1) {
+          throw new IllegalStateException(
+              String.format("Multiple hits in a cache set. Address=%s:0x%s, Lines=%s",
+              address.getClass().getSimpleName(),
+              address.getValue().toHexString(),
+              toString()
+              ));
+        }
+
+        index = i;
+      }
+    }
+
+    if (index != -1 && policy != null) {
+      policy.accessLine(index);
+    }
+
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("Set [");
+
+    for (int index = 0; index < data.length; index++) {
+      if (0 != index) {
+        sb.append(", ");
+      }
+
+      sb.append(String.format("%d: Line [data=%s]", index, data[index]));
+    }
+
+    sb.append(']');
+    return sb.toString();
+  }
+}
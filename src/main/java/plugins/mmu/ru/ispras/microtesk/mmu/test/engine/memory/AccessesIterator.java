@@ -24,6 +24,8 @@ import ru.ispras.testbase.knowledge.iterator.Iterator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * {@link AccessesIterator} implements an iterator of memory accesses.
@@ -44,8 +46,9 @@ public final class AccessesIterator implements Iterator<List<Access>> {
       @Override
       public DependencyIterator getDependencyIterator(
           final Access access1,
-          final Access access2) {
-        return new DependencyIteratorRandom(access1, access2);
+          final Access access2,
+          final ForkJoinPool pool) {
+        return new DependencyIteratorRandom(access1, access2, pool);
       }
     },
 
@@ -59,8 +62,9 @@ public final class AccessesIterator implements Iterator<List<Access>> {
       @Override
       public DependencyIterator getDependencyIterator(
           final Access access1,
-          final Access access2) {
-        return new DependencyIteratorExhaustive(access1, access2);
+          final Access access2,
+          final ForkJoinPool pool) {
+        return new DependencyIteratorExhaustive(access1, access2, pool);
       }
     };
 
@@ -69,7 +73,8 @@ public final class AccessesIterator implements Iterator<List<Access>> {
 
     public abstract DependencyIterator getDependencyIterator(
         final Access access1,
-        final Access access2);
+        final Access access2,
+        final ForkJoinPool pool);
   }
 
   private final List<MemoryAccessType> accessTypes;
@@ -79,6 +84,9 @@ public final class AccessesIterator implements Iterator<List<Access>> {
 
   private final Mode mode;
 
+  /** Thread pool to check dependencies in parallel ({@code null} if checks are sequential). */
+  private final ForkJoinPool pool;
+
   private boolean hasValue;
   private boolean enoughDependencies;
 
@@ -90,7 +98,8 @@ public final class AccessesIterator implements Iterator<List<Access>> {
       final List<AccessConstraints> accessConstraints,
       final AccessConstraints globalConstraints,
       final int recursionLimit,
-      final Mode mode) {
+      final Mode mode,
+      final ForkJoinPool pool) {
     InvariantChecks.checkNotNull(abstraction);
     InvariantChecks.checkNotNull(accessTypes);
     InvariantChecks.checkNotNull(accessConstraints);
@@ -103,6 +112,7 @@ public final class AccessesIterator implements Iterator<List<Access>> {
 
     this.accessTypes = accessTypes;
     this.mode = mode;
+    this.pool = pool;
 
     final List<Collection<AccessChooser>> accessChoosers = new ArrayList<>(size);
 
@@ -215,13 +225,20 @@ public final class AccessesIterator implements Iterator<List<Access>> {
   private boolean initDependencies() {
     final int size = accessTypes.size();
 
+    if (pool != null) {
+      constructDependencyIterators();
+    }
+
     for (int i = 0; i < size - 1; i++) {
       final Access access1 = accesses.get(i);
 
       for (int j = i + 1; j < size; j++) {
         final Access access2 = accesses.get(j);
 
-        dependencyIterators[i][j] = mode.getDependencyIterator(access1, access2);
+        if (pool == null) {
+          dependencyIterators[i][j] = mode.getDependencyIterator(access1, access2, null);
+        }
+
         dependencyIterators[i][j].init();
 
         if (!dependencyIterators[i][j].hasValue()) {
@@ -235,6 +252,36 @@ public final class AccessesIterator implements Iterator<List<Access>> {
     return true;
   }
 
+  private void constructDependencyIterators() {
+    final int size = accessTypes.size();
+    final List<Callable<DependencyIterator>> tasks = new ArrayList<>();
+
+    for (int i = 0; i < size - 1; i++) {
+      final Access access1 = accesses.get(i);
+
+      for (int j = i + 1; j < size; j++) {
+        final Access access2 = accesses.get(j);
+
+        tasks.add(new Callable<DependencyIterator>() {
+          @Override
+          public DependencyIterator call() {
+            return mode.getDependencyIterator(access1, access2, pool);
+          }
+        });
+      }
+    }
+
+    // Iterators are stored in the order of the sequential construction.
+    final List<DependencyIterator> iterators = MemoryEngineUtils.invokeAll(pool, tasks);
+
+    int index = 0;
+    for (int i = 0; i < size - 1; i++) {
+      for (int j = i + 1; j < size; j++) {
+        dependencyIterators[i][j] = iterators.get(index++);
+      }
+    }
+  }
+
   private boolean nextDependencies() {
     if (enoughDependencies) {
       return false;
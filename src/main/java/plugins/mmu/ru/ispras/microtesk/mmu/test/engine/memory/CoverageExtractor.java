@@ -23,13 +23,27 @@ import ru.ispras.microtesk.mmu.model.spec.MmuSubsystem;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * {@link CoverageExtractor} builds and caches memory access path choosers.
+ *
+ * <p>Trajectories are extracted once for each memory access type and graph abstraction. Path
+ * choosers are cached for each combination of the access type, the abstraction, the recursion
+ * limit and the constraints. A chooser remembers the feasible paths it has found, which allows
+ * reusing them in subsequent sequences and programs instead of exploring the MMU graph again.
+ * Constraints are compared by identity: they are specified in test templates and the same
+ * object is used each time a template call is processed. The cache of constrained choosers
+ * is bounded. All caches are cleared if the MMU specification changes.</p>
+ *
  * @author <a href="mailto:kamkin@ispras.ru">Alexander Kamkin</a>
  */
 public final class CoverageExtractor {
+  /** Maximum number of cached choosers for constrained accesses. */
+  private static final int CONSTRAINED_CHOOSERS_CAPACITY = 1024;
+
   private CoverageExtractor() {}
 
   private static final CoverageExtractor instance = new CoverageExtractor();
@@ -38,15 +52,104 @@ public final class CoverageExtractor {
     return instance;
   }
 
-  private final Map<MemoryAccessType, TrajectoryExtractor.Result> trajectories = new HashMap<>();
-  private final Map<MemoryAccessType, List<AccessChooser>> pathChoosers = new HashMap<>();
+  private static final class TrajectoryKey {
+    private final GraphAbstraction abstraction;
+    private final MemoryAccessType type;
+
+    private TrajectoryKey(final GraphAbstraction abstraction, final MemoryAccessType type) {
+      this.abstraction = abstraction;
+      this.type = type;
+    }
+
+    @Override
+    public int hashCode() {
+      return abstraction.hashCode() * 31 + type.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof TrajectoryKey)) {
+        return false;
+      }
+
+      final TrajectoryKey other = (TrajectoryKey) o;
+      return abstraction == other.abstraction && type.equals(other.type);
+    }
+  }
+
+  private static final class ChooserKey {
+    private final TrajectoryKey trajectoryKey;
+    private final AccessConstraints constraints;
+    private final int recursionLimit;
+    private final boolean discardEmptyTrajectories;
+
+    private ChooserKey(
+        final TrajectoryKey trajectoryKey,
+        final AccessConstraints constraints,
+        final int recursionLimit,
+        final boolean discardEmptyTrajectories) {
+      this.trajectoryKey = trajectoryKey;
+      this.constraints = constraints;
+      this.recursionLimit = recursionLimit;
+      this.discardEmptyTrajectories = discardEmptyTrajectories;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = trajectoryKey.hashCode();
+      result = result * 31 + System.identityHashCode(constraints);
+      result = result * 31 + recursionLimit;
+      return result * 31 + (discardEmptyTrajectories ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof ChooserKey)) {
+        return false;
+      }
+
+      final ChooserKey other = (ChooserKey) o;
+      return trajectoryKey.equals(other.trajectoryKey)
+          && constraints == other.constraints
+          && recursionLimit == other.recursionLimit
+          && discardEmptyTrajectories == other.discardEmptyTrajectories;
+    }
+  }
+
+  /** Specification the cached data were built for. */
+  private MmuSubsystem cachedMemory = null;
+
+  private final Map<TrajectoryKey, TrajectoryExtractor.Result> trajectories = new HashMap<>();
+  private final Map<ChooserKey, List<AccessChooser>> pathChoosers = new HashMap<>();
+
+  private final Map<ChooserKey, List<AccessChooser>> constrainedPathChoosers =
+      new LinkedHashMap<ChooserKey, List<AccessChooser>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<ChooserKey, List<AccessChooser>> eldest) {
+          return size() > CONSTRAINED_CHOOSERS_CAPACITY;
+        }
+      };
+
+  private void checkMemory(final MmuSubsystem memory) {
+    if (memory != cachedMemory) {
+      trajectories.clear();
+      pathChoosers.clear();
+      constrainedPathChoosers.clear();
+      cachedMemory = memory;
+    }
+  }
 
   private TrajectoryExtractor.Result getTrajectories(
       final MmuSubsystem memory,
       final GraphAbstraction abstraction,
       final MemoryAccessType type) {
+    checkMemory(memory);
 
-    final TrajectoryExtractor.Result cachedResult = trajectories.get(type);
+    final TrajectoryKey key = new TrajectoryKey(abstraction, type);
+    final TrajectoryExtractor.Result cachedResult = trajectories.get(key);
 
     if (cachedResult != null) {
       return cachedResult;
@@ -64,7 +167,7 @@ public final class CoverageExtractor {
       );
     }
 
-    trajectories.put(type, result);
+    trajectories.put(key, result);
 
     return result;
   }
@@ -106,13 +209,21 @@ public final class CoverageExtractor {
     InvariantChecks.checkNotNull(type);
     InvariantChecks.checkNotNull(constraints);
 
-    // Only unconstrained path choosers are cached.
-    if (constraints.isEmpty()) {
-      final List<AccessChooser> cachedChoosers = pathChoosers.get(type);
+    checkMemory(memory);
 
-      if (cachedChoosers != null) {
-        return cachedChoosers;
-      }
+    final ChooserKey key = new ChooserKey(
+        new TrajectoryKey(abstraction, type),
+        constraints.isEmpty() ? AccessConstraints.EMPTY : constraints,
+        recursionLimit,
+        discardEmptyTrajectories
+        );
+
+    final Map<ChooserKey, List<AccessChooser>> cache =
+        constraints.isEmpty() ? pathChoosers : constrainedPathChoosers;
+
+    final List<AccessChooser> cachedChoosers = cache.get(key);
+    if (cachedChoosers != null) {
+      return cachedChoosers;
     }
 
     final TrajectoryExtractor.Result result = getTrajectories(memory, abstraction, type);
@@ -134,11 +245,7 @@ public final class CoverageExtractor {
       );
     }
 
-    if (constraints.isEmpty()) {
-      pathChoosers.put(type, choosers);
-    }
-
+    cache.put(key, choosers);
     return choosers;
   }
 }
-
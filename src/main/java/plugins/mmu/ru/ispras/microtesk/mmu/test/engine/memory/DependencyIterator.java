@@ -26,6 +26,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * {@link DependencyIterator} is a base iterator of dependencies between two memory accesses.
@@ -36,14 +38,24 @@ public abstract class DependencyIterator implements Iterator<BufferDependency> {
 
   protected final BufferDependency[] allPossibleDependencies;
 
-  protected DependencyIterator(final Access access1, final Access access2) {
+  /**
+   * Constructs an iterator of dependencies between two memory accesses.
+   *
+   * @param access1 the first access.
+   * @param access2 the second access.
+   * @param pool the thread pool to check dependencies in parallel or {@code null}.
+   */
+  protected DependencyIterator(
+      final Access access1,
+      final Access access2,
+      final ForkJoinPool pool) {
     InvariantChecks.checkNotNull(access1);
     InvariantChecks.checkFalse(access1.hasDependencies());
 
     InvariantChecks.checkNotNull(access2);
     InvariantChecks.checkFalse(access2.hasDependencies());
 
-    this.allPossibleDependencies = enumerateAllPossibleDependencies(access1, access2);
+    this.allPossibleDependencies = enumerateAllPossibleDependencies(access1, access2, pool);
   }
 
   @Override
@@ -53,7 +65,8 @@ public abstract class DependencyIterator implements Iterator<BufferDependency> {
 
   private static BufferDependency[] enumerateAllPossibleDependencies(
       final Access access1,
-      final Access access2) {
+      final Access access2,
+      final ForkJoinPool pool) {
     final Collection<MmuBufferAccess> bufferAccesses1 = access1.getPath().getBufferReads();
     final Collection<MmuBufferAccess> bufferAccesses2 = access2.getPath().getBufferReads();
 
@@ -103,7 +116,7 @@ public abstract class DependencyIterator implements Iterator<BufferDependency> {
           }
 
           bufferDependencies = refineDependencies(
-              bufferDependencies, access1, access2, hazardInstances);
+              bufferDependencies, access1, access2, hazardInstances, pool);
 
           if (bufferDependencies.isEmpty()) {
             Logger.debug("Possible dependencies: break");
@@ -121,32 +134,47 @@ public abstract class DependencyIterator implements Iterator<BufferDependency> {
       final Collection<BufferDependency> oldDependencies,
       final Access access1,
       final Access access2,
-      final Collection<BufferHazard.Instance> hazards) {
+      final Collection<BufferHazard.Instance> hazards,
+      final ForkJoinPool pool) {
 
     if (hazards.isEmpty()) {
       return oldDependencies;
     }
 
-    final Collection<BufferDependency> newDependencies =
-        new ArrayList<>(oldDependencies.size() * hazards.size());
+    final int size = oldDependencies.size() * hazards.size();
+    final List<BufferDependency> candidates = new ArrayList<>(size);
+    final List<Callable<Boolean>> checks = new ArrayList<>(size);
 
     for (final BufferDependency oldDependency : oldDependencies) {
       for (final BufferHazard.Instance hazard : hazards) {
         final BufferDependency newDependency = new BufferDependency(oldDependency);
         newDependency.addHazard(hazard);
 
-        final List<Access> structure = new ArrayList<>();
+        candidates.add(newDependency);
+        checks.add(new Callable<Boolean>() {
+          @Override
+          public Boolean call() {
+            // The dependency is set to a copy: checks can be run in parallel.
+            final Access dependentAccess = new Access(access2);
+            dependentAccess.setDependency(0, newDependency);
 
-        structure.add(access1);
-        structure.add(access2);
+            final List<Access> structure = new ArrayList<>();
 
-        access2.setDependency(0, newDependency);
+            structure.add(access1);
+            structure.add(dependentAccess);
 
-        if (MemoryEngineUtils.isFeasibleStructure(structure)) {
-          newDependencies.add(newDependency);
-        }
+            return MemoryEngineUtils.isFeasibleStructure(structure);
+          }
+        });
+      }
+    }
+
+    final List<Boolean> feasibility = MemoryEngineUtils.invokeAll(pool, checks);
+    final Collection<BufferDependency> newDependencies = new ArrayList<>(candidates.size());
 
-        access2.clearDependencies();
+    for (int i = 0; i < candidates.size(); i++) {
+      if (feasibility.get(i)) {
+        newDependencies.add(candidates.get(i));
       }
     }
 
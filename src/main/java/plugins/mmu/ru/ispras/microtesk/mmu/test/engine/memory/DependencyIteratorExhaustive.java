@@ -14,6 +14,8 @@
 
 package ru.ispras.microtesk.mmu.test.engine.memory;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * {@link DependencyIteratorExhaustive} implements an exhaustive iterator of dependencies
  * between two memory accesses.
@@ -26,8 +28,9 @@ public final class DependencyIteratorExhaustive extends DependencyIterator {
 
   public DependencyIteratorExhaustive(
       final Access access1,
-      final Access access2) {
-    super(access1, access2);
+      final Access access2,
+      final ForkJoinPool pool) {
+    super(access1, access2, pool);
   }
 
   @Override
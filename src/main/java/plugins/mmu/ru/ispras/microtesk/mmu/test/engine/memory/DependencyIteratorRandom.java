@@ -16,6 +16,8 @@ package ru.ispras.microtesk.mmu.test.engine.memory;
 
 import ru.ispras.fortress.randomizer.Randomizer;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * {@link DependencyIteratorRandom} implements a random iterator of dependencies between
  * two memory accesses.
@@ -28,8 +30,9 @@ public final class DependencyIteratorRandom extends DependencyIterator {
 
   public DependencyIteratorRandom(
       final Access access1,
-      final Access access2) {
-    super(access1, access2);
+      final Access access2,
+      final ForkJoinPool pool) {
+    super(access1, access2, pool);
   }
 
   @Override
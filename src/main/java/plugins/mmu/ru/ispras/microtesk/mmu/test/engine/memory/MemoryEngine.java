@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * {@link MemoryEngine} implements a test engine for memory management units (MMU).
@@ -108,11 +109,31 @@ public final class MemoryEngine implements Engine {
     }
   }
 
+  static final class ParamThreads extends EngineParameter<Integer> {
+    ParamThreads() {
+      super("threads");
+    }
+
+    @Override
+    public Integer getValue(final Object option) {
+      final Number number = (option instanceof Number)
+          ? (Number) option : Integer.parseInt(option.toString(), 10);
+
+      return number.intValue();
+    }
+
+    @Override
+    public Integer getDefaultValue() {
+      return 1;
+    }
+  }
+
   static final ParamAbstraction PARAM_ABSTRACTION = new ParamAbstraction();
   static final ParamPreparator PARAM_PREPARATOR = new ParamPreparator();
   static final ParamIterator PARAM_ITERATOR = new ParamIterator();
   static final ParamRecursionLimit PARAM_RECURSION_LIMIT = new ParamRecursionLimit();
   static final ParamCount PARAM_COUNT = new ParamCount();
+  static final ParamThreads PARAM_THREADS = new ParamThreads();
 
   private static MemoryOperation getOperation(final AbstractCall abstractCall) {
     for (final Primitive primitive : abstractCall.getCommands()) {
@@ -175,6 +196,13 @@ public final class MemoryEngine implements Engine {
   private AccessesIterator.Mode iterator = PARAM_ITERATOR.getDefaultValue();
   private int recursionLimit = PARAM_RECURSION_LIMIT.getDefaultValue();
   private int count = PARAM_COUNT.getDefaultValue();
+  private int threads = PARAM_THREADS.getDefaultValue();
+
+  /**
+   * Thread pool to check memory access dependencies ({@code null} if there is one thread or the
+   * pool has not been requested in the current program).
+   */
+  private ForkJoinPool pool = null;
 
   private final SequenceSelector sequenceSelector = new SequenceSelector(ID);
 
@@ -197,18 +225,48 @@ public final class MemoryEngine implements Engine {
     iterator = PARAM_ITERATOR.parse(attributes.get(PARAM_ITERATOR.getName()));
     recursionLimit = PARAM_RECURSION_LIMIT.parse(attributes.get(PARAM_RECURSION_LIMIT.getName()));
     count = PARAM_COUNT.parse(attributes.get(PARAM_COUNT.getName()));
+    threads = PARAM_THREADS.parse(attributes.get(PARAM_THREADS.getName()));
 
-    Logger.debug("Memory engine configuration: %s=%s, %s=%b, %s=%s, %s=%d, %s=%d",
+    Logger.debug("Memory engine configuration: %s=%s, %s=%b, %s=%s, %s=%d, %s=%d, %s=%d",
         PARAM_ABSTRACTION, abstraction,
         PARAM_PREPARATOR, preparator,
         PARAM_ITERATOR, iterator,
         PARAM_RECURSION_LIMIT, recursionLimit,
-        PARAM_COUNT, count);
+        PARAM_COUNT, count,
+        PARAM_THREADS, threads);
 
     // If count is -1, there is no limit.
     InvariantChecks.checkTrue(count == -1 || count >= 0);
     // The random iterator needs to be limited.
     InvariantChecks.checkTrue(count != -1 || iterator != AccessesIterator.Mode.RANDOM);
+    // If threads is 0, the number of available processors is used.
+    InvariantChecks.checkTrue(threads >= 0);
+
+    // The pool is recreated on demand if the number of threads has changed.
+    if (pool != null && pool.getParallelism() != getParallelism()) {
+      shutdownPool();
+    }
+  }
+
+  private int getParallelism() {
+    return threads != 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+
+  private ForkJoinPool getPool() {
+    final int parallelism = getParallelism();
+
+    if (pool == null && parallelism > 1) {
+      pool = new ForkJoinPool(parallelism);
+    }
+
+    return pool;
+  }
+
+  private void shutdownPool() {
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
   }
 
   @Override
@@ -253,7 +311,8 @@ public final class MemoryEngine implements Engine {
             accessConstraints,
             globalConstraints,
             recursionLimit,
-            iterator
+            iterator,
+            getPool()
         );
 
     final Iterator<AbstractSequence> solutionIterator =
@@ -312,5 +371,8 @@ public final class MemoryEngine implements Engine {
   public void onStartProgram() {}
 
   @Override
-  public void onEndProgram() {}
+  public void onEndProgram() {
+    // The solutions are not requested after the program end.
+    shutdownPool();
+  }
 }
@@ -26,6 +26,7 @@ import ru.ispras.microtesk.basis.solver.bitvector.BitVectorFormulaBuilder;
 import ru.ispras.microtesk.basis.solver.bitvector.BitVectorFormulaProblemSat4j;
 import ru.ispras.microtesk.basis.solver.bitvector.BitVectorFormulaSolverSat4j;
 import ru.ispras.microtesk.basis.solver.bitvector.BitVectorVariableInitializer;
+import ru.ispras.microtesk.basis.solver.bitvector.Sat4jIncrementalSolver;
 import ru.ispras.microtesk.mmu.basis.BufferAccessEvent;
 import ru.ispras.microtesk.mmu.basis.MemoryAccessContext;
 import ru.ispras.microtesk.mmu.basis.MemoryAccessType;
@@ -40,11 +41,16 @@ import ru.ispras.microtesk.mmu.model.spec.MmuTransition;
 import ru.ispras.microtesk.settings.RegionSettings;
 import ru.ispras.microtesk.utils.FortressUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * {@link MemoryEngineUtils} implements utilities used in the memory engine.
@@ -54,6 +60,19 @@ import java.util.Set;
 public final class MemoryEngineUtils {
   private MemoryEngineUtils() {}
 
+  /**
+   * Retained SAT solvers used for checking feasibility of memory access path prefixes. During
+   * the search, formulae of neighboring prefixes share most of the clauses, which allows
+   * solving them incrementally.
+   */
+  private static final ThreadLocal<Sat4jIncrementalSolver> incrementalSolver =
+      new ThreadLocal<Sat4jIncrementalSolver>() {
+        @Override
+        protected Sat4jIncrementalSolver initialValue() {
+          return new Sat4jIncrementalSolver();
+        }
+      };
+
   public static boolean isValidTransition(
       final MmuTransition transition,
       final MemoryAccessType type) {
@@ -256,7 +275,8 @@ public final class MemoryEngineUtils {
 
     final BitVectorFormulaBuilder builder = symbolicResult.getBuilder();
 
-    final Solver<Map<Variable, BitVector>> solver = newSolver(builder, initializer);
+    final Solver<Map<Variable, BitVector>> solver =
+        new BitVectorFormulaSolverSat4j(builder, initializer, incrementalSolver.get());
     final SolverResult<Map<Variable, BitVector>> result = solver.solve(mode);
 
     if (result.getStatus() != SolverResult.Status.SAT && mode == Solver.Mode.MAP) {
@@ -342,6 +362,75 @@ public final class MemoryEngineUtils {
     return solver.solve(mode);
   }
 
+  /**
+   * Runs the given tasks and returns their results in the order of the tasks.
+   *
+   * <p>If the pool is {@code null}, the tasks are run one by one in the current thread.
+   * Otherwise, they are run in the pool (which uses work stealing); tasks may run nested
+   * tasks in the same pool. Tasks must not depend on each other or on the order of their
+   * execution. Since the results are ordered, they do not depend on the number of threads.</p>
+   *
+   * @param pool the thread pool or {@code null}.
+   * @param tasks the tasks to be run.
+   * @param <T> the result type.
+   * @return the results of the tasks.
+   */
+  public static <T> List<T> invokeAll(
+      final ForkJoinPool pool,
+      final List<? extends Callable<T>> tasks) {
+    InvariantChecks.checkNotNull(tasks);
+
+    if (null == pool || tasks.size() <= 1) {
+      final List<T> results = new ArrayList<>(tasks.size());
+      for (final Callable<T> task : tasks) {
+        results.add(call(task));
+      }
+      return results;
+    }
+
+    final RecursiveTask<List<T>> rootTask = new RecursiveTask<List<T>>() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected List<T> compute() {
+        final List<RecursiveTask<T>> forkJoinTasks = new ArrayList<>(tasks.size());
+
+        for (final Callable<T> task : tasks) {
+          forkJoinTasks.add(new RecursiveTask<T>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected T compute() {
+              return call(task);
+            }
+          });
+        }
+
+        ForkJoinTask.invokeAll(forkJoinTasks);
+
+        final List<T> results = new ArrayList<>(tasks.size());
+        for (final RecursiveTask<T> forkJoinTask : forkJoinTasks) {
+          results.add(forkJoinTask.join());
+        }
+
+        return results;
+      }
+    };
+
+    // Nested calls are made from worker threads of the pool and fork subtasks directly.
+    return ForkJoinTask.inForkJoinPool() ? rootTask.invoke() : pool.invoke(rootTask);
+  }
+
+  private static <T> T call(final Callable<T> task) {
+    try {
+      return task.call();
+    } catch (final RuntimeException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   public static BitVectorFormulaBuilder newFormulaBuilder() {
     return new BitVectorFormulaProblemSat4j();
   }
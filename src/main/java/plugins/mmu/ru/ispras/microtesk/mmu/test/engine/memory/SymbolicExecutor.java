@@ -53,6 +53,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link SymbolicExecutor} implements a simple symbolic executor of memory access structures.
@@ -1102,7 +1103,7 @@ public final class SymbolicExecutor {
     return null;
   }
 
-  private static int uniqueId = 0;
+  private static final AtomicInteger uniqueId = new AtomicInteger();
 
   private static int getWidth(final int size) {
     int width = 0;
@@ -1120,7 +1121,7 @@ public final class SymbolicExecutor {
   }
 
   private static Node getPhiField(final int width) {
-    final String name = String.format("phi_%d", uniqueId++);
+    final String name = String.format("phi_%d", uniqueId.getAndIncrement());
     final Variable variable = new Variable(name, DataType.bitVector(width));
 
     return new NodeVariable(variable);
@@ -22,8 +22,12 @@ import ru.ispras.fortress.data.DataTypeId;
 import ru.ispras.fortress.data.types.bitvector.BitVector;
 import ru.ispras.fortress.expression.ExprUtils;
 import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeOperation;
 import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.expression.StandardOperation;
 import ru.ispras.fortress.util.InvariantChecks;
+import ru.ispras.fortress.util.Pair;
 
 import ru.ispras.microtesk.mmu.translator.ir.Buffer;
 import ru.ispras.microtesk.mmu.translator.ir.Ir;
@@ -147,9 +151,89 @@ final class StbBuffer extends StbCommon implements StringTemplateBuilder {
     stMatcher.add("data_name", DATA_NAME);
     stMatcher.add("expr", matchToString(buffer.getMatch()));
 
+    final Pair<Node, Node> tags = getTags(buffer.getMatch());
+    if (null != tags) {
+      stMatcher.add("addr_tag", ExprPrinter.get().toString(tags.first));
+      stMatcher.add("data_tag", ExprPrinter.get().toString(tags.second));
+    }
+
     st.add("members", stMatcher);
   }
 
+  /**
+   * Checks whether the match expression compares a field of the address with a field
+   * of the data and both fields fit in 64 bits. Such buffers use tag matchers.
+   *
+   * @param expr Match expression.
+   * @return Pair(address tag, data tag) or {@code null} if the expression has another form.
+   */
+  private Pair<Node, Node> getTags(final Node expr) {
+    if (!ExprUtils.isOperation(expr, StandardOperation.EQ)) {
+      return null;
+    }
+
+    final NodeOperation operation = (NodeOperation) expr;
+    if (operation.getOperandCount() != 2) {
+      return null;
+    }
+
+    final Node left = operation.getOperand(0);
+    final Node right = operation.getOperand(1);
+
+    if (!isTag(left) || !isTag(right)
+        || left.getDataType().getSize() != right.getDataType().getSize()) {
+      return null;
+    }
+
+    final String addressName = buffer.getAddressArg().getName();
+    final String dataName = buffer.getDataArg().getName();
+
+    if (dependsOnlyOn(left, addressName) && dependsOnlyOn(right, dataName)) {
+      return new Pair<>(left, right);
+    }
+
+    if (dependsOnlyOn(left, dataName) && dependsOnlyOn(right, addressName)) {
+      return new Pair<>(right, left);
+    }
+
+    return null;
+  }
+
+  private static boolean isTag(final Node expr) {
+    return expr.isType(DataTypeId.BIT_VECTOR) && expr.getDataType().getSize() <= Long.SIZE;
+  }
+
+  private static boolean dependsOnlyOn(final Node expr, final String name) {
+    switch (expr.getKind()) {
+      case VALUE:
+        return true;
+
+      case VARIABLE: {
+        final NodeVariable variable = (NodeVariable) expr;
+        if (null != variable.getUserData()) {
+          return false;
+        }
+
+        final String variableName = variable.getName();
+        return variableName.equals(name) || variableName.startsWith(name + ".");
+      }
+
+      case OPERATION: {
+        boolean hasVariables = false;
+        for (final Node operand : ((NodeOperation) expr).getOperands()) {
+          if (!dependsOnlyOn(operand, name)) {
+            return false;
+          }
+          hasVariables |= operand.getKind() != Node.Kind.VALUE;
+        }
+        return hasVariables;
+      }
+
+      default:
+        return false;
+    }
+  }
+
   private void buildConstructor(final ST st, final STGroup group) {
     buildNewLine(st);
     final ST stConstructor = group.getInstanceOf("buffer_constructor");
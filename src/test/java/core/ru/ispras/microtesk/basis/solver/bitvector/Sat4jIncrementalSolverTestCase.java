@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.basis.solver.bitvector;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.TimeoutException;
+
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.Variable;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.expression.Nodes;
+import ru.ispras.microtesk.basis.solver.Solver;
+import ru.ispras.microtesk.basis.solver.SolverResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public final class Sat4jIncrementalSolverTestCase {
+  @Test
+  public void testPushPop() throws TimeoutException {
+    final Sat4jIncrementalSolver solver = new Sat4jIncrementalSolver();
+
+    // x1 | x2
+    solver.addClause(new VecInt(new int[] {1, 2}));
+    Assert.assertTrue(solver.isSatisfiable());
+
+    solver.push();
+    solver.addClause(new VecInt(new int[] {-1}));
+    solver.addClause(new VecInt(new int[] {-2}));
+    Assert.assertEquals(1, solver.getLevel());
+    Assert.assertFalse(solver.isSatisfiable());
+
+    solver.pop();
+    Assert.assertEquals(0, solver.getLevel());
+    Assert.assertTrue(solver.isSatisfiable());
+
+    // Assumptions are applied only to the current check.
+    Assert.assertFalse(solver.isSatisfiable(new VecInt(new int[] {-1, -2})));
+    Assert.assertTrue(solver.isSatisfiable(new VecInt(new int[] {-1})));
+    Assert.assertFalse(solver.getSolver().model(1));
+    Assert.assertTrue(solver.getSolver().model(2));
+  }
+
+  @Test
+  public void testLoad() {
+    final int bitSize = 16;
+    final Sat4jIncrementalSolver incrementalSolver = new Sat4jIncrementalSolver();
+    final Random random = new Random(0);
+
+    final List<Variable> variables = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      variables.add(new Variable("x" + i, DataType.bitVector(bitSize)));
+    }
+
+    for (int n = 0; n < 50; n++) {
+      // Formulae are extended step by step; copies share clauses of the original.
+      BitVectorFormulaProblemSat4j problem = new BitVectorFormulaProblemSat4j();
+
+      for (int step = 0; step < 8; step++) {
+        final BitVectorFormulaProblemSat4j extended = new BitVectorFormulaProblemSat4j(problem);
+        extended.addFormula(newEquation(variables, bitSize, random));
+
+        final SolverResult<Map<Variable, BitVector>> expected =
+            new BitVectorFormulaSolverSat4j(extended, BitVectorVariableInitializer.ZEROS)
+                .solve(Solver.Mode.MAP);
+
+        final SolverResult<Map<Variable, BitVector>> actual =
+            new BitVectorFormulaSolverSat4j(
+                extended, BitVectorVariableInitializer.ZEROS, incrementalSolver)
+                    .solve(Solver.Mode.MAP);
+
+        Assert.assertEquals(expected.getStatus(), actual.getStatus());
+
+        if (actual.getStatus() == SolverResult.Status.SAT) {
+          check(extended, actual.getResult());
+          // Backtracking keeps the prefix with a probability of 1/2.
+          if (random.nextBoolean()) {
+            problem = extended;
+          }
+        }
+      }
+    }
+  }
+
+  private static Node newEquation(
+      final List<Variable> variables,
+      final int bitSize,
+      final Random random) {
+    final Variable lhs = variables.get(random.nextInt(variables.size()));
+    final Node rhs = random.nextBoolean()
+        ? new NodeVariable(variables.get(random.nextInt(variables.size())))
+        : NodeValue.newBitVector(BitVector.valueOf(random.nextInt(4), bitSize));
+
+    return random.nextInt(3) == 0
+        ? Nodes.eq(new NodeVariable(lhs), rhs)
+        : Nodes.noteq(new NodeVariable(lhs), rhs);
+  }
+
+  private static void check(
+      final BitVectorFormulaProblemSat4j problem,
+      final Map<Variable, BitVector> solution) {
+    // The solution must satisfy the problem solved from scratch with the values fixed.
+    final BitVectorFormulaProblemSat4j fixed = new BitVectorFormulaProblemSat4j(problem);
+
+    for (final Map.Entry<Variable, BitVector> entry : solution.entrySet()) {
+      fixed.addFormula(Nodes.eq(
+          new NodeVariable(entry.getKey()), NodeValue.newBitVector(entry.getValue())));
+    }
+
+    final SolverResult<Map<Variable, BitVector>> result =
+        new BitVectorFormulaSolverSat4j(fixed, BitVectorVariableInitializer.ZEROS)
+            .solve(Solver.Mode.SAT);
+
+    Assert.assertEquals(SolverResult.Status.SAT, result.getStatus());
+  }
+}
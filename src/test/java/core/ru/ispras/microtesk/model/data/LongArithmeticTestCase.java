@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.data.types.bitvector.BitVectorMath;
+
+import java.util.Random;
+
+/**
+ * Checks that {@link LongArithmetic} operations produce the same results as
+ * the corresponding {@link Data} operations.
+ */
+public final class LongArithmeticTestCase {
+  private static final int[] BIT_SIZES = {1, 5, 8, 16, 31, 32, 33, 63, 64};
+  private static final int ITERATIONS = 200;
+
+  private final Random random = new Random(0);
+
+  @Test
+  public void testNormalize() {
+    Assert.assertEquals(-1L, LongArithmetic.normalize(0xFFL, 8, true));
+    Assert.assertEquals(0xFFL, LongArithmetic.normalize(-1L, 8, false));
+    Assert.assertEquals(0x7FL, LongArithmetic.normalize(0x17FL, 8, true));
+    Assert.assertEquals(-1L, LongArithmetic.normalize(-1L, 64, false));
+  }
+
+  @Test
+  public void testArithmetic() {
+    for (final int bitSize : BIT_SIZES) {
+      for (final boolean signed : new boolean[] {false, true}) {
+        final Type type = signed ? Type.INT(bitSize) : Type.CARD(bitSize);
+
+        for (int index = 0; index < ITERATIONS; ++index) {
+          final Data lhs = newData(type);
+          final Data rhs = index % 10 == 0 ? Data.valueOf(type, 0) : newData(type);
+
+          final long x = LongArithmetic.valueOf(lhs);
+          final long y = LongArithmetic.valueOf(rhs);
+
+          check(lhs.add(rhs), LongArithmetic.normalize(x + y, bitSize, signed));
+          check(lhs.subtract(rhs), LongArithmetic.normalize(x - y, bitSize, signed));
+          check(lhs.multiply(rhs), LongArithmetic.normalize(x * y, bitSize, signed));
+          check(lhs.and(rhs), x & y);
+          check(lhs.or(rhs), x | y);
+          check(lhs.xor(rhs), x ^ y);
+          check(lhs.not(), LongArithmetic.normalize(~x, bitSize, signed));
+          check(lhs.negate(), LongArithmetic.normalize(-x, bitSize, signed));
+
+          check(lhs.divide(rhs), LongArithmetic.divide(x, y, bitSize, signed));
+          check(lhs.mod(rhs), LongArithmetic.mod(x, y, bitSize, signed));
+
+          final int expected = lhs.compareTo(rhs);
+          final int actual = bitSize == Long.SIZE && !signed
+              ? LongArithmetic.compareUnsigned(x, y) : Long.compare(x, y);
+
+          Assert.assertEquals(Integer.signum(expected), Integer.signum(actual));
+          Assert.assertEquals(lhs.equals(rhs), x == y);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSmod() {
+    // The result has the sign of the divisor.
+    Assert.assertEquals(1L, LongArithmetic.smod(7L, 3L, 8, true));
+    Assert.assertEquals(2L, LongArithmetic.smod(-7L, 3L, 8, true));
+    Assert.assertEquals(-2L, LongArithmetic.smod(7L, -3L, 8, true));
+    Assert.assertEquals(-1L, LongArithmetic.smod(-7L, -3L, 8, true));
+    Assert.assertEquals(0L, LongArithmetic.smod(-6L, 3L, 8, true));
+    Assert.assertEquals(0L, LongArithmetic.smod(Long.MIN_VALUE, -1L, 64, true));
+
+    // Operands of unsigned types are treated as signed: 0xF9 is -7.
+    Assert.assertEquals(2L, LongArithmetic.smod(0xF9L, 3L, 8, false));
+    Assert.assertEquals(0xFEL, LongArithmetic.smod(7L, 0xFDL, 8, false));
+
+    for (final int bitSize : BIT_SIZES) {
+      for (final boolean signed : new boolean[] {false, true}) {
+        final Type type = signed ? Type.INT(bitSize) : Type.CARD(bitSize);
+
+        for (int index = 0; index < ITERATIONS; ++index) {
+          final Data lhs = newData(type);
+          final Data rhs = index % 10 == 0 ? Data.valueOf(type, 0) : newData(type);
+
+          final BitVector expected = BitVectorMath.smod(lhs.getRawData(), rhs.getRawData());
+          final long actual = LongArithmetic.smod(
+              LongArithmetic.valueOf(lhs), LongArithmetic.valueOf(rhs), bitSize, signed);
+
+          check(Data.valueOf(type, expected.longValue()), actual);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testShifts() {
+    final Type amountType = Type.CARD(8);
+
+    for (final int bitSize : BIT_SIZES) {
+      for (final boolean signed : new boolean[] {false, true}) {
+        final Type type = signed ? Type.INT(bitSize) : Type.CARD(bitSize);
+
+        for (int index = 0; index < ITERATIONS; ++index) {
+          final Data value = newData(type);
+          final Data amount = Data.valueOf(amountType, random.nextInt(2 * bitSize + 1));
+
+          final long x = LongArithmetic.valueOf(value);
+          final long y = LongArithmetic.valueOf(amount);
+
+          check(value.shiftLeft(amount),
+              LongArithmetic.shiftLeft(x, bitSize, signed, y, false));
+          check(value.shiftRight(amount),
+              LongArithmetic.shiftRight(x, bitSize, signed, y, false));
+          check(value.rotateLeft(amount),
+              LongArithmetic.rotateLeft(x, bitSize, signed, y, false));
+          check(value.rotateRight(amount),
+              LongArithmetic.rotateRight(x, bitSize, signed, y, false));
+        }
+      }
+    }
+  }
+
+  private Data newData(final Type type) {
+    return Data.valueOf(type, random.nextLong());
+  }
+
+  private static void check(final Data expected, final long actual) {
+    Assert.assertEquals(expected.getRawData(),
+        Data.valueOf(expected.getType(), actual).getRawData());
+    Assert.assertEquals(LongArithmetic.valueOf(expected), actual);
+  }
+}
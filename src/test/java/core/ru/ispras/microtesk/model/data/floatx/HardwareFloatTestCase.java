@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.data.floatx;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.util.Random;
+
+/**
+ * Checks that {@link Float32HardwareOperations} and {@link Float64HardwareOperations} produce
+ * the same results as the SoftFloat-based implementations.
+ */
+public final class HardwareFloatTestCase {
+  private static final int ITERATIONS = 10000;
+  private static final int OPERATION_COUNT = 10;
+
+  private static final float[] FLOAT_SPECIALS = {
+      0.0f, -0.0f, 1.0f, -1.0f, 0.5f, 1.5f, 2.5f, -2.5f,
+      Float.MIN_VALUE, -Float.MIN_VALUE, Float.MIN_NORMAL, Float.MAX_VALUE, -Float.MAX_VALUE,
+      Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NaN,
+      2147483520.0f, 2147483648.0f, -2147483648.0f, 9.223372e18f, -9.223372e18f
+  };
+
+  private static final double[] DOUBLE_SPECIALS = {
+      0.0, -0.0, 1.0, -1.0, 0.5, 1.5, 2.5, -2.5,
+      Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE, -Double.MAX_VALUE,
+      Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN,
+      2147483647.0, 2147483647.5, 2147483648.0, -2147483648.5, 0x1p63, -0x1p63, 3.0e38, 1.0e-40
+  };
+
+  private final Random random = new Random(0);
+
+  @Before
+  public void setUp() {
+    Precision.setRoundingMode(0);
+    Precision.setHardwareEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    Precision.setHardwareEnabled(false);
+  }
+
+  @Test
+  public void testFloat32() {
+    final Operations soft = Float32Operations.get();
+    final Operations hard = Float32HardwareOperations.get();
+
+    Assert.assertSame(hard, Precision.FLOAT32.getOperations());
+
+    for (final float lhs : FLOAT_SPECIALS) {
+      for (final float rhs : FLOAT_SPECIALS) {
+        check(soft, hard, Float32Operations.newFloatX(lhs), Float32Operations.newFloatX(rhs));
+      }
+    }
+
+    for (int index = 0; index < ITERATIONS; ++index) {
+      check(soft, hard, newFloat32(), newFloat32());
+    }
+  }
+
+  @Test
+  public void testFloat64() {
+    final Operations soft = Float64Operations.get();
+    final Operations hard = Float64HardwareOperations.get();
+
+    Assert.assertSame(hard, Precision.FLOAT64.getOperations());
+
+    for (final double lhs : DOUBLE_SPECIALS) {
+      for (final double rhs : DOUBLE_SPECIALS) {
+        check(soft, hard, Float64Operations.newFloatX(lhs), Float64Operations.newFloatX(rhs));
+      }
+    }
+
+    for (int index = 0; index < ITERATIONS; ++index) {
+      check(soft, hard, newFloat64(), newFloat64());
+    }
+  }
+
+  @Test
+  public void testFromInteger() {
+    for (int index = 0; index < ITERATIONS; ++index) {
+      final BitVector value32 = BitVector.valueOf(random.nextInt(), 32);
+      final BitVector value64 = BitVector.valueOf(random.nextLong() >> random.nextInt(64), 64);
+
+      for (final BitVector value : new BitVector[] {value32, value64}) {
+        check(Float32Operations.get().fromInteger(value),
+            Float32HardwareOperations.get().fromInteger(value));
+        check(Float64Operations.get().fromInteger(value),
+            Float64HardwareOperations.get().fromInteger(value));
+      }
+    }
+  }
+
+  @Test
+  public void testExceptionFlags() {
+    final FloatX one = Float32Operations.newFloatX(1.0f);
+    final FloatX three = Float32Operations.newFloatX(3.0f);
+
+    Precision.setExceptionFlags(0);
+    Float32Operations.get().div(one, three);
+    final int expected = Precision.getExceptionFlags();
+
+    // The flags are read right after an inexact native operation.
+    Precision.setExceptionFlags(0);
+    Float32HardwareOperations.get().div(one, three);
+    Assert.assertEquals(expected, Precision.getExceptionFlags());
+    Assert.assertTrue(0 != expected);
+
+    // Exact operations do not raise flags. Accessing flags does not disable native arithmetic.
+    Precision.setExceptionFlags(0);
+    Float32HardwareOperations.get().add(one, three);
+    Assert.assertEquals(0, Precision.getExceptionFlags());
+    Assert.assertTrue(Precision.isHardwareApplicable());
+
+    for (final float lhs : FLOAT_SPECIALS) {
+      for (final float rhs : FLOAT_SPECIALS) {
+        checkFlags(Float32Operations.get(), Float32HardwareOperations.get(),
+            Float32Operations.newFloatX(lhs), Float32Operations.newFloatX(rhs));
+      }
+    }
+
+    for (final double lhs : DOUBLE_SPECIALS) {
+      for (final double rhs : DOUBLE_SPECIALS) {
+        checkFlags(Float64Operations.get(), Float64HardwareOperations.get(),
+            Float64Operations.newFloatX(lhs), Float64Operations.newFloatX(rhs));
+      }
+    }
+
+    for (int index = 0; index < ITERATIONS; ++index) {
+      checkFlags(Float32Operations.get(), Float32HardwareOperations.get(),
+          newFloat32(), newFloat32());
+      checkFlags(Float64Operations.get(), Float64HardwareOperations.get(),
+          newFloat64(), newFloat64());
+    }
+  }
+
+  private FloatX newFloat32() {
+    // Random bit patterns cover subnormals, infinities and NaNs.
+    return Float32Operations.newFloatX(Float.intBitsToFloat(random.nextInt()));
+  }
+
+  private FloatX newFloat64() {
+    return Float64Operations.newFloatX(Double.longBitsToDouble(random.nextLong()));
+  }
+
+  private static void check(
+      final Operations soft,
+      final Operations hard,
+      final FloatX lhs,
+      final FloatX rhs) {
+    check(soft.add(lhs, rhs), hard.add(lhs, rhs));
+    check(soft.sub(lhs, rhs), hard.sub(lhs, rhs));
+    check(soft.mul(lhs, rhs), hard.mul(lhs, rhs));
+    check(soft.div(lhs, rhs), hard.div(lhs, rhs));
+    check(soft.rem(lhs, rhs), hard.rem(lhs, rhs));
+    check(soft.sqrt(lhs), hard.sqrt(lhs));
+    check(soft.round(lhs), hard.round(lhs));
+
+    final Precision other =
+        lhs.getPrecision() == Precision.FLOAT32 ? Precision.FLOAT64 : Precision.FLOAT32;
+
+    check(soft.toFloat(lhs, other), hard.toFloat(lhs, other));
+
+    Assert.assertEquals(soft.toInteger(lhs, 32), hard.toInteger(lhs, 32));
+    Assert.assertEquals(soft.toInteger(lhs, 64), hard.toInteger(lhs, 64));
+  }
+
+  private static void checkFlags(
+      final Operations soft,
+      final Operations hard,
+      final FloatX lhs,
+      final FloatX rhs) {
+    for (int operation = 0; operation < OPERATION_COUNT; ++operation) {
+      Precision.setExceptionFlags(0);
+      apply(soft, operation, lhs, rhs);
+      final int expected = Precision.getExceptionFlags();
+
+      Precision.setExceptionFlags(0);
+      apply(hard, operation, lhs, rhs);
+      Assert.assertEquals(expected, Precision.getExceptionFlags());
+    }
+  }
+
+  private static void apply(
+      final Operations operations,
+      final int operation,
+      final FloatX lhs,
+      final FloatX rhs) {
+    final Precision other =
+        lhs.getPrecision() == Precision.FLOAT32 ? Precision.FLOAT64 : Precision.FLOAT32;
+
+    switch (operation) {
+      case 0:
+        operations.add(lhs, rhs);
+        break;
+      case 1:
+        operations.sub(lhs, rhs);
+        break;
+      case 2:
+        operations.mul(lhs, rhs);
+        break;
+      case 3:
+        operations.div(lhs, rhs);
+        break;
+      case 4:
+        operations.rem(lhs, rhs);
+        break;
+      case 5:
+        operations.sqrt(lhs);
+        break;
+      case 6:
+        operations.round(lhs);
+        break;
+      case 7:
+        operations.toFloat(lhs, other);
+        break;
+      case 8:
+        operations.toInteger(lhs, 32);
+        break;
+      default:
+        operations.toInteger(lhs, 64);
+        break;
+    }
+  }
+
+  private static void check(final FloatX expected, final FloatX actual) {
+    Assert.assertEquals(expected.getPrecision(), actual.getPrecision());
+    Assert.assertEquals(expected.getData(), actual.getData());
+  }
+}
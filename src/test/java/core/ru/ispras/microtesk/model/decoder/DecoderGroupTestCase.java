@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.decoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class DecoderGroupTestCase {
+  private static final int IMAGE_SIZE = 32;
+
+  private static final class TestDecoder extends DecoderItem {
+    private final int id;
+
+    private TestDecoder(final int id) {
+      super(IMAGE_SIZE, true, null, null);
+      this.id = id;
+    }
+
+    private TestDecoder(final int id, final long opc, final long opcMask) {
+      super(IMAGE_SIZE, true, toBinString(opc), toBinString(opcMask));
+      this.id = id;
+    }
+
+    @Override
+    public DecoderResult decode(final BitVector image) {
+      return isOpcMatch(image) ? new DecoderResult(null, id) : null;
+    }
+  }
+
+  private static final class TestDecoderGroup extends DecoderGroup {
+    private TestDecoderGroup(final List<Decoder> decoders) {
+      super(IMAGE_SIZE, true, null);
+      for (final Decoder decoder : decoders) {
+        add(decoder);
+      }
+    }
+  }
+
+  @Test
+  public void testDecisionTree() {
+    final List<Decoder> decoders = new ArrayList<>();
+
+    // Instructions identified by the major opcode (bits 31..26).
+    for (int opcode = 1; opcode < 64; opcode += 3) {
+      decoders.add(new TestDecoder(decoders.size() + 1, field(opcode, 26, 6), mask(26, 6)));
+    }
+
+    // Instructions with the zero major opcode identified by the function code (bits 5..0).
+    for (int function = 0; function < 64; function += 5) {
+      decoders.add(new TestDecoder(
+          decoders.size() + 1, field(function, 0, 6), mask(26, 6) | mask(0, 6)));
+    }
+
+    // An instruction without an opcode placed between ones with opcodes.
+    decoders.add(new TestDecoder(decoders.size() + 1));
+
+    // An instruction that overlaps with the previous ones.
+    decoders.add(new TestDecoder(
+        decoders.size() + 1, field(1, 26, 6) | field(7, 16, 5), mask(26, 6) | mask(16, 5)));
+
+    final Decoder group = new TestDecoderGroup(decoders);
+    final Random random = new Random(0);
+
+    for (int index = 0; index < 100000; ++index) {
+      final int major = random.nextInt(64);
+      final int function = random.nextInt(64);
+
+      final long value = ((long) major << 26) | (random.nextInt() & 0x03ffffc0L) | function;
+      final BitVector image = BitVector.valueOf(value, IMAGE_SIZE);
+
+      Assert.assertEquals(
+          String.format("Image 0x%08x", value),
+          decodeLinearly(decoders, image),
+          group.decode(image).getBitSize()
+      );
+    }
+  }
+
+  @Test
+  public void testDecisionTreeSize() {
+    final List<Decoder> decoders = new ArrayList<>();
+    int opcCount = 0;
+
+    // Instructions with opcodes interleaved with many instructions without opcodes.
+    for (int opcode = 0; opcode < 64; ++opcode) {
+      decoders.add(new TestDecoder(decoders.size() + 1,
+          field(opcode, 26, 6) | field(opcode, 0, 6), mask(26, 6) | mask(0, 6)));
+      opcCount++;
+
+      for (int index = 0; index < 8; ++index) {
+        decoders.add(new TestDecoder(decoders.size() + 1));
+      }
+    }
+
+    final DecoderTree tree = DecoderTree.build(IMAGE_SIZE, decoders);
+    Assert.assertNotNull(tree);
+
+    // Decoders without opcodes are not split: the tree is linear in the number of opcodes.
+    final int nodeCount = tree.getNodeCount();
+    Assert.assertTrue(String.valueOf(nodeCount), nodeCount <= 2 * opcCount + 2);
+
+    final Decoder group = new TestDecoderGroup(decoders);
+    final Random random = new Random(0);
+
+    for (int index = 0; index < 10000; ++index) {
+      final long opcode = random.nextInt(64);
+      final long value = (opcode << 26) | (random.nextInt() & 0x03ffffc0L) | random.nextInt(64);
+
+      final BitVector image = BitVector.valueOf(value, IMAGE_SIZE);
+      Assert.assertEquals(decodeLinearly(decoders, image), group.decode(image).getBitSize());
+    }
+  }
+
+  private static int decodeLinearly(final List<Decoder> decoders, final BitVector image) {
+    for (final Decoder decoder : decoders) {
+      final DecoderResult result = decoder.decode(image);
+      if (null != result) {
+        return result.getBitSize();
+      }
+    }
+    return 0;
+  }
+
+  private static long mask(final int shift, final int bitSize) {
+    return ((1L << bitSize) - 1) << shift;
+  }
+
+  private static long field(final long value, final int shift, final int bitSize) {
+    return (value & ((1L << bitSize) - 1)) << shift;
+  }
+
+  private static String toBinString(final long value) {
+    return BitVector.valueOf(value, IMAGE_SIZE).toBinString();
+  }
+}
@@ -137,4 +137,72 @@ public final class MemoryStorageTestCase {
     Assert.assertEquals(BitVector.valueOf(0x10L, regionBitSize), storage1.read(0xDEADBEEF));
     Assert.assertEquals(BitVector.valueOf(0x20L, regionBitSize), storage1.read(0xBAADF00D));
   }
+
+  @Test
+  public void testCopyOriginalModified() {
+    final int regionBitSize = 32;
+    final BigInteger regionCount = BigInteger.valueOf(2).pow(32);
+
+    final MemoryStorage storage1 = new MemoryStorage(regionCount, regionBitSize);
+    storage1.write(0x1000L, BitVector.valueOf(0x10L, regionBitSize));
+
+    final MemoryStorage storage2 = new MemoryStorage(storage1);
+
+    storage1.write(0x1000L, BitVector.valueOf(0x20L, regionBitSize));
+    storage1.write(0x1001L, BitVector.valueOf(0x30L, regionBitSize));
+
+    Assert.assertEquals(BitVector.valueOf(0x20L, regionBitSize), storage1.read(0x1000L));
+    Assert.assertEquals(BitVector.valueOf(0x30L, regionBitSize), storage1.read(0x1001L));
+
+    Assert.assertEquals(BitVector.valueOf(0x10L, regionBitSize), storage2.read(0x1000L));
+    Assert.assertEquals(BitVector.newEmpty(regionBitSize), storage2.read(0x1001L));
+    Assert.assertFalse(storage2.isInitialized(0x1001L));
+  }
+
+  @Test
+  public void testWideRegions() {
+    final int regionBitSize = 100;
+    final MemoryStorage ms = new MemoryStorage(1L << 20, regionBitSize);
+
+    final BitVector data = BitVector.newEmpty(regionBitSize);
+    Randomizer.get().fill(data);
+
+    ms.write(0xABCDEL, data);
+    Assert.assertEquals(data, ms.read(0xABCDEL));
+
+    ms.write(0xABCDEL, 60, BitVector.valueOf(0xFFL, 8));
+    Assert.assertEquals(
+        BitVector.valueOf(0xFFL, 8), BitVector.newMapping(ms.read(0xABCDEL), 60, 8));
+  }
+
+  @Test
+  public void testTempState() {
+    testTempState(BigInteger.valueOf(2).pow(32));
+    testTempState(BigInteger.valueOf(2).pow(80));
+  }
+
+  private void testTempState(final BigInteger regionCount) {
+    final int regionBitSize = 32;
+    final MemoryStorage storage = new MemoryStorage(regionCount, regionBitSize);
+
+    storage.write(0x1000L, BitVector.valueOf(0x10L, regionBitSize));
+    storage.setUseTempState(true);
+
+    storage.write(0x1000L, BitVector.valueOf(0x20L, regionBitSize));
+    storage.write(0x2000L, BitVector.valueOf(0x30L, regionBitSize));
+
+    Assert.assertEquals(BitVector.valueOf(0x20L, regionBitSize), storage.read(0x1000L));
+    Assert.assertEquals(BitVector.valueOf(0x30L, regionBitSize), storage.read(0x2000L));
+
+    storage.setUseTempState(false);
+
+    Assert.assertEquals(BitVector.valueOf(0x10L, regionBitSize), storage.read(0x1000L));
+    Assert.assertEquals(BitVector.newEmpty(regionBitSize), storage.read(0x2000L));
+    Assert.assertFalse(storage.isInitialized(0x2000L));
+
+    // Pages owned by the main state are modified in place after it is restored.
+    storage.write(0x1001L, BitVector.valueOf(0x40L, regionBitSize));
+    Assert.assertEquals(BitVector.valueOf(0x10L, regionBitSize), storage.read(0x1000L));
+    Assert.assertEquals(BitVector.valueOf(0x40L, regionBitSize), storage.read(0x1001L));
+  }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.memory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.microtesk.model.data.Data;
+import ru.ispras.microtesk.model.data.Type;
+
+/**
+ * Checks the {@code long}-based access to register locations and cached bit fields.
+ */
+public final class RegisterLocationTestCase {
+  private static final Type DWORD = Type.CARD(64);
+  private static final Type WORD = Type.CARD(32);
+  private static final int COUNT = 4;
+
+  @Test
+  public void testLoadStoreLong() {
+    final Memory gpr = Memory.def(Memory.Kind.REG, "GPR", WORD, COUNT);
+    final Location location = gpr.access(1);
+
+    Assert.assertFalse(location.isInitialized());
+
+    location.storeLong(0x1DEADBEEFL);
+    Assert.assertTrue(location.isInitialized());
+    Assert.assertEquals(0xDEADBEEFL, location.loadLong());
+    Assert.assertEquals(BitVector.valueOf(0xDEADBEEFL, 32), location.load().getRawData());
+
+    location.store(Data.valueOf(WORD, 0xCAFEBABEL));
+    Assert.assertEquals(0xCAFEBABEL, location.loadLong());
+    Assert.assertEquals(0xCAFEBABEL, location.getLongValue());
+
+    Assert.assertEquals(0L, gpr.access(0).loadLong());
+    Assert.assertFalse(gpr.access(0).isInitialized());
+
+    final Memory wide = Memory.def(Memory.Kind.REG, "WIDE", DWORD, 1);
+    wide.access(0).storeLong(-1L);
+    Assert.assertEquals(-1L, wide.access(0).loadLong());
+  }
+
+  @Test
+  public void testBitFields() {
+    final Memory gpr = Memory.def(Memory.Kind.REG, "GPR", WORD, COUNT);
+    final Location location = gpr.access(2);
+
+    location.storeLong(0x12345678L);
+
+    final Location low = location.bitField(0, 15);
+    final Location high = location.bitField(16, 31);
+
+    Assert.assertSame(low, location.bitField(15, 0));
+    Assert.assertSame(high, location.bitField(16, 31));
+
+    Assert.assertEquals(0x5678L, low.loadLong());
+    Assert.assertEquals(0x1234L, high.loadLong());
+    Assert.assertEquals(BitVector.valueOf(0x1234L, 16), high.load().getRawData());
+
+    Assert.assertFalse(gpr.access(3).bitField(8, 15).isInitialized());
+    gpr.access(3).bitField(8, 15).storeLong(0xABCL);
+    Assert.assertTrue(gpr.access(3).bitField(8, 15).isInitialized());
+    Assert.assertFalse(gpr.access(3).isInitialized());
+    Assert.assertEquals(0xBC00L, gpr.access(3).loadLong());
+
+    high.storeLong(0xFFFFL);
+    Assert.assertEquals(0xFFFF5678L, location.loadLong());
+
+    final Location concat = Location.concat(high, low);
+    Assert.assertEquals(0xFFFF5678L, concat.loadLong());
+
+    concat.storeLong(0x87654321L);
+    Assert.assertEquals(0x87654321L, location.loadLong());
+  }
+
+  @Test
+  public void testTempStateAndCopy() {
+    final Memory gpr = Memory.def(Memory.Kind.REG, "GPR", WORD, COUNT);
+    gpr.access(0).storeLong(1);
+
+    gpr.setUseTempState(true);
+    gpr.access(0).storeLong(2);
+    Assert.assertEquals(2L, gpr.access(0).loadLong());
+    gpr.setUseTempState(false);
+
+    Assert.assertEquals(1L, gpr.access(0).loadLong());
+    Assert.assertTrue(gpr.access(0).isInitialized());
+
+    final Memory copy = gpr.copy();
+    copy.access(0).storeLong(3);
+
+    Assert.assertEquals(1L, gpr.access(0).loadLong());
+    Assert.assertEquals(3L, copy.access(0).loadLong());
+
+    gpr.reset();
+    Assert.assertEquals(0L, gpr.access(0).loadLong());
+    Assert.assertFalse(gpr.access(0).isInitialized());
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.minimips;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.castle.util.Logger.EventType;
+import ru.ispras.microtesk.options.Option;
+import ru.ispras.microtesk.test.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that processing elements are interleaved when the execution quantum is set and that
+ * each of them goes through the same states as without preemption.
+ */
+public class ExecutionQuantumTestCase extends MiniMipsTest {
+  private static final int INSTANCE_NUMBER = 2;
+  private static final Pattern INSTANCE = Pattern.compile("Instance (\\d+)");
+
+  /** Instances in the order they are scheduled. */
+  private final List<Integer> schedule = new ArrayList<>();
+
+  /** Trace messages printed by each instance. */
+  private final List<List<String>> traces = new ArrayList<>();
+
+  @Test
+  public void test() {
+    setVerbose(true);
+    setCommandLineOption(Option.INSTANCE_NUMBER, Integer.toString(INSTANCE_NUMBER));
+
+    setCommandLineOption(Option.EXECUTION_QUANTUM, "0");
+    final Statistics statistics = run("euclid.rb");
+    Assert.assertNotNull(statistics);
+
+    final List<Integer> expectedSchedule = new ArrayList<>(schedule);
+    final List<List<String>> expectedTraces = new ArrayList<>(traces);
+
+    setCommandLineOption(Option.EXECUTION_QUANTUM, "2");
+    Assert.assertNotNull(run("euclid.rb"));
+
+    // Preempted instances are resumed: there are more switches between them.
+    Assert.assertTrue(schedule.size() > expectedSchedule.size());
+    Assert.assertTrue(isInterleaved(schedule));
+
+    // Each instance goes through the same states and computes the same result.
+    Assert.assertEquals(INSTANCE_NUMBER, traces.size());
+    Assert.assertEquals(expectedTraces, traces);
+  }
+
+  @Override
+  public Statistics run(final String file) {
+    schedule.clear();
+    traces.clear();
+
+    return super.run(file);
+  }
+
+  @Override
+  public void onEventLogged(final EventType type, final String message) {
+    super.onEventLogged(type, message);
+
+    if (EventType.DEBUG != type) {
+      return;
+    }
+
+    final Matcher matcher = INSTANCE.matcher(message);
+    if (matcher.find()) {
+      final int instance = Integer.parseInt(matcher.group(1));
+      schedule.add(instance);
+
+      while (traces.size() <= instance) {
+        traces.add(new ArrayList<String>());
+      }
+    } else if (!schedule.isEmpty()
+        && (message.contains("Current values") || message.contains("Result stored"))) {
+      traces.get(schedule.get(schedule.size() - 1)).add(message.trim());
+    }
+  }
+
+  private static boolean isInterleaved(final List<Integer> schedule) {
+    // Some instance is scheduled again after another one has been run.
+    for (int index = 2; index < schedule.size(); ++index) {
+      if (schedule.get(index).equals(schedule.get(index - 2))
+          && !schedule.get(index).equals(schedule.get(index - 1))) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.model.tracer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BinaryTraceTestCase {
+  @Test
+  public void testConversion() throws IOException {
+    final File binaryFile = File.createTempFile("tracer", ".trace");
+    final File textFile = File.createTempFile("tracer", ".log");
+
+    binaryFile.deleteOnExit();
+    textFile.deleteOnExit();
+
+    final BitVector word = BitVector.valueOf(0xDEADBEEFL, 32);
+    final BitVector wide = BitVector.valueOf("1" + repeat("01", 50), 2, 101);
+
+    final List<String> expected = new ArrayList<>();
+    final BinaryTraceWriter writer = new BinaryTraceWriter(binaryFile.getAbsolutePath());
+
+    for (int time = 0; time < 1000; ++time) {
+      writer.addMemoryAccess(time, 0x1000L + time * 4, word, time % 2 == 0);
+      expected.add(Record.newMemoryAccess(time, 0x1000L + time * 4, word, time % 2 == 0).toString());
+
+      writer.addRegisterWrite(time, "GPR[" + time % 32 + "]", wide);
+      expected.add(Record.newRegisterWrite(time, "GPR[" + time % 32 + "]", wide).toString());
+
+      writer.addBufferAccess(time, "L1", word, time % 3 == 0);
+      expected.add(Record.newBufferAccess(time, "L1", word, time % 3 == 0).toString());
+    }
+
+    writer.close();
+
+    Assert.assertTrue(
+        BinaryTraceConverter.convert(binaryFile.getAbsolutePath(), textFile.getAbsolutePath()));
+
+    Assert.assertEquals(expected, readLines(textFile));
+  }
+
+  @Test
+  public void testBoundedStringTable() throws IOException {
+    final File binaryFile = File.createTempFile("tracer", ".trace");
+    final File textFile = File.createTempFile("tracer", ".log");
+
+    binaryFile.deleteOnExit();
+    textFile.deleteOnExit();
+
+    final BitVector word = BitVector.valueOf(0xDEADBEEFL, 32);
+
+    final List<String> expected = new ArrayList<>();
+    final BinaryTraceWriter writer = new BinaryTraceWriter(binaryFile.getAbsolutePath(), 16, 4);
+
+    // Names are reused after they have been evicted from the table.
+    for (int time = 0; time < 100; ++time) {
+      writer.addRegisterWrite(time, "GPR[" + time % 7 + "]", word);
+      expected.add(Record.newRegisterWrite(time, "GPR[" + time % 7 + "]", word).toString());
+    }
+
+    writer.close();
+
+    Assert.assertTrue(
+        BinaryTraceConverter.convert(binaryFile.getAbsolutePath(), textFile.getAbsolutePath()));
+
+    Assert.assertEquals(expected, readLines(textFile));
+  }
+
+  @Test
+  public void testConsumerFailure() {
+    final TraceRingBuffer buffer = new TraceRingBuffer(4);
+    final RuntimeException error = new RuntimeException("Consumer error");
+
+    buffer.fail(error);
+    for (int index = 0; index < 4; ++index) {
+      buffer.put(index);
+    }
+
+    try {
+      buffer.put(4);
+      Assert.fail("The producer must not wait for a failed consumer.");
+    } catch (final IllegalStateException e) {
+      Assert.assertSame(error, e.getCause());
+    }
+  }
+
+  private static String repeat(final String text, final int count) {
+    final StringBuilder sb = new StringBuilder();
+    for (int index = 0; index < count; ++index) {
+      sb.append(text);
+    }
+    return sb.toString();
+  }
+
+  private static List<String> readLines(final File file) throws IOException {
+    final List<String> lines = new ArrayList<>();
+    try (final BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      String line;
+      while (null != (line = reader.readLine())) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+}
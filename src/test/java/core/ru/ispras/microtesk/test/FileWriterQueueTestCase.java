@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class FileWriterQueueTestCase {
+  @Test
+  public void testWrite() throws IOException {
+    final FileWriterQueue queue = new FileWriterQueue(2);
+    final List<File> files = new ArrayList<>();
+
+    for (int i = 0; i < 10; i++) {
+      final File file = File.createTempFile("program", ".asm");
+      file.deleteOnExit();
+      files.add(file);
+
+      // The queue holds at most two files: the call blocks until there is a free slot.
+      queue.write(file, String.format("file %d%n", i));
+    }
+
+    queue.close();
+
+    for (int i = 0; i < files.size(); i++) {
+      final List<String> lines =
+          Files.readAllLines(files.get(i).toPath(), Charset.defaultCharset());
+      Assert.assertEquals(1, lines.size());
+      Assert.assertEquals(String.format("file %d", i), lines.get(0));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testError() throws IOException {
+    final File directory = Files.createTempDirectory("programs").toFile();
+    directory.deleteOnExit();
+
+    final FileWriterQueue queue = new FileWriterQueue(1);
+
+    // A directory cannot be written as a file: the error is reported by close.
+    queue.write(directory, "text");
+    queue.close();
+  }
+}
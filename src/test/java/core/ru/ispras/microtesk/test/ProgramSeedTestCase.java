@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public final class ProgramSeedTestCase {
+  private static final int PROGRAM_COUNT = 10000;
+
+  @Test
+  public void testDeterministic() {
+    for (int index = 0; index < PROGRAM_COUNT; ++index) {
+      Assert.assertEquals(
+          TestEngineUtils.getProgramSeed(0, index),
+          TestEngineUtils.getProgramSeed(0, index));
+    }
+  }
+
+  @Test
+  public void testDistinct() {
+    final Set<Integer> seeds = new HashSet<>();
+
+    for (final int seed : new int[] {0, 1, -1, 12345}) {
+      for (int index = 0; index < PROGRAM_COUNT; ++index) {
+        seeds.add(TestEngineUtils.getProgramSeed(seed, index));
+      }
+    }
+
+    // Collisions of 32-bit seeds are possible but must be rare.
+    Assert.assertTrue(seeds.size() > 4 * PROGRAM_COUNT - 10);
+  }
+}
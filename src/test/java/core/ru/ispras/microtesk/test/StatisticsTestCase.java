@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+public final class StatisticsTestCase {
+  @Test
+  public void testTasks() {
+    final Statistics statistics = new Statistics();
+
+    statistics.pushActivity(Statistics.Activity.PROCESSING);
+    for (int index = 0; index < 3; ++index) {
+      statistics.pushTask("branch");
+      statistics.pushTask("allocator");
+      statistics.popTask();
+      statistics.popTask();
+    }
+    statistics.popActivity();
+
+    statistics.pushTask("standalone");
+    statistics.popTask();
+
+    final Map<String, Statistics.TaskMetric> metrics = statistics.getTaskMetrics();
+    Assert.assertEquals(3, metrics.size());
+
+    final Statistics.TaskMetric branch = metrics.get("PROCESSING/branch");
+    final Statistics.TaskMetric allocator = metrics.get("PROCESSING/branch/allocator");
+
+    Assert.assertEquals(3, branch.getCount());
+    Assert.assertEquals(3, allocator.getCount());
+    Assert.assertTrue(branch.getTimeNanos() >= allocator.getTimeNanos());
+    Assert.assertEquals(1, metrics.get("standalone").getCount());
+  }
+
+  @Test
+  public void testLatencies() {
+    final Statistics statistics = new Statistics();
+
+    for (int index = 0; index < 10; ++index) {
+      final long startTime = statistics.startLatency();
+      statistics.stopLatency("query", startTime);
+    }
+
+    // A call that started 3 ms ago.
+    statistics.stopLatency("query", statistics.startLatency() - 3000000L);
+
+    final Statistics.LatencyHistogram histogram = statistics.getLatencies().get("query");
+    Assert.assertEquals(11, histogram.getCount());
+    Assert.assertTrue(histogram.getMaxTimeNanos() >= 3000000L);
+
+    long total = 0;
+    for (int index = 0; index < histogram.getBucketCount(); ++index) {
+      total += histogram.getBucket(index);
+    }
+
+    Assert.assertEquals(histogram.getCount(), total);
+    Assert.assertTrue(histogram.getBucket(12) >= 1); // 2048..4096 us
+    Assert.assertEquals(Long.valueOf(11), histogram.toCounters().get("count"));
+  }
+
+  @Test
+  public void testActivities() {
+    final Statistics statistics = new Statistics();
+
+    statistics.pushActivity(Statistics.Activity.SIMULATING);
+    statistics.pushActivity(Statistics.Activity.PRINTING);
+    statistics.popActivity();
+    statistics.popActivity();
+    statistics.saveTotalTime();
+
+    final long simulating = statistics.getTimeMetricNanos(Statistics.Activity.SIMULATING);
+    final long printing = statistics.getTimeMetricNanos(Statistics.Activity.PRINTING);
+
+    Assert.assertTrue(simulating >= 0);
+    Assert.assertTrue(printing >= 0);
+    Assert.assertTrue(statistics.getTotalTimeNanos() >= simulating + printing);
+  }
+
+  @Test
+  public void testCounterSources() {
+    final Statistics statistics = new Statistics();
+    final Statistics.CounterSource source = new Statistics.CounterSource() {
+      @Override
+      public String getName() {
+        return "Source";
+      }
+
+      @Override
+      public Map<String, Map<String, Long>> getCounters() {
+        return Collections.emptyMap();
+      }
+    };
+
+    // Registering the same source for each template lists it once.
+    statistics.addCounterSource(source);
+    statistics.addCounterSource(source);
+
+    Assert.assertEquals(1, statistics.getCounterSources().size());
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public final class StatisticsWriterTestCase {
+  @Test
+  public void testEscaping() {
+    Assert.assertEquals("\"a\\\"b\\\\c\\n\\u0001\"",
+        StatisticsWriter.appendString(new StringBuilder(), "a\"b\\c\n\u0001").toString());
+  }
+
+  @Test
+  public void testRecords() throws IOException {
+    final File file = File.createTempFile("statistics", ".jsonl");
+    file.deleteOnExit();
+
+    final Statistics statistics = new Statistics();
+    statistics.pushActivity(Statistics.Activity.PROCESSING);
+    statistics.pushTask("branch");
+    statistics.popTask();
+    statistics.popActivity();
+
+    final StatisticsWriter writer =
+        new StatisticsWriter(file.getPath(), true, "cpu", "dir\\test.rb");
+    try {
+      writer.writeProgram(statistics, 10);
+      writer.writeRun(statistics, true);
+    } finally {
+      writer.close();
+    }
+
+    final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    Assert.assertEquals(2, lines.size());
+
+    Assert.assertTrue(lines.get(0).startsWith("{\"record\":\"program\","));
+    Assert.assertTrue(lines.get(0).contains("\"template\":\"dir\\\\test.rb\""));
+    Assert.assertTrue(lines.get(0).contains("\"instructions\":10,"));
+
+    Assert.assertTrue(lines.get(1).startsWith("{\"record\":\"run\","));
+    Assert.assertTrue(lines.get(1).contains("\"model\":\"cpu\""));
+    Assert.assertTrue(lines.get(1).contains("\"successful\":true"));
+    Assert.assertTrue(lines.get(1).contains("\"PROCESSING/branch\":{\"time_ns\":"));
+
+    for (final String line : lines) {
+      Assert.assertTrue(line.endsWith("}"));
+    }
+  }
+}
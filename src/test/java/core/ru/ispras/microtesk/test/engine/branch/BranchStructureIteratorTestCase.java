@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test.engine.branch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.testbase.knowledge.iterator.IntRangeIterator;
+import ru.ispras.testbase.knowledge.iterator.ProductIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class BranchStructureIteratorTestCase {
+  private static void runTest(final boolean delaySlot) {
+    final BranchStructureIterator iterator =
+        new BranchStructureIterator(1, 1, 1, 1, delaySlot, 1, 5, 1, 2, 1);
+
+    int count = 0;
+    for (iterator.init(); iterator.hasValue(); iterator.next()) {
+      check(iterator.value(), delaySlot);
+      count++;
+    }
+
+    Assert.assertTrue(count > 0);
+  }
+
+  private static List<String> enumerate(
+      final boolean delaySlot,
+      final EnumSet<BranchStructureIterator.Flags> flags,
+      final boolean filter) {
+    final BranchStructureIterator iterator =
+        new BranchStructureIterator(1, 1, 1, 1, delaySlot, 1, 5, 1, 2, 1, flags);
+
+    final List<String> structures = new ArrayList<>();
+    for (iterator.init(); iterator.hasValue(); iterator.next()) {
+      final List<BranchEntry> structure = iterator.value();
+
+      if (!filter || hasCoveredConsecutiveBlocks(structure)) {
+        final StringBuilder builder = new StringBuilder();
+        for (final BranchEntry entry : structure) {
+          builder.append(String.format("%s/%d; ", entry, entry.getGroupId()));
+        }
+        structures.add(builder.toString());
+      }
+    }
+
+    return structures;
+  }
+
+  private static void runOrderTest(final boolean delaySlot) {
+    final List<String> expected =
+        enumerate(delaySlot, EnumSet.noneOf(BranchStructureIterator.Flags.class), true);
+
+    // Pruning does not change the order of the structures.
+    Assert.assertFalse(expected.isEmpty());
+    Assert.assertEquals(
+        expected, enumerate(delaySlot, BranchStructureIterator.DEFAULT_FLAGS, false));
+  }
+
+  private static boolean hasCoveredConsecutiveBlocks(final List<BranchEntry> structure) {
+    final Set<Integer> labels = new HashSet<>();
+
+    for (final BranchEntry entry : structure) {
+      if (entry.isBranch()) {
+        labels.add(entry.getBranchLabel());
+      }
+    }
+
+    for (int i = 1; i < structure.size(); i++) {
+      if (structure.get(i - 1).isBasicBlock() && structure.get(i).isBasicBlock()
+          && !labels.contains(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static void check(final List<BranchEntry> structure, final boolean delaySlot) {
+    final Set<Integer> labels = new HashSet<>();
+
+    for (int i = 0; i < structure.size(); i++) {
+      final BranchEntry entry = structure.get(i);
+
+      if (entry.isBranch()) {
+        labels.add(entry.getBranchLabel());
+        Assert.assertEquals(delaySlot, i + 1 < structure.size()
+            && structure.get(i + 1).isDelaySlot());
+      }
+    }
+
+    // Consecutive basic blocks are not iterated: the second block must be a branch target.
+    for (int i = 1; i < structure.size(); i++) {
+      if (structure.get(i - 1).isBasicBlock() && structure.get(i).isBasicBlock()) {
+        Assert.assertTrue(structure.toString(), labels.contains(i));
+      }
+    }
+  }
+
+  @Test
+  public void testNoDelaySlot() {
+    runTest(false);
+  }
+
+  @Test
+  public void testDelaySlot() {
+    runTest(true);
+  }
+
+  @Test
+  public void testOrderNoDelaySlot() {
+    runOrderTest(false);
+  }
+
+  @Test
+  public void testOrderDelaySlot() {
+    runOrderTest(true);
+  }
+
+  @Test
+  public void testLabelOrder() {
+    final BitSet required = new BitSet();
+    required.set(1);
+    required.set(4);
+
+    for (int size = 1; size <= 4; size++) {
+      // Filtered product of the label ranges.
+      final ProductIterator<Integer> product = new ProductIterator<>();
+      for (int i = 0; i < size; i++) {
+        product.registerIterator(new IntRangeIterator(0, 5));
+      }
+
+      final List<String> expected = new ArrayList<>();
+      for (product.init(); product.hasValue(); product.next()) {
+        final int[] labels = new int[size];
+        final BitSet uncovered = (BitSet) required.clone();
+
+        for (int i = 0; i < size; i++) {
+          labels[i] = product.value(i);
+          uncovered.clear(labels[i]);
+        }
+
+        if (uncovered.isEmpty()) {
+          expected.add(Arrays.toString(labels));
+        }
+      }
+
+      final BranchLabelIterator iterator = new BranchLabelIterator(size, 5, required);
+
+      final List<String> labels = new ArrayList<>();
+      for (iterator.init(); iterator.hasValue(); iterator.next()) {
+        labels.add(Arrays.toString(iterator.value()));
+      }
+
+      Assert.assertEquals(expected, labels);
+    }
+  }
+}
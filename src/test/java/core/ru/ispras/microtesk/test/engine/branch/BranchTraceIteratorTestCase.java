@@ -0,0 +1,296 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.test.engine.branch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Checks that execution traces and the blocks to insert the executed and non-taken code into
+ * are enumerated in the same order as by the list-based implementation they replace.
+ */
+public final class BranchTraceIteratorTestCase {
+  /**
+   * The list-based implementation of {@link BranchTraceIterator} (a stack of boxed pairs).
+   */
+  private static final class ReferenceTraceIterator {
+    private final List<BranchEntry> branchStructure;
+    private final int maxBranchExecutions;
+    private final int maxBlockExecutions;
+
+    private final Stack<Pair<Integer, Integer>> branchStack = new Stack<>();
+    private Pair<Integer, Integer> currentBlock;
+    private boolean hasValue;
+    private List<Integer> trace;
+
+    private ReferenceTraceIterator(
+        final List<BranchEntry> branchStructure,
+        final int maxBranchExecutions,
+        final int maxBlockExecutions) {
+      this.branchStructure = branchStructure;
+      this.maxBranchExecutions = maxBranchExecutions;
+      this.maxBlockExecutions = maxBlockExecutions;
+    }
+
+    private void init() {
+      hasValue = !branchStructure.isEmpty();
+
+      branchStack.clear();
+      for (final BranchEntry branchEntry : branchStructure) {
+        branchEntry.getBranchTrace().clear();
+      }
+
+      currentBlock = new Pair<>(-1, 0);
+      searchNextBranch();
+
+      if (currentBlock.second != -1) {
+        next();
+      }
+    }
+
+    private void next() {
+      while (hasValue) {
+        final BranchTraceConstructor branchTraceConstructor =
+            new BranchTraceConstructor(nextBranchStructure());
+
+        if (hasValue) {
+          trace = branchTraceConstructor.construct();
+
+          if (trace != null) {
+            break;
+          }
+        }
+      }
+    }
+
+    private void handleBranch() {
+      final int currentIndex = currentBlock.second;
+      final BranchEntry entry = branchStructure.get(currentIndex);
+      final BranchExecution execution = entry.getBranchTrace().getLastExecution();
+
+      currentBlock = new Pair<>(-1, execution.value() ? entry.getBranchLabel() : currentIndex + 1);
+      searchNextBranch();
+
+      if (!canExecuteBlock()) {
+        currentBlock = null;
+      }
+    }
+
+    private void searchNextBranch() {
+      final int startIndex = currentBlock.second;
+
+      for (int currentIndex = startIndex; currentIndex < branchStructure.size(); currentIndex++) {
+        if (branchStructure.get(currentIndex).isBranch()) {
+          currentBlock = new Pair<>(startIndex, currentIndex);
+          return;
+        }
+      }
+
+      currentBlock = new Pair<>(startIndex, -1);
+    }
+
+    private boolean canExecuteBlock() {
+      final int a = currentBlock.first;
+      final int b =
+          currentBlock.second != -1 ? currentBlock.second - 1 : branchStructure.size() - 1;
+
+      int count = 0;
+      for (final Pair<Integer, Integer> previousBlock : branchStack) {
+        final int c = previousBlock.first;
+        final int d = previousBlock.second - 1;
+
+        if (a <= d && b >= c) {
+          count++;
+        }
+      }
+
+      return count < maxBlockExecutions;
+    }
+
+    private List<BranchEntry> nextBranchStructure() {
+      while (hasValue) {
+        if (currentBlock != null
+            && currentBlock.second != -1
+            && branchStructure.get(currentBlock.second).getBranchTrace().size()
+                < maxBranchExecutions) {
+          final BranchEntry entry = branchStructure.get(currentBlock.second);
+
+          entry.getBranchTrace().addExecution(entry.isIfThen());
+          branchStack.push(currentBlock);
+
+          handleBranch();
+
+          if (currentBlock != null && currentBlock.second == -1) {
+            return branchStructure;
+          }
+        } else {
+          while (!branchStack.isEmpty()) {
+            currentBlock = branchStack.peek();
+
+            final BranchTrace trace = branchStructure.get(currentBlock.second).getBranchTrace();
+            final BranchExecution execution = trace.getLastExecution();
+
+            if (execution.hasValue()) {
+              execution.next();
+
+              if (execution.hasValue()) {
+                handleBranch();
+
+                if (currentBlock != null && currentBlock.second == -1) {
+                  return branchStructure;
+                }
+
+                break;
+              }
+            }
+
+            trace.removeLastExecution();
+            branchStack.pop();
+          }
+
+          if (branchStack.isEmpty()) {
+            hasValue = false;
+            return branchStructure;
+          }
+        }
+      }
+
+      return branchStructure;
+    }
+  }
+
+  /** The list-based computation of the executed blocks of {@code BranchEngine}. */
+  private static List<Integer> getReferenceExecutedBlocks(
+      final List<BranchEntry> branchStructure,
+      final List<Integer> executionTrace) {
+    final List<Integer> executedBlocks = new ArrayList<>();
+    for (final int i : executionTrace) {
+      if (branchStructure.get(i).isBasicBlock() && !executedBlocks.contains(i)) {
+        executedBlocks.add(i);
+      }
+    }
+
+    final List<Integer> redundantBlocks = new ArrayList<>();
+    for (int i = 0; i < executedBlocks.size() - 1; i++) {
+      if (executedBlocks.get(i + 1) == executedBlocks.get(i) + 1) {
+        redundantBlocks.add(executedBlocks.get(i + 1));
+      }
+    }
+    executedBlocks.removeAll(redundantBlocks);
+
+    return executedBlocks;
+  }
+
+  /** The list-based computation of the non-taken blocks of {@code BranchEngine}. */
+  private static List<Integer> getReferenceNontakenBlocks(
+      final List<BranchEntry> branchStructure,
+      final List<Integer> executionTrace) {
+    final List<Integer> executedBlocks = new ArrayList<>();
+    for (final int i : executionTrace) {
+      if (branchStructure.get(i).isBasicBlock() && !executedBlocks.contains(i)) {
+        executedBlocks.add(i);
+      }
+    }
+
+    final List<Integer> nontakenBlocks = new ArrayList<>();
+    for (final int i : executionTrace) {
+      if (branchStructure.get(i).isBranch()) {
+        for (int j = i + 1; j < branchStructure.size(); j++) {
+          final BranchEntry nextBranchEntry = branchStructure.get(j);
+
+          if (nextBranchEntry.isDelaySlot()) {
+            continue;
+          }
+          if (nextBranchEntry.isBasicBlock() && !nontakenBlocks.contains(j)) {
+            nontakenBlocks.add(j);
+          }
+          break;
+        }
+      }
+    }
+    nontakenBlocks.removeAll(executedBlocks);
+
+    return nontakenBlocks;
+  }
+
+  private static List<BranchEntry> copy(final List<BranchEntry> branchStructure) {
+    final List<BranchEntry> result = new ArrayList<>(branchStructure.size());
+    for (final BranchEntry entry : branchStructure) {
+      result.add(entry.clone());
+    }
+    return result;
+  }
+
+  private static void runTest(
+      final boolean delaySlot,
+      final int maxBranchExecutions,
+      final int maxBlockExecutions) {
+    final BranchStructureIterator structureIterator =
+        new BranchStructureIterator(1, 1, 1, 1, delaySlot, 1, 5, 1, 2, 1);
+
+    int count = 0;
+    for (structureIterator.init(); structureIterator.hasValue(); structureIterator.next()) {
+      final List<BranchEntry> structure = structureIterator.value();
+
+      final BranchTraceIterator iterator = new BranchTraceIterator(
+          copy(structure), maxBranchExecutions, maxBlockExecutions, -1);
+      final ReferenceTraceIterator reference = new ReferenceTraceIterator(
+          copy(structure), maxBranchExecutions, maxBlockExecutions);
+
+      iterator.init();
+      reference.init();
+
+      for (; iterator.hasValue(); iterator.next(), reference.next()) {
+        Assert.assertTrue(reference.hasValue);
+        Assert.assertEquals(reference.trace, iterator.trace());
+        Assert.assertEquals(reference.branchStructure.toString(), iterator.value().toString());
+
+        final List<BranchEntry> branchStructure = iterator.value();
+        final List<Integer> trace = iterator.trace();
+
+        Assert.assertEquals(
+            getReferenceExecutedBlocks(branchStructure, trace),
+            BranchEngine.getExecutedBlocks(branchStructure, trace));
+        Assert.assertEquals(
+            getReferenceNontakenBlocks(branchStructure, trace),
+            BranchEngine.getNontakenBlocks(branchStructure, trace));
+
+        count++;
+      }
+
+      Assert.assertFalse(reference.hasValue);
+    }
+
+    Assert.assertTrue(count > 0);
+  }
+
+  @Test
+  public void testNoDelaySlot() {
+    runTest(false, 1, 1);
+    runTest(false, 2, 2);
+  }
+
+  @Test
+  public void testDelaySlot() {
+    runTest(true, 1, 1);
+    runTest(true, 2, 2);
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.coverage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.Data;
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.Variable;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.expression.Nodes;
+import ru.ispras.fortress.solver.SolverResult;
+import ru.ispras.fortress.solver.SolverResultBuilder;
+import ru.ispras.testbase.TestBaseContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class QueryCacheTestCase {
+  private static SolverResult newSatResult() {
+    final SolverResultBuilder builder = new SolverResultBuilder(SolverResult.Status.SAT);
+
+    builder.addVariable(new Variable("a!1", Data.newBoolean(true)));
+    builder.addVariable(new Variable("b!1", Data.newInteger(BigInteger.valueOf(-42))));
+    builder.addVariable(new Variable("c!1",
+        Data.newBitVector(BitVector.valueOf(0xDEADBEEFL, 32))));
+
+    return builder.build();
+  }
+
+  private static SolverResult newUnsatResult() {
+    return new SolverResultBuilder(SolverResult.Status.UNSAT).build();
+  }
+
+  @Test
+  public void testPolicy() {
+    final QueryCache unsatCache = new QueryCache(QueryCache.Policy.UNSAT, 16);
+    unsatCache.put("sat", newSatResult());
+    unsatCache.put("unsat", newUnsatResult());
+
+    Assert.assertNull(unsatCache.get("sat"));
+    Assert.assertEquals(SolverResult.Status.UNSAT, unsatCache.get("unsat").getStatus());
+
+    final QueryCache allCache = new QueryCache(QueryCache.Policy.ALL, 1);
+    allCache.put("unsat", newUnsatResult());
+    allCache.put("sat", newSatResult());
+
+    // The capacity is 1, so the first result is evicted.
+    Assert.assertNull(allCache.get("unsat"));
+    Assert.assertEquals(SolverResult.Status.SAT, allCache.get("sat").getStatus());
+
+    final QueryCache noCache = new QueryCache(QueryCache.Policy.NONE, 16);
+    noCache.put("unsat", newUnsatResult());
+    Assert.assertNull(noCache.get("unsat"));
+  }
+
+  @Test
+  public void testSaveLoad() throws IOException {
+    final File file = File.createTempFile("testbase", ".cache");
+    file.deleteOnExit();
+
+    final QueryCache cache = new QueryCache(QueryCache.Policy.ALL, 16);
+    cache.put("sat", newSatResult());
+    cache.put("unsat", newUnsatResult());
+    cache.save(file.getPath());
+
+    final QueryCache loaded = new QueryCache(QueryCache.Policy.ALL, 16);
+    loaded.load(file.getPath());
+
+    Assert.assertEquals(SolverResult.Status.UNSAT, loaded.get("unsat").getStatus());
+
+    final SolverResult result = loaded.get("sat");
+    Assert.assertEquals(SolverResult.Status.SAT, result.getStatus());
+
+    final List<String> expected = new ArrayList<>();
+    for (final Variable variable : newSatResult().getVariables()) {
+      expected.add(variable.getName() + "=" + variable.getData().getValue());
+    }
+
+    final List<String> actual = new ArrayList<>();
+    for (final Variable variable : result.getVariables()) {
+      actual.add(variable.getName() + "=" + variable.getData().getValue());
+    }
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  private static Map<String, Object> newContext(final int count, final String rsType) {
+    final Map<String, Object> context = new HashMap<>();
+
+    context.put(TestBaseContext.PROCESSOR, "cpu");
+    context.put(TestBaseContext.INSTRUCTION, "add");
+    context.put(TestBaseContext.TESTCASE, "normal");
+    context.put(TestBaseContext.COUNT, count);
+    context.put("AbstractSequence", new Object());
+    context.put("add", "add");
+    context.put("add.rs", rsType);
+
+    return context;
+  }
+
+  private static final String FORMULA_DIGEST = QueryCache.getFormulaDigest(
+      Collections.singletonList(Nodes.eq(
+          new NodeVariable("add.rd!1", DataType.bitVector(8)),
+          new NodeVariable("add.rs!1", DataType.bitVector(8))
+          ))
+      );
+
+  private static String newQueryKey(final Map<String, Object> context, final long value) {
+    return newQueryKey(context, FORMULA_DIGEST, value);
+  }
+
+  private static String newQueryKey(
+      final Map<String, Object> context,
+      final String formulaDigest,
+      final long value) {
+    final Node binding = Nodes.eq(
+        new NodeVariable("add.rs!1", DataType.bitVector(8)),
+        NodeValue.newBitVector(BitVector.valueOf(value, 8))
+        );
+
+    return QueryCache.getKey(
+        TestBase.getContextKey(context), formulaDigest, Collections.singletonList(binding));
+  }
+
+  @Test
+  public void testContextKey() throws IOException {
+    final File file = File.createTempFile("testbase", ".cache");
+    file.deleteOnExit();
+
+    final QueryCache cache = new QueryCache(QueryCache.Policy.ALL, 16);
+    cache.put(newQueryKey(newContext(0, "REG"), 1), newUnsatResult());
+
+    // The same query in another sequence: the count and the sequence differ.
+    Assert.assertNotNull(cache.get(newQueryKey(newContext(5, "REG"), 1)));
+
+    // Other argument types or values make a different query.
+    Assert.assertNull(cache.get(newQueryKey(newContext(5, "IMM"), 1)));
+    Assert.assertNull(cache.get(newQueryKey(newContext(5, "REG"), 2)));
+
+    // The same query against a retranslated model with another path formula.
+    final String otherDigest = QueryCache.getFormulaDigest(
+        Collections.singletonList(Nodes.eq(
+            new NodeVariable("add.rd!1", DataType.bitVector(8)),
+            Nodes.bvadd(
+                new NodeVariable("add.rs!1", DataType.bitVector(8)),
+                NodeValue.newBitVector(BitVector.valueOf(1, 8)))
+            ))
+        );
+
+    Assert.assertFalse(FORMULA_DIGEST.equals(otherDigest));
+    Assert.assertNull(cache.get(newQueryKey(newContext(5, "REG"), otherDigest, 1)));
+
+    cache.save(file.getPath());
+
+    final QueryCache loaded = new QueryCache(QueryCache.Policy.ALL, 16);
+    loaded.load(file.getPath());
+
+    final SolverResult result = loaded.get(newQueryKey(newContext(7, "REG"), 1));
+    Assert.assertNotNull(result);
+    Assert.assertEquals(SolverResult.Status.UNSAT, result.getStatus());
+    Assert.assertEquals(1, loaded.getHits());
+  }
+}
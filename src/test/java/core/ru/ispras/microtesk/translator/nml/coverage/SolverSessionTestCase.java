@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.coverage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class SolverSessionTestCase {
+  @Test
+  public void testSplitExpressions() {
+    final String text =
+        "; comment (with parentheses\n"
+        + "(set-logic QF_BV)\n"
+        + "(declare-const |a.b!1| (_ BitVec 8))\n"
+        + "(assert (= |a.b!1| #x1f)) (check-sat)\n"
+        + "(echo \"text (\")\n";
+
+    Assert.assertEquals(
+        Arrays.asList(
+            "(set-logic QF_BV)",
+            "(declare-const |a.b!1| (_ BitVec 8))",
+            "(assert (= |a.b!1| #x1f))",
+            "(check-sat)",
+            "(echo \"text (\")"
+            ),
+        SolverSession.splitExpressions(text)
+        );
+  }
+
+  @Test
+  public void testParse() {
+    final Object value = SolverSession.parse("((x #b0101) (y (_ bv5 8))\n (z (- 3)))");
+    Assert.assertTrue(value instanceof List);
+
+    Assert.assertEquals(
+        Arrays.asList(
+            Arrays.asList("x", "#b0101"),
+            Arrays.asList("y", Arrays.asList("_", "bv5", "8")),
+            Arrays.asList("z", Arrays.asList("-", "3"))
+            ),
+        value
+        );
+
+    Assert.assertEquals("sat", SolverSession.parse("sat"));
+  }
+}
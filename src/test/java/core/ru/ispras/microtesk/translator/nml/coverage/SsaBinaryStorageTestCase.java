@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.translator.nml.coverage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.DataType;
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+import ru.ispras.fortress.expression.Node;
+import ru.ispras.fortress.expression.NodeOperation;
+import ru.ispras.fortress.expression.NodeValue;
+import ru.ispras.fortress.expression.NodeVariable;
+import ru.ispras.fortress.expression.StandardOperation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public final class SsaBinaryStorageTestCase {
+  private static NodeVariable newVariable(final String name, final int version) {
+    final NodeVariable variable = new NodeVariable(name, DataType.bitVector(8));
+    variable.setUserData(version);
+    return variable;
+  }
+
+  private static Block newBlock(final Node value) {
+    final Block.Builder builder = new Block.Builder();
+    builder.add(new NodeOperation(StandardOperation.EQ, newVariable("x", 2), value));
+    return builder.build();
+  }
+
+  private static final SsaBinaryStorage.Fallback NO_FALLBACK = new SsaBinaryStorage.Fallback() {
+    @Override
+    public Map<String, SsaForm> load() {
+      throw new AssertionError("Unexpected fallback");
+    }
+  };
+
+  @Test
+  public void testStoreLoad() throws IOException {
+    final Block entry = newBlock(NodeValue.newBitVector(BitVector.valueOf(5, 8)));
+    final Block left = newBlock(NodeValue.newBitVector(BitVector.valueOf(6, 8)));
+    final Block right = newBlock(newVariable("y", 1));
+
+    final NodeVariable guard = new NodeVariable("g", DataType.BOOLEAN);
+    entry.setChildren(Arrays.asList(
+        new GuardedBlock("test.left", guard, left),
+        new GuardedBlock("test.right", new NodeOperation(StandardOperation.NOT, guard), right)
+        ));
+
+    final SsaForm form = new SsaForm(entry, right, Arrays.asList(entry, left, right));
+
+    final File file = File.createTempFile("model", ".ssa");
+    file.deleteOnExit();
+
+    SsaBinaryStorage.store(file.toPath(), Collections.singletonMap("test", form));
+    final Map<String, SsaForm> loaded = SsaBinaryStorage.load(file.toPath(), NO_FALLBACK);
+
+    Assert.assertEquals(1, loaded.size());
+    Assert.assertTrue(loaded.containsKey("test"));
+    Assert.assertNull(loaded.get("unknown"));
+
+    final Block loadedEntry = loaded.get("test").getEntryPoint();
+    Assert.assertEquals(toString(entry), toString(loadedEntry));
+
+    final List<GuardedBlock> children = loadedEntry.getChildren();
+    Assert.assertEquals(2, children.size());
+
+    Assert.assertEquals("test.left", children.get(0).name);
+    Assert.assertEquals(guard.toString(), children.get(0).guard.toString());
+    Assert.assertEquals(toString(left), toString(children.get(0).block));
+
+    Assert.assertEquals("test.right", children.get(1).name);
+    Assert.assertEquals(toString(right), toString(children.get(1).block));
+
+    final NodeOperation statement = loadedEntry.getStatements().get(0);
+    Assert.assertEquals(2, statement.getOperand(0).getUserData());
+  }
+
+  @Test
+  public void testCorruptedSection() throws IOException {
+    final SsaForm form = newForm(NodeValue.newBitVector(BitVector.valueOf(5, 8)));
+    final SsaForm xmlForm = newForm(NodeValue.newBitVector(BitVector.valueOf(6, 8)));
+
+    final File file = File.createTempFile("model", ".ssa");
+    file.deleteOnExit();
+
+    SsaBinaryStorage.store(file.toPath(), Collections.singletonMap("test", form));
+
+    // Replaces the name of the first constraint with a reference to a missing string:
+    // header (12 bytes), index entry (4 + 4 + 8 bytes), constraint count (4 bytes).
+    try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(32);
+      raf.writeInt(1000);
+    }
+
+    final int[] fallbackCount = new int[1];
+    final Map<String, SsaForm> loaded = SsaBinaryStorage.load(
+        file.toPath(), new SsaBinaryStorage.Fallback() {
+          @Override
+          public Map<String, SsaForm> load() {
+            fallbackCount[0]++;
+            return Collections.singletonMap("test", xmlForm);
+          }
+        });
+
+    Assert.assertSame(xmlForm, loaded.get("test"));
+    Assert.assertSame(xmlForm, loaded.get("test"));
+    Assert.assertEquals(1, fallbackCount[0]);
+  }
+
+  private static SsaForm newForm(final Node value) {
+    final Block entry = newBlock(value);
+    return new SsaForm(entry, entry, Collections.singletonList(entry));
+  }
+
+  private static String toString(final Block block) {
+    return block.getStatements().toString();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public final class BinaryReaderTestCase {
+  @Test
+  public void testEndianness() throws IOException {
+    final byte[] bytes = {0x78, 0x56, 0x34, 0x12};
+
+    Assert.assertEquals(BitVector.valueOf(0x12345678, 32), readAll(bytes, false, 4)[0]);
+    Assert.assertEquals(BitVector.valueOf(0x78563412, 32), readAll(bytes, true, 4)[0]);
+  }
+
+  @Test
+  public void testPadding() throws IOException {
+    final byte[] bytes = {0x01, 0x02, 0x03, 0x04, 0x05, 0x06};
+    final BitVector[] data = readAll(bytes, false, 4);
+
+    Assert.assertEquals(2, data.length);
+    Assert.assertEquals(BitVector.valueOf(0x0605, 32), data[1]);
+  }
+
+  @Test
+  public void testWideData() throws IOException {
+    final byte[] bytes = new byte[16];
+    for (int index = 0; index < bytes.length; ++index) {
+      bytes[index] = (byte) index;
+    }
+
+    final BitVector data = readAll(bytes, false, 16)[0];
+    Assert.assertEquals(128, data.getBitSize());
+
+    for (int index = 0; index < bytes.length; ++index) {
+      Assert.assertEquals(bytes[index], data.getByte(index));
+    }
+  }
+
+  @Test
+  public void testRetreat() throws IOException {
+    // Reading 4 bytes and stepping 2 bytes back crosses all former 1 KB buffer boundaries.
+    final byte[] bytes = new byte[4096];
+    for (int index = 0; index < bytes.length; ++index) {
+      bytes[index] = (byte) (index / 2);
+    }
+
+    final File file = newFile(bytes);
+    try {
+      final BinaryReader reader = new BinaryReader(file, false);
+      try {
+        for (int index = 0; index < bytes.length / 2 - 1; ++index) {
+          final BitVector data = reader.read(4);
+          final int expected = (index & 0xff) * 0x0101 + ((index + 1) & 0xff) * 0x01010000;
+
+          Assert.assertEquals(BitVector.valueOf(expected, 32), data);
+          reader.retreat(2);
+        }
+      } finally {
+        reader.close();
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static BitVector[] readAll(
+      final byte[] bytes,
+      final boolean bigEndian,
+      final int byteSize) throws IOException {
+    final File file = newFile(bytes);
+    try {
+      final BinaryReader reader = new BinaryReader(file, bigEndian);
+      try {
+        final BitVector[] result = new BitVector[(bytes.length + byteSize - 1) / byteSize];
+        for (int index = 0; index < result.length; ++index) {
+          result[index] = reader.read(byteSize);
+        }
+
+        Assert.assertNull(reader.read(byteSize));
+        return result;
+      } finally {
+        reader.close();
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static File newFile(final byte[] bytes) throws IOException {
+    final File file = File.createTempFile("microtesk", ".bin");
+    Files.write(file.toPath(), bytes);
+    return file;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public final class BinaryWriterTestCase {
+  @Test
+  public void testEndianness() throws IOException {
+    Assert.assertArrayEquals(
+        new byte[] {0x78, 0x56, 0x34, 0x12, 0x0f},
+        write(false, BitVector.valueOf(0x12345678, 32), BitVector.valueOf("00001111")));
+
+    Assert.assertArrayEquals(
+        new byte[] {0x12, 0x34, 0x56, 0x78, 0x0f},
+        write(true, BitVector.valueOf(0x12345678, 32), BitVector.valueOf("00001111")));
+  }
+
+  @Test
+  public void testLargeOutput() throws IOException {
+    // Exceeds the buffer size to check flushing.
+    final int count = 300000;
+    final BitVector[] data = new BitVector[count];
+
+    for (int index = 0; index < count; ++index) {
+      data[index] = BitVector.valueOf(index, 32);
+    }
+
+    final byte[] bytes = write(false, data);
+    Assert.assertEquals(4 * count, bytes.length);
+
+    for (int index = 0; index < count; ++index) {
+      final int value = (bytes[4 * index] & 0xff)
+          | (bytes[4 * index + 1] & 0xff) << 8
+          | (bytes[4 * index + 2] & 0xff) << 16
+          | (bytes[4 * index + 3] & 0xff) << 24;
+
+      Assert.assertEquals(index, value);
+    }
+  }
+
+  private static byte[] write(final boolean bigEndian, final BitVector... data)
+      throws IOException {
+    final File file = File.createTempFile("microtesk", ".bin");
+    try {
+      final BinaryWriter writer = new BinaryWriter(file, bigEndian);
+      for (final BitVector item : data) {
+        writer.write(item);
+      }
+      writer.close();
+
+      return Files.readAllBytes(file.toPath());
+    } finally {
+      file.delete();
+    }
+  }
+}
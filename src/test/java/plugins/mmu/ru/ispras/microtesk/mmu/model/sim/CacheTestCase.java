@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.mmu.model.sim;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.data.types.bitvector.BitVector;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public final class CacheTestCase {
+  private static final int SETS = 64;
+  private static final int WAYS = 4;
+
+  private static final class TestAddress implements Address {
+    private final BitVector value = BitVector.newEmpty(32);
+
+    @Override
+    public BitVector getValue() {
+      return value;
+    }
+  }
+
+  private static final class TestEntry implements Data {
+    private final BitVector tag = BitVector.newEmpty(26);
+
+    @Override
+    public BitVector asBitVector() {
+      return tag;
+    }
+  }
+
+  private static final Indexer<TestAddress> INDEXER = new Indexer<TestAddress>() {
+    @Override
+    public BitVector getIndex(final TestAddress address) {
+      return address.value.field(0, 5);
+    }
+  };
+
+  private static final Matcher<TestEntry, TestAddress> MATCHER =
+      new Matcher<TestEntry, TestAddress>() {
+        @Override
+        public boolean areMatching(final TestEntry data, final TestAddress address) {
+          return address.value.field(6, 31).equals(data.tag);
+        }
+      };
+
+  private static final TagMatcher<TestEntry, TestAddress> TAG_MATCHER =
+      new TagMatcher<TestEntry, TestAddress>() {
+        @Override
+        public boolean areMatching(final TestEntry data, final TestAddress address) {
+          return MATCHER.areMatching(data, address);
+        }
+
+        @Override
+        public long getAddressTag(final TestAddress address) {
+          return address.value.field(6, 31).longValue();
+        }
+
+        @Override
+        public long getDataTag(final TestEntry data) {
+          return data.tag.longValue();
+        }
+      };
+
+  private static final class TestCache extends Cache<TestEntry, TestAddress> {
+    private TestCache(final Matcher<TestEntry, TestAddress> matcher) {
+      super(BigInteger.valueOf(SETS), WAYS, PolicyId.LRU, INDEXER, matcher);
+    }
+
+    @Override
+    protected TestAddress newAddress() {
+      return new TestAddress();
+    }
+
+    @Override
+    protected TestEntry newData(final BitVector value) {
+      final TestEntry entry = new TestEntry();
+      entry.tag.assign(value);
+      return entry;
+    }
+  }
+
+  @Test
+  public void testTagMatching() {
+    final TestCache cache = new TestCache(MATCHER);
+    final TestCache tagCache = new TestCache(TAG_MATCHER);
+    final Random random = new Random(0);
+
+    for (int index = 0; index < 100000; ++index) {
+      // Addresses are selected from a small range to get both hits and misses.
+      final long value = random.nextInt(SETS * WAYS * 4) * 17L;
+      final TestAddress address = new TestAddress();
+      address.value.assign(BitVector.valueOf(value, 32));
+
+      final boolean isHit = cache.isHit(address);
+      Assert.assertEquals(isHit, tagCache.isHit(address));
+
+      if (isHit) {
+        Assert.assertEquals(
+            cache.getData(address).asBitVector(), tagCache.getData(address).asBitVector());
+      } else {
+        final TestEntry entry = new TestEntry();
+        entry.tag.assign(address.value.field(6, 31));
+
+        cache.setData(address, entry);
+        tagCache.setData(address, entry);
+      }
+    }
+
+    Assert.assertEquals(cache.getStatistics().toMap(), tagCache.getStatistics().toMap());
+  }
+
+  @Test
+  public void testInPlaceUpdate() {
+    final TestCache tagCache = new TestCache(TAG_MATCHER);
+
+    final TestAddress address = newAddress(0, 1);
+    final TestAddress other = newAddress(0, 2);
+
+    tagCache.setData(address, newEntry(address));
+
+    // The line is retagged in place via the reference returned by the cache.
+    tagCache.getData(address).tag.assign(other.value.field(6, 31));
+
+    Assert.assertFalse(tagCache.isHit(address));
+    Assert.assertTrue(tagCache.isHit(other));
+  }
+
+  @Test
+  public void testStatistics() {
+    final TestCache cache = new TestCache(MATCHER);
+
+    final TestAddress address = newAddress(0, 1);
+    Assert.assertFalse(cache.isHit(address));
+    cache.setData(address, newEntry(address));
+    Assert.assertTrue(cache.isHit(address));
+    cache.getData(address);
+
+    // Lookups via the observer interface are not counted.
+    Assert.assertTrue(cache.isHit(address.getValue()));
+
+    final BufferStatistics snapshot = cache.getStatistics().snapshot();
+
+    // Fills the set and replaces one of the lines.
+    for (int tag = 2; tag < WAYS + 2; ++tag) {
+      final TestAddress other = newAddress(0, tag);
+      Assert.assertFalse(cache.isHit(other));
+      cache.setData(other, newEntry(other));
+    }
+
+    final BufferStatistics statistics = cache.getStatistics();
+    Assert.assertEquals(1, statistics.getHits());
+    Assert.assertEquals(WAYS + 1, statistics.getMisses());
+    Assert.assertEquals(1, statistics.getReads());
+    Assert.assertEquals(WAYS + 1, statistics.getWrites());
+    Assert.assertEquals(1, statistics.getEvictions());
+
+    Assert.assertEquals(1, snapshot.getMisses());
+    Assert.assertEquals(0, snapshot.getEvictions());
+  }
+
+  @Test
+  public void testStatisticsTempState() {
+    final TestCache cache = new TestCache(MATCHER);
+
+    final TestAddress address = newAddress(0, 1);
+    cache.setData(address, newEntry(address));
+    Assert.assertTrue(cache.isHit(address));
+
+    // Accesses to the temporary state (e.g. during presimulation) are not counted.
+    cache.setUseTempState(true);
+    Assert.assertFalse(cache.isHit(address));
+    cache.setData(address, newEntry(address));
+    cache.getData(address);
+    cache.setUseTempState(false);
+
+    Assert.assertTrue(cache.isHit(address));
+
+    final BufferStatistics statistics = cache.getStatistics();
+    Assert.assertEquals(2, statistics.getHits());
+    Assert.assertEquals(0, statistics.getMisses());
+    Assert.assertEquals(0, statistics.getReads());
+    Assert.assertEquals(1, statistics.getWrites());
+  }
+
+  private static TestAddress newAddress(final int set, final int tag) {
+    final TestAddress address = new TestAddress();
+    address.value.assign(BitVector.valueOf(((long) tag << 6) | set, 32));
+    return address;
+  }
+
+  private static TestEntry newEntry(final TestAddress address) {
+    final TestEntry entry = new TestEntry();
+    entry.tag.assign(address.value.field(6, 31));
+    return entry;
+  }
+}
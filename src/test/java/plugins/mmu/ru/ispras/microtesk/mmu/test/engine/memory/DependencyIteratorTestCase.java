@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 ISP RAS (http://www.ispras.ru)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.ispras.microtesk.mmu.test.engine.memory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.ispras.fortress.randomizer.Randomizer;
+import ru.ispras.microtesk.mmu.MmuPlugin;
+import ru.ispras.microtesk.mmu.basis.MemoryAccessType;
+import ru.ispras.microtesk.mmu.basis.MemoryDataType;
+import ru.ispras.microtesk.mmu.model.spec.MmuSubsystem;
+import ru.ispras.microtesk.mmu.test.engine.MmuUnderTest;
+import ru.ispras.microtesk.mmu.test.template.AccessConstraints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public final class DependencyIteratorTestCase {
+  private static final long SEED = 0;
+  private static final int ACCESS_PAIRS = 16;
+  private static final int RECURSION_LIMIT = 1;
+  private static final int THREADS = 4;
+
+  private static List<Access> getAccesses(final MmuSubsystem memory) {
+    Randomizer.get().setSeed(SEED);
+
+    final AccessChooser chooser = CoverageExtractor.get().getPathChooser(
+        memory,
+        GraphAbstraction.BUFFER_ACCESS,
+        MemoryAccessType.LOAD(MemoryDataType.WORD),
+        AccessConstraints.EMPTY,
+        RECURSION_LIMIT,
+        true);
+
+    final List<Access> accesses = new ArrayList<>();
+    for (int i = 0; i < 2 * ACCESS_PAIRS; i++) {
+      final Access access = chooser.get();
+      if (access == null) {
+        break;
+      }
+      accesses.add(access);
+    }
+
+    return accesses;
+  }
+
+  private static List<String> getDependencies(
+      final List<Access> accesses,
+      final ForkJoinPool pool) {
+    final List<String> dependencies = new ArrayList<>();
+
+    for (int i = 0; i + 1 < accesses.size(); i += 2) {
+      final DependencyIterator iterator =
+          new DependencyIteratorExhaustive(accesses.get(i), accesses.get(i + 1), pool);
+
+      for (iterator.init(); iterator.hasValue(); iterator.next()) {
+        dependencies.add(String.format("%d: %s", i, iterator.value()));
+      }
+    }
+
+    return dependencies;
+  }
+
+  @Test
+  public void testThreads() {
+    final MmuSubsystem memory = MmuUnderTest.get().mmu;
+    MmuPlugin.setSpecification(memory);
+
+    final List<Access> accesses = getAccesses(memory);
+    Assert.assertFalse(accesses.isEmpty());
+
+    final List<String> expected = getDependencies(accesses, null);
+
+    final ForkJoinPool pool = new ForkJoinPool(THREADS);
+    try {
+      // The same dependencies are found in the same order whatever the number of threads.
+      Assert.assertEquals(expected, getDependencies(accesses, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+}